@@ -0,0 +1,65 @@
+package com.example.tollcalculator;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Vehicle;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TollCalculator#getTollFee(Vehicle, Date...)} against converting its {@link Date} passes to
+ * {@link LocalDateTime}s alone, as the calculator did before it resolved them to seconds of day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TollCalculatorBenchmark {
+  private static final ZoneId ZONE = ZoneId.systemDefault();
+
+  @Param({"1", "10", "100", "10000"})
+  public int passCount;
+
+  private final TollCalculator tollCalculator = new TollCalculator();
+  private final Vehicle privateCar = new PrivateCar();
+  private Date[] passes;
+
+  @Setup
+  public void setUp() {
+    passes = new Date[passCount];
+    for (int i = 0; i < passCount; i++) {
+      passes[i] = new GregorianCalendar(2023, 4, 10, 6 + i % 13, i % 60, i % 60).getTime();
+    }
+  }
+
+  @Benchmark
+  public List<LocalDateTime> convertDates() {
+    final List<LocalDateTime> converted = new ArrayList<>(passes.length);
+    for (final Date pass : passes) {
+      converted.add(LocalDateTime.ofInstant(pass.toInstant(), ZONE));
+    }
+    return converted;
+  }
+
+  @Benchmark
+  public int getTollFee() {
+    return tollCalculator.getTollFee(privateCar, passes);
+  }
+}
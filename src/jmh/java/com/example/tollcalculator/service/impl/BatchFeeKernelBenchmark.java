@@ -0,0 +1,80 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.RateTable;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scalar and the vectorized {@link BatchFeeKernel} on 10,000 private car vehicle-days of one
+ * weekday, e.g. {@code ./gradlew jmh -PjmhIncludes=BatchFeeKernelBenchmark}. The forks are started with
+ * {@code --add-modules jdk.incubator.vector}; the vectorized kernel fails the trial if it cannot be loaded, so
+ * the scalar kernel is never measured twice. On AVX2 hardware the vectorized kernel evaluates eight
+ * vehicle-days per instruction, with AVX-512 sixteen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchFeeKernelBenchmark {
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final int DAY_COUNT = 10_000;
+  private static final int FIRST_PASS = 6 * 3600;
+  private static final int LAST_PASS = 19 * 3600;
+
+  @Param({"scalar", "vectorized"})
+  public String kernel;
+
+  /**
+   * The largest number of passes of a vehicle-day; every day has between one and this many passes.
+   */
+  @Param({"4", "16"})
+  public int maxPassesPerDay;
+
+  private BatchFeeKernel batchKernel;
+  private RateTable rateTable;
+  private int[] secondsOfDay;
+  private int[] dayStarts;
+  private long[] feesInOre;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    batchKernel = "vectorized".equals(kernel) ? BatchFeeKernel.vectorized() : BatchFeeKernel.scalar();
+    final TollConfiguration config = new ConfigurationManager(TollConfiguration::fromResources).current();
+    rateTable = config.rateTableFor(config.getVehicleClasses().codeOf("PrivateCar"), WEDNESDAY);
+    final Random random = new Random(42);
+    dayStarts = new int[DAY_COUNT + 1];
+    final int[][] days = new int[DAY_COUNT][];
+    for (int day = 0; day < DAY_COUNT; day++) {
+      days[day] = random.ints(1 + random.nextInt(maxPassesPerDay), FIRST_PASS, LAST_PASS).sorted().toArray();
+      dayStarts[day + 1] = dayStarts[day] + days[day].length;
+    }
+    secondsOfDay = new int[dayStarts[DAY_COUNT]];
+    for (int day = 0; day < DAY_COUNT; day++) {
+      System.arraycopy(days[day], 0, secondsOfDay, dayStarts[day], days[day].length);
+    }
+    feesInOre = new long[DAY_COUNT];
+  }
+
+  @Benchmark
+  public long[] calculateTollsInOre() {
+    batchKernel.calculateTollsInOre(rateTable, secondsOfDay, dayStarts, DAY_COUNT, feesInOre);
+    return feesInOre;
+  }
+}
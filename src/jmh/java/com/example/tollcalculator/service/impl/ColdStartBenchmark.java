@@ -0,0 +1,35 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cold start of the services: every fork is a fresh JVM, so the single measured invocation
+ * includes class loading and reading the rate and holiday configuration before the first toll is calculated.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+
+  @Benchmark
+  public double firstTollCalculation() {
+    final TollService tollService = new TollServiceImpl();
+    final List<LocalDateTime> passes = new ArrayList<>();
+    passes.add(LocalDateTime.of(2023, 5, 10, 7, 15, 0));
+    return tollService.calculateTollForPassesOfSameDay(new PrivateCar(), passes);
+  }
+}
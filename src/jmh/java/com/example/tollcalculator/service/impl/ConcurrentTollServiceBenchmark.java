@@ -0,0 +1,49 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of one shared {@link TollServiceImpl} with a single thread and with as many threads
+ * as there are processors. As calculations share nothing but immutable snapshots, the throughput should scale
+ * with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentTollServiceBenchmark {
+  private final TollService tollService = TollServiceImpl.getDefault();
+  private final Vehicle privateCar = new PrivateCar();
+  private final List<LocalDateTime> passes = List.of(
+      LocalDateTime.of(2023, 5, 10, 17, 5), LocalDateTime.of(2023, 5, 10, 6, 15),
+      LocalDateTime.of(2023, 5, 10, 7, 45), LocalDateTime.of(2023, 5, 10, 15, 30));
+
+  @Benchmark
+  @Threads(1)
+  public double singleThread() {
+    return tollService.calculateTollForPassesOfSameDay(privateCar, passes);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public double allProcessors() {
+    return tollService.calculateTollForPassesOfSameDay(privateCar, passes);
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.service.FeeService;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the toll rate lookup of {@link FeeServiceImpl} for every minute of the day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FeeServiceBenchmark {
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  private FeeService feeService;
+  private LocalTime[] times;
+  private int[] secondsOfDay;
+
+  @Setup
+  public void setUp() {
+    feeService = new FeeServiceImpl();
+    times = new LocalTime[MINUTES_PER_DAY];
+    secondsOfDay = new int[MINUTES_PER_DAY];
+    for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+      secondsOfDay[minute] = minute * 60 + 30;
+      times[minute] = LocalTime.ofSecondOfDay(secondsOfDay[minute]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MINUTES_PER_DAY)
+  public void getTollRateAcrossTheDay(final Blackhole blackhole) {
+    for (final LocalTime time : times) {
+      blackhole.consume(feeService.getTollRate(time));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MINUTES_PER_DAY)
+  public void getTollRateBySecondOfDayAcrossTheDay(final Blackhole blackhole) {
+    for (final int secondOfDay : secondsOfDay) {
+      blackhole.consume(feeService.getTollRate(secondOfDay));
+    }
+  }
+}
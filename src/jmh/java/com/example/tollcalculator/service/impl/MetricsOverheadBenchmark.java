@@ -0,0 +1,62 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.metrics.InMemoryTollMetrics;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the primitive same-day calculation without metrics, with the no-op metrics and with the in-memory
+ * metrics, to keep the cost of disabled metrics in check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsOverheadBenchmark {
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+
+  @Param({"none", "noop", "inMemory"})
+  public String metrics;
+
+  private final Vehicle privateCar = new PrivateCar();
+  private final int[] secondsOfDay = {6 * 3600, 7 * 3600 + 1800, 9 * 3600, 12 * 3600, 15 * 3600 + 900};
+  private TollService tollService;
+
+  @Setup
+  public void setUp() {
+    final ConfigurationManager configuration = ConfigurationManager.getDefault();
+    switch (metrics) {
+      case "noop":
+        tollService = new TollServiceImpl(configuration, TollMetrics.noop());
+        break;
+      case "inMemory":
+        tollService = new TollServiceImpl(configuration, new InMemoryTollMetrics());
+        break;
+      default:
+        tollService = new TollServiceImpl(configuration);
+    }
+  }
+
+  @Benchmark
+  public double calculateTollForSecondsOfDay() {
+    return tollService.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, secondsOfDay);
+  }
+}
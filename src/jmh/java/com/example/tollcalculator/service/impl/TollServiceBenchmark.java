@@ -0,0 +1,70 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TollService#calculateTollForPassesOfSameDay} for a growing number of passes of one day.
+ * The passes are spread evenly between 06:00 and 09:00, three hourly windows costing at most 49 kronor, so the
+ * daily cap is never reached and every pass is calculated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TollServiceBenchmark {
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final int FIRST_PASS = 6 * 3600;
+  private static final int LAST_PASS = 9 * 3600;
+
+  @Param({"1", "10", "100", "10000"})
+  public int passCount;
+
+  private final TollService tollService = new TollServiceImpl();
+  private final Vehicle privateCar = new PrivateCar();
+  private int[] secondsOfDay;
+  private List<LocalDateTime> passes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    secondsOfDay = new int[passCount];
+    for (int i = 0; i < passCount; i++) {
+      secondsOfDay[i] = FIRST_PASS + (int) ((long) (LAST_PASS - FIRST_PASS) * i / passCount);
+    }
+    // the list based variant leaves its input unsorted, so one list serves every invocation
+    passes = new ArrayList<>(passCount);
+    for (final int secondOfDay : secondsOfDay) {
+      passes.add(WEDNESDAY.atStartOfDay().plusSeconds(secondOfDay));
+    }
+  }
+
+  @Benchmark
+  public double calculateTollForPassesOfSameDay() {
+    return tollService.calculateTollForPassesOfSameDay(privateCar, passes);
+  }
+
+  @Benchmark
+  public double calculateTollForSecondsOfDay() {
+    return tollService.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, secondsOfDay);
+  }
+}
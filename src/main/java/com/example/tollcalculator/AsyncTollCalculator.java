@@ -0,0 +1,235 @@
+package com.example.tollcalculator;
+
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * An asynchronous facade over {@link TollCalculator} and {@link TollService} for servers with many concurrent
+ * callers. Every request runs as its own task and returns a {@link CompletableFuture}, which is completed
+ * exceptionally instead of throwing, so requests compose with non-blocking code.
+ * <p>
+ * Requests run on virtual threads when the JDK provides them, so a request may block, e.g. to load its passes
+ * from a slow store, without tying up a platform thread; on older JDKs they run on a cached thread pool or on
+ * a given executor. At most a configured number of requests are in flight at once; further requests fail
+ * immediately with a {@link RejectedExecutionException}. A request that takes longer than the configured
+ * timeout fails with a {@link TimeoutException} and its task is interrupted, or never started if it is still
+ * queued; either way it no longer counts as in flight.
+ */
+public class AsyncTollCalculator implements AutoCloseable {
+  /**
+   * The default maximum number of requests in flight.
+   */
+  public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+  /**
+   * The default time a request may take.
+   */
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+  /**
+   * The calculator the {@code Date} based requests are answered by.
+   */
+  private final TollCalculator tollCalculator;
+  /**
+   * The toll service the pass based requests are answered by.
+   */
+  private final TollService tollService;
+  /**
+   * The executor the requests run on.
+   */
+  private final ExecutorService executor;
+  /**
+   * Whether the executor was created by this facade and is shut down with it.
+   */
+  private final boolean ownsExecutor;
+  /**
+   * The permits of the requests in flight.
+   */
+  private final Semaphore inFlight;
+  /**
+   * The maximum number of requests in flight.
+   */
+  private final int maxInFlight;
+  /**
+   * The time a request may take, in nanoseconds.
+   */
+  private final long timeoutNanos;
+
+  /**
+   * Creates a facade with the default limits that runs on virtual threads if the JDK provides them.
+   */
+  public AsyncTollCalculator() {
+    this(new TollCalculator(), TollServiceImpl.getDefault(), newDefaultExecutor(),
+        true, DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Creates a facade that runs on the given executor, which is not shut down when the facade is closed.
+   *
+   * @param tollCalculator the calculator the {@code Date} based requests are answered by
+   * @param tollService    the toll service the pass based requests are answered by
+   * @param executor       the executor the requests run on
+   * @param maxInFlight    the maximum number of requests in flight
+   * @param timeout        the time a request may take
+   * @throws IllegalArgumentException if the maximum number of requests or the timeout is not positive
+   */
+  public AsyncTollCalculator(final TollCalculator tollCalculator, final TollService tollService,
+                             final ExecutorService executor, final int maxInFlight, final Duration timeout) {
+    this(tollCalculator, tollService, executor, false, maxInFlight, timeout);
+  }
+
+  private AsyncTollCalculator(final TollCalculator tollCalculator, final TollService tollService,
+                              final ExecutorService executor, final boolean ownsExecutor,
+                              final int maxInFlight, final Duration timeout) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("Maximum requests in flight must be positive");
+    }
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("Timeout must be positive");
+    }
+    this.tollCalculator = tollCalculator;
+    this.tollService = tollService;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.maxInFlight = maxInFlight;
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  /**
+   * Calculates the total toll fee for a given vehicle and set of vehicle passes of the same day.
+   *
+   * @param vehicle the vehicle for which to calculate the toll fee
+   * @param passes  the times on which the vehicle passed through a toll station
+   * @return the total toll fee for that day, or a future failed with the error of the calculation
+   * @see TollCalculator#getTollFee(Vehicle, Date...)
+   */
+  public CompletableFuture<Integer> getTollFee(final Vehicle vehicle, final Date... passes) {
+    final Date[] copy = passes.clone();
+    return submit(() -> tollCalculator.getTollFee(vehicle, copy));
+  }
+
+  /**
+   * Calculates the total toll for passes of the same day.
+   *
+   * @param vehicle        the vehicle for which to calculate the toll
+   * @param passTimestamps the times of the passes
+   * @return the total toll for the passes, or a future failed with the error of the calculation
+   */
+  public CompletableFuture<Double> calculateToll(final Vehicle vehicle, final List<LocalDateTime> passTimestamps) {
+    final List<LocalDateTime> copy = new ArrayList<>(passTimestamps);
+    return submit(() -> tollService.calculateTollForPassesOfSameDay(vehicle, copy));
+  }
+
+  /**
+   * Loads the passes of a vehicle on one day and calculates their total toll, in the same task. The loader may
+   * block; the time it takes counts towards the timeout of the request.
+   *
+   * @param vehicle the vehicle for which to calculate the toll
+   * @param passes  loads the times of the passes of the same day
+   * @return the total toll for the passes, or a future failed with the error of the loader or the calculation
+   */
+  public CompletableFuture<Double> calculateToll(final Vehicle vehicle,
+                                                 final Supplier<List<LocalDateTime>> passes) {
+    return submit(() -> tollService.calculateTollForPassesOfSameDay(vehicle, passes.get()));
+  }
+
+  /**
+   * Returns the number of requests in flight.
+   *
+   * @return the number of submitted requests that have not finished yet
+   */
+  public int getInFlightCount() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  /**
+   * Shuts down the executor if this facade created it. Requests in flight are completed.
+   */
+  @Override
+  public void close() {
+    if (ownsExecutor) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Runs a request on the executor if the number of requests in flight allows it.
+   *
+   * @param request the request
+   * @param <T>     the type of the result
+   * @return the result of the request
+   */
+  private <T> CompletableFuture<T> submit(final Callable<T> request) {
+    if (!inFlight.tryAcquire()) {
+      return CompletableFuture.failedFuture(new RejectedExecutionException(
+          "More than " + maxInFlight + " toll requests in flight"));
+    }
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    // whichever of the task and the timeout claims the request first decides who gives the permit back: a task
+    // that started keeps it until it ends, even if it ignores the interrupt, and a task cancelled while still
+    // queued never runs, so the timeout gives it back
+    final AtomicBoolean started = new AtomicBoolean();
+    final Future<?> task;
+    try {
+      task = executor.submit(() -> {
+        if (!started.compareAndSet(false, true)) {
+          return;
+        }
+        try {
+          result.complete(request.call());
+        } catch (Throwable e) {
+          result.completeExceptionally(e);
+        } finally {
+          inFlight.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.release();
+      return CompletableFuture.failedFuture(e);
+    }
+    result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+      if (error instanceof TimeoutException) {
+        task.cancel(true);
+        if (started.compareAndSet(false, true)) {
+          inFlight.release();
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Creates an executor that starts a virtual thread per task if the JDK provides virtual threads, and a
+   * cached pool of daemon threads otherwise. The virtual thread executor is looked up reflectively, so the
+   * library still runs on JDKs before 21.
+   *
+   * @return the executor
+   */
+  static ExecutorService newDefaultExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "toll-request");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+}
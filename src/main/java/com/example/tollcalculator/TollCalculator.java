@@ -1,60 +1,159 @@
 package com.example.tollcalculator;
 
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Money;
 import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.BulkTollService;
 import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.BulkTollServiceImpl;
 import com.example.tollcalculator.service.impl.TollServiceImpl;
-import java.time.LocalDateTime;
+import com.example.tollcalculator.time.PassTimeResolver;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * The TollCalculator class calculates toll fees for a given vehicle and a set of dates representing time of
  * vehicle passing through toll station for the same day.
  * The toll fees are calculated using the TollService implementation provided in the class.
+ * A TollCalculator is thread-safe and never modifies the passes it is given, so one instance can serve all
+ * request threads.
  */
 public class TollCalculator {
   /**
    * The TollService implementation used for calculating toll fees.
    */
-  private final TollService tollService = new TollServiceImpl();
+  private final TollService tollService;
+  /**
+   * The BulkTollService implementation used for calculating toll fees of many vehicles and days at once.
+   */
+  private final BulkTollService bulkTollService;
+  /**
+   * The metrics every toll fee request is reported to.
+   */
+  private final TollMetrics metrics;
+  /**
+   * Resolves the passes to the local day and nanosecond of day in the time zone of the calculator.
+   */
+  private final PassTimeResolver timeResolver;
+
+  /**
+   * Creates a toll calculator on the shared default toll service without metrics, that resolves passes in the
+   * default time zone of the host.
+   */
+  public TollCalculator() {
+    this(TollServiceImpl.getDefault(), TollMetrics.noop());
+  }
+
+  /**
+   * Creates a toll calculator on the default configuration that reports every request, calculation and
+   * lookup to the given metrics, and resolves passes in the default time zone of the host.
+   *
+   * @param metrics the metrics to report to
+   */
+  public TollCalculator(final TollMetrics metrics) {
+    this(new TollServiceImpl(ConfigurationManager.getDefault(), metrics), metrics);
+  }
+
+  /**
+   * Creates a toll calculator on the given toll service, which may be shared with other callers, that resolves
+   * passes in the default time zone of the host.
+   *
+   * @param tollService the toll service used for calculating toll fees
+   * @param metrics     the metrics every toll fee request is reported to
+   */
+  public TollCalculator(final TollService tollService, final TollMetrics metrics) {
+    this(tollService, metrics, ZoneId.systemDefault());
+  }
 
   /**
-   * Calculates the total toll fee for a given vehicle and set of vehicle passes of the same day.
+   * Creates a toll calculator on the given toll service that resolves passes in the given time zone, e.g.
+   * {@link PassTimeResolver#STOCKHOLM}, independent of the host.
+   *
+   * @param tollService the toll service used for calculating toll fees
+   * @param metrics     the metrics every toll fee request is reported to
+   * @param zone        the time zone the passes are billed in
+   */
+  public TollCalculator(final TollService tollService, final TollMetrics metrics, final ZoneId zone) {
+    this.tollService = tollService;
+    this.bulkTollService = new BulkTollServiceImpl(tollService);
+    this.metrics = metrics;
+    this.timeResolver = new PassTimeResolver(zone);
+  }
+
+  /**
+   * Calculates the total toll fee for a given vehicle and set of vehicle passes of the same day. The passes are
+   * billed with their milliseconds, as in {@link #getTollFee(Vehicle, long[])}.
    *
    * @param vehicle the vehicle for which to calculate the toll fee
    * @param passes  the times on which the vehicle passed through a toll station
    * @return the total toll fee for that day for the given vehicle and time of passes.
+   * @throws IllegalArgumentException if the passes do not fall on the same day in the time zone of the calculator
    */
   public int getTollFee(final Vehicle vehicle, final Date... passes) {
-    List<LocalDateTime> passesInLocalDateTime = convertDates(passes);
-    if (!representsSameDate(passesInLocalDateTime)) {
-      throw new RuntimeException("Input dates does not represent the same day pass");
+    final long[] epochMillis = new long[passes.length];
+    for (int i = 0; i < passes.length; i++) {
+      epochMillis[i] = passes[i].getTime();
     }
-    return (int) tollService.calculateTollForPassesOfSameDay(vehicle, passesInLocalDateTime);
+    return getTollFee(vehicle, epochMillis);
   }
 
-  /*
-  * Checks if the passes are from the same date.
-  * */
+  /**
+   * Calculates the total toll fee for a given vehicle and set of vehicle passes of the same day, given as
+   * epoch milliseconds. The passes are resolved to nanoseconds of day in the time zone of the calculator without
+   * creating an object per pass. The passes keep their milliseconds, so they are billed exactly as the same
+   * times given as {@link java.time.LocalDateTime}s to {@link TollService#calculateTollForPassesOfSameDay}.
+   *
+   * @param vehicle     the vehicle for which to calculate the toll fee
+   * @param epochMillis the instants on which the vehicle passed through a toll station, in any order
+   * @return the total toll fee for that day for the given vehicle and time of passes.
+   * @throws IllegalArgumentException if the passes do not fall on the same day in the time zone of the calculator
+   */
+  public int getTollFee(final Vehicle vehicle, final long[] epochMillis) {
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final long[] nanosOfDay = new long[epochMillis.length];
+    final LocalDate date = timeResolver.resolveSameDay(epochMillis, 0, epochMillis.length, nanosOfDay);
+    final int fee;
+    if (date == null) {
+      fee = (int) tollService.calculateTollForPassesOfSameDay(vehicle, List.of());
+    } else {
+      // local time runs backwards on the day daylight saving time ends
+      Arrays.sort(nanosOfDay);
+      fee = (int) Money.wholeKronor(tollService.calculateTollInOreForPassesOfSameDay(vehicle, date, nanosOfDay, null,
+          0, nanosOfDay.length));
+    }
+    if (metrics.isEnabled()) {
+      metrics.recordTollFeeRequest(System.nanoTime() - start);
+    }
+    return fee;
+  }
 
-  private boolean representsSameDate(final List<LocalDateTime> passes) {
-    return passes.stream()
-        .map(LocalDateTime::toLocalDate)
-        .distinct()
-        .count() <= 1;
+  /**
+   * Calculates the total toll fee of every vehicle for every day from an unsorted stream of passes.
+   * Grouping by vehicle and day and sorting happens internally with bounded memory.
+   *
+   * @param passes   the passes of all vehicles over any number of days, in any order
+   * @param consumer receives the total toll of every vehicle and day, ordered by vehicle id and date
+   */
+  public void getDailyTollFees(final Iterator<VehiclePass> passes,
+                               final Consumer<DailyToll> consumer) {
+    bulkTollService.calculateDailyTolls(passes, consumer);
   }
 
   /**
-   * Converts an array of Date objects to a list of LocalDateTime objects.
+   * Calculates the total toll fee of every vehicle for every day from an unsorted stream of passes.
    *
-   * @param dates the array of Date objects to convert
-   * @return a list of LocalDateTime objects representing the same dates as the input array
+   * @param passes the passes of all vehicles over any number of days, in any order
+   * @return the total toll of every vehicle and day, ordered by vehicle id and date
    */
-  private List<LocalDateTime> convertDates(Date[] dates) {
-    return Arrays.stream(dates)
-        .map(date -> LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()))
-        .collect(Collectors.toList());
+  public List<DailyToll> getDailyTollFees(final Stream<VehiclePass> passes) {
+    final List<DailyToll> dailyTolls = new ArrayList<>();
+    getDailyTollFees(passes.iterator(), dailyTolls::add);
+    return dailyTolls;
   }
 }
-
@@ -0,0 +1,16 @@
+package com.example.tollcalculator.batch;
+
+/**
+ * Receives the toll of a vehicle on a day, without boxing or allocating a result object per vehicle and day.
+ */
+@FunctionalInterface
+public interface DailyTollSink {
+  /**
+   * Accepts the toll of a vehicle on a day.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param epochDay  the day as epoch day, see {@link java.time.LocalDate#ofEpochDay(long)}
+   * @param fee       the total toll of the vehicle on the day
+   */
+  void accept(long vehicleId, long epochDay, double fee);
+}
@@ -0,0 +1,98 @@
+package com.example.tollcalculator.batch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only view of one fixed-width column of a pass log that maps the file one window of records at a time,
+ * so that columns larger than the address range of a single mapping, or larger than the heap, can be scanned.
+ * The window moves when a record outside of it is read; scanning in order maps every part of the file once.
+ */
+final class MappedColumn {
+  /**
+   * The channel of the file.
+   */
+  private final FileChannel channel;
+  /**
+   * The offset of the column in the file.
+   */
+  private final long offset;
+  /**
+   * The width of a value in bytes.
+   */
+  private final int width;
+  /**
+   * The number of values in the column.
+   */
+  private final long length;
+  /**
+   * The number of values mapped at a time.
+   */
+  private final int windowRecords;
+  /**
+   * The mapping of the current window.
+   */
+  private MappedByteBuffer window;
+  /**
+   * The index of the first value of the current window, inclusive.
+   */
+  private long windowStart;
+  /**
+   * The index of the last value of the current window, exclusive.
+   */
+  private long windowEnd;
+
+  MappedColumn(final FileChannel channel, final long offset, final int width, final long length,
+               final int windowRecords) {
+    this.channel = channel;
+    this.offset = offset;
+    this.width = width;
+    this.length = length;
+    this.windowRecords = windowRecords;
+  }
+
+  /**
+   * Reads a value of a column of longs.
+   *
+   * @param index the index of the value
+   * @return the value
+   */
+  long getLong(final long index) {
+    moveTo(index);
+    return window.getLong((int) (index - windowStart) * width);
+  }
+
+  /**
+   * Reads a value of a column of bytes.
+   *
+   * @param index the index of the value
+   * @return the value
+   */
+  byte getByte(final long index) {
+    moveTo(index);
+    return window.get((int) (index - windowStart));
+  }
+
+  /**
+   * Maps the window holding the given index, unless it is already mapped.
+   *
+   * @param index the index of a value
+   */
+  private void moveTo(final long index) {
+    if (index >= windowStart && index < windowEnd) {
+      return;
+    }
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Record " + index + " out of range: " + length);
+    }
+    windowStart = index - index % windowRecords;
+    windowEnd = Math.min(length, windowStart + windowRecords);
+    try {
+      window = channel.map(FileChannel.MapMode.READ_ONLY, offset + windowStart * width,
+          (windowEnd - windowStart) * width);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to map the pass log", e);
+    }
+  }
+}
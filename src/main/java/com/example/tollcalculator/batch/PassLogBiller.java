@@ -0,0 +1,145 @@
+package com.example.tollcalculator.batch;
+
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import com.example.tollcalculator.time.ZoneOffsetCache;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Bills a pass log, see {@link PassLogWriter}, in one sequential scan over the memory-mapped columns. The passes
+ * of a vehicle on a day are collected as seconds of day into a reused primitive buffer and handed to the
+ * primitive {@link TollService#calculateTollForPassesOfSameDay(int, LocalDate, int[], int, int)} with the
+ * vehicle class code of the record, so no object is created per pass and files larger than the heap can be
+ * billed.
+ * <p>
+ * The pass log must be sorted by vehicle id and then by time. Pass times are converted to local time in the
+ * configured time zone; the vehicle class of a day is the class of its first pass, a code of the
+ * {@link com.example.tollcalculator.domain.VehicleClassRegistry} of the toll service's configuration.
+ */
+public class PassLogBiller {
+  /**
+   * The default number of records mapped at a time per column.
+   */
+  public static final int DEFAULT_WINDOW_RECORDS = 1 << 20;
+  /**
+   * The toll service used to calculate the fee of each vehicle and day.
+   */
+  private final TollService tollService;
+  /**
+   * The time zone the days are billed in.
+   */
+  private final ZoneId zone;
+  /**
+   * The number of records mapped at a time per column.
+   */
+  private final int windowRecords;
+
+  /**
+   * Creates a biller on the default toll service in the system default time zone.
+   */
+  public PassLogBiller() {
+    this(TollServiceImpl.getDefault(), ZoneId.systemDefault(), DEFAULT_WINDOW_RECORDS);
+  }
+
+  /**
+   * Creates a biller.
+   *
+   * @param tollService   the toll service used to calculate the fee of each vehicle and day
+   * @param zone          the time zone the days are billed in
+   * @param windowRecords the number of records mapped at a time per column
+   * @throws IllegalArgumentException if the window is not positive or too large to be mapped at once
+   */
+  public PassLogBiller(final TollService tollService, final ZoneId zone, final int windowRecords) {
+    if (windowRecords <= 0 || windowRecords > Integer.MAX_VALUE / Long.BYTES) {
+      throw new IllegalArgumentException("Window records out of range: " + windowRecords);
+    }
+    this.tollService = tollService;
+    this.zone = zone;
+    this.windowRecords = windowRecords;
+  }
+
+  /**
+   * Bills every vehicle and day of a pass log. The daily tolls are handed to the sink ordered by vehicle id
+   * and then by day.
+   *
+   * @param file the pass log
+   * @param sink receives the total toll of every vehicle and day that has at least one pass
+   * @return the number of passes billed
+   * @throws IllegalArgumentException if the file is not a pass log, is not sorted or holds an unknown vehicle
+   *                                  class code
+   */
+  public long bill(final Path file, final DailyTollSink sink) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long recordCount = PassLogFormat.readHeader(channel, file);
+      final MappedColumn vehicleIds = new MappedColumn(channel, PassLogFormat.VEHICLE_ID_OFFSET,
+          Long.BYTES, recordCount, windowRecords);
+      final MappedColumn classCodes = new MappedColumn(channel, PassLogFormat.vehicleClassOffset(recordCount),
+          Byte.BYTES, recordCount, windowRecords);
+      final MappedColumn epochSeconds = new MappedColumn(channel, PassLogFormat.epochSecondOffset(recordCount),
+          Long.BYTES, recordCount, windowRecords);
+      scan(recordCount, vehicleIds, classCodes, epochSeconds, sink);
+      return recordCount;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read the pass log " + file, e);
+    }
+  }
+
+  private void scan(final long recordCount, final MappedColumn vehicleIds, final MappedColumn classCodes,
+                    final MappedColumn epochSeconds, final DailyTollSink sink) {
+    final ZoneOffsetCache offsets = new ZoneOffsetCache(zone);
+    int[] secondsOfDay = new int[64];
+    int passCount = 0;
+    boolean sorted = true;
+    long vehicleId = 0;
+    long epochDay = 0;
+    long previousEpochSecond = 0;
+    int vehicleClass = 0;
+    for (long i = 0; i < recordCount; i++) {
+      final long passVehicleId = vehicleIds.getLong(i);
+      final long epochSecond = epochSeconds.getLong(i);
+      if (i > 0 && (passVehicleId < vehicleId ||
+          passVehicleId == vehicleId && epochSecond < previousEpochSecond)) {
+        throw new IllegalArgumentException("Pass log is not sorted by vehicle and time at record " + i);
+      }
+      final long localSecond = offsets.toLocalEpochSecond(epochSecond);
+      final long passEpochDay = Math.floorDiv(localSecond, RateTable.SECONDS_PER_DAY);
+      if (passCount > 0 && (passVehicleId != vehicleId || passEpochDay != epochDay)) {
+        sink.accept(vehicleId, epochDay, bill(vehicleClass, epochDay, secondsOfDay, passCount, sorted));
+        passCount = 0;
+        sorted = true;
+      }
+      if (passCount == 0) {
+        vehicleClass = classCodes.getByte(i) & 0xFF;
+      }
+      if (passCount == secondsOfDay.length) {
+        secondsOfDay = Arrays.copyOf(secondsOfDay, passCount * 2);
+      }
+      final int secondOfDay = Math.floorMod(localSecond, RateTable.SECONDS_PER_DAY);
+      // local time runs backwards when daylight saving time ends
+      sorted &= passCount == 0 || secondOfDay >= secondsOfDay[passCount - 1];
+      secondsOfDay[passCount++] = secondOfDay;
+      vehicleId = passVehicleId;
+      epochDay = passEpochDay;
+      previousEpochSecond = epochSecond;
+    }
+    if (passCount > 0) {
+      sink.accept(vehicleId, epochDay, bill(vehicleClass, epochDay, secondsOfDay, passCount, sorted));
+    }
+  }
+
+  private double bill(final int vehicleClass, final long epochDay, final int[] secondsOfDay,
+                      final int passCount, final boolean sorted) {
+    if (!sorted) {
+      Arrays.sort(secondsOfDay, 0, passCount);
+    }
+    return tollService.calculateTollForPassesOfSameDay(vehicleClass, LocalDate.ofEpochDay(epochDay),
+        secondsOfDay, 0, passCount);
+  }
+}
@@ -0,0 +1,117 @@
+package com.example.tollcalculator.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * The layout of a pass log, a columnar binary file of gantry passes. The columns are stored one after the other,
+ * so that each of them can be mapped and scanned on its own:
+ * <pre>
+ * int    magic, "PASS"
+ * int    format version
+ * long   number of records n
+ * long   vehicle id            x n
+ * byte   vehicle class code    x n, padded to a multiple of 8 bytes
+ * long   pass time, epoch second (UTC) x n
+ * </pre>
+ * All values are big-endian.
+ */
+final class PassLogFormat {
+  /**
+   * The magic number every pass log starts with.
+   */
+  static final int MAGIC = 0x50415353;
+  /**
+   * The supported version of the format.
+   */
+  static final int VERSION = 1;
+  /**
+   * The size of the header in bytes.
+   */
+  static final int HEADER_BYTES = 16;
+  /**
+   * The offset of the vehicle id column, which directly follows the header.
+   */
+  static final long VEHICLE_ID_OFFSET = HEADER_BYTES;
+
+  private PassLogFormat() {
+  }
+
+  /**
+   * Returns the offset of the vehicle class column.
+   *
+   * @param recordCount the number of records
+   * @return the offset in bytes from the start of the file
+   */
+  static long vehicleClassOffset(final long recordCount) {
+    return HEADER_BYTES + recordCount * Long.BYTES;
+  }
+
+  /**
+   * Returns the offset of the pass time column.
+   *
+   * @param recordCount the number of records
+   * @return the offset in bytes from the start of the file
+   */
+  static long epochSecondOffset(final long recordCount) {
+    return vehicleClassOffset(recordCount) + ((recordCount + 7) & ~7L);
+  }
+
+  /**
+   * Returns the size of a pass log.
+   *
+   * @param recordCount the number of records
+   * @return the size in bytes
+   */
+  static long fileSize(final long recordCount) {
+    return epochSecondOffset(recordCount) + recordCount * Long.BYTES;
+  }
+
+  /**
+   * Writes the header of a pass log.
+   *
+   * @param channel     the channel of the file
+   * @param recordCount the number of records
+   * @throws IOException if the header cannot be written
+   */
+  static void writeHeader(final FileChannel channel, final long recordCount) throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putLong(recordCount).flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+  }
+
+  /**
+   * Reads and checks the header of a pass log.
+   *
+   * @param channel the channel of the file
+   * @param file    the file, for error messages
+   * @return the number of records
+   * @throws IOException              if the header cannot be read
+   * @throws IllegalArgumentException if the file is not a pass log of a supported version, or is truncated
+   */
+  static long readHeader(final FileChannel channel, final Path file) throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new IllegalArgumentException(file + " is not a pass log");
+      }
+    }
+    header.flip();
+    if (header.getInt() != MAGIC) {
+      throw new IllegalArgumentException(file + " is not a pass log");
+    }
+    final int version = header.getInt();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported pass log version " + version + " in " + file);
+    }
+    final long recordCount = header.getLong();
+    if (recordCount < 0 || channel.size() < fileSize(recordCount)) {
+      throw new IllegalArgumentException(file + " is truncated");
+    }
+    return recordCount;
+  }
+}
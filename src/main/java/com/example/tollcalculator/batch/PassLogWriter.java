@@ -0,0 +1,141 @@
+package com.example.tollcalculator.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a pass log, see {@link PassLogFormat}. The number of records is fixed up front, so that every column
+ * starts at a known offset and the records can be streamed into the file one at a time.
+ */
+public final class PassLogWriter implements Closeable {
+  /**
+   * The size of the buffer of each column in bytes.
+   */
+  private static final int BUFFER_BYTES = 64 * 1024;
+  /**
+   * The channel of the file.
+   */
+  private final FileChannel channel;
+  /**
+   * The number of records the file holds.
+   */
+  private final long recordCount;
+  /**
+   * The buffered vehicle ids.
+   */
+  private final ByteBuffer vehicleIds = ByteBuffer.allocate(BUFFER_BYTES);
+  /**
+   * The buffered vehicle class codes.
+   */
+  private final ByteBuffer vehicleClasses = ByteBuffer.allocate(BUFFER_BYTES);
+  /**
+   * The buffered pass times.
+   */
+  private final ByteBuffer epochSeconds = ByteBuffer.allocate(BUFFER_BYTES);
+  /**
+   * The file offset the vehicle id buffer is flushed to next.
+   */
+  private long vehicleIdPosition;
+  /**
+   * The file offset the vehicle class buffer is flushed to next.
+   */
+  private long vehicleClassPosition;
+  /**
+   * The file offset the pass time buffer is flushed to next.
+   */
+  private long epochSecondPosition;
+  /**
+   * The number of records appended so far.
+   */
+  private long written;
+
+  /**
+   * Creates a pass log, replacing an existing file.
+   *
+   * @param file        the file to write
+   * @param recordCount the number of records that will be appended
+   * @throws IOException if the file cannot be created
+   */
+  public PassLogWriter(final Path file, final long recordCount) throws IOException {
+    if (recordCount < 0) {
+      throw new IllegalArgumentException("Record count must not be negative");
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    this.recordCount = recordCount;
+    this.vehicleIdPosition = PassLogFormat.VEHICLE_ID_OFFSET;
+    this.vehicleClassPosition = PassLogFormat.vehicleClassOffset(recordCount);
+    this.epochSecondPosition = PassLogFormat.epochSecondOffset(recordCount);
+    PassLogFormat.writeHeader(channel, recordCount);
+  }
+
+  /**
+   * Appends a pass. A pass log is billed in one sequential scan, so the passes must be appended sorted by
+   * vehicle id and then by time.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the class code of the vehicle, between 0 and 255
+   * @param epochSecond  the time of the pass as epoch second
+   * @throws IOException if the passes cannot be written
+   */
+  public void append(final long vehicleId, final int vehicleClass, final long epochSecond) throws IOException {
+    if (written == recordCount) {
+      throw new IllegalStateException("All " + recordCount + " records have already been written");
+    }
+    if (vehicleClass < 0 || vehicleClass > 0xFF) {
+      throw new IllegalArgumentException("Vehicle class code out of range: " + vehicleClass);
+    }
+    if (!epochSeconds.hasRemaining()) {
+      flush();
+    }
+    vehicleIds.putLong(vehicleId);
+    vehicleClasses.put((byte) vehicleClass);
+    epochSeconds.putLong(epochSecond);
+    written++;
+  }
+
+  /**
+   * Flushes the buffered records and closes the file.
+   *
+   * @throws IOException           if the passes cannot be written
+   * @throws IllegalStateException if fewer records were appended than announced
+   */
+  @Override
+  public void close() throws IOException {
+    try (channel) {
+      flush();
+      // pad the file so that the last column ends at the size the header announces
+      if (channel.size() < PassLogFormat.fileSize(recordCount)) {
+        channel.write(ByteBuffer.allocate(1), PassLogFormat.fileSize(recordCount) - 1);
+      }
+      if (written != recordCount) {
+        throw new IllegalStateException("Only " + written + " of " + recordCount + " records were written");
+      }
+    }
+  }
+
+  /**
+   * Writes the buffered values of every column to its place in the file.
+   *
+   * @throws IOException if the passes cannot be written
+   */
+  private void flush() throws IOException {
+    vehicleIdPosition = flush(vehicleIds, vehicleIdPosition);
+    vehicleClassPosition = flush(vehicleClasses, vehicleClassPosition);
+    epochSecondPosition = flush(epochSeconds, epochSecondPosition);
+  }
+
+  private long flush(final ByteBuffer buffer, final long position) throws IOException {
+    long next = position;
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      next += channel.write(buffer, next);
+    }
+    buffer.clear();
+    return next;
+  }
+}
@@ -0,0 +1,233 @@
+package com.example.tollcalculator.cluster;
+
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One shard of a {@link LocalBillingCluster}. A worker keeps the passes of the current day of every vehicle
+ * routed to it and bills them with the primitive day kernel of its {@link TollService}, so the hourly window and
+ * the daily cap are applied within the shard and the state of a vehicle can be copied to another worker as it
+ * is. The methods lock the worker, so different workers bill in parallel.
+ */
+final class BillingWorker {
+  /**
+   * The initial number of passes a vehicle-day has room for.
+   */
+  private static final int INITIAL_PASSES = 8;
+  /**
+   * The name of the worker on the ring.
+   */
+  private final String name;
+  /**
+   * The toll service the vehicle-days are billed by.
+   */
+  private final TollService tollService;
+  /**
+   * The current day of every vehicle of the worker, by vehicle id.
+   */
+  private final Map<Long, VehicleDay> vehicles = new HashMap<>();
+
+  /**
+   * Creates a worker without vehicles.
+   *
+   * @param name        the name of the worker on the ring
+   * @param tollService the toll service the vehicle-days are billed by
+   */
+  BillingWorker(final String name, final TollService tollService) {
+    this.name = name;
+    this.tollService = tollService;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Adds a pass to the day of a vehicle and bills the day again. A pass on a later day starts a new day for the
+   * vehicle; passes of a day may arrive in any order.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class
+   * @param station      the code of the toll station
+   * @param date         the day of the pass
+   * @param secondOfDay  the time of the pass as second of day
+   * @return the total of the vehicle on that day so far in öre
+   * @throws IllegalArgumentException if the pass is on a day before the current day of the vehicle, its second
+   *                                  of day is out of range or its vehicle class is unknown
+   */
+  synchronized long recordPass(final long vehicleId, final int vehicleClass, final int station,
+                               final LocalDate date, final int secondOfDay) {
+    if (secondOfDay < 0 || secondOfDay >= RateTable.SECONDS_PER_DAY) {
+      throw new IllegalArgumentException("Second of day out of range: " + secondOfDay);
+    }
+    final long epochDay = date.toEpochDay();
+    VehicleDay day = vehicles.get(vehicleId);
+    if (day != null && day.epochDay > epochDay) {
+      throw new IllegalArgumentException("Pass of vehicle " + vehicleId + " on " + date + " is older than its "
+          + LocalDate.ofEpochDay(day.epochDay) + " state");
+    }
+    if (day == null || day.epochDay < epochDay) {
+      day = new VehicleDay(vehicleClass, epochDay);
+    }
+    final VehicleDay updated = day.withPass(secondOfDay, station);
+    updated.feeInOre = tollService.calculateTollInOreForPassesOfSameDay(updated.vehicleClass, date,
+        updated.secondsOfDay, updated.stations, 0, updated.count);
+    vehicles.put(vehicleId, updated);
+    return updated.feeInOre;
+  }
+
+  /**
+   * Returns the total of a vehicle on a day so far.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param date      the day
+   * @return the total in öre, 0 if the worker has no pass of the vehicle on that day
+   */
+  synchronized long getDayTotalInOre(final long vehicleId, final LocalDate date) {
+    final VehicleDay day = vehicles.get(vehicleId);
+    return day == null || day.epochDay != date.toEpochDay() ? 0L : day.feeInOre;
+  }
+
+  /**
+   * Returns the ids of the vehicles of the worker.
+   *
+   * @return a new array of the vehicle ids
+   */
+  synchronized long[] getVehicleIds() {
+    return vehicles.keySet().stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Copies the state of a vehicle to another worker, unless that worker has the same or a later day.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param target    the worker to copy the state to
+   * @return true if the state was copied
+   */
+  boolean copyTo(final long vehicleId, final BillingWorker target) {
+    final VehicleDay day;
+    synchronized (this) {
+      day = vehicles.get(vehicleId);
+    }
+    // vehicle-days are never modified once stored, so they can be shared without copying
+    return day != null && target.adopt(vehicleId, day);
+  }
+
+  /**
+   * Stores the state of a vehicle copied from another worker.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param day       the state of the vehicle
+   * @return true if the state was stored, false if the worker already had the same or a later day
+   */
+  private synchronized boolean adopt(final long vehicleId, final VehicleDay day) {
+    final VehicleDay existing = vehicles.get(vehicleId);
+    if (existing != null && (existing.epochDay > day.epochDay
+        || existing.epochDay == day.epochDay && existing.count >= day.count)) {
+      return false;
+    }
+    vehicles.put(vehicleId, day);
+    return true;
+  }
+
+  /**
+   * Removes the state of a vehicle.
+   *
+   * @param vehicleId the id of the vehicle
+   */
+  synchronized void drop(final long vehicleId) {
+    vehicles.remove(vehicleId);
+  }
+
+  /**
+   * Removes the state of every vehicle whose last pass was before a day.
+   *
+   * @param today the first day whose states are kept
+   * @return the number of removed vehicle states
+   */
+  synchronized int rollOver(final LocalDate today) {
+    final long epochDay = today.toEpochDay();
+    final int before = vehicles.size();
+    vehicles.values().removeIf(day -> day.epochDay < epochDay);
+    return before - vehicles.size();
+  }
+
+  /**
+   * Returns the number of vehicle states of the worker, including replicas.
+   *
+   * @return the number of vehicle states
+   */
+  synchronized int size() {
+    return vehicles.size();
+  }
+
+  /**
+   * The passes of a vehicle on one day, sorted by time, and their total. Instances are not modified once they
+   * are stored, so a state can be shared by the owner and the replicas of a vehicle.
+   */
+  private static final class VehicleDay {
+    /**
+     * The code of the vehicle class, taken from the first pass of the day.
+     */
+    private final int vehicleClass;
+    /**
+     * The day as epoch day.
+     */
+    private final long epochDay;
+    /**
+     * The passes as seconds of day, sorted in ascending order.
+     */
+    private final int[] secondsOfDay;
+    /**
+     * The codes of the toll stations of the passes, at the same indices as their times.
+     */
+    private final int[] stations;
+    /**
+     * The number of passes.
+     */
+    private final int count;
+    /**
+     * The total of the passes in öre.
+     */
+    private long feeInOre;
+
+    private VehicleDay(final int vehicleClass, final long epochDay) {
+      this(vehicleClass, epochDay, new int[INITIAL_PASSES], new int[INITIAL_PASSES], 0);
+    }
+
+    private VehicleDay(final int vehicleClass, final long epochDay, final int[] secondsOfDay, final int[] stations,
+                       final int count) {
+      this.vehicleClass = vehicleClass;
+      this.epochDay = epochDay;
+      this.secondsOfDay = secondsOfDay;
+      this.stations = stations;
+      this.count = count;
+    }
+
+    /**
+     * Returns a copy of the day with one more pass, inserted at its place in time.
+     *
+     * @param secondOfDay the time of the pass as second of day
+     * @param station     the code of the toll station of the pass
+     * @return the new day
+     */
+    private VehicleDay withPass(final int secondOfDay, final int station) {
+      final int capacity = count < secondsOfDay.length ? secondsOfDay.length : secondsOfDay.length * 2;
+      final int[] times = Arrays.copyOf(secondsOfDay, capacity);
+      final int[] codes = Arrays.copyOf(stations, capacity);
+      int index = count;
+      while (index > 0 && times[index - 1] > secondOfDay) {
+        times[index] = times[index - 1];
+        codes[index] = codes[index - 1];
+        index--;
+      }
+      times[index] = secondOfDay;
+      codes[index] = station;
+      return new VehicleDay(vehicleClass, epochDay, times, codes, count + 1);
+    }
+  }
+}
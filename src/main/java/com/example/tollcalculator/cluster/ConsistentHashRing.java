@@ -0,0 +1,225 @@
+package com.example.tollcalculator.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable consistent hash ring that assigns vehicle ids to named workers. Every worker is placed on the
+ * ring at a number of pseudo-random points, its virtual nodes, and a vehicle belongs to the worker of the first
+ * point at or after the hash of its id. With enough virtual nodes every worker owns about the same share of
+ * the vehicles, and when a worker joins or leaves only the vehicles of the points it takes or gives up change
+ * their owner, about one in {@code n} for {@code n} workers.
+ * <p>
+ * Replicas of a vehicle are kept by the next distinct workers clockwise from its owner, see
+ * {@link #ownersOf(long, int)}. A ring is changed by creating a new one with {@link #withWorker(String)} or
+ * {@link #withoutWorker(String)}, so readers never see a ring in the middle of a change.
+ */
+public final class ConsistentHashRing {
+  /**
+   * The multiplier of the Fibonacci hash spreading the virtual nodes of a worker.
+   */
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  /**
+   * The offset basis of the 64-bit FNV-1a hash of a worker name.
+   */
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  /**
+   * The prime of the 64-bit FNV-1a hash of a worker name.
+   */
+  private static final long FNV_PRIME = 0x100000001B3L;
+  /**
+   * The names of the workers, sorted.
+   */
+  private final Set<String> workers;
+  /**
+   * The number of points of every worker on the ring.
+   */
+  private final int virtualNodes;
+  /**
+   * The positions of all points on the ring, sorted as unsigned values.
+   */
+  private final long[] points;
+  /**
+   * The worker of every point, at the same index as its position.
+   */
+  private final String[] pointOwners;
+
+  private ConsistentHashRing(final Set<String> workers, final int virtualNodes) {
+    this.workers = workers;
+    this.virtualNodes = virtualNodes;
+    final int size = workers.size() * virtualNodes;
+    final long[][] entries = new long[size][];
+    final String[] names = workers.toArray(new String[0]);
+    for (int worker = 0; worker < names.length; worker++) {
+      final long nameHash = hashName(names[worker]);
+      for (int node = 0; node < virtualNodes; node++) {
+        entries[worker * virtualNodes + node] = new long[] {mix(nameHash + node * GOLDEN_RATIO), worker};
+      }
+    }
+    // ties between points are broken by the sorted worker names, so every ring of the same workers is equal
+    Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(a[1], b[1]));
+    this.points = new long[size];
+    this.pointOwners = new String[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = entries[i][0];
+      pointOwners[i] = names[(int) entries[i][1]];
+    }
+  }
+
+  /**
+   * Creates a ring of the given workers.
+   *
+   * @param workers      the names of the workers
+   * @param virtualNodes the number of points of every worker on the ring
+   * @return the ring
+   * @throws IllegalArgumentException if the number of virtual nodes is not positive or a name is missing
+   */
+  public static ConsistentHashRing of(final Collection<String> workers, final int virtualNodes) {
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("Number of virtual nodes must be positive: " + virtualNodes);
+    }
+    final Set<String> names = new TreeSet<>();
+    for (final String worker : workers) {
+      if (worker == null || worker.isEmpty()) {
+        throw new IllegalArgumentException("Worker must have a name");
+      }
+      names.add(worker);
+    }
+    return new ConsistentHashRing(names, virtualNodes);
+  }
+
+  /**
+   * Returns a ring with one more worker.
+   *
+   * @param worker the name of the new worker
+   * @return the new ring
+   * @throws IllegalArgumentException if the ring already has a worker of that name
+   */
+  public ConsistentHashRing withWorker(final String worker) {
+    if (workers.contains(worker)) {
+      throw new IllegalArgumentException("Duplicate worker: " + worker);
+    }
+    final List<String> names = new ArrayList<>(workers);
+    names.add(worker);
+    return of(names, virtualNodes);
+  }
+
+  /**
+   * Returns a ring without a worker.
+   *
+   * @param worker the name of the worker to remove
+   * @return the new ring
+   * @throws IllegalArgumentException if the ring has no worker of that name
+   */
+  public ConsistentHashRing withoutWorker(final String worker) {
+    if (!workers.contains(worker)) {
+      throw new IllegalArgumentException("Unknown worker: " + worker);
+    }
+    final List<String> names = new ArrayList<>(workers);
+    names.remove(worker);
+    return of(names, virtualNodes);
+  }
+
+  /**
+   * Returns the names of the workers, sorted.
+   *
+   * @return the names of the workers
+   */
+  public List<String> getWorkers() {
+    return List.copyOf(workers);
+  }
+
+  public int getVirtualNodes() {
+    return virtualNodes;
+  }
+
+  /**
+   * Returns the worker owning a vehicle.
+   *
+   * @param vehicleId the id of the vehicle
+   * @return the name of the owner
+   * @throws IllegalStateException if the ring has no workers
+   */
+  public String ownerOf(final long vehicleId) {
+    if (points.length == 0) {
+      throw new IllegalStateException("Ring has no workers");
+    }
+    return pointOwners[firstPointOf(vehicleId)];
+  }
+
+  /**
+   * Returns the owner of a vehicle followed by the next distinct workers clockwise on the ring, which keep the
+   * replicas of the vehicle.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param count     the number of workers, including the owner
+   * @return the names of at most {@code count} distinct workers, the owner first
+   * @throws IllegalStateException if the ring has no workers
+   */
+  public List<String> ownersOf(final long vehicleId, final int count) {
+    if (points.length == 0) {
+      throw new IllegalStateException("Ring has no workers");
+    }
+    final int wanted = Math.min(count, workers.size());
+    final List<String> owners = new ArrayList<>(wanted);
+    for (int i = firstPointOf(vehicleId); owners.size() < wanted; i = (i + 1) % points.length) {
+      if (!owners.contains(pointOwners[i])) {
+        owners.add(pointOwners[i]);
+      }
+    }
+    return owners;
+  }
+
+  /**
+   * Finds the first point at or after the hash of a vehicle id, wrapping around at the end of the ring.
+   *
+   * @param vehicleId the id of the vehicle
+   * @return the index of the point
+   */
+  private int firstPointOf(final long vehicleId) {
+    final long hash = mix(vehicleId);
+    int low = 0;
+    int high = points.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(points[middle], hash) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low == points.length ? 0 : low;
+  }
+
+  /**
+   * Scrambles a 64-bit value with the finalizer of SplitMix64, so that consecutive vehicle ids and virtual node
+   * numbers spread evenly over the ring.
+   *
+   * @param value the value
+   * @return the scrambled value
+   */
+  private static long mix(final long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Hashes a worker name with 64-bit FNV-1a over its characters.
+   *
+   * @param name the name
+   * @return the hash
+   */
+  private static long hashName(final String name) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < name.length(); i++) {
+      hash = (hash ^ name.charAt(i)) * FNV_PRIME;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,260 @@
+package com.example.tollcalculator.cluster;
+
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.service.LiveTollStore;
+import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Shards live billing over named {@link BillingWorker}s by a {@link ConsistentHashRing} of vehicle ids. Every
+ * pass of a vehicle goes to its owner and to the next workers on the ring as replicas, so all passes of a
+ * vehicle-day are billed by one shard and the hourly window and daily cap never span shards. The cluster is a
+ * {@link LiveTollStore}, e.g. the billing stage of a {@link com.example.tollcalculator.pipeline.PassPipeline}.
+ * <p>
+ * Workers can join and leave while the cluster bills. After every change of the ring the vehicle states are
+ * rebalanced: states are copied to their new owners and replicas and dropped by the workers that no longer
+ * keep them, which moves only the vehicles of the ring points that changed hands. A worker that
+ * {@link #failWorker(String) fails} hands nothing over; its vehicles are taken over by their replicas, so no
+ * pass is lost as long as the replication factor is at least two.
+ * <p>
+ * The workers run in process, so the cluster doubles as a harness for testing scaling and failover on one
+ * machine. Passes of different workers are billed in parallel; changes of the ring wait for the passes in
+ * flight and block new ones until the states are rebalanced.
+ */
+public class LocalBillingCluster implements LiveTollStore {
+  /**
+   * The default number of points of every worker on the ring.
+   */
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+  /**
+   * The default number of workers keeping the state of a vehicle, its owner included.
+   */
+  public static final int DEFAULT_REPLICATION_FACTOR = 2;
+  /**
+   * The toll service the workers bill by.
+   */
+  private final TollService tollService;
+  /**
+   * The number of workers keeping the state of a vehicle, its owner included.
+   */
+  private final int replicationFactor;
+  /**
+   * The workers, by name.
+   */
+  private final Map<String, BillingWorker> workers = new LinkedHashMap<>();
+  /**
+   * Guards the ring and the workers: passes take the read lock, changes of the ring the write lock.
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /**
+   * The current ring.
+   */
+  private volatile ConsistentHashRing ring;
+
+  /**
+   * Creates a cluster without workers on the default toll service, with the default number of virtual nodes
+   * and replication factor.
+   */
+  public LocalBillingCluster() {
+    this(TollServiceImpl.getDefault(), DEFAULT_VIRTUAL_NODES, DEFAULT_REPLICATION_FACTOR);
+  }
+
+  /**
+   * Creates a cluster without workers.
+   *
+   * @param tollService       the toll service the workers bill by
+   * @param virtualNodes      the number of points of every worker on the ring
+   * @param replicationFactor the number of workers keeping the state of a vehicle, its owner included
+   * @throws IllegalArgumentException if the number of virtual nodes or the replication factor is not positive
+   */
+  public LocalBillingCluster(final TollService tollService, final int virtualNodes, final int replicationFactor) {
+    if (replicationFactor <= 0) {
+      throw new IllegalArgumentException("Replication factor must be positive: " + replicationFactor);
+    }
+    this.tollService = tollService;
+    this.replicationFactor = replicationFactor;
+    this.ring = ConsistentHashRing.of(List.of(), virtualNodes);
+  }
+
+  /**
+   * Adds a worker and moves the vehicles it now owns or replicates to it.
+   *
+   * @param name the name of the worker
+   * @return the number of vehicle states copied between workers
+   * @throws IllegalArgumentException if the cluster already has a worker of that name
+   */
+  public int addWorker(final String name) {
+    lock.writeLock().lock();
+    try {
+      ring = ring.withWorker(name);
+      workers.put(name, new BillingWorker(name, tollService));
+      return rebalance();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a worker gracefully: its vehicles are handed over to their new owners and replicas first.
+   *
+   * @param name the name of the worker
+   * @return the number of vehicle states copied between workers
+   * @throws IllegalArgumentException if the cluster has no worker of that name
+   */
+  public int removeWorker(final String name) {
+    lock.writeLock().lock();
+    try {
+      ring = ring.withoutWorker(name);
+      final int copied = rebalance();
+      workers.remove(name);
+      return copied;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a worker as if it had crashed: its states are lost and the replicas of its vehicles take over, after
+   * which the states are replicated again to restore the replication factor.
+   *
+   * @param name the name of the worker
+   * @return the number of vehicle states copied between the remaining workers
+   * @throws IllegalArgumentException if the cluster has no worker of that name
+   */
+  public int failWorker(final String name) {
+    lock.writeLock().lock();
+    try {
+      ring = ring.withoutWorker(name);
+      workers.remove(name);
+      return rebalance();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the current ring.
+   *
+   * @return the ring
+   */
+  public ConsistentHashRing getRing() {
+    return ring;
+  }
+
+  /**
+   * Returns the number of vehicles every worker owns, replicas not counted.
+   *
+   * @return the number of owned vehicles by worker name, sorted by name
+   */
+  public Map<String, Integer> getOwnedVehicleCounts() {
+    lock.readLock().lock();
+    try {
+      final Map<String, Integer> counts = new TreeMap<>();
+      for (final BillingWorker worker : workers.values()) {
+        int owned = 0;
+        for (final long vehicleId : worker.getVehicleIds()) {
+          if (ring.ownerOf(vehicleId).equals(worker.getName())) {
+            owned++;
+          }
+        }
+        counts.put(worker.getName(), owned);
+      }
+      return counts;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Bills a pass on its owner and on the replicas of its vehicle.
+   *
+   * @throws IllegalStateException    if the cluster has no workers
+   * @throws IllegalArgumentException if the owner rejects the pass
+   */
+  @Override
+  public double recordPass(final long vehicleId, final int vehicleClass, final int station, final LocalDate date,
+                           final int secondOfDay) {
+    lock.readLock().lock();
+    try {
+      final List<String> owners = ring.ownersOf(vehicleId, replicationFactor);
+      // the owner validates the pass before any replica sees it
+      final long fee = workers.get(owners.get(0)).recordPass(vehicleId, vehicleClass, station, date, secondOfDay);
+      for (int i = 1; i < owners.size(); i++) {
+        workers.get(owners.get(i)).recordPass(vehicleId, vehicleClass, station, date, secondOfDay);
+      }
+      return Money.toKronor(fee);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long getDayTotalInOre(final long vehicleId, final LocalDate date) {
+    lock.readLock().lock();
+    try {
+      return workers.isEmpty() ? 0L : workers.get(ring.ownerOf(vehicleId)).getDayTotalInOre(vehicleId, date);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int rollOver(final LocalDate today) {
+    lock.readLock().lock();
+    try {
+      int removed = 0;
+      for (final BillingWorker worker : workers.values()) {
+        removed += worker.rollOver(today);
+      }
+      return removed;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of vehicles with a state, each counted once however many replicas it has.
+   *
+   * @return the number of vehicles
+   */
+  @Override
+  public int size() {
+    return getOwnedVehicleCounts().values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  /**
+   * Copies every vehicle state to the workers the current ring assigns it to and drops it from the others.
+   * Called with the write lock held. When the last worker leaves, its states are lost.
+   *
+   * @return the number of vehicle states copied
+   */
+  private int rebalance() {
+    if (ring.getWorkers().isEmpty()) {
+      return 0;
+    }
+    int copied = 0;
+    for (final BillingWorker worker : workers.values()) {
+      for (final long vehicleId : worker.getVehicleIds()) {
+        boolean keep = false;
+        for (final String owner : ring.ownersOf(vehicleId, replicationFactor)) {
+          if (owner.equals(worker.getName())) {
+            keep = true;
+          } else if (worker.copyTo(vehicleId, workers.get(owner))) {
+            copied++;
+          }
+        }
+        if (!keep) {
+          worker.drop(vehicleId);
+        }
+      }
+    }
+    return copied;
+  }
+}
@@ -0,0 +1,303 @@
+package com.example.tollcalculator.config;
+
+import com.example.tollcalculator.domain.DayType;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.domain.VehicleClass;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the toll rate, holiday, vehicle class and toll station tables that the {@code compileConfigTables} build
+ * step compiles from {@code rates.yml}, {@code holidays.yml} and the optional {@code vehicle-classes.yml} and
+ * {@code stations.yml}. Reading them needs neither YAML nor reflection. The build step runs
+ * {@link #main(String[])}, which reads the YAML files with {@link YamlConfigLoader}, so the compiled tables accept
+ * exactly the YAML the fallback parser does.
+ * <p>
+ * The tables are stored big-endian, as written by {@link java.io.DataOutputStream}:
+ * <pre>
+ * int    magic, "TOLL"
+ * int    format version
+ * int    number of toll rates, followed for each toll rate by
+ *        long start nanosecond of day, long end nanosecond of day, double rate
+ *        int number of vehicle classes, followed by their modified UTF-8 names
+ *        int number of day types, followed by their modified UTF-8 names
+ *        long first valid epoch day, {@link Long#MIN_VALUE} if unbounded
+ *        long last valid epoch day, {@link Long#MAX_VALUE} if unbounded
+ *        int number of toll stations, followed by their modified UTF-8 names
+ * int    number of holidays, followed for each holiday by
+ *        long epoch day, modified UTF-8 name
+ * int    number of vehicle classes, -1 for the {@link VehicleClassRegistry#defaults() defaults}, followed in
+ *        the order of their codes for each vehicle class by
+ *        modified UTF-8 name, boolean toll-free
+ * int    number of toll stations, followed in the order of their codes by their modified UTF-8 names
+ * </pre>
+ * The tables are compiled with every build, so only the current version is read.
+ */
+public final class BinaryConfigLoader {
+  /**
+   * The compiled tables resource in the build output.
+   */
+  public static final String TABLES_FILE_NAME = "toll-tables.bin";
+  /**
+   * The magic number every tables file starts with.
+   */
+  private static final int MAGIC = 0x544F4C4C;
+  /**
+   * The current version of the format.
+   */
+  private static final int VERSION = 4;
+  /**
+   * The number of vehicle classes that stands for the default vehicle classes.
+   */
+  private static final int DEFAULT_VEHICLE_CLASSES = -1;
+
+  private BinaryConfigLoader() {
+  }
+
+  /**
+   * Loads the configuration from the compiled tables on the classpath with the vehicle classes and toll stations
+   * compiled into them.
+   *
+   * @return the configuration, or null if the classpath holds no compiled tables
+   * @throws ConfigurationException if the compiled tables cannot be read
+   */
+  public static TollConfiguration loadResource() {
+    return loadResource(null, null);
+  }
+
+  /**
+   * Loads the configuration from the compiled tables on the classpath with the given vehicle classes and without
+   * toll stations.
+   *
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to
+   * @return the configuration, or null if the classpath holds no compiled tables
+   * @throws ConfigurationException if the compiled tables cannot be read or name an unknown vehicle class
+   */
+  public static TollConfiguration loadResource(final VehicleClassRegistry vehicleClasses) {
+    return loadResource(vehicleClasses, StationRegistry.empty());
+  }
+
+  /**
+   * Loads the configuration from the compiled tables on the classpath.
+   *
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to, or null for the vehicle
+   *                       classes compiled into the tables
+   * @param stations       the toll stations the toll rates may be restricted to, or null for the toll stations
+   *                       compiled into the tables
+   * @return the configuration, or null if the classpath holds no compiled tables
+   * @throws ConfigurationException if the compiled tables cannot be read or name an unknown vehicle class or
+   *                                toll station
+   */
+  public static TollConfiguration loadResource(final VehicleClassRegistry vehicleClasses,
+                                               final StationRegistry stations) {
+    final InputStream resource = BinaryConfigLoader.class.getResourceAsStream("/" + TABLES_FILE_NAME);
+    if (resource == null) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(resource))) {
+      return load(in, vehicleClasses, stations);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + TABLES_FILE_NAME + " file", e);
+    } catch (IllegalArgumentException e) {
+      throw new ConfigurationException("Invalid toll rate in " + TABLES_FILE_NAME + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reads the compiled tables from a stream.
+   *
+   * @param in             the stream to read
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to, or null for the compiled ones
+   * @param stations       the toll stations the toll rates may be restricted to, or null for the compiled ones
+   * @return the configuration
+   * @throws IOException            if the stream cannot be read
+   * @throws ConfigurationException if the stream does not hold compiled tables of a supported version
+   */
+  static TollConfiguration load(final DataInputStream in, final VehicleClassRegistry vehicleClasses,
+                                 final StationRegistry stations) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new ConfigurationException(TABLES_FILE_NAME + " is not a compiled tables file");
+    }
+    final int version = in.readInt();
+    if (version != VERSION) {
+      throw new ConfigurationException(
+          TABLES_FILE_NAME + " has unsupported format version " + version);
+    }
+    final int rateCount = in.readInt();
+    final List<TollRate> tollRates = new ArrayList<>(rateCount);
+    for (int i = 0; i < rateCount; i++) {
+      final LocalTime start = LocalTime.ofNanoOfDay(in.readLong());
+      final LocalTime end = LocalTime.ofNanoOfDay(in.readLong());
+      final double rate = in.readDouble();
+      final List<String> classes = new ArrayList<>();
+      for (int n = in.readInt(); n > 0; n--) {
+        classes.add(in.readUTF());
+      }
+      final List<DayType> dayTypes = new ArrayList<>();
+      for (int n = in.readInt(); n > 0; n--) {
+        dayTypes.add(DayType.valueOf(in.readUTF()));
+      }
+      final long validFrom = in.readLong();
+      final long validTo = in.readLong();
+      final List<String> rateStations = new ArrayList<>();
+      for (int n = in.readInt(); n > 0; n--) {
+        rateStations.add(in.readUTF());
+      }
+      tollRates.add(new TollRate(start, end, rate, classes, dayTypes,
+          validFrom == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(validFrom),
+          validTo == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(validTo), rateStations));
+    }
+    final int holidayCount = in.readInt();
+    final Map<LocalDate, String> holidays = new HashMap<>(holidayCount * 2);
+    for (int i = 0; i < holidayCount; i++) {
+      holidays.put(LocalDate.ofEpochDay(in.readLong()), in.readUTF());
+    }
+    final int vehicleClassCount = in.readInt();
+    final List<VehicleClass> compiledVehicleClasses = new ArrayList<>(Math.max(vehicleClassCount, 0));
+    for (int i = 0; i < vehicleClassCount; i++) {
+      compiledVehicleClasses.add(new VehicleClass(in.readUTF(), in.readBoolean()));
+    }
+    final List<String> compiledStations = new ArrayList<>();
+    for (int n = in.readInt(); n > 0; n--) {
+      compiledStations.add(in.readUTF());
+    }
+    return new TollConfiguration(tollRates, holidays,
+        vehicleClasses != null ? vehicleClasses : vehicleClassCount == DEFAULT_VEHICLE_CLASSES
+            ? VehicleClassRegistry.defaults() : VehicleClassRegistry.of(compiledVehicleClasses),
+        stations != null ? stations : StationRegistry.of(compiledStations));
+  }
+
+  /**
+   * Writes toll rates and holidays as compiled tables of the current version, with the default vehicle classes
+   * and without toll stations.
+   *
+   * @param out       the stream to write
+   * @param tollRates the toll rates
+   * @param holidays  the names of the holidays keyed by date
+   * @throws IOException if the stream cannot be written
+   */
+  public static void write(final DataOutputStream out, final List<TollRate> tollRates,
+                           final Map<LocalDate, String> holidays) throws IOException {
+    write(out, tollRates, holidays, null, StationRegistry.empty());
+  }
+
+  /**
+   * Writes toll rates, holidays, vehicle classes and toll stations as compiled tables of the current version.
+   *
+   * @param out            the stream to write
+   * @param tollRates      the toll rates
+   * @param holidays       the names of the holidays keyed by date
+   * @param vehicleClasses the vehicle classes, or null for the defaults
+   * @param stations       the toll stations
+   * @throws IOException if the stream cannot be written
+   */
+  public static void write(final DataOutputStream out, final List<TollRate> tollRates,
+                           final Map<LocalDate, String> holidays, final VehicleClassRegistry vehicleClasses,
+                           final StationRegistry stations) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(tollRates.size());
+    for (final TollRate tollRate : tollRates) {
+      out.writeLong(tollRate.getStartTime().toNanoOfDay());
+      out.writeLong(tollRate.getEndTime().toNanoOfDay());
+      out.writeDouble(tollRate.getRate());
+      writeNames(out, tollRate.getVehicleClasses());
+      writeNames(out, tollRate.getDayTypes() == null ? null
+          : tollRate.getDayTypes().stream().map(DayType::name).collect(Collectors.toList()));
+      out.writeLong(tollRate.getValidFrom() == null ? Long.MIN_VALUE : tollRate.getValidFrom().toEpochDay());
+      out.writeLong(tollRate.getValidTo() == null ? Long.MAX_VALUE : tollRate.getValidTo().toEpochDay());
+      writeNames(out, tollRate.getStations());
+    }
+    out.writeInt(holidays.size());
+    for (final Map.Entry<LocalDate, String> holiday : holidays.entrySet()) {
+      out.writeLong(holiday.getKey().toEpochDay());
+      out.writeUTF(holiday.getValue());
+    }
+    if (vehicleClasses == null) {
+      out.writeInt(DEFAULT_VEHICLE_CLASSES);
+    } else {
+      out.writeInt(vehicleClasses.size());
+      for (int code = 0; code < vehicleClasses.size(); code++) {
+        out.writeUTF(vehicleClasses.nameOf(code));
+        out.writeBoolean(vehicleClasses.isTollFree(code));
+      }
+    }
+    out.writeInt(stations.size());
+    for (int code = 0; code < stations.size(); code++) {
+      out.writeUTF(stations.nameOf(code));
+    }
+  }
+
+  /**
+   * Compiles the tables, as the {@code compileConfigTables} build step does. The vehicle class and toll station
+   * files are optional: if one does not exist, the default vehicle classes or no toll stations are compiled.
+   *
+   * @param args the rates YAML file, the holidays YAML file, the vehicle classes YAML file, the toll stations YAML
+   *             file and the tables file to write
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(final String[] args) throws IOException {
+    if (args.length != 5) {
+      throw new IllegalArgumentException("Usage: BinaryConfigLoader <rates.yml> <holidays.yml> "
+          + "<vehicle-classes.yml> <stations.yml> <tables file>");
+    }
+    final List<TollRate> tollRates;
+    try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+      tollRates = YamlConfigLoader.loadRates(in, args[0]);
+    }
+    final Map<LocalDate, String> holidays;
+    try (InputStream in = Files.newInputStream(Path.of(args[1]))) {
+      holidays = YamlConfigLoader.loadHolidays(in, args[1]);
+    }
+    VehicleClassRegistry vehicleClasses = null;
+    if (Files.exists(Path.of(args[2]))) {
+      try (InputStream in = Files.newInputStream(Path.of(args[2]))) {
+        vehicleClasses = YamlConfigLoader.loadVehicleClasses(in, args[2]);
+      }
+    }
+    StationRegistry stations = StationRegistry.empty();
+    if (Files.exists(Path.of(args[3]))) {
+      try (InputStream in = Files.newInputStream(Path.of(args[3]))) {
+        stations = YamlConfigLoader.loadStations(in, args[3]);
+      }
+    }
+    final Path tables = Path.of(args[4]);
+    Files.createDirectories(tables.toAbsolutePath().getParent());
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tables)))) {
+      write(out, tollRates, holidays, vehicleClasses, stations);
+    }
+  }
+
+  /**
+   * Writes a list of names, an absent list as an empty one.
+   *
+   * @param out   the stream to write
+   * @param names the names, or null
+   * @throws IOException if the stream cannot be written
+   */
+  private static void writeNames(final DataOutputStream out, final List<String> names) throws IOException {
+    if (names == null) {
+      out.writeInt(0);
+      return;
+    }
+    out.writeInt(names.size());
+    for (final String name : names) {
+      out.writeUTF(name);
+    }
+  }
+}
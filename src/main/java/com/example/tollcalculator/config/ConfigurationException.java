@@ -0,0 +1,30 @@
+package com.example.tollcalculator.config;
+
+/**
+ * Thrown when the toll rate or holiday configuration cannot be found or read.
+ */
+public class ConfigurationException extends RuntimeException {
+  /**
+   * The serialization version of the exception.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Creates a new configuration exception.
+   *
+   * @param message the description of the problem
+   */
+  public ConfigurationException(final String message) {
+    super(message);
+  }
+
+  /**
+   * Creates a new configuration exception.
+   *
+   * @param message the description of the problem
+   * @param cause   the underlying failure
+   */
+  public ConfigurationException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
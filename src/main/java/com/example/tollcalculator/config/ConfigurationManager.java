@@ -0,0 +1,179 @@
+package com.example.tollcalculator.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Owns the lifecycle of a {@link TollConfiguration}. The configuration is loaded lazily on first use, or
+ * explicitly, and optionally asynchronously, through {@link #initialize()} and {@link #initializeAsync(Executor)}
+ * so that applications can warm the services up during startup, time the load and fail fast on a bad file.
+ * A failed load is not remembered: the next access tries again and reports the same {@link ConfigurationException}.
+ * <p>
+ * The configuration can be replaced at runtime with {@link #reload()}, {@link #publish(TollConfiguration)} or a
+ * file system {@link #watch(Path, Consumer) watch}. A new snapshot is always built completely before it is
+ * published with a single atomic reference swap, so readers never lock and a calculation that holds on to the
+ * snapshot it started with keeps a consistent view.
+ */
+public class ConfigurationManager {
+  /**
+   * The manager of the configuration on the classpath, shared by the services by default.
+   */
+  private static final ConfigurationManager DEFAULT =
+      new ConfigurationManager(TollConfiguration::fromResources);
+  /**
+   * Loads the configuration.
+   */
+  private final Supplier<TollConfiguration> loader;
+  /**
+   * The current configuration, null until it has been loaded.
+   */
+  private final AtomicReference<TollConfiguration> configuration = new AtomicReference<>();
+  /**
+   * How long the last successful load took.
+   */
+  private volatile Duration loadTime = Duration.ZERO;
+
+  /**
+   * Creates a manager that loads its configuration with the given loader.
+   *
+   * @param loader loads the configuration, reporting failures as {@link ConfigurationException}
+   */
+  public ConfigurationManager(final Supplier<TollConfiguration> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Returns the manager of the configuration on the classpath.
+   *
+   * @return the default configuration manager
+   */
+  public static ConfigurationManager getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates a manager that loads its configuration from rate and holiday YAML files on the file system.
+   *
+   * @param ratesFile    the toll rates file
+   * @param holidaysFile the holidays file
+   * @return the configuration manager
+   */
+  public static ConfigurationManager forFiles(final Path ratesFile, final Path holidaysFile) {
+    return new ConfigurationManager(() -> TollConfiguration.fromFiles(ratesFile, holidaysFile));
+  }
+
+  /**
+   * Returns the configuration, loading it first if that has not happened yet.
+   *
+   * @return the configuration
+   * @throws ConfigurationException if the configuration cannot be loaded
+   */
+  public TollConfiguration current() {
+    final TollConfiguration current = configuration.get();
+    return current != null ? current : load();
+  }
+
+  /**
+   * Loads the configuration now, unless it has already been loaded.
+   *
+   * @return how long loading the configuration took
+   * @throws ConfigurationException if the configuration cannot be loaded
+   */
+  public Duration initialize() {
+    current();
+    return loadTime;
+  }
+
+  /**
+   * Loads the configuration on the given executor, unless it has already been loaded.
+   *
+   * @param executor the executor to load the configuration on
+   * @return a future completed with how long loading the configuration took, or with the
+   * {@link ConfigurationException} that made it fail
+   */
+  public CompletableFuture<Duration> initializeAsync(final Executor executor) {
+    return CompletableFuture.supplyAsync(this::initialize, executor);
+  }
+
+  /**
+   * Loads a new snapshot of the configuration and publishes it. If loading fails the current snapshot stays
+   * in place.
+   *
+   * @return the new configuration
+   * @throws ConfigurationException if the configuration cannot be loaded
+   */
+  public synchronized TollConfiguration reload() {
+    final long start = System.nanoTime();
+    final TollConfiguration loaded = loader.get();
+    if (loaded == null) {
+      throw new ConfigurationException("The configuration loader returned no configuration");
+    }
+    loadTime = Duration.ofNanos(System.nanoTime() - start);
+    configuration.set(loaded);
+    return loaded;
+  }
+
+  /**
+   * Publishes a configuration built by the caller.
+   *
+   * @param snapshot the new configuration
+   * @throws IllegalArgumentException if the configuration is null
+   */
+  public void publish(final TollConfiguration snapshot) {
+    if (snapshot == null) {
+      throw new IllegalArgumentException("Null value is not allowed");
+    }
+    configuration.set(snapshot);
+  }
+
+  /**
+   * Watches a directory and reloads the configuration whenever a file in it is created or modified.
+   *
+   * @param directory the directory to watch, usually the one holding the configuration files
+   * @param onError   receives the failures of reloads triggered by the watch
+   * @return the running watcher, which stops watching when closed
+   * @throws ConfigurationException if the directory cannot be watched
+   */
+  public ConfigurationWatcher watch(final Path directory,
+                                    final Consumer<ConfigurationException> onError) {
+    try {
+      return new ConfigurationWatcher(this, directory, onError);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to watch " + directory, e);
+    }
+  }
+
+  /**
+   * Checks if the configuration has been loaded.
+   *
+   * @return true if the configuration has been loaded, false otherwise
+   */
+  public boolean isInitialized() {
+    return configuration.get() != null;
+  }
+
+  /**
+   * Returns how long the last successful load took.
+   *
+   * @return the load time, zero if nothing has been loaded yet
+   */
+  public Duration getLoadTime() {
+    return loadTime;
+  }
+
+  /**
+   * Loads the configuration once, even if several threads ask for it at the same time.
+   *
+   * @return the loaded configuration
+   */
+  private synchronized TollConfiguration load() {
+    final TollConfiguration current = configuration.get();
+    return current != null ? current : reload();
+  }
+}
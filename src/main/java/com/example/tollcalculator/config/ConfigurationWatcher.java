@@ -0,0 +1,81 @@
+package com.example.tollcalculator.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Reloads the configuration of a {@link ConfigurationManager} whenever a file in a watched directory is created
+ * or modified. The events are collected on a daemon thread; all events delivered together cause a single reload.
+ */
+public final class ConfigurationWatcher implements Closeable {
+  /**
+   * The manager whose configuration is reloaded.
+   */
+  private final ConfigurationManager manager;
+  /**
+   * Receives the failures of reloads.
+   */
+  private final Consumer<ConfigurationException> onError;
+  /**
+   * The watch service of the directory.
+   */
+  private final WatchService watchService;
+  /**
+   * The thread waiting for file system events.
+   */
+  private final Thread thread;
+
+  ConfigurationWatcher(final ConfigurationManager manager, final Path directory,
+                       final Consumer<ConfigurationException> onError) throws IOException {
+    this.manager = manager;
+    this.onError = onError;
+    this.watchService = FileSystems.getDefault().newWatchService();
+    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY);
+    this.thread = new Thread(this::run, "toll-configuration-watcher");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Waits for file system events and reloads the configuration until the watcher is closed.
+   */
+  private void run() {
+    try {
+      while (true) {
+        final WatchKey key = watchService.take();
+        key.pollEvents();
+        try {
+          manager.reload();
+        } catch (ConfigurationException e) {
+          onError.accept(e);
+        }
+        if (!key.reset()) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // the watcher has been closed
+    }
+  }
+
+  /**
+   * Stops watching the directory.
+   *
+   * @throws IOException if the watch service cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    thread.interrupt();
+  }
+}
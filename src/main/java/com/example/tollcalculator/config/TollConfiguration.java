@@ -0,0 +1,323 @@
+package com.example.tollcalculator.config;
+
+import com.example.tollcalculator.domain.HolidayCalendar;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.domain.StationRates;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.domain.TariffTable;
+import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the configuration the services bill with: the compiled toll rates, the holidays, the
+ * vehicle classes and the toll stations. Toll rates restricted to vehicle classes, types of day, date ranges or
+ * toll stations are compiled into a {@link TariffTable}; the {@link #getRateTable() rate table} holds the toll
+ * rates without restrictions.
+ */
+public final class TollConfiguration {
+  /**
+   * The fare rate config file in source/main/resources folder
+   */
+  public static final String RATES_FILE_NAME = "rates.yml";
+  /**
+   * The holiday config file in source/main/resources folder
+   */
+  public static final String HOLIDAYS_FILE_NAME = "holidays.yml";
+  /**
+   * The optional vehicle class config file in source/main/resources folder
+   */
+  public static final String VEHICLE_CLASSES_FILE_NAME = "vehicle-classes.yml";
+  /**
+   * The optional toll station config file in source/main/resources folder
+   */
+  public static final String STATIONS_FILE_NAME = "stations.yml";
+  /**
+   * The toll rates without restrictions compiled into an interval index over the time of day.
+   */
+  private final RateTable rateTable;
+  /**
+   * The toll rates of every vehicle class, type of day and validity period.
+   */
+  private final TariffTable tariffs;
+  /**
+   * The holidays as key-value pairs, where the key is the date and the value is the name of the holiday.
+   */
+  private final Map<LocalDate, String> holidays;
+  /**
+   * The holidays and toll-free days over many years, with the listed holidays replacing the generated ones of
+   * their years.
+   */
+  private final HolidayCalendar calendar;
+  /**
+   * The vehicle classes and which of them are toll-free.
+   */
+  private final VehicleClassRegistry vehicleClasses;
+
+  /**
+   * Creates a new configuration snapshot with the default vehicle classes.
+   *
+   * @param rateTable the compiled toll rates
+   * @param holidays  the names of the holidays keyed by date
+   */
+  public TollConfiguration(final RateTable rateTable, final Map<LocalDate, String> holidays) {
+    this(rateTable, holidays, VehicleClassRegistry.defaults());
+  }
+
+  /**
+   * Creates a new configuration snapshot.
+   *
+   * @param rateTable      the compiled toll rates
+   * @param holidays       the names of the holidays keyed by date
+   * @param vehicleClasses the vehicle classes
+   */
+  public TollConfiguration(final RateTable rateTable, final Map<LocalDate, String> holidays,
+                           final VehicleClassRegistry vehicleClasses) {
+    this(TariffTable.of(rateTable), holidays, vehicleClasses);
+  }
+
+  /**
+   * Creates a new configuration snapshot from toll rates that may be restricted to vehicle classes, types of
+   * day or date ranges, without toll stations.
+   *
+   * @param tollRates      the toll rates
+   * @param holidays       the names of the holidays keyed by date
+   * @param vehicleClasses the vehicle classes
+   * @throws IllegalArgumentException if a toll rate is incomplete or names an unknown vehicle class or station
+   */
+  public TollConfiguration(final List<TollRate> tollRates, final Map<LocalDate, String> holidays,
+                           final VehicleClassRegistry vehicleClasses) {
+    this(tollRates, holidays, vehicleClasses, StationRegistry.empty());
+  }
+
+  /**
+   * Creates a new configuration snapshot from toll rates that may be restricted to vehicle classes, types of
+   * day, date ranges or toll stations.
+   *
+   * @param tollRates      the toll rates
+   * @param holidays       the names of the holidays keyed by date
+   * @param vehicleClasses the vehicle classes
+   * @param stations       the toll stations
+   * @throws IllegalArgumentException if a toll rate is incomplete or names an unknown vehicle class or station
+   */
+  public TollConfiguration(final List<TollRate> tollRates, final Map<LocalDate, String> holidays,
+                           final VehicleClassRegistry vehicleClasses, final StationRegistry stations) {
+    this(TariffTable.compile(tollRates, vehicleClasses, stations), holidays, vehicleClasses);
+  }
+
+  private TollConfiguration(final TariffTable tariffs, final Map<LocalDate, String> holidays,
+                            final VehicleClassRegistry vehicleClasses) {
+    this.rateTable = tariffs.getDefaultTable();
+    this.tariffs = tariffs;
+    this.holidays = Collections.unmodifiableMap(new HashMap<>(holidays));
+    this.calendar = HolidayCalendar.of(holidays);
+    this.vehicleClasses = vehicleClasses;
+  }
+
+  /**
+   * Loads the configuration from the classpath. The tables compiled at build time, which include the vehicle
+   * classes and toll stations, are preferred; the YAML files are only parsed when the classpath holds no compiled
+   * tables, so jackson is not loaded at all in a regular build. The YAML vehicle classes are read from
+   * {@code vehicle-classes.yml} if the classpath holds one and are the
+   * {@link VehicleClassRegistry#defaults() defaults} otherwise; likewise the toll stations are read from
+   * {@code stations.yml} if the classpath holds one.
+   *
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read
+   */
+  public static TollConfiguration fromResources() {
+    final TollConfiguration compiled = BinaryConfigLoader.loadResource();
+    return compiled == null ? fromYamlResources() : compiled;
+  }
+
+  /**
+   * Loads the configuration from the rate and holiday YAML files on the classpath.
+   *
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read
+   */
+  public static TollConfiguration fromYamlResources() {
+    return new TollConfiguration(YamlConfigLoader.loadRates(RATES_FILE_NAME),
+        YamlConfigLoader.loadHolidays(HOLIDAYS_FILE_NAME), loadVehicleClassResource(), loadStationResource());
+  }
+
+  /**
+   * Loads the configuration from rate and holiday YAML files on the file system.
+   *
+   * @param ratesFile    the toll rates file
+   * @param holidaysFile the holidays file
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read
+   */
+  public static TollConfiguration fromFiles(final Path ratesFile, final Path holidaysFile) {
+    return fromFiles(ratesFile, holidaysFile, VehicleClassRegistry.defaults(), StationRegistry.empty());
+  }
+
+  /**
+   * Loads the configuration from rate, holiday and vehicle class YAML files on the file system.
+   *
+   * @param ratesFile          the toll rates file
+   * @param holidaysFile       the holidays file
+   * @param vehicleClassesFile the vehicle classes file
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read
+   */
+  public static TollConfiguration fromFiles(final Path ratesFile, final Path holidaysFile,
+                                            final Path vehicleClassesFile) {
+    try (InputStream vehicleClasses = Files.newInputStream(vehicleClassesFile)) {
+      return fromFiles(ratesFile, holidaysFile,
+          YamlConfigLoader.loadVehicleClasses(vehicleClasses, vehicleClassesFile.toString()),
+          StationRegistry.empty());
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + vehicleClassesFile, e);
+    }
+  }
+
+  /**
+   * Loads the configuration from rate, holiday, vehicle class and toll station YAML files on the file system.
+   *
+   * @param ratesFile          the toll rates file
+   * @param holidaysFile       the holidays file
+   * @param vehicleClassesFile the vehicle classes file
+   * @param stationsFile       the toll stations file
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read
+   */
+  public static TollConfiguration fromFiles(final Path ratesFile, final Path holidaysFile,
+                                            final Path vehicleClassesFile, final Path stationsFile) {
+    try (InputStream vehicleClasses = Files.newInputStream(vehicleClassesFile);
+         InputStream stations = Files.newInputStream(stationsFile)) {
+      return fromFiles(ratesFile, holidaysFile,
+          YamlConfigLoader.loadVehicleClasses(vehicleClasses, vehicleClassesFile.toString()),
+          YamlConfigLoader.loadStations(stations, stationsFile.toString()));
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + vehicleClassesFile + " or " + stationsFile, e);
+    }
+  }
+
+  /**
+   * Loads the configuration from rate and holiday YAML files on the file system.
+   *
+   * @param ratesFile      the toll rates file
+   * @param holidaysFile   the holidays file
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to
+   * @param stations       the toll stations the toll rates may be restricted to
+   * @return the loaded configuration
+   * @throws ConfigurationException if a file does not exist or cannot be read, or a toll rate is invalid
+   */
+  private static TollConfiguration fromFiles(final Path ratesFile, final Path holidaysFile,
+                                             final VehicleClassRegistry vehicleClasses,
+                                             final StationRegistry stations) {
+    try (InputStream rates = Files.newInputStream(ratesFile);
+         InputStream holidays = Files.newInputStream(holidaysFile)) {
+      return new TollConfiguration(YamlConfigLoader.loadRates(rates, ratesFile.toString()),
+          YamlConfigLoader.loadHolidays(holidays, holidaysFile.toString()), vehicleClasses, stations);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + ratesFile + " or " + holidaysFile, e);
+    } catch (IllegalArgumentException e) {
+      throw new ConfigurationException("Invalid toll rate in " + ratesFile + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Loads the vehicle classes from the classpath, if it holds a vehicle class file.
+   *
+   * @return the loaded vehicle classes, or the defaults
+   * @throws ConfigurationException if the file cannot be read
+   */
+  private static VehicleClassRegistry loadVehicleClassResource() {
+    if (TollConfiguration.class.getResource("/" + VEHICLE_CLASSES_FILE_NAME) == null) {
+      return VehicleClassRegistry.defaults();
+    }
+    return YamlConfigLoader.loadVehicleClasses(VEHICLE_CLASSES_FILE_NAME);
+  }
+
+  /**
+   * Loads the toll stations from the classpath, if it holds a toll station file.
+   *
+   * @return the loaded toll stations, or no stations
+   * @throws ConfigurationException if the file cannot be read
+   */
+  private static StationRegistry loadStationResource() {
+    if (TollConfiguration.class.getResource("/" + STATIONS_FILE_NAME) == null) {
+      return StationRegistry.empty();
+    }
+    return YamlConfigLoader.loadStations(STATIONS_FILE_NAME);
+  }
+
+  public RateTable getRateTable() {
+    return rateTable;
+  }
+
+  public TariffTable getTariffs() {
+    return tariffs;
+  }
+
+  /**
+   * Returns the rate table a vehicle class is charged by on a day.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured registry, or a negative code for a
+   *                     vehicle of no registered class
+   * @param date         the day
+   * @return the rate table of the vehicle class on that day
+   */
+  public RateTable rateTableFor(final int vehicleClass, final LocalDate date) {
+    return tariffs.tableFor(vehicleClass, calendar.dayTypeOf(date), date);
+  }
+
+  /**
+   * Returns the rate tables of every toll station a vehicle class is charged by on a day.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured registry, or a negative code for a
+   *                     vehicle of no registered class
+   * @param date         the day
+   * @return the rate tables of the toll stations for the vehicle class on that day
+   */
+  public StationRates stationRatesFor(final int vehicleClass, final LocalDate date) {
+    return tariffs.stationRatesFor(vehicleClass, calendar.dayTypeOf(date), date);
+  }
+
+  public Map<LocalDate, String> getHolidays() {
+    return holidays;
+  }
+
+  public HolidayCalendar getCalendar() {
+    return calendar;
+  }
+
+  public VehicleClassRegistry getVehicleClasses() {
+    return vehicleClasses;
+  }
+
+  public StationRegistry getStations() {
+    return tariffs.getStations();
+  }
+
+  /**
+   * Checks if a given date is a holiday.
+   *
+   * @param date the date to check
+   * @return true if the given date is a holiday, false otherwise
+   */
+  public boolean isHoliday(final LocalDate date) {
+    return calendar.isHoliday(date);
+  }
+
+  /**
+   * Checks if a given date is toll-free, i.e. a holiday or a weekend day.
+   *
+   * @param date the date to check
+   * @return true if the given date is a holiday, a Saturday or a Sunday, false otherwise
+   */
+  public boolean isTollFreeDay(final LocalDate date) {
+    return calendar.isTollFreeDay(date);
+  }
+}
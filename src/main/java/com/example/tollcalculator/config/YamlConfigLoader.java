@@ -0,0 +1,178 @@
+package com.example.tollcalculator.config;
+
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.domain.VehicleClass;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the toll rate, holiday and vehicle class configuration from YAML.
+ * All services share one jackson object mapper, which is thread-safe once configured.
+ */
+public final class YamlConfigLoader {
+  /**
+   * The jackson object for yaml mapping.
+   */
+  private static final ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory())
+      .registerModule(new JavaTimeModule());
+
+  private YamlConfigLoader() {
+  }
+
+  /**
+   * Reads a list of toll rates from a resource on the classpath.
+   *
+   * @param resourceName the name of the resource, relative to the classpath root
+   * @return the toll rates
+   * @throws ConfigurationException if the resource does not exist or cannot be read
+   */
+  public static List<TollRate> loadRates(final String resourceName) {
+    try (InputStream inputStream = openResource(resourceName)) {
+      return loadRates(inputStream, resourceName);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + resourceName + " file", e);
+    }
+  }
+
+  /**
+   * Reads a list of toll rates from a stream.
+   *
+   * @param inputStream the stream to read
+   * @param source      the name of the source, used in error messages
+   * @return the toll rates
+   * @throws ConfigurationException if the stream cannot be read
+   */
+  public static List<TollRate> loadRates(final InputStream inputStream, final String source) {
+    try {
+      return objectMapper.readValue(inputStream,
+          objectMapper.getTypeFactory().constructCollectionType(List.class, TollRate.class));
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + source + " file", e);
+    }
+  }
+
+  /**
+   * Reads the holidays, keyed by date, from a resource on the classpath.
+   *
+   * @param resourceName the name of the resource, relative to the classpath root
+   * @return the names of the holidays keyed by date
+   * @throws ConfigurationException if the resource does not exist or cannot be read
+   */
+  public static Map<LocalDate, String> loadHolidays(final String resourceName) {
+    try (InputStream inputStream = openResource(resourceName)) {
+      return loadHolidays(inputStream, resourceName);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + resourceName + " file", e);
+    }
+  }
+
+  /**
+   * Reads the holidays, keyed by date, from a stream.
+   *
+   * @param inputStream the stream to read
+   * @param source      the name of the source, used in error messages
+   * @return the names of the holidays keyed by date
+   * @throws ConfigurationException if the stream cannot be read
+   */
+  public static Map<LocalDate, String> loadHolidays(final InputStream inputStream,
+                                                    final String source) {
+    try {
+      return objectMapper.readValue(inputStream, new TypeReference<>() {
+      });
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + source + " file", e);
+    }
+  }
+
+  /**
+   * Reads the vehicle classes from a resource on the classpath.
+   *
+   * @param resourceName the name of the resource, relative to the classpath root
+   * @return the registry of the vehicle classes
+   * @throws ConfigurationException if the resource does not exist, cannot be read or is not a valid registry
+   */
+  public static VehicleClassRegistry loadVehicleClasses(final String resourceName) {
+    try (InputStream inputStream = openResource(resourceName)) {
+      return loadVehicleClasses(inputStream, resourceName);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + resourceName + " file", e);
+    }
+  }
+
+  /**
+   * Reads the vehicle classes from a stream. The stream holds a list of vehicle classes, each with a
+   * {@code name} and a {@code tollFree} flag; the code of a class is its position in the list.
+   *
+   * @param inputStream the stream to read
+   * @param source      the name of the source, used in error messages
+   * @return the registry of the vehicle classes
+   * @throws ConfigurationException if the stream cannot be read or is not a valid registry
+   */
+  public static VehicleClassRegistry loadVehicleClasses(final InputStream inputStream, final String source) {
+    try {
+      final List<VehicleClass> vehicleClasses = objectMapper.readValue(inputStream,
+          objectMapper.getTypeFactory().constructCollectionType(List.class, VehicleClass.class));
+      return VehicleClassRegistry.of(vehicleClasses);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new ConfigurationException("Failed to read " + source + " file", e);
+    }
+  }
+
+  /**
+   * Reads the toll stations from a resource on the classpath.
+   *
+   * @param resourceName the name of the resource, relative to the classpath root
+   * @return the registry of the stations
+   * @throws ConfigurationException if the resource does not exist, cannot be read or is not a valid registry
+   */
+  public static StationRegistry loadStations(final String resourceName) {
+    try (InputStream inputStream = openResource(resourceName)) {
+      return loadStations(inputStream, resourceName);
+    } catch (IOException e) {
+      throw new ConfigurationException("Failed to read " + resourceName + " file", e);
+    }
+  }
+
+  /**
+   * Reads the toll stations from a stream. The stream holds a list of station names; the code of a station is
+   * its position in the list.
+   *
+   * @param inputStream the stream to read
+   * @param source      the name of the source, used in error messages
+   * @return the registry of the stations
+   * @throws ConfigurationException if the stream cannot be read or is not a valid registry
+   */
+  public static StationRegistry loadStations(final InputStream inputStream, final String source) {
+    try {
+      final List<String> stations = objectMapper.readValue(inputStream,
+          objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+      return StationRegistry.of(stations);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new ConfigurationException("Failed to read " + source + " file", e);
+    }
+  }
+
+  /**
+   * Opens a resource on the classpath.
+   *
+   * @param resourceName the name of the resource, relative to the classpath root
+   * @return the opened stream
+   * @throws ConfigurationException if the resource does not exist
+   */
+  private static InputStream openResource(final String resourceName) {
+    final InputStream inputStream = YamlConfigLoader.class.getResourceAsStream("/" + resourceName);
+    if (inputStream == null) {
+      throw new ConfigurationException(resourceName + " file not found in the resources directory");
+    }
+    return inputStream;
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The total toll fee of one vehicle for one day, held exactly in öre.
+ */
+public class DailyToll {
+  /**
+   * The identifier of the vehicle.
+   */
+  private final String vehicleId;
+  /**
+   * The day the fee was charged for.
+   */
+  private final LocalDate date;
+  /**
+   * The total toll fee for the day in öre.
+   */
+  private final long feeInOre;
+
+  /**
+   * Creates a new daily toll.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param date      the day the fee was charged for
+   * @param fee       the total toll fee for the day in kronor, rounded to the nearest öre
+   */
+  public DailyToll(final String vehicleId, final LocalDate date, final double fee) {
+    this(vehicleId, Money.toOre(fee), date);
+  }
+
+  private DailyToll(final String vehicleId, final long feeInOre, final LocalDate date) {
+    this.vehicleId = vehicleId;
+    this.date = date;
+    this.feeInOre = feeInOre;
+  }
+
+  /**
+   * Creates a new daily toll from a fee in öre.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param date      the day the fee was charged for
+   * @param feeInOre  the total toll fee for the day in öre
+   * @return the daily toll
+   */
+  public static DailyToll ofOre(final String vehicleId, final LocalDate date, final long feeInOre) {
+    return new DailyToll(vehicleId, feeInOre, date);
+  }
+
+  public String getVehicleId() {
+    return vehicleId;
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  public double getFee() {
+    return Money.toKronor(feeInOre);
+  }
+
+  public long getFeeInOre() {
+    return feeInOre;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DailyToll)) {
+      return false;
+    }
+    final DailyToll that = (DailyToll) o;
+    return that.feeInOre == feeInOre &&
+        vehicleId.equals(that.vehicleId) &&
+        date.equals(that.date);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(vehicleId, date, feeInOre);
+  }
+
+  @Override
+  public String toString() {
+    return "DailyToll{vehicleId='" + vehicleId + "', date=" + date + ", fee=" + getFee() + '}';
+  }
+}
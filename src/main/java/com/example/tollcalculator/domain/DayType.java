@@ -0,0 +1,19 @@
+package com.example.tollcalculator.domain;
+
+/**
+ * The type of a day as far as tolls are concerned.
+ */
+public enum DayType {
+  /**
+   * A working day, Monday to Friday, that is not a holiday.
+   */
+  WEEKDAY,
+  /**
+   * A Saturday or Sunday that is not a holiday.
+   */
+  WEEKEND,
+  /**
+   * A holiday.
+   */
+  HOLIDAY
+}
@@ -0,0 +1,199 @@
+package com.example.tollcalculator.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable calendar of holidays and toll-free days over a range of years, stored as one bitset per year
+ * indexed by day of year. Checking a date is a single bit test and does not allocate.
+ * <p>
+ * The holidays of a year are taken from an explicit list when the list has any holiday in that year, and are
+ * generated by {@link SwedishHolidays} otherwise. Dates outside the range of the calendar are answered from the
+ * same sources without the bitset.
+ */
+public final class HolidayCalendar {
+  /**
+   * The first year of the default range.
+   */
+  public static final int DEFAULT_FIRST_YEAR = 1970;
+  /**
+   * The last year of the default range.
+   */
+  public static final int DEFAULT_LAST_YEAR = 2100;
+  /**
+   * The number of longs needed for the 366 bits of a year.
+   */
+  private static final int WORDS_PER_YEAR = 6;
+  /**
+   * The first year held in the bitsets.
+   */
+  private final int firstYear;
+  /**
+   * The last year held in the bitsets.
+   */
+  private final int lastYear;
+  /**
+   * The holidays, one bit per day of year.
+   */
+  private final long[] holidayBits;
+  /**
+   * The holidays and weekend days, one bit per day of year.
+   */
+  private final long[] tollFreeDayBits;
+  /**
+   * The explicitly listed holidays, keyed by date.
+   */
+  private final Map<LocalDate, String> explicitHolidays;
+  /**
+   * The years that have explicitly listed holidays.
+   */
+  private final Set<Integer> explicitYears;
+
+  private HolidayCalendar(final int firstYear, final int lastYear,
+                          final Map<LocalDate, String> explicitHolidays) {
+    if (firstYear > lastYear) {
+      throw new IllegalArgumentException("First year must not be after the last year");
+    }
+    this.firstYear = firstYear;
+    this.lastYear = lastYear;
+    this.explicitHolidays = Collections.unmodifiableMap(new HashMap<>(explicitHolidays));
+    final Set<Integer> years = new HashSet<>();
+    explicitHolidays.keySet().forEach(date -> years.add(date.getYear()));
+    this.explicitYears = Collections.unmodifiableSet(years);
+    final int yearCount = lastYear - firstYear + 1;
+    this.holidayBits = new long[yearCount * WORDS_PER_YEAR];
+    this.tollFreeDayBits = new long[yearCount * WORDS_PER_YEAR];
+    for (int year = firstYear; year <= lastYear; year++) {
+      fillYear(year);
+    }
+  }
+
+  /**
+   * Creates a calendar over the default range of years.
+   *
+   * @param explicitHolidays the explicitly listed holidays, which replace the generated ones of their years
+   * @return the calendar
+   */
+  public static HolidayCalendar of(final Map<LocalDate, String> explicitHolidays) {
+    return of(DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR, explicitHolidays);
+  }
+
+  /**
+   * Creates a calendar over the given range of years.
+   *
+   * @param firstYear        the first year held in the bitsets
+   * @param lastYear         the last year held in the bitsets
+   * @param explicitHolidays the explicitly listed holidays, which replace the generated ones of their years
+   * @return the calendar
+   * @throws IllegalArgumentException if the first year is after the last year
+   */
+  public static HolidayCalendar of(final int firstYear, final int lastYear,
+                                   final Map<LocalDate, String> explicitHolidays) {
+    return new HolidayCalendar(firstYear, lastYear, explicitHolidays);
+  }
+
+  /**
+   * Checks if a given date is a holiday.
+   *
+   * @param date the date to check
+   * @return true if the given date is a holiday, false otherwise
+   */
+  public boolean isHoliday(final LocalDate date) {
+    final int year = date.getYear();
+    if (year < firstYear || year > lastYear) {
+      return holidaysOf(year).containsKey(date);
+    }
+    return isSet(holidayBits, year, date.getDayOfYear());
+  }
+
+  /**
+   * Checks if a given date is toll-free, i.e. a holiday or a weekend day.
+   *
+   * @param date the date to check
+   * @return true if the given date is a holiday, a Saturday or a Sunday, false otherwise
+   */
+  public boolean isTollFreeDay(final LocalDate date) {
+    final int year = date.getYear();
+    if (year < firstYear || year > lastYear) {
+      return isWeekend(date.getDayOfWeek()) || holidaysOf(year).containsKey(date);
+    }
+    return isSet(tollFreeDayBits, year, date.getDayOfYear());
+  }
+
+  /**
+   * Returns the type of a date.
+   *
+   * @param date the date
+   * @return {@link DayType#HOLIDAY} for a holiday, {@link DayType#WEEKEND} for any other Saturday or Sunday and
+   * {@link DayType#WEEKDAY} otherwise
+   */
+  public DayType dayTypeOf(final LocalDate date) {
+    if (!isTollFreeDay(date)) {
+      return DayType.WEEKDAY;
+    }
+    return isHoliday(date) ? DayType.HOLIDAY : DayType.WEEKEND;
+  }
+
+  /**
+   * Returns the holidays of a year, either the explicitly listed or the generated ones.
+   *
+   * @param year the year
+   * @return the names of the holidays of the year keyed by date
+   */
+  public Map<LocalDate, String> holidaysOf(final int year) {
+    if (!explicitYears.contains(year)) {
+      return SwedishHolidays.of(year);
+    }
+    final Map<LocalDate, String> holidays = new HashMap<>();
+    explicitHolidays.forEach((date, name) -> {
+      if (date.getYear() == year) {
+        holidays.put(date, name);
+      }
+    });
+    return holidays;
+  }
+
+  /**
+   * Sets the bits of the holidays and weekend days of a year.
+   *
+   * @param year the year
+   */
+  private void fillYear(final int year) {
+    for (final LocalDate holiday : holidaysOf(year).keySet()) {
+      set(holidayBits, year, holiday.getDayOfYear());
+      set(tollFreeDayBits, year, holiday.getDayOfYear());
+    }
+    final LocalDate firstDay = LocalDate.of(year, 1, 1);
+    final int firstDayOfWeek = firstDay.getDayOfWeek().getValue() - 1;
+    for (int dayOfYear = 1; dayOfYear <= firstDay.lengthOfYear(); dayOfYear++) {
+      if (isWeekend(DayOfWeek.of((firstDayOfWeek + dayOfYear - 1) % 7 + 1))) {
+        set(tollFreeDayBits, year, dayOfYear);
+      }
+    }
+  }
+
+  private void set(final long[] bits, final int year, final int dayOfYear) {
+    final int bit = dayOfYear - 1;
+    bits[(year - firstYear) * WORDS_PER_YEAR + (bit >>> 6)] |= 1L << bit;
+  }
+
+  private boolean isSet(final long[] bits, final int year, final int dayOfYear) {
+    final int bit = dayOfYear - 1;
+    return (bits[(year - firstYear) * WORDS_PER_YEAR + (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Checks if the given day of week is a weekend day (Saturday or Sunday).
+   *
+   * @param dayOfWeek the day of week to check
+   * @return true if the day is a Saturday or Sunday, false otherwise
+   */
+  private static boolean isWeekend(final DayOfWeek dayOfWeek) {
+    return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The toll fees of one vehicle over a billing period: the fee of every day with at least one pass and the fee
+ * of every month the period touches.
+ */
+public class Invoice {
+  /**
+   * The identifier of the vehicle.
+   */
+  private final String vehicleId;
+  /**
+   * The first day of the billing period.
+   */
+  private final LocalDate from;
+  /**
+   * The last day of the billing period, inclusive.
+   */
+  private final LocalDate to;
+  /**
+   * The fee of every day with at least one pass, ordered by date.
+   */
+  private final List<DailyToll> dailyTolls;
+  /**
+   * The fee of every month of the period, ordered by month.
+   */
+  private final List<MonthlyToll> monthlyTolls;
+
+  /**
+   * Creates a new invoice.
+   *
+   * @param vehicleId    the identifier of the vehicle
+   * @param from         the first day of the billing period
+   * @param to           the last day of the billing period, inclusive
+   * @param dailyTolls   the fee of every day with at least one pass, ordered by date
+   * @param monthlyTolls the fee of every month of the period, ordered by month
+   */
+  public Invoice(final String vehicleId, final LocalDate from, final LocalDate to,
+                 final List<DailyToll> dailyTolls, final List<MonthlyToll> monthlyTolls) {
+    this.vehicleId = vehicleId;
+    this.from = from;
+    this.to = to;
+    this.dailyTolls = List.copyOf(dailyTolls);
+    this.monthlyTolls = List.copyOf(monthlyTolls);
+  }
+
+  public String getVehicleId() {
+    return vehicleId;
+  }
+
+  public LocalDate getFrom() {
+    return from;
+  }
+
+  public LocalDate getTo() {
+    return to;
+  }
+
+  public List<DailyToll> getDailyTolls() {
+    return dailyTolls;
+  }
+
+  public List<MonthlyToll> getMonthlyTolls() {
+    return monthlyTolls;
+  }
+
+  /**
+   * Returns the fee charged for the whole period, with the monthly caps applied.
+   *
+   * @return the sum of the monthly fees
+   */
+  public double getTotal() {
+    return Money.toKronor(getTotalInOre());
+  }
+
+  /**
+   * Returns the fee charged for the whole period in öre, with the monthly caps applied.
+   *
+   * @return the exact sum of the monthly fees in öre
+   */
+  public long getTotalInOre() {
+    long total = 0;
+    for (final MonthlyToll monthlyToll : monthlyTolls) {
+      total += monthlyToll.getFeeInOre();
+    }
+    return total;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Invoice)) {
+      return false;
+    }
+    final Invoice that = (Invoice) o;
+    return vehicleId.equals(that.vehicleId) && from.equals(that.from) && to.equals(that.to) &&
+        dailyTolls.equals(that.dailyTolls) && monthlyTolls.equals(that.monthlyTolls);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(vehicleId, from, to, dailyTolls, monthlyTolls);
+  }
+
+  @Override
+  public String toString() {
+    return "Invoice{vehicleId='" + vehicleId + "', from=" + from + ", to=" + to + ", total=" + getTotal() + '}';
+  }
+}
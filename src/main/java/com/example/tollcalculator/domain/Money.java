@@ -0,0 +1,51 @@
+package com.example.tollcalculator.domain;
+
+/**
+ * Converts between amounts in kronor, as configured and returned by the double based API, and amounts in öre,
+ * the minor unit every fee is calculated in. Fees in öre are exact: summing them over any number of passes,
+ * days or invoices never drifts, and the results do not depend on the order of the additions.
+ */
+public final class Money {
+  /**
+   * The number of öre in one krona.
+   */
+  public static final long ORE_PER_KRONA = 100;
+
+  private Money() {
+  }
+
+  /**
+   * Converts an amount in kronor to öre, rounding half up to the nearest öre.
+   *
+   * @param kronor the amount in kronor
+   * @return the amount in öre
+   * @throws IllegalArgumentException if the amount is not a number, infinite or too large
+   */
+  public static long toOre(final double kronor) {
+    final double ore = kronor * ORE_PER_KRONA;
+    if (!(Math.abs(ore) < Long.MAX_VALUE)) {
+      throw new IllegalArgumentException("Amount out of range: " + kronor);
+    }
+    return Math.round(ore);
+  }
+
+  /**
+   * Converts an amount in öre to kronor.
+   *
+   * @param ore the amount in öre
+   * @return the amount in kronor
+   */
+  public static double toKronor(final long ore) {
+    return (double) ore / ORE_PER_KRONA;
+  }
+
+  /**
+   * Returns the whole kronor of an amount in öre, dropping the öre.
+   *
+   * @param ore the amount in öre
+   * @return the whole kronor, truncated towards zero
+   */
+  public static long wholeKronor(final long ore) {
+    return ore / ORE_PER_KRONA;
+  }
+}
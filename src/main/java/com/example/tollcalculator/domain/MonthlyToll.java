@@ -0,0 +1,104 @@
+package com.example.tollcalculator.domain;
+
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * The total toll fee of one vehicle for one calendar month, before and after the monthly cap, held exactly in öre.
+ */
+public class MonthlyToll {
+  /**
+   * The month the fee was charged for.
+   */
+  private final YearMonth month;
+  /**
+   * The sum of the daily fees of the month in öre.
+   */
+  private final long uncappedFeeInOre;
+  /**
+   * The fee charged for the month in öre, at most the monthly cap.
+   */
+  private final long feeInOre;
+
+  /**
+   * Creates a new monthly toll.
+   *
+   * @param month       the month the fee was charged for
+   * @param uncappedFee the sum of the daily fees of the month in kronor, rounded to the nearest öre
+   * @param fee         the fee charged for the month in kronor, at most the monthly cap
+   */
+  public MonthlyToll(final YearMonth month, final double uncappedFee, final double fee) {
+    this(Money.toOre(uncappedFee), Money.toOre(fee), month);
+  }
+
+  private MonthlyToll(final long uncappedFeeInOre, final long feeInOre, final YearMonth month) {
+    this.month = month;
+    this.uncappedFeeInOre = uncappedFeeInOre;
+    this.feeInOre = feeInOre;
+  }
+
+  /**
+   * Creates a new monthly toll from fees in öre.
+   *
+   * @param month            the month the fee was charged for
+   * @param uncappedFeeInOre the sum of the daily fees of the month in öre
+   * @param feeInOre         the fee charged for the month in öre, at most the monthly cap
+   * @return the monthly toll
+   */
+  public static MonthlyToll ofOre(final YearMonth month, final long uncappedFeeInOre, final long feeInOre) {
+    return new MonthlyToll(uncappedFeeInOre, feeInOre, month);
+  }
+
+  public YearMonth getMonth() {
+    return month;
+  }
+
+  public double getUncappedFee() {
+    return Money.toKronor(uncappedFeeInOre);
+  }
+
+  public double getFee() {
+    return Money.toKronor(feeInOre);
+  }
+
+  public long getUncappedFeeInOre() {
+    return uncappedFeeInOre;
+  }
+
+  public long getFeeInOre() {
+    return feeInOre;
+  }
+
+  /**
+   * Checks if the monthly cap lowered the fee of the month.
+   *
+   * @return true if less than the sum of the daily fees is charged, false otherwise
+   */
+  public boolean isCapped() {
+    return feeInOre < uncappedFeeInOre;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MonthlyToll)) {
+      return false;
+    }
+    final MonthlyToll that = (MonthlyToll) o;
+    return that.uncappedFeeInOre == uncappedFeeInOre &&
+        that.feeInOre == feeInOre &&
+        month.equals(that.month);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(month, uncappedFeeInOre, feeInOre);
+  }
+
+  @Override
+  public String toString() {
+    return "MonthlyToll{month=" + month + ", uncappedFee=" + getUncappedFee() + ", fee=" + getFee() + '}';
+  }
+}
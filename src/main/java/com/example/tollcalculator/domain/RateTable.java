@@ -0,0 +1,174 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An immutable interval index over the time of day, compiled from a list of {@link TollRate} objects.
+ * The day is split into segments at every point where a configured rate starts or ends, and every segment
+ * holds the maximum rate among the toll rates covering it, in öre. A lookup is a binary search over the segment
+ * boundaries and does not allocate.
+ */
+public final class RateTable {
+  /**
+   * The number of nanoseconds in one second.
+   */
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /**
+   * The number of seconds in one day.
+   */
+  public static final int SECONDS_PER_DAY = 86_400;
+  /**
+   * The number of nanoseconds in one day.
+   */
+  private static final long NANOS_PER_DAY = SECONDS_PER_DAY * NANOS_PER_SECOND;
+  /**
+   * The sorted start points of each segment, in nanoseconds of day. The first segment always starts at midnight.
+   */
+  private final long[] segmentStarts;
+  /**
+   * The rate of each segment in öre, 0 for the segments not covered by any toll rate.
+   */
+  private final long[] segmentRates;
+
+  private RateTable(final long[] segmentStarts, final long[] segmentRates) {
+    this.segmentStarts = segmentStarts;
+    this.segmentRates = segmentRates;
+  }
+
+  /**
+   * Compiles the given toll rates into a rate table. Where toll rates overlap the highest rate wins,
+   * and times not covered by any toll rate are toll-free.
+   *
+   * @param tollRates the toll rates to compile
+   * @return the compiled rate table
+   * @throws IllegalArgumentException if a toll rate has no start or end time, or its rate is out of range
+   */
+  public static RateTable compile(final List<TollRate> tollRates) {
+    final TreeSet<Long> boundaries = new TreeSet<>();
+    boundaries.add(0L);
+    for (final TollRate tollRate : tollRates) {
+      if (tollRate.getStartTime() == null || tollRate.getEndTime() == null) {
+        throw new IllegalArgumentException("Toll rate must have a start and an end time");
+      }
+      final long start = tollRate.getStartTime().toNanoOfDay();
+      final long end = tollRate.getEndTime().toNanoOfDay();
+      if (start > end) {
+        continue;
+      }
+      boundaries.add(start);
+      if (end + 1 < NANOS_PER_DAY) {
+        boundaries.add(end + 1);
+      }
+    }
+
+    final long[] segmentStarts = boundaries.stream().mapToLong(Long::longValue).toArray();
+    final long[] segmentRates = new long[segmentStarts.length];
+    for (int i = 0; i < segmentStarts.length; i++) {
+      final LocalTime segmentStart = LocalTime.ofNanoOfDay(segmentStarts[i]);
+      segmentRates[i] = tollRates.stream()
+          .filter(r -> r.contains(segmentStart))
+          .mapToLong(TollRate::getRateInOre)
+          .max()
+          .orElse(0L);
+    }
+    return new RateTable(segmentStarts, segmentRates);
+  }
+
+  /**
+   * Returns the toll rate for the given time of day.
+   *
+   * @param time the time of day
+   * @return the toll rate at that time
+   */
+  public double rateAt(final LocalTime time) {
+    return Money.toKronor(rateInOreAt(time));
+  }
+
+  /**
+   * Returns the toll rate in öre for the given time of day.
+   *
+   * @param time the time of day
+   * @return the toll rate in öre at that time
+   */
+  public long rateInOreAt(final LocalTime time) {
+    return rateAtNanoOfDay(time.toNanoOfDay());
+  }
+
+  /**
+   * Returns the toll rate for the given second of day.
+   *
+   * @param secondOfDay the second of day, from 0 to 86399
+   * @return the toll rate at that second
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  public double rateAtSecondOfDay(final int secondOfDay) {
+    return Money.toKronor(rateInOreAtSecondOfDay(secondOfDay));
+  }
+
+  /**
+   * Returns the toll rate in öre for the given second of day.
+   *
+   * @param secondOfDay the second of day, from 0 to 86399
+   * @return the toll rate in öre at that second
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  public long rateInOreAtSecondOfDay(final int secondOfDay) {
+    if (secondOfDay < 0 || secondOfDay >= SECONDS_PER_DAY) {
+      throw new IllegalArgumentException("Second of day out of range: " + secondOfDay);
+    }
+    return rateAtNanoOfDay(secondOfDay * NANOS_PER_SECOND);
+  }
+
+  /**
+   * Returns the toll rate in öre for the given nanosecond of day, the precision of a {@link LocalTime}.
+   *
+   * @param nanoOfDay the nanosecond of day, from 0 to the last nanosecond of the day
+   * @return the toll rate in öre at that time
+   * @throws IllegalArgumentException if the nanosecond of day is out of range
+   */
+  public long rateInOreAtNanoOfDay(final long nanoOfDay) {
+    if (nanoOfDay < 0 || nanoOfDay >= NANOS_PER_DAY) {
+      throw new IllegalArgumentException("Nanosecond of day out of range: " + nanoOfDay);
+    }
+    return rateAtNanoOfDay(nanoOfDay);
+  }
+
+  /**
+   * Returns the start of every segment as the first whole second of day that falls into it, in ascending order.
+   * The first segment starts at second 0. Together with {@link #getSegmentRatesInOre()} this is the table in a
+   * primitive form for kernels that look up many seconds of day at once: the rate at a second of day is the rate
+   * of the last segment starting at or before it.
+   *
+   * @return a new array with the first second of day of every segment
+   */
+  public int[] getSegmentStartSeconds() {
+    final int[] startSeconds = new int[segmentStarts.length];
+    for (int i = 0; i < segmentStarts.length; i++) {
+      startSeconds[i] = (int) ((segmentStarts[i] + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+    return startSeconds;
+  }
+
+  /**
+   * Returns the rate of every segment in öre, at the same indices as {@link #getSegmentStartSeconds()}.
+   *
+   * @return a new array with the rate of every segment in öre
+   */
+  public long[] getSegmentRatesInOre() {
+    return segmentRates.clone();
+  }
+
+  /**
+   * Returns the toll rate in öre for the given nanosecond of day.
+   *
+   * @param nanoOfDay the nanosecond of day
+   * @return the toll rate in öre at that time
+   */
+  private long rateAtNanoOfDay(final long nanoOfDay) {
+    final int index = Arrays.binarySearch(segmentStarts, nanoOfDay);
+    return segmentRates[index >= 0 ? index : -index - 2];
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.tollcalculator.domain;
+
+/**
+ * The rate tables of every toll station for one vehicle class on one day, indexed by the dense code of the
+ * station in a {@link StationRegistry}. Passes of an unknown station are charged by the toll rates that are not
+ * restricted to stations.
+ */
+public final class StationRates {
+  /**
+   * The rate table of passes without a registered station, followed by the rate table of every station.
+   */
+  private final RateTable[] tables;
+
+  StationRates(final RateTable[] tables) {
+    this.tables = tables;
+  }
+
+  /**
+   * Returns the rate table of a station.
+   *
+   * @param station the code of the station, or {@link StationRegistry#NO_STATION}
+   * @return the rate table of the station
+   */
+  public RateTable forStation(final int station) {
+    return station >= 0 && station < tables.length - 1 ? tables[station + 1] : tables[0];
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.tollcalculator.domain;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable registry of toll stations that identifies every station by a dense code, its position in the
+ * registry, so that the rates of a station are found by an array access. Passes carry the code of their
+ * station, or {@link #NO_STATION} if the station is unknown.
+ */
+public final class StationRegistry {
+  /**
+   * The code of a pass whose station is unknown or not registered.
+   */
+  public static final int NO_STATION = -1;
+  /**
+   * The registry without stations.
+   */
+  private static final StationRegistry EMPTY = new StationRegistry(new String[0], Map.of());
+  /**
+   * The names of the stations indexed by code.
+   */
+  private final String[] names;
+  /**
+   * The codes of the stations keyed by name.
+   */
+  private final Map<String, Integer> codes;
+
+  private StationRegistry(final String[] names, final Map<String, Integer> codes) {
+    this.names = names;
+    this.codes = codes;
+  }
+
+  /**
+   * Creates a registry. The code of every station is its index in the list.
+   *
+   * @param stationNames the names of the stations
+   * @return the registry
+   * @throws IllegalArgumentException if a name is missing or used twice
+   */
+  public static StationRegistry of(final List<String> stationNames) {
+    final String[] names = new String[stationNames.size()];
+    final Map<String, Integer> codes = new HashMap<>();
+    for (int code = 0; code < names.length; code++) {
+      final String name = stationNames.get(code);
+      if (name == null || name.isEmpty()) {
+        throw new IllegalArgumentException("Station " + code + " has no name");
+      }
+      if (codes.putIfAbsent(name, code) != null) {
+        throw new IllegalArgumentException("Station " + name + " is defined twice");
+      }
+      names[code] = name;
+    }
+    return new StationRegistry(names, Collections.unmodifiableMap(codes));
+  }
+
+  /**
+   * Returns the registry without stations, in which every pass has an unknown station.
+   *
+   * @return the empty registry
+   */
+  public static StationRegistry empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the number of stations.
+   *
+   * @return the number of stations
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the code of a station.
+   *
+   * @param name the name of the station
+   * @return the code, or {@link #NO_STATION} if no station has the name
+   */
+  public int codeOf(final String name) {
+    final Integer code = codes.get(name);
+    return code == null ? NO_STATION : code;
+  }
+
+  /**
+   * Returns the name of a station.
+   *
+   * @param code the code of the station
+   * @return the name
+   * @throws IllegalArgumentException if no station has the code
+   */
+  public String nameOf(final int code) {
+    if (code < 0 || code >= names.length) {
+      throw new IllegalArgumentException("Unknown station " + code);
+    }
+    return names[code];
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.tollcalculator.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates the Swedish public holidays of any year from the rules that define them, including the holidays
+ * relative to Easter. Midsummer Eve, Christmas Eve and New Year's Eve are included as they are treated as
+ * holidays in practice.
+ */
+public final class SwedishHolidays {
+
+  private SwedishHolidays() {
+  }
+
+  /**
+   * Generates the holidays of a year.
+   *
+   * @param year the year
+   * @return the names of the holidays of the year keyed by date, in date order
+   */
+  public static Map<LocalDate, String> of(final int year) {
+    final Map<LocalDate, String> holidays = new TreeMap<>();
+    final LocalDate easterSunday = easterSunday(year);
+    holidays.put(LocalDate.of(year, 1, 1), "New Year's Day");
+    holidays.put(LocalDate.of(year, 1, 6), "Epiphany");
+    holidays.put(easterSunday.minusDays(2), "Good Friday");
+    holidays.put(easterSunday, "Easter Sunday");
+    holidays.put(easterSunday.plusDays(1), "Easter Monday");
+    holidays.put(LocalDate.of(year, 5, 1), "May Day");
+    holidays.put(easterSunday.plusDays(39), "Ascension Day");
+    holidays.put(easterSunday.plusDays(49), "Whit Sunday");
+    holidays.put(LocalDate.of(year, 6, 6), "National Day");
+    final LocalDate midsummerEve = LocalDate.of(year, 6, 19)
+        .with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY));
+    holidays.put(midsummerEve, "Midsummer Eve");
+    holidays.put(midsummerEve.plusDays(1), "Midsummer Day");
+    holidays.put(LocalDate.of(year, 10, 31).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY)),
+        "All Saints' Day");
+    holidays.put(LocalDate.of(year, 12, 24), "Christmas Eve");
+    holidays.put(LocalDate.of(year, 12, 25), "Christmas Day");
+    holidays.put(LocalDate.of(year, 12, 26), "Boxing Day");
+    holidays.put(LocalDate.of(year, 12, 31), "New Year's Eve");
+    return holidays;
+  }
+
+  /**
+   * Calculates the date of Easter Sunday in the Gregorian calendar with the anonymous Gregorian algorithm.
+   *
+   * @param year the year
+   * @return the date of Easter Sunday
+   */
+  public static LocalDate easterSunday(final int year) {
+    final int a = year % 19;
+    final int b = year / 100;
+    final int c = year % 100;
+    final int d = b / 4;
+    final int e = b % 4;
+    final int f = (b + 8) / 25;
+    final int g = (b - f + 1) / 3;
+    final int h = (19 * a + b - d - g + 15) % 30;
+    final int i = c / 4;
+    final int k = c % 4;
+    final int l = (32 + 2 * e + 2 * i - h - k) % 7;
+    final int m = (a + 11 * h + 22 * l) / 451;
+    final int month = (h + l - 7 * m + 114) / 31;
+    final int day = (h + l - 7 * m + 114) % 31 + 1;
+    return LocalDate.of(year, month, day);
+  }
+}
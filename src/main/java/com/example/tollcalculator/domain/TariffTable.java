@@ -0,0 +1,273 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * An immutable index of the toll rates of every vehicle class, type of day, validity period and toll station,
+ * compiled from a list of possibly restricted {@link TollRate} objects.
+ * <p>
+ * The dates are split into periods at every point where a toll rate becomes valid or stops being valid. For
+ * every period, vehicle class and type of day the toll rates that apply are compiled into a {@link RateTable},
+ * the interval index over the time of day, once for every toll station; combinations with the same toll rates
+ * share one rate table. A lookup is a binary search over the periods, an array access for the class, the type
+ * of day and the dense station code and a binary search in the rate table, so it is logarithmic in the number
+ * of toll rates, independent of the number of stations and does not allocate.
+ * <p>
+ * Vehicles of no registered class are charged by the toll rates that are not restricted to vehicle classes, and
+ * passes of no registered station by the toll rates that are not restricted to stations.
+ */
+public final class TariffTable {
+  /**
+   * The number of types of day.
+   */
+  private static final int DAY_TYPES = DayType.values().length;
+  /**
+   * The toll rates the table was compiled from, null if it was created from a single rate table.
+   */
+  private final List<TollRate> tollRates;
+  /**
+   * The toll stations the toll rates may be restricted to.
+   */
+  private final StationRegistry stations;
+  /**
+   * The rate table of the toll rates without any restriction.
+   */
+  private final RateTable defaultTable;
+  /**
+   * The sorted first epoch days of the periods. The first period starts at {@link Long#MIN_VALUE}.
+   */
+  private final long[] periodStarts;
+  /**
+   * The number of vehicle class slots per period: one per registered class and one for unregistered vehicles.
+   */
+  private final int classSlots;
+  /**
+   * The rate tables of the toll stations for every period, class slot and type of day.
+   */
+  private final StationRates[] tables;
+
+  private TariffTable(final List<TollRate> tollRates, final StationRegistry stations, final RateTable defaultTable,
+                      final long[] periodStarts, final int classSlots, final StationRates[] tables) {
+    this.tollRates = tollRates;
+    this.stations = stations;
+    this.defaultTable = defaultTable;
+    this.periodStarts = periodStarts;
+    this.classSlots = classSlots;
+    this.tables = tables;
+  }
+
+  /**
+   * Creates a tariff table that charges every vehicle on every day at every station by the same rate table.
+   *
+   * @param rateTable the rate table
+   * @return the tariff table
+   */
+  public static TariffTable of(final RateTable rateTable) {
+    final StationRates stationRates = new StationRates(new RateTable[] {rateTable});
+    final StationRates[] tables = new StationRates[DAY_TYPES];
+    Arrays.fill(tables, stationRates);
+    return new TariffTable(null, StationRegistry.empty(), rateTable, new long[] {Long.MIN_VALUE}, 1, tables);
+  }
+
+  /**
+   * Compiles toll rates into a tariff table without toll stations. Where toll rates overlap the highest rate
+   * wins, and times not covered by any applicable toll rate are toll-free.
+   *
+   * @param tollRates      the toll rates to compile
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to
+   * @return the compiled tariff table
+   * @throws IllegalArgumentException if a toll rate has no start or end time, or names an unknown vehicle class
+   *                                  or toll station
+   */
+  public static TariffTable compile(final List<TollRate> tollRates, final VehicleClassRegistry vehicleClasses) {
+    return compile(tollRates, vehicleClasses, StationRegistry.empty());
+  }
+
+  /**
+   * Compiles toll rates into a tariff table. Where toll rates overlap the highest rate wins, and times not
+   * covered by any applicable toll rate are toll-free.
+   *
+   * @param tollRates      the toll rates to compile
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to
+   * @param stations       the toll stations the toll rates may be restricted to
+   * @return the compiled tariff table
+   * @throws IllegalArgumentException if a toll rate has no start or end time, or names an unknown vehicle class
+   *                                  or toll station
+   */
+  public static TariffTable compile(final List<TollRate> tollRates, final VehicleClassRegistry vehicleClasses,
+                                    final StationRegistry stations) {
+    final List<TollRate> unrestricted = new ArrayList<>();
+    final TreeSet<Long> boundaries = new TreeSet<>();
+    boundaries.add(Long.MIN_VALUE);
+    boolean stationRestricted = false;
+    for (final TollRate tollRate : tollRates) {
+      if (tollRate.getVehicleClasses() != null) {
+        for (final String name : tollRate.getVehicleClasses()) {
+          if (vehicleClasses.codeOf(name) < 0) {
+            throw new IllegalArgumentException("Unknown vehicle class in toll rate: " + name);
+          }
+        }
+      }
+      if (tollRate.isStationRestricted()) {
+        stationRestricted = true;
+        for (final String name : tollRate.getStations()) {
+          if (stations.codeOf(name) < 0) {
+            throw new IllegalArgumentException("Unknown toll station in toll rate: " + name);
+          }
+        }
+      }
+      if (tollRate.isUnrestricted()) {
+        unrestricted.add(tollRate);
+      }
+      if (tollRate.getValidFrom() != null) {
+        boundaries.add(tollRate.getValidFrom().toEpochDay());
+      }
+      if (tollRate.getValidTo() != null) {
+        boundaries.add(tollRate.getValidTo().toEpochDay() + 1);
+      }
+    }
+    final RateTable defaultTable = RateTable.compile(unrestricted);
+    if (unrestricted.size() == tollRates.size()) {
+      final TariffTable uniform = of(defaultTable);
+      return new TariffTable(List.copyOf(tollRates), stations, defaultTable, uniform.periodStarts,
+          uniform.classSlots, uniform.tables);
+    }
+
+    final long[] periodStarts = boundaries.stream().mapToLong(Long::longValue).toArray();
+    final int classSlots = vehicleClasses.size() + 1;
+    final int stationSlots = stationRestricted ? stations.size() + 1 : 1;
+    final DayType[] dayTypes = DayType.values();
+    final StationRates[] tables = new StationRates[periodStarts.length * classSlots * DAY_TYPES];
+    final Map<BitSet, RateTable> compiled = new HashMap<>();
+    final Map<List<RateTable>, StationRates> shared = new HashMap<>();
+    final List<TollRate> applicable = new ArrayList<>();
+    for (int period = 0; period < periodStarts.length; period++) {
+      final long epochDay = periodStarts[period];
+      for (int slot = 0; slot < classSlots; slot++) {
+        final String vehicleClass = slot == 0 ? null : vehicleClasses.nameOf(slot - 1);
+        for (final DayType dayType : dayTypes) {
+          final RateTable[] stationTables = new RateTable[stationSlots];
+          for (int stationSlot = 0; stationSlot < stationSlots; stationSlot++) {
+            final String station = stationSlot == 0 ? null : stations.nameOf(stationSlot - 1);
+            final BitSet key = new BitSet(tollRates.size());
+            applicable.clear();
+            for (int i = 0; i < tollRates.size(); i++) {
+              final TollRate tollRate = tollRates.get(i);
+              if (isValidOn(tollRate, epochDay) && tollRate.appliesTo(vehicleClass, dayType, station)) {
+                key.set(i);
+                applicable.add(tollRate);
+              }
+            }
+            stationTables[stationSlot] = compiled.computeIfAbsent(key, k -> RateTable.compile(applicable));
+          }
+          tables[(period * classSlots + slot) * DAY_TYPES + dayType.ordinal()] =
+              shared.computeIfAbsent(List.of(stationTables), k -> new StationRates(stationTables));
+        }
+      }
+    }
+    return new TariffTable(List.copyOf(tollRates), stations, defaultTable, periodStarts, classSlots, tables);
+  }
+
+  /**
+   * Compiles the toll rates of this table again for other vehicle classes, keeping its toll stations.
+   *
+   * @param vehicleClasses the vehicle classes the toll rates may be restricted to
+   * @return the compiled tariff table
+   * @throws IllegalArgumentException if a toll rate names a vehicle class that is not registered
+   */
+  public TariffTable withVehicleClasses(final VehicleClassRegistry vehicleClasses) {
+    return tollRates == null ? this : compile(tollRates, vehicleClasses, stations);
+  }
+
+  public StationRegistry getStations() {
+    return stations;
+  }
+
+  /**
+   * Returns the rate table of the toll rates without any restriction.
+   *
+   * @return the default rate table
+   */
+  public RateTable getDefaultTable() {
+    return defaultTable;
+  }
+
+  /**
+   * Returns the rate table a vehicle class is charged by on a day at a pass of no registered station.
+   *
+   * @param vehicleClass the code of the vehicle class in the registry the table was compiled with, or a
+   *                     negative code for a vehicle of no registered class
+   * @param dayType      the type of the day
+   * @param date         the day
+   * @return the rate table of the vehicle class on that day
+   */
+  public RateTable tableFor(final int vehicleClass, final DayType dayType, final LocalDate date) {
+    return stationRatesFor(vehicleClass, dayType, date).forStation(StationRegistry.NO_STATION);
+  }
+
+  /**
+   * Returns the rate tables of every toll station a vehicle class is charged by on a day.
+   *
+   * @param vehicleClass the code of the vehicle class in the registry the table was compiled with, or a
+   *                     negative code for a vehicle of no registered class
+   * @param dayType      the type of the day
+   * @param date         the day
+   * @return the rate tables of the toll stations for the vehicle class on that day
+   */
+  public StationRates stationRatesFor(final int vehicleClass, final DayType dayType, final LocalDate date) {
+    final int slot = vehicleClass >= 0 && vehicleClass < classSlots - 1 ? vehicleClass + 1 : 0;
+    final int index = Arrays.binarySearch(periodStarts, date.toEpochDay());
+    final int period = index >= 0 ? index : -index - 2;
+    return tables[(period * classSlots + slot) * DAY_TYPES + dayType.ordinal()];
+  }
+
+  /**
+   * Returns the toll rate of a vehicle class at a second of a day.
+   *
+   * @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class
+   * @param dayType      the type of the day
+   * @param date         the day
+   * @param secondOfDay  the second of day, from 0 to 86399
+   * @return the toll rate at that second
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  public double rateAt(final int vehicleClass, final DayType dayType, final LocalDate date,
+                       final int secondOfDay) {
+    return tableFor(vehicleClass, dayType, date).rateAtSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Returns the toll rate of a vehicle class at a toll station at a second of a day.
+   *
+   * @param station      the code of the toll station, or {@link StationRegistry#NO_STATION}
+   * @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class
+   * @param dayType      the type of the day
+   * @param date         the day
+   * @param secondOfDay  the second of day, from 0 to 86399
+   * @return the toll rate at that second
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  public double rateAt(final int station, final int vehicleClass, final DayType dayType, final LocalDate date,
+                       final int secondOfDay) {
+    return stationRatesFor(vehicleClass, dayType, date).forStation(station).rateAtSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Checks whether a toll rate is valid on a day.
+   *
+   * @param tollRate the toll rate
+   * @param epochDay the day as epoch day
+   * @return true if the day is within the validity of the toll rate, false otherwise
+   */
+  private static boolean isValidOn(final TollRate tollRate, final long epochDay) {
+    return (tollRate.getValidFrom() == null || tollRate.getValidFrom().toEpochDay() <= epochDay) &&
+        (tollRate.getValidTo() == null || epochDay <= tollRate.getValidTo().toEpochDay());
+  }
+}
@@ -1,9 +1,14 @@
 package com.example.tollcalculator.domain;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 
 /**
  * Represents a toll rate for a specific time period, containing an hourly rate for that period.
+ * A toll rate may be restricted to some vehicle classes, some day types, a range of dates and some toll
+ * stations; a toll rate without restrictions applies to every vehicle on every day at every station, as all toll
+ * rates did before the restrictions were introduced.
  */
 
 public class TollRate {
@@ -23,6 +28,26 @@ public class TollRate {
    * The hourly toll rate for the time period.
    */
   private double rate;
+  /**
+   * The names of the vehicle classes the toll rate applies to, null or empty for all vehicle classes.
+   */
+  private List<String> vehicleClasses;
+  /**
+   * The types of day the toll rate applies to, null or empty for all types of day.
+   */
+  private List<DayType> dayTypes;
+  /**
+   * The first day the toll rate applies to, null if it applies since ever.
+   */
+  private LocalDate validFrom;
+  /**
+   * The last day the toll rate applies to, inclusive, null if it applies forever.
+   */
+  private LocalDate validTo;
+  /**
+   * The names of the toll stations the toll rate applies to, null or empty for all toll stations.
+   */
+  private List<String> stations;
 
   /**
    * Creates a new TollRate object with the specified start and end times and hourly toll rate.
@@ -30,12 +55,53 @@ public class TollRate {
    * @param hourStart the start time of the time period for which the toll rate applies
    * @param hourEnd   the end time of the time period for which the toll rate applies
    */
-  TollRate(final LocalTime hourStart, final LocalTime hourEnd, final double fee) {
+  public TollRate(final LocalTime hourStart, final LocalTime hourEnd, final double fee) {
     this.startTime = hourStart;
     this.endTime = hourEnd;
     this.rate = fee;
   }
 
+  /**
+   * Creates a new TollRate object that applies only to some vehicle classes, types of day and dates.
+   *
+   * @param hourStart      the start time of the time period for which the toll rate applies
+   * @param hourEnd        the end time of the time period for which the toll rate applies
+   * @param fee            the hourly toll rate
+   * @param vehicleClasses the names of the vehicle classes the toll rate applies to, null or empty for all
+   * @param dayTypes       the types of day the toll rate applies to, null or empty for all
+   * @param validFrom      the first day the toll rate applies to, null for no lower bound
+   * @param validTo        the last day the toll rate applies to, inclusive, null for no upper bound
+   */
+  public TollRate(final LocalTime hourStart, final LocalTime hourEnd, final double fee,
+                  final List<String> vehicleClasses, final List<DayType> dayTypes,
+                  final LocalDate validFrom, final LocalDate validTo) {
+    this(hourStart, hourEnd, fee);
+    this.vehicleClasses = vehicleClasses == null ? null : List.copyOf(vehicleClasses);
+    this.dayTypes = dayTypes == null ? null : List.copyOf(dayTypes);
+    this.validFrom = validFrom;
+    this.validTo = validTo;
+  }
+
+  /**
+   * Creates a new TollRate object that applies only to some vehicle classes, types of day, dates and toll
+   * stations.
+   *
+   * @param hourStart      the start time of the time period for which the toll rate applies
+   * @param hourEnd        the end time of the time period for which the toll rate applies
+   * @param fee            the hourly toll rate
+   * @param vehicleClasses the names of the vehicle classes the toll rate applies to, null or empty for all
+   * @param dayTypes       the types of day the toll rate applies to, null or empty for all
+   * @param validFrom      the first day the toll rate applies to, null for no lower bound
+   * @param validTo        the last day the toll rate applies to, inclusive, null for no upper bound
+   * @param stations       the names of the toll stations the toll rate applies to, null or empty for all
+   */
+  public TollRate(final LocalTime hourStart, final LocalTime hourEnd, final double fee,
+                  final List<String> vehicleClasses, final List<DayType> dayTypes,
+                  final LocalDate validFrom, final LocalDate validTo, final List<String> stations) {
+    this(hourStart, hourEnd, fee, vehicleClasses, dayTypes, validFrom, validTo);
+    this.stations = stations == null ? null : List.copyOf(stations);
+  }
+
   public LocalTime getStartTime() {
     return startTime;
   }
@@ -48,6 +114,82 @@ public class TollRate {
     return rate;
   }
 
+  /**
+   * Returns the hourly toll rate in öre, rounded to the nearest öre.
+   *
+   * @return the hourly toll rate in öre
+   * @throws IllegalArgumentException if the rate is not a number or out of range
+   */
+  public long getRateInOre() {
+    return Money.toOre(rate);
+  }
+
+  public List<String> getVehicleClasses() {
+    return vehicleClasses;
+  }
+
+  public List<DayType> getDayTypes() {
+    return dayTypes;
+  }
+
+  public LocalDate getValidFrom() {
+    return validFrom;
+  }
+
+  public LocalDate getValidTo() {
+    return validTo;
+  }
+
+  public List<String> getStations() {
+    return stations;
+  }
+
+  /**
+   * Checks whether the toll rate is restricted to some toll stations.
+   *
+   * @return true if the toll rate applies only at some toll stations, false otherwise
+   */
+  public boolean isStationRestricted() {
+    return stations != null && !stations.isEmpty();
+  }
+
+  /**
+   * Checks whether the toll rate applies to every vehicle on every day.
+   *
+   * @return true if the toll rate has no restriction, false otherwise
+   */
+  public boolean isUnrestricted() {
+    return (vehicleClasses == null || vehicleClasses.isEmpty()) && (dayTypes == null || dayTypes.isEmpty()) &&
+        validFrom == null && validTo == null && !isStationRestricted();
+  }
+
+  /**
+   * Checks whether the toll rate applies to a vehicle class and a type of day at a pass of no known station.
+   *
+   * @param vehicleClass the name of the vehicle class, null for a vehicle of no registered class
+   * @param dayType      the type of day
+   * @return true if neither the vehicle class nor the type of day is excluded and the toll rate is not restricted
+   *     to toll stations, false otherwise
+   */
+  public boolean appliesTo(final String vehicleClass, final DayType dayType) {
+    return appliesTo(vehicleClass, dayType, null);
+  }
+
+  /**
+   * Checks whether the toll rate applies to a vehicle class and a type of day at a toll station.
+   *
+   * @param vehicleClass the name of the vehicle class, null for a vehicle of no registered class
+   * @param dayType      the type of day
+   * @param station      the name of the toll station, null for a pass of no known station
+   * @return true if neither the vehicle class, the type of day nor the toll station is excluded, false otherwise
+   */
+  public boolean appliesTo(final String vehicleClass, final DayType dayType, final String station) {
+    return (vehicleClasses == null || vehicleClasses.isEmpty() ||
+        vehicleClass != null && vehicleClasses.contains(vehicleClass)) &&
+        (dayTypes == null || dayTypes.isEmpty() || dayTypes.contains(dayType)) &&
+        (!isStationRestricted() || station != null && stations.contains(station));
+  }
+
   /**
    * Checks whether the given time is contained within the interval of this TollRate object.
    *
@@ -0,0 +1,37 @@
+package com.example.tollcalculator.domain;
+
+/**
+ * A class of vehicles as configured in the vehicle class registry, e.g. private cars or tractors.
+ */
+public class VehicleClass {
+  /**
+   * The name of the vehicle class, which is also the simple name of the {@link Vehicle} subclass it maps.
+   */
+  private String name;
+  /**
+   * Whether vehicles of the class pass toll-free.
+   */
+  private boolean tollFree;
+
+  public VehicleClass() {
+  }
+
+  /**
+   * Creates a new vehicle class.
+   *
+   * @param name     the name of the vehicle class
+   * @param tollFree whether vehicles of the class pass toll-free
+   */
+  public VehicleClass(final String name, final boolean tollFree) {
+    this.name = name;
+    this.tollFree = tollFree;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isTollFree() {
+    return tollFree;
+  }
+}
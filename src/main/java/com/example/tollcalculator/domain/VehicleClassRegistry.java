@@ -0,0 +1,182 @@
+package com.example.tollcalculator.domain;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable registry of vehicle classes that identifies every class by a small code, its position in the
+ * registry, and keeps whether a class is toll-free in a single bitmask. Bulk callers that only know the class
+ * code of a pass check it without creating a {@link Vehicle}.
+ * <p>
+ * The {@link Vehicle} subclasses map onto the registry by their simple class name, so a registry loaded from a
+ * file can change which of them are toll-free. A subclass that is not registered keeps deciding for itself.
+ */
+public final class VehicleClassRegistry {
+  /**
+   * The maximum number of vehicle classes, the number of bits of the toll-free mask.
+   */
+  public static final int MAX_CLASSES = Long.SIZE;
+  /**
+   * The registry of the {@link Vehicle} subclasses of this library.
+   */
+  private static final VehicleClassRegistry DEFAULTS = of(List.of(
+      vehicleClass(new PrivateCar()),
+      vehicleClass(new Motorbike()),
+      vehicleClass(new Tractor()),
+      vehicleClass(new EmergencyServiceVehicle()),
+      vehicleClass(new DiplomatServiceVehicle()),
+      vehicleClass(new ForeignServiceVehicle()),
+      vehicleClass(new MilitaryServiceVehicle())));
+  /**
+   * The names of the vehicle classes indexed by code.
+   */
+  private final String[] names;
+  /**
+   * The codes of the vehicle classes keyed by name.
+   */
+  private final Map<String, Integer> codes;
+  /**
+   * Bit {@code n} is set if the vehicle class with code {@code n} is toll-free.
+   */
+  private final long tollFreeMask;
+  /**
+   * The codes of the {@link Vehicle} subclasses, -1 for unregistered ones.
+   */
+  private final ClassValue<Integer> vehicleCodes = new ClassValue<>() {
+    @Override
+    protected Integer computeValue(final Class<?> type) {
+      return codeOf(type.getSimpleName());
+    }
+  };
+
+  private VehicleClassRegistry(final String[] names, final Map<String, Integer> codes,
+                               final long tollFreeMask) {
+    this.names = names;
+    this.codes = codes;
+    this.tollFreeMask = tollFreeMask;
+  }
+
+  /**
+   * Creates a registry. The code of every vehicle class is its index in the list.
+   *
+   * @param vehicleClasses the vehicle classes
+   * @return the registry
+   * @throws IllegalArgumentException if there are more than {@link #MAX_CLASSES} classes, or a name is missing
+   *                                  or used twice
+   */
+  public static VehicleClassRegistry of(final List<VehicleClass> vehicleClasses) {
+    if (vehicleClasses.size() > MAX_CLASSES) {
+      throw new IllegalArgumentException("At most " + MAX_CLASSES + " vehicle classes are supported");
+    }
+    final String[] names = new String[vehicleClasses.size()];
+    final Map<String, Integer> codes = new HashMap<>();
+    long tollFreeMask = 0;
+    for (int code = 0; code < names.length; code++) {
+      final VehicleClass vehicleClass = vehicleClasses.get(code);
+      if (vehicleClass.getName() == null || vehicleClass.getName().isEmpty()) {
+        throw new IllegalArgumentException("Vehicle class " + code + " has no name");
+      }
+      if (codes.putIfAbsent(vehicleClass.getName(), code) != null) {
+        throw new IllegalArgumentException("Vehicle class " + vehicleClass.getName() + " is defined twice");
+      }
+      names[code] = vehicleClass.getName();
+      if (vehicleClass.isTollFree()) {
+        tollFreeMask |= 1L << code;
+      }
+    }
+    return new VehicleClassRegistry(names, Collections.unmodifiableMap(codes), tollFreeMask);
+  }
+
+  /**
+   * Returns the registry of the {@link Vehicle} subclasses of this library, with codes 0 to 6 for
+   * {@code PrivateCar}, {@code Motorbike}, {@code Tractor}, {@code EmergencyServiceVehicle},
+   * {@code DiplomatServiceVehicle}, {@code ForeignServiceVehicle} and {@code MilitaryServiceVehicle}.
+   *
+   * @return the default registry
+   */
+  public static VehicleClassRegistry defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Returns the number of vehicle classes.
+   *
+   * @return the number of vehicle classes
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the code of a vehicle class.
+   *
+   * @param name the name of the vehicle class
+   * @return the code, or -1 if no vehicle class has the name
+   */
+  public int codeOf(final String name) {
+    final Integer code = codes.get(name);
+    return code == null ? -1 : code;
+  }
+
+  /**
+   * Returns the code of the vehicle class a vehicle belongs to.
+   *
+   * @param vehicle the vehicle
+   * @return the code, or -1 if the class of the vehicle is not registered
+   */
+  public int codeOf(final Vehicle vehicle) {
+    return vehicleCodes.get(vehicle.getClass());
+  }
+
+  /**
+   * Returns the name of a vehicle class.
+   *
+   * @param code the code of the vehicle class
+   * @return the name
+   * @throws IllegalArgumentException if no vehicle class has the code
+   */
+  public String nameOf(final int code) {
+    checkCode(code);
+    return names[code];
+  }
+
+  /**
+   * Checks if a vehicle class is toll-free.
+   *
+   * @param code the code of the vehicle class
+   * @return true if vehicles of the class pass toll-free, false otherwise
+   * @throws IllegalArgumentException if no vehicle class has the code
+   */
+  public boolean isTollFree(final int code) {
+    checkCode(code);
+    return (tollFreeMask >>> code & 1L) != 0;
+  }
+
+  /**
+   * Checks if a vehicle is toll-free, by its registered class or, if its class is not registered,
+   * by {@link Vehicle#isTollFree()}.
+   *
+   * @param vehicle the vehicle
+   * @return true if the vehicle passes toll-free, false otherwise
+   */
+  public boolean isTollFree(final Vehicle vehicle) {
+    final int code = codeOf(vehicle);
+    return code < 0 ? vehicle.isTollFree() : (tollFreeMask >>> code & 1L) != 0;
+  }
+
+  public long getTollFreeMask() {
+    return tollFreeMask;
+  }
+
+  private void checkCode(final int code) {
+    if (code < 0 || code >= names.length) {
+      throw new IllegalArgumentException("Unknown vehicle class " + code);
+    }
+  }
+
+  private static VehicleClass vehicleClass(final Vehicle vehicle) {
+    return new VehicleClass(vehicle.getClass().getSimpleName(), vehicle.isTollFree());
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Represents a single pass of an identified vehicle through a toll station.
+ */
+public class VehiclePass {
+  /**
+   * Orders passes by vehicle id and then by the time of the pass.
+   */
+  public static final Comparator<VehiclePass> BY_VEHICLE_AND_TIMESTAMP =
+      Comparator.comparing(VehiclePass::getVehicleId)
+          .thenComparing(VehiclePass::getTimestamp);
+  /**
+   * The identifier of the vehicle, e.g. its registration number.
+   */
+  private final String vehicleId;
+  /**
+   * The vehicle that made the pass.
+   */
+  private final Vehicle vehicle;
+  /**
+   * The date and time of the pass.
+   */
+  private final LocalDateTime timestamp;
+  /**
+   * The code of the toll station in the configured {@link StationRegistry}, or
+   * {@link StationRegistry#NO_STATION} if the station is unknown.
+   */
+  private final int station;
+
+  /**
+   * Creates a new pass record of an unknown toll station.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param vehicle   the vehicle that made the pass
+   * @param timestamp the date and time of the pass
+   * @throws IllegalArgumentException if any of the arguments is null
+   */
+  public VehiclePass(final String vehicleId, final Vehicle vehicle, final LocalDateTime timestamp) {
+    this(vehicleId, vehicle, timestamp, StationRegistry.NO_STATION);
+  }
+
+  /**
+   * Creates a new pass record.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param vehicle   the vehicle that made the pass
+   * @param timestamp the date and time of the pass
+   * @param station   the code of the toll station, or {@link StationRegistry#NO_STATION}
+   * @throws IllegalArgumentException if any of the arguments is null
+   */
+  public VehiclePass(final String vehicleId, final Vehicle vehicle, final LocalDateTime timestamp,
+                     final int station) {
+    if (vehicleId == null || vehicle == null || timestamp == null) {
+      throw new IllegalArgumentException("Null value is not allowed");
+    }
+    this.vehicleId = vehicleId;
+    this.vehicle = vehicle;
+    this.timestamp = timestamp;
+    this.station = station;
+  }
+
+  public String getVehicleId() {
+    return vehicleId;
+  }
+
+  public Vehicle getVehicle() {
+    return vehicle;
+  }
+
+  public LocalDateTime getTimestamp() {
+    return timestamp;
+  }
+
+  public int getStation() {
+    return station;
+  }
+}
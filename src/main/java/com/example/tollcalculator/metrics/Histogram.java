@@ -0,0 +1,132 @@
+package com.example.tollcalculator.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, e.g. latencies in nanoseconds, with log-linear buckets in
+ * the style of an HDR histogram: every power of two is split into eight buckets, so a value is known to within
+ * 12.5 percent over the whole range of long while the histogram has a fixed size of a few kilobytes.
+ */
+public final class Histogram {
+  /**
+   * The number of bits of the value below its highest bit that select the bucket within a power of two.
+   */
+  private static final int SUB_BUCKET_BITS = 3;
+  /**
+   * The number of buckets per power of two.
+   */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /**
+   * The number of buckets, enough for {@link Long#MAX_VALUE}.
+   */
+  private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+  /**
+   * The number of values in each bucket.
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  /**
+   * The number of recorded values.
+   */
+  private final LongAdder count = new LongAdder();
+  /**
+   * The sum of the recorded values.
+   */
+  private final LongAdder sum = new LongAdder();
+  /**
+   * The largest recorded value.
+   */
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a value.
+   *
+   * @param value the value, negative values are recorded as 0
+   */
+  public void record(final long value) {
+    final long nonNegative = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(nonNegative));
+    count.increment();
+    sum.add(nonNegative);
+    max.accumulate(nonNegative);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the recorded values.
+   *
+   * @return the mean, or 0 if no value was recorded
+   */
+  public double getMean() {
+    final long n = count.sum();
+    return n == 0 ? 0.0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Returns an upper bound of the value below which the given percentage of the recorded values fall.
+   *
+   * @param percentile the percentage, between 0 and 100
+   * @return the highest value of the bucket holding the percentile, at most the largest recorded value, or 0 if
+   * no value was recorded
+   * @throws IllegalArgumentException if the percentage is out of range
+   */
+  public long getValueAtPercentile(final double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile out of range: " + percentile);
+    }
+    long total = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      total += counts.get(bucket);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank) {
+        return Math.min(highestValueOf(bucket), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Returns the bucket of a value.
+   *
+   * @param value the non-negative value
+   * @return the index of the bucket
+   */
+  static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /**
+   * Returns the highest value that falls into a bucket.
+   *
+   * @param bucket the index of the bucket
+   * @return the highest value of the bucket
+   */
+  static long highestValueOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    final long lowest = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
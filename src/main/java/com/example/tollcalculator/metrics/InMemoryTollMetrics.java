@@ -0,0 +1,121 @@
+package com.example.tollcalculator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TollMetrics} that keep everything reported to them in memory, in {@link LongAdder} counters and
+ * {@link Histogram histograms}, for tests, diagnostics or to be polled by an exporter.
+ */
+public class InMemoryTollMetrics implements TollMetrics {
+  /**
+   * The durations of the toll calculations in nanoseconds.
+   */
+  private final Histogram calculationLatency = new Histogram();
+  /**
+   * The number of passes per toll calculation.
+   */
+  private final Histogram passesPerCalculation = new Histogram();
+  /**
+   * The number of calculations that reached the maximum fee per day.
+   */
+  private final LongAdder dailyCapCount = new LongAdder();
+  /**
+   * The number of calculations without a fee, indexed by {@link TollFreeReason#ordinal()}.
+   */
+  private final LongAdder[] tollFreeCounts = new LongAdder[TollFreeReason.values().length];
+  /**
+   * The number of toll rate lookups.
+   */
+  private final LongAdder rateLookupCount = new LongAdder();
+  /**
+   * The number of holiday lookups.
+   */
+  private final LongAdder holidayLookupCount = new LongAdder();
+  /**
+   * The durations of the toll fee requests in nanoseconds.
+   */
+  private final Histogram tollFeeRequestLatency = new Histogram();
+
+  /**
+   * Creates metrics with all counters at zero.
+   */
+  public InMemoryTollMetrics() {
+    for (int i = 0; i < tollFreeCounts.length; i++) {
+      tollFreeCounts[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+
+  @Override
+  public void recordTollCalculation(final int passCount, final long durationNanos) {
+    calculationLatency.record(durationNanos);
+    passesPerCalculation.record(passCount);
+  }
+
+  @Override
+  public void recordDailyCapReached() {
+    dailyCapCount.increment();
+  }
+
+  @Override
+  public void recordTollFree(final TollFreeReason reason) {
+    tollFreeCounts[reason.ordinal()].increment();
+  }
+
+  @Override
+  public void recordRateLookup() {
+    rateLookupCount.increment();
+  }
+
+  @Override
+  public void recordHolidayLookup() {
+    holidayLookupCount.increment();
+  }
+
+  @Override
+  public void recordTollFeeRequest(final long durationNanos) {
+    tollFeeRequestLatency.record(durationNanos);
+  }
+
+  public Histogram getCalculationLatency() {
+    return calculationLatency;
+  }
+
+  public Histogram getPassesPerCalculation() {
+    return passesPerCalculation;
+  }
+
+  public long getCalculationCount() {
+    return calculationLatency.getCount();
+  }
+
+  public long getDailyCapCount() {
+    return dailyCapCount.sum();
+  }
+
+  /**
+   * Returns the number of calculations that ended without a fee for the given reason.
+   *
+   * @param reason the reason no fee was due
+   * @return the number of calculations
+   */
+  public long getTollFreeCount(final TollFreeReason reason) {
+    return tollFreeCounts[reason.ordinal()].sum();
+  }
+
+  public long getRateLookupCount() {
+    return rateLookupCount.sum();
+  }
+
+  public long getHolidayLookupCount() {
+    return holidayLookupCount.sum();
+  }
+
+  public Histogram getTollFeeRequestLatency() {
+    return tollFeeRequestLatency;
+  }
+}
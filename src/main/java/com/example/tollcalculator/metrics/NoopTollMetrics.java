@@ -0,0 +1,43 @@
+package com.example.tollcalculator.metrics;
+
+/**
+ * The {@link TollMetrics} that ignore everything reported to them.
+ */
+final class NoopTollMetrics implements TollMetrics {
+  /**
+   * The only instance.
+   */
+  static final NoopTollMetrics INSTANCE = new NoopTollMetrics();
+
+  private NoopTollMetrics() {
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return false;
+  }
+
+  @Override
+  public void recordTollCalculation(final int passCount, final long durationNanos) {
+  }
+
+  @Override
+  public void recordDailyCapReached() {
+  }
+
+  @Override
+  public void recordTollFree(final TollFreeReason reason) {
+  }
+
+  @Override
+  public void recordRateLookup() {
+  }
+
+  @Override
+  public void recordHolidayLookup() {
+  }
+
+  @Override
+  public void recordTollFeeRequest(final long durationNanos) {
+  }
+}
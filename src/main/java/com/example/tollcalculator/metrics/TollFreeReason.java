@@ -0,0 +1,19 @@
+package com.example.tollcalculator.metrics;
+
+/**
+ * The reason a toll calculation ended without a fee.
+ */
+public enum TollFreeReason {
+  /**
+   * The vehicle is toll-free.
+   */
+  VEHICLE,
+  /**
+   * The passes were on a Saturday or Sunday.
+   */
+  WEEKEND,
+  /**
+   * The passes were on a holiday.
+   */
+  HOLIDAY
+}
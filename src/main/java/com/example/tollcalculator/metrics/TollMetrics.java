@@ -0,0 +1,65 @@
+package com.example.tollcalculator.metrics;
+
+/**
+ * The instrumentation interface of the library. The services report what they do on the hot path to an
+ * implementation of this interface, which can count it, export it or ignore it.
+ * <p>
+ * The default is {@link #noop()}, whose methods do nothing and are inlined away by the JIT compiler; the
+ * services also skip reading the clock when {@link #isEnabled()} is false, so disabled metrics cost next to
+ * nothing. Implementations are called from many threads at once and must be thread-safe.
+ */
+public interface TollMetrics {
+  /**
+   * Returns the metrics that ignore everything reported to them.
+   *
+   * @return the no-op metrics
+   */
+  static TollMetrics noop() {
+    return NoopTollMetrics.INSTANCE;
+  }
+
+  /**
+   * Tells whether the metrics record anything, so callers can skip measuring durations otherwise.
+   *
+   * @return true if reported values are recorded, false otherwise
+   */
+  boolean isEnabled();
+
+  /**
+   * Records a calculation of the toll of a vehicle on a day.
+   *
+   * @param passCount     the number of passes of the calculation
+   * @param durationNanos the duration of the calculation in nanoseconds, 0 if metrics are disabled
+   */
+  void recordTollCalculation(int passCount, long durationNanos);
+
+  /**
+   * Records a calculation that reached the maximum fee per day.
+   */
+  void recordDailyCapReached();
+
+  /**
+   * Records a calculation that ended without a fee.
+   *
+   * @param reason the reason no fee is due
+   */
+  void recordTollFree(TollFreeReason reason);
+
+  /**
+   * Records a lookup of the toll rate of a pass.
+   */
+  void recordRateLookup();
+
+  /**
+   * Records a lookup of whether a day is a holiday or toll-free.
+   */
+  void recordHolidayLookup();
+
+  /**
+   * Records a toll fee request of the {@link com.example.tollcalculator.TollCalculator}, including the
+   * conversion of its dates.
+   *
+   * @param durationNanos the duration of the request in nanoseconds, 0 if metrics are disabled
+   */
+  void recordTollFeeRequest(long durationNanos);
+}
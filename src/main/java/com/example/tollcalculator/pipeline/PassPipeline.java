@@ -0,0 +1,577 @@
+package com.example.tollcalculator.pipeline;
+
+import com.example.tollcalculator.batch.DailyTollSink;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.service.LiveTollStore;
+import com.example.tollcalculator.time.PassTimeResolver;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A three stage pipeline that takes gantry passes off the intake threads: ingestion, normalization and billing
+ * share one preallocated ring buffer, so handing a pass from one stage to the next neither allocates nor locks.
+ * <ol>
+ *   <li>Ingestion: any number of producer threads {@link #publish} passes as primitive values. A producer
+ *   claims the next sequence of the ring with one compare-and-set, writes the pass into the slot's columns and
+ *   marks the slot as published.</li>
+ *   <li>Normalization: one thread resolves the instants of the passes to the local day and second of day with
+ *   a {@link PassTimeResolver}.</li>
+ *   <li>Billing: one thread adds the passes to a {@link LiveTollStore}, which applies the hourly window and the
+ *   daily cap of the toll service, and reports the running daily total of the vehicle to a
+ *   {@link DailyTollSink}.</li>
+ * </ol>
+ * The consumer stages take every pass that is ready at once as a batch and publish their progress once per batch.
+ * A slot is reused only after billing has passed it, so producers are slowed down to the pace of billing:
+ * {@link #publish} waits for a free slot and {@link #tryPublish} fails instead. The passes of one vehicle must
+ * be published in order, e.g. by always publishing them from the same thread.
+ * <p>
+ * A pass whose instant cannot be resolved, which the store rejects or whose total the sink fails on is counted
+ * as failed by its stage and skipped, whether the resolver, store or sink throws an exception or a
+ * {@link LinkageError}, e.g. a class of a sink that cannot be initialized. Any other error, such as a
+ * {@link VirtualMachineError}, ends the stage thread. Once a stage thread has stopped, the stages after it stop
+ * once they have handled what it passed on, and producers waiting for a free slot fail, so neither
+ * {@link #publish} nor {@link #close()} waits for it forever.
+ * {@link #getStageStats()} reports the progress of every stage.
+ */
+public class PassPipeline implements AutoCloseable {
+  /**
+   * The default number of slots of the ring buffer.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+  /**
+   * The largest number of slots of the ring buffer.
+   */
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+  /**
+   * The number of times a waiting thread spins before it parks.
+   */
+  private static final int SPIN_TRIES = 100;
+  /**
+   * The time a waiting thread parks for.
+   */
+  private static final long PARK_NANOS = 50_000L;
+  /**
+   * The epoch day marking a pass that could not be normalized.
+   */
+  private static final long INVALID_DAY = Long.MIN_VALUE;
+  /**
+   * The number of nanoseconds in one second.
+   */
+  private static final double NANOS_PER_SECOND = 1e9;
+  /**
+   * Resolves the instants of the passes to local days and seconds of day.
+   */
+  private final PassTimeResolver timeResolver;
+  /**
+   * The running daily totals the passes are billed into.
+   */
+  private final LiveTollStore store;
+  /**
+   * Receives the running daily total of a vehicle after every billed pass.
+   */
+  private final DailyTollSink sink;
+  /**
+   * The number of slots minus one; the number of slots is a power of two.
+   */
+  private final int mask;
+  /**
+   * The number of bits of a slot index.
+   */
+  private final int indexBits;
+  /**
+   * The vehicle id of the pass in every slot.
+   */
+  private final long[] vehicleIds;
+  /**
+   * The vehicle class code of the pass in every slot.
+   */
+  private final int[] vehicleClasses;
+  /**
+   * The toll station code of the pass in every slot.
+   */
+  private final int[] stations;
+  /**
+   * The instant of the pass in every slot as epoch millisecond.
+   */
+  private final long[] epochMillis;
+  /**
+   * The local day of the pass in every slot as epoch day, written by normalization.
+   */
+  private final long[] epochDays;
+  /**
+   * The local second of day of the pass in every slot, written by normalization.
+   */
+  private final int[] secondsOfDay;
+  /**
+   * The lap of the ring, {@code sequence >>> indexBits}, of the pass last published into every slot.
+   */
+  private final AtomicIntegerArray publishedLaps;
+  /**
+   * The last sequence claimed by a producer.
+   */
+  private final AtomicLong claimed = new AtomicLong(-1L);
+  /**
+   * The progress of normalization.
+   */
+  private final Stage normalization = new Stage("normalization");
+  /**
+   * The progress of billing.
+   */
+  private final Stage billing = new Stage("billing");
+  /**
+   * The number of published passes.
+   */
+  private final LongAdder publishedCount = new LongAdder();
+  /**
+   * The number of passes {@link #tryPublish} rejected because the ring buffer was full.
+   */
+  private final LongAdder rejectedCount = new LongAdder();
+  /**
+   * The number of times {@link #publish} had to wait for a free slot.
+   */
+  private final LongAdder waitCount = new LongAdder();
+  /**
+   * The normalization thread.
+   */
+  private final Thread normalizer;
+  /**
+   * The billing thread.
+   */
+  private final Thread biller;
+  /**
+   * The value of {@link System#nanoTime()} when the pipeline was started, 0 before.
+   */
+  private volatile long startNanos;
+  /**
+   * Whether the pipeline was closed and the stages stop once they have handled every published pass.
+   */
+  private volatile boolean closed;
+  /**
+   * Whether normalization has handled its last pass or its thread has stopped.
+   */
+  private volatile boolean normalizationDone;
+  /**
+   * Whether billing has handled its last pass or its thread has stopped.
+   */
+  private volatile boolean billingDone;
+
+  /**
+   * Creates a pipeline with {@value #DEFAULT_CAPACITY} slots. The pipeline has to be {@link #start() started}.
+   *
+   * @param timeResolver resolves the instants of the passes to local days and seconds of day
+   * @param store        the running daily totals the passes are billed into, used by the billing thread only
+   * @param sink         receives the running daily total of a vehicle after every billed pass
+   */
+  public PassPipeline(final PassTimeResolver timeResolver, final LiveTollStore store, final DailyTollSink sink) {
+    this(DEFAULT_CAPACITY, timeResolver, store, sink);
+  }
+
+  /**
+   * Creates a pipeline. The pipeline has to be {@link #start() started}.
+   *
+   * @param capacity     the number of slots of the ring buffer, a power of two
+   * @param timeResolver resolves the instants of the passes to local days and seconds of day
+   * @param store        the running daily totals the passes are billed into, used by the billing thread only
+   * @param sink         receives the running daily total of a vehicle after every billed pass
+   * @throws IllegalArgumentException if the capacity is not a power of two or too large
+   */
+  public PassPipeline(final int capacity, final PassTimeResolver timeResolver, final LiveTollStore store,
+                      final DailyTollSink sink) {
+    if (capacity <= 0 || capacity > MAXIMUM_CAPACITY || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two up to " + MAXIMUM_CAPACITY + ": "
+          + capacity);
+    }
+    this.timeResolver = Objects.requireNonNull(timeResolver, "timeResolver");
+    this.store = Objects.requireNonNull(store, "store");
+    this.sink = Objects.requireNonNull(sink, "sink");
+    this.mask = capacity - 1;
+    this.indexBits = Integer.numberOfTrailingZeros(capacity);
+    this.vehicleIds = new long[capacity];
+    this.vehicleClasses = new int[capacity];
+    this.stations = new int[capacity];
+    this.epochMillis = new long[capacity];
+    this.epochDays = new long[capacity];
+    this.secondsOfDay = new int[capacity];
+    this.publishedLaps = new AtomicIntegerArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      publishedLaps.set(i, -1);
+    }
+    this.normalizer = new Thread(this::normalize, "toll-pipeline-normalization");
+    this.biller = new Thread(this::bill, "toll-pipeline-billing");
+    normalizer.setDaemon(true);
+    biller.setDaemon(true);
+  }
+
+  /**
+   * Starts the normalization and billing threads.
+   *
+   * @throws IllegalStateException if the pipeline was already started or closed
+   */
+  public synchronized void start() {
+    if (startNanos != 0L || closed) {
+      throw new IllegalStateException("Pipeline was already started or closed");
+    }
+    startNanos = System.nanoTime();
+    normalizer.start();
+    biller.start();
+  }
+
+  /**
+   * Publishes a pass at an unknown toll station, waiting while the ring buffer is full.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param epochMilli   the instant of the pass as epoch millisecond
+   * @throws IllegalStateException if the pipeline is closed
+   */
+  public void publish(final long vehicleId, final int vehicleClass, final long epochMilli) {
+    publish(vehicleId, vehicleClass, StationRegistry.NO_STATION, epochMilli);
+  }
+
+  /**
+   * Publishes a pass, waiting while the ring buffer is full.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param station      the code of the toll station, or {@link StationRegistry#NO_STATION}
+   * @param epochMilli   the instant of the pass as epoch millisecond
+   * @throws IllegalStateException if the pipeline is closed or the billing thread has stopped while the ring
+   *                               buffer is full
+   */
+  public void publish(final long vehicleId, final int vehicleClass, final int station, final long epochMilli) {
+    ensureOpen();
+    long sequence = tryClaim();
+    if (sequence < 0) {
+      waitCount.increment();
+      for (int attempt = 0; sequence < 0; attempt++) {
+        ensureOpen();
+        if (billingDone) {
+          throw new IllegalStateException("Billing has stopped");
+        }
+        idle(attempt);
+        sequence = tryClaim();
+      }
+    }
+    write(sequence, vehicleId, vehicleClass, station, epochMilli);
+  }
+
+  /**
+   * Publishes a pass unless the ring buffer is full.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param station      the code of the toll station, or {@link StationRegistry#NO_STATION}
+   * @param epochMilli   the instant of the pass as epoch millisecond
+   * @return true if the pass was published, false if the ring buffer was full
+   * @throws IllegalStateException if the pipeline is closed
+   */
+  public boolean tryPublish(final long vehicleId, final int vehicleClass, final int station,
+                            final long epochMilli) {
+    ensureOpen();
+    final long sequence = tryClaim();
+    if (sequence < 0) {
+      rejectedCount.increment();
+      return false;
+    }
+    write(sequence, vehicleId, vehicleClass, station, epochMilli);
+    return true;
+  }
+
+  /**
+   * Returns the number of times a producer was held back because billing had not freed a slot yet, i.e. the
+   * waits of {@link #publish} and the rejections of {@link #tryPublish}.
+   *
+   * @return the number of times backpressure was applied
+   */
+  public long getBackpressureCount() {
+    return waitCount.sum() + rejectedCount.sum();
+  }
+
+  /**
+   * Returns a snapshot of the ingestion, normalization and billing stages, in that order. The queue depth of
+   * ingestion is the number of occupied slots, that of the other stages the number of passes waiting for them;
+   * the failed passes of ingestion are those {@link #tryPublish} rejected.
+   *
+   * @return the stats of every stage
+   */
+  public List<PipelineStageStats> getStageStats() {
+    final long started = startNanos;
+    final double seconds = started == 0L ? 0.0 : (System.nanoTime() - started) / NANOS_PER_SECOND;
+    final long billed = billing.cursor.get();
+    final long normalized = normalization.cursor.get();
+    final long published = publishedCount.sum();
+    return List.of(
+        new PipelineStageStats("ingestion", published, Math.max(0L, claimed.get() - billed), published,
+            rejectedCount.sum(), throughput(published, seconds)),
+        normalization.stats(claimed.get() - normalized, seconds),
+        billing.stats(normalized - billed, seconds));
+  }
+
+  /**
+   * Stops accepting passes, waits until every published pass is billed and stops the stage threads. Producers
+   * must have stopped publishing; a pass published while the pipeline closes may be left unbilled.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    if (startNanos == 0L) {
+      return;
+    }
+    try {
+      normalizer.join();
+      biller.join();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Claims the next sequence unless its slot has not been billed yet.
+   *
+   * @return the claimed sequence, -1 if the ring buffer is full
+   */
+  private long tryClaim() {
+    while (true) {
+      final long current = claimed.get();
+      final long next = current + 1;
+      if (next - vehicleIds.length > billing.cursor.get()) {
+        return -1L;
+      }
+      if (claimed.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Writes a pass into the slot of a claimed sequence and publishes it to normalization.
+   *
+   * @param sequence     the claimed sequence
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class
+   * @param station      the code of the toll station
+   * @param epochMilli   the instant of the pass as epoch millisecond
+   */
+  private void write(final long sequence, final long vehicleId, final int vehicleClass, final int station,
+                     final long epochMilli) {
+    final int index = (int) sequence & mask;
+    vehicleIds[index] = vehicleId;
+    vehicleClasses[index] = vehicleClass;
+    stations[index] = station;
+    epochMillis[index] = epochMilli;
+    publishedLaps.lazySet(index, (int) (sequence >>> indexBits));
+    publishedCount.increment();
+  }
+
+  /**
+   * Checks whether the pass of a sequence has been published.
+   *
+   * @param sequence the sequence
+   * @return true if the pass was written into its slot
+   */
+  private boolean isPublished(final long sequence) {
+    return publishedLaps.get((int) sequence & mask) == (int) (sequence >>> indexBits);
+  }
+
+  /**
+   * Runs normalization until the pipeline is closed and every published pass is normalized.
+   */
+  private void normalize() {
+    try {
+      normalizeUntilClosed();
+    } finally {
+      normalizationDone = true;
+    }
+  }
+
+  /**
+   * Normalizes the published passes until the pipeline is closed and every published pass is normalized.
+   */
+  private void normalizeUntilClosed() {
+    long next = 0L;
+    int attempt = 0;
+    while (true) {
+      long last = next - 1;
+      while (isPublished(last + 1)) {
+        last++;
+      }
+      if (last < next) {
+        if (closed && claimed.get() < next) {
+          break;
+        }
+        idle(attempt++);
+        continue;
+      }
+      attempt = 0;
+      for (long sequence = next; sequence <= last; sequence++) {
+        final int index = (int) sequence & mask;
+        final long epochMilli = epochMillis[index];
+        try {
+          epochDays[index] = timeResolver.epochDayOf(epochMilli);
+          secondsOfDay[index] = timeResolver.secondOfDayOf(epochMilli);
+        } catch (final Exception | LinkageError e) {
+          epochDays[index] = INVALID_DAY;
+          normalization.failedCount++;
+        }
+      }
+      normalization.complete(last);
+      next = last + 1;
+    }
+  }
+
+  /**
+   * Runs billing until normalization is done and every normalized pass is billed.
+   */
+  private void bill() {
+    try {
+      billUntilNormalizationDone();
+    } finally {
+      billingDone = true;
+    }
+  }
+
+  /**
+   * Bills the normalized passes until normalization is done and every normalized pass is billed. When the first
+   * pass of a new day arrives, the states of the vehicles not seen since the day before are removed from the
+   * store.
+   */
+  private void billUntilNormalizationDone() {
+    long next = 0L;
+    int attempt = 0;
+    long latestEpochDay = Long.MIN_VALUE;
+    long epochDayOfDate = INVALID_DAY;
+    LocalDate date = null;
+    while (true) {
+      final long last = normalization.cursor.get();
+      if (last < next) {
+        if (normalizationDone && normalization.cursor.get() < next) {
+          break;
+        }
+        idle(attempt++);
+        continue;
+      }
+      attempt = 0;
+      for (long sequence = next; sequence <= last; sequence++) {
+        final int index = (int) sequence & mask;
+        final long epochDay = epochDays[index];
+        if (epochDay == INVALID_DAY) {
+          continue;
+        }
+        if (epochDay != epochDayOfDate) {
+          date = LocalDate.ofEpochDay(epochDay);
+          epochDayOfDate = epochDay;
+        }
+        try {
+          if (epochDay > latestEpochDay) {
+            latestEpochDay = epochDay;
+            store.rollOver(date.minusDays(1));
+          }
+          final double fee =
+              store.recordPass(vehicleIds[index], vehicleClasses[index], stations[index], date, secondsOfDay[index]);
+          sink.accept(vehicleIds[index], epochDay, fee);
+        } catch (final Exception | LinkageError e) {
+          billing.failedCount++;
+        }
+      }
+      billing.complete(last);
+      next = last + 1;
+    }
+  }
+
+  /**
+   * Checks that the pipeline accepts passes.
+   *
+   * @throws IllegalStateException if the pipeline is closed
+   */
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Pipeline is closed");
+    }
+  }
+
+  /**
+   * Waits a little for another thread, spinning at first and parking later.
+   *
+   * @param attempt the number of times the caller has waited in a row
+   */
+  private static void idle(final int attempt) {
+    if (attempt < SPIN_TRIES) {
+      Thread.onSpinWait();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+  }
+
+  /**
+   * Returns a rate per second.
+   *
+   * @param count   the number of passes
+   * @param seconds the elapsed time in seconds
+   * @return the passes per second, 0 if no time has elapsed
+   */
+  private static double throughput(final long count, final double seconds) {
+    return seconds > 0.0 ? count / seconds : 0.0;
+  }
+
+  /**
+   * The progress of one consumer stage. The counters are written by the stage's thread only.
+   */
+  private static final class Stage {
+    /**
+     * The name of the stage.
+     */
+    private final String name;
+    /**
+     * The last sequence the stage has handled.
+     */
+    private final AtomicLong cursor = new AtomicLong(-1L);
+    /**
+     * The number of batches the stage has handled.
+     */
+    private volatile long batchCount;
+    /**
+     * The number of passes the stage could not handle.
+     */
+    private volatile long failedCount;
+
+    private Stage(final String name) {
+      this.name = name;
+    }
+
+    /**
+     * Marks a batch as handled, which publishes its passes to the next stage.
+     *
+     * @param last the last sequence of the batch
+     */
+    private void complete(final long last) {
+      batchCount++;
+      cursor.set(last);
+    }
+
+    /**
+     * Takes a snapshot of the counters.
+     *
+     * @param queueDepth the number of passes waiting for the stage
+     * @param seconds    the time since the pipeline was started in seconds
+     * @return the stats of the stage
+     */
+    private PipelineStageStats stats(final long queueDepth, final double seconds) {
+      final long processed = cursor.get() + 1;
+      return new PipelineStageStats(name, processed, Math.max(0L, queueDepth), batchCount, failedCount,
+          throughput(processed, seconds));
+    }
+  }
+}
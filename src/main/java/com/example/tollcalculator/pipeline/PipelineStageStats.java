@@ -0,0 +1,96 @@
+package com.example.tollcalculator.pipeline;
+
+/**
+ * An immutable snapshot of the counters of one stage of a {@link PassPipeline}.
+ */
+public final class PipelineStageStats {
+  /**
+   * The name of the stage.
+   */
+  private final String name;
+  /**
+   * The number of passes the stage has handled.
+   */
+  private final long processedCount;
+  /**
+   * The number of passes waiting for the stage.
+   */
+  private final long queueDepth;
+  /**
+   * The number of batches the stage has taken from the ring buffer.
+   */
+  private final long batchCount;
+  /**
+   * The number of passes the stage could not handle.
+   */
+  private final long failedCount;
+  /**
+   * The number of passes handled per second since the pipeline was started.
+   */
+  private final double throughputPerSecond;
+
+  /**
+   * Creates a snapshot.
+   *
+   * @param name                the name of the stage
+   * @param processedCount      the number of passes the stage has handled
+   * @param queueDepth          the number of passes waiting for the stage
+   * @param batchCount          the number of batches the stage has taken from the ring buffer
+   * @param failedCount         the number of passes the stage could not handle
+   * @param throughputPerSecond the number of passes handled per second since the pipeline was started
+   */
+  public PipelineStageStats(final String name, final long processedCount, final long queueDepth,
+                            final long batchCount, final long failedCount, final double throughputPerSecond) {
+    this.name = name;
+    this.processedCount = processedCount;
+    this.queueDepth = queueDepth;
+    this.batchCount = batchCount;
+    this.failedCount = failedCount;
+    this.throughputPerSecond = throughputPerSecond;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getProcessedCount() {
+    return processedCount;
+  }
+
+  public long getQueueDepth() {
+    return queueDepth;
+  }
+
+  public long getBatchCount() {
+    return batchCount;
+  }
+
+  public long getFailedCount() {
+    return failedCount;
+  }
+
+  public double getThroughputPerSecond() {
+    return throughputPerSecond;
+  }
+
+  /**
+   * Returns the average number of passes per batch.
+   *
+   * @return the average batch size, 0 if the stage has not taken a batch yet
+   */
+  public double getAverageBatchSize() {
+    return batchCount == 0 ? 0.0 : (double) processedCount / batchCount;
+  }
+
+  @Override
+  public String toString() {
+    return "PipelineStageStats{" +
+        "name='" + name + '\'' +
+        ", processedCount=" + processedCount +
+        ", queueDepth=" + queueDepth +
+        ", batchCount=" + batchCount +
+        ", failedCount=" + failedCount +
+        ", throughputPerSecond=" + throughputPerSecond +
+        '}';
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.tollcalculator.service;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.VehiclePass;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Interface for a service that calculates the daily toll fees of many vehicles over many days at once.
+ */
+public interface BulkTollService {
+  /**
+   * Groups the given passes by vehicle and day and calculates the toll fee of every group.
+   * The passes may arrive in any order. The daily tolls are handed to the consumer ordered by vehicle id
+   * and then by date.
+   * <p>
+   * A {@link com.example.tollcalculator.domain.Vehicle} is billed by its class alone: passes that are spilled to
+   * disk to bound the memory are read back with the first instance seen of their vehicle's class, so subclasses
+   * whose instances of one class differ, e.g. in {@code isTollFree()}, are not supported.
+   *
+   * @param passes   the passes of all vehicles, in any order
+   * @param consumer receives the total toll of every vehicle and day that has at least one pass
+   */
+  void calculateDailyTolls(Iterator<VehiclePass> passes, Consumer<DailyToll> consumer);
+}
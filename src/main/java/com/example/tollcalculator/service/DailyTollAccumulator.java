@@ -0,0 +1,66 @@
+package com.example.tollcalculator.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A running toll calculation for one vehicle on one day that is fed one pass at a time.
+ * The fee so far is kept up to date as passes arrive, applying the same hourly window and daily cap
+ * as {@link TollService#calculateTollForPassesOfSameDay}. Implementations are not thread-safe.
+ */
+public interface DailyTollAccumulator {
+  /**
+   * Adds a pass to the running calculation.
+   *
+   * @param secondOfDay the time of the pass as second of day
+   * @return the fee so far, including the new pass
+   * @throws IllegalArgumentException if the pass arrives too late to be billed correctly
+   * @throws IllegalStateException    if the day has already been closed
+   */
+  double addPass(int secondOfDay);
+
+  /**
+   * Adds a pass to the running calculation.
+   *
+   * @param pass the date and time of the pass, on the day of the accumulator
+   * @return the fee so far, including the new pass
+   * @throws IllegalArgumentException if the pass is not on the day of the accumulator or arrives too late
+   * @throws IllegalStateException    if the day has already been closed
+   */
+  double addPass(LocalDateTime pass);
+
+  /**
+   * Returns the fee of all passes added so far, never more than the maximum fee per day.
+   *
+   * @return the fee so far
+   */
+  double getFeeSoFar();
+
+  /**
+   * Returns the fee of all passes added so far in öre, never more than the maximum fee per day.
+   *
+   * @return the fee so far in öre
+   */
+  long getFeeSoFarInOre();
+
+  /**
+   * Checks if the fee has reached the maximum fee per day, in which case further passes are ignored.
+   *
+   * @return true if the daily cap has been reached, false otherwise
+   */
+  boolean isCapped();
+
+  /**
+   * Flushes any passes held back for reordering and closes the day. No passes can be added afterwards.
+   *
+   * @return the final fee of the day
+   */
+  double closeDay();
+
+  /**
+   * Returns the day the accumulator bills.
+   *
+   * @return the day of the accumulator
+   */
+  LocalDate getDate();
+}
@@ -1,5 +1,7 @@
 package com.example.tollcalculator.service;
 
+import com.example.tollcalculator.domain.Money;
+import java.time.LocalDate;
 import java.time.LocalTime;
 /**
 
@@ -14,4 +16,55 @@ public interface FeeService {
    @return the toll rate for the given time of day.
    */
   double getTollRate(LocalTime pass);
+
+  /**
+
+   Returns the toll rate for a given second of the day.
+   @param secondOfDay the second of the day, from 0 to 86399, for which the toll rate is being requested.
+   @return the toll rate for the given second of the day.
+   */
+  default double getTollRate(int secondOfDay) {
+    return getTollRate(LocalTime.ofSecondOfDay(secondOfDay));
+  }
+
+  /**
+
+   Returns the toll rate a vehicle class is charged on a day at a given second of the day. Implementations
+   without tariffs per vehicle class or day charge every vehicle on every day by the same rates.
+   @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class.
+   @param date the day of the pass.
+   @param secondOfDay the second of the day, from 0 to 86399, for which the toll rate is being requested.
+   @return the toll rate of the vehicle class at the given second of the day.
+   */
+  default double getTollRate(int vehicleClass, LocalDate date, int secondOfDay) {
+    return getTollRate(secondOfDay);
+  }
+
+  /**
+
+   Returns the toll rate a vehicle class is charged on a day at a toll station at a given second of the day.
+   Implementations without rates per toll station charge every station by the same rates.
+   @param station the code of the toll station, or a negative code for a pass of no registered station.
+   @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class.
+   @param date the day of the pass.
+   @param secondOfDay the second of the day, from 0 to 86399, for which the toll rate is being requested.
+   @return the toll rate of the vehicle class at the toll station at the given second of the day.
+   */
+  default double getTollRate(int station, int vehicleClass, LocalDate date, int secondOfDay) {
+    return getTollRate(vehicleClass, date, secondOfDay);
+  }
+
+  /**
+
+   Returns the toll rate in öre a vehicle class is charged on a day at a toll station at a given second of the
+   day. Implementations that calculate in kronor round their rate to the nearest öre.
+   @param station the code of the toll station, or a negative code for a pass of no registered station.
+   @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class.
+   @param date the day of the pass.
+   @param secondOfDay the second of the day, from 0 to 86399, for which the toll rate is being requested.
+   @return the toll rate in öre of the vehicle class at the toll station at the given second of the day.
+   */
+  default long getTollRateInOre(int station, int vehicleClass, LocalDate date, int secondOfDay) {
+    return Money.toOre(getTollRate(station, vehicleClass, date, secondOfDay));
+  }
 }
@@ -1,5 +1,7 @@
 package com.example.tollcalculator.service;
 
+import com.example.tollcalculator.domain.DayType;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 
 /**
@@ -13,4 +15,29 @@ public interface HolidayService {
    * @return true if the given date is a holiday, false otherwise
    */
   boolean isHoliday(LocalDate date);
+
+  /**
+   * Checks if a given date is toll-free, i.e. a holiday or a weekend day.
+   *
+   * @param date the date to check
+   * @return true if the given date is a holiday, a Saturday or a Sunday, false otherwise
+   */
+  default boolean isTollFreeDay(final LocalDate date) {
+    return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY ||
+        isHoliday(date);
+  }
+
+  /**
+   * Returns the type of a given date.
+   *
+   * @param date the date to check
+   * @return {@link DayType#HOLIDAY} for a holiday, {@link DayType#WEEKEND} for any other Saturday or Sunday and
+   * {@link DayType#WEEKDAY} otherwise
+   */
+  default DayType getDayType(final LocalDate date) {
+    if (isHoliday(date)) {
+      return DayType.HOLIDAY;
+    }
+    return isTollFreeDay(date) ? DayType.WEEKEND : DayType.WEEKDAY;
+  }
 }
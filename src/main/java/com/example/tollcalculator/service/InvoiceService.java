@@ -0,0 +1,59 @@
+package com.example.tollcalculator.service;
+
+import com.example.tollcalculator.domain.Invoice;
+import com.example.tollcalculator.domain.Vehicle;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Collection;
+
+/**
+ * Interface for a service that bills the passes of one vehicle over a period of many days, e.g. a month or a
+ * year, with the same day rules as {@link TollService}.
+ */
+public interface InvoiceService {
+  /**
+   * Creates the invoice of a vehicle for a billing period. The passes may be given in any order.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param vehicle   the vehicle that made the passes
+   * @param from      the first day of the billing period
+   * @param to        the last day of the billing period, inclusive
+   * @param passes    the passes of the vehicle in the billing period
+   * @return the invoice with the fee of every day with a pass and of every month of the period
+   * @throws IllegalArgumentException if the period ends before it starts or a pass falls outside of it
+   */
+  Invoice createInvoice(String vehicleId, Vehicle vehicle, LocalDate from, LocalDate to,
+                        Collection<LocalDateTime> passes);
+
+  /**
+   * Creates the invoice of a vehicle for a calendar month.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param vehicle   the vehicle that made the passes
+   * @param month     the month to bill
+   * @param passes    the passes of the vehicle in the month
+   * @return the invoice of the month
+   * @throws IllegalArgumentException if a pass falls outside of the month
+   */
+  default Invoice createInvoice(final String vehicleId, final Vehicle vehicle, final YearMonth month,
+                                final Collection<LocalDateTime> passes) {
+    return createInvoice(vehicleId, vehicle, month.atDay(1), month.atEndOfMonth(), passes);
+  }
+
+  /**
+   * Creates the invoice of a vehicle for a calendar year, with a fee for every month.
+   *
+   * @param vehicleId the identifier of the vehicle
+   * @param vehicle   the vehicle that made the passes
+   * @param year      the year to bill
+   * @param passes    the passes of the vehicle in the year
+   * @return the invoice of the year
+   * @throws IllegalArgumentException if a pass falls outside of the year
+   */
+  default Invoice createInvoice(final String vehicleId, final Vehicle vehicle, final Year year,
+                                final Collection<LocalDateTime> passes) {
+    return createInvoice(vehicleId, vehicle, year.atDay(1), year.atMonth(12).atEndOfMonth(), passes);
+  }
+}
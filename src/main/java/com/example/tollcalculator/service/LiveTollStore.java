@@ -0,0 +1,78 @@
+package com.example.tollcalculator.service;
+
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.StationRegistry;
+import java.time.LocalDate;
+
+/**
+ * The running daily totals of many vehicles for live billing, keyed by a primitive vehicle id. Every pass
+ * updates the current hourly window and the total of its vehicle and day, applying the same hourly window and
+ * daily cap as {@link TollService#calculateTollForPassesOfSameDay}, so the passes themselves are not kept.
+ * Implementations are not thread-safe; concurrent billing partitions the vehicles over several stores.
+ */
+public interface LiveTollStore {
+  /**
+   * Adds a pass of a vehicle at an unknown toll station.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the pass
+   * @param secondOfDay  the time of the pass as second of day
+   * @return the total of the vehicle on that day so far, including the new pass
+   * @throws IllegalArgumentException if the pass is older than the current hourly window of the vehicle
+   */
+  default double recordPass(long vehicleId, int vehicleClass, LocalDate date, int secondOfDay) {
+    return recordPass(vehicleId, vehicleClass, StationRegistry.NO_STATION, date, secondOfDay);
+  }
+
+  /**
+   * Adds a pass of a vehicle at a toll station. The passes of a vehicle must arrive in ascending order; a pass
+   * on a later day starts a new day for the vehicle.
+   *
+   * @param vehicleId    the id of the vehicle
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param station      the code of the toll station, or {@link StationRegistry#NO_STATION}
+   * @param date         the day of the pass
+   * @param secondOfDay  the time of the pass as second of day
+   * @return the total of the vehicle on that day so far, including the new pass
+   * @throws IllegalArgumentException if the pass is older than the current hourly window of the vehicle
+   */
+  double recordPass(long vehicleId, int vehicleClass, int station, LocalDate date, int secondOfDay);
+
+  /**
+   * Returns the total of a vehicle on a day so far.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param date      the day
+   * @return the total so far, 0 if the vehicle has no pass on that day
+   */
+  default double getDayTotal(long vehicleId, LocalDate date) {
+    return Money.toKronor(getDayTotalInOre(vehicleId, date));
+  }
+
+  /**
+   * Returns the total of a vehicle on a day so far in öre.
+   *
+   * @param vehicleId the id of the vehicle
+   * @param date      the day
+   * @return the total so far in öre, 0 if the vehicle has no pass on that day
+   */
+  long getDayTotalInOre(long vehicleId, LocalDate date);
+
+  /**
+   * Removes the state of every vehicle whose last pass was before a day, e.g. after midnight.
+   *
+   * @param today the first day whose states are kept
+   * @return the number of removed vehicle states
+   */
+  int rollOver(LocalDate today);
+
+  /**
+   * Returns the number of vehicles with a state.
+   *
+   * @return the number of vehicle states
+   */
+  int size();
+}
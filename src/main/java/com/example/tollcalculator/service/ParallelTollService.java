@@ -0,0 +1,26 @@
+package com.example.tollcalculator.service;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.VehiclePass;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for a service that calculates the daily toll fees of a large set of passes in parallel.
+ */
+public interface ParallelTollService extends AutoCloseable {
+  /**
+   * Partitions the given passes by vehicle and day and calculates the toll fee of every partition in parallel.
+   * The result does not depend on the order of the input or on the degree of parallelism.
+   *
+   * @param passes the passes of all vehicles, in any order
+   * @return the total toll of every vehicle and day, ordered by vehicle id and date
+   */
+  List<DailyToll> calculateDailyTolls(Collection<VehiclePass> passes);
+
+  /**
+   * Releases the threads owned by the service.
+   */
+  @Override
+  void close();
+}
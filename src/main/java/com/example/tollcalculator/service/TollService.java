@@ -1,11 +1,19 @@
 package com.example.tollcalculator.service;
 
+import com.example.tollcalculator.domain.Money;
 import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Interface for a toll service that calculates toll charges for a given vehicle and list of pass timestamps.
+ * Implementations must be thread-safe and must not modify the passes they are given, so a single instance can
+ * serve concurrent requests.
+ * <p>
+ * Fees are exact amounts in öre; the methods returning kronor as {@code double} are adapters for callers that
+ * do not need exact sums.
  */
 
 public interface TollService {
@@ -19,4 +27,236 @@ public interface TollService {
    * @return the total toll for passes of the same day
    */
   double calculateTollForPassesOfSameDay(Vehicle vehicle, List<LocalDateTime> passTimestamps);
+
+  /**
+   * Calculates the total toll for passes of the same day given as seconds of day in a primitive array.
+   * The windowing and the daily cap are the same as for the list based variant, but the passes are read
+   * in place and must already be sorted in ascending order.
+   *
+   * @param vehicle      the vehicle for which to calculate the toll
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll for passes of the same day
+   */
+  double calculateTollForPassesOfSameDay(Vehicle vehicle, LocalDate date, int[] secondsOfDay,
+                                         int from, int to);
+
+  /**
+   * Calculates the total toll for passes of the same day by a vehicle of the given class, for bulk callers that
+   * only know the class code of a pass and not a {@link Vehicle}.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll for passes of the same day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  double calculateTollForPassesOfSameDay(int vehicleClass, LocalDate date, int[] secondsOfDay,
+                                         int from, int to);
+
+  /**
+   * Calculates the total toll for passes of the same day at toll stations. Every pass is charged by the rates of
+   * its station, while the hourly windows and the daily cap span all stations.
+   *
+   * @param vehicle      the vehicle for which to calculate the toll
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param stations     the codes of the toll stations of the passes in the configured
+   *                     {@link com.example.tollcalculator.domain.StationRegistry}, at the same indices as their
+   *                     times
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll for passes of the same day
+   */
+  double calculateTollForPassesOfSameDay(Vehicle vehicle, LocalDate date, int[] secondsOfDay, int[] stations,
+                                         int from, int to);
+
+  /**
+   * Calculates the total toll for passes of the same day at toll stations by a vehicle of the given class.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll for passes of the same day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  double calculateTollForPassesOfSameDay(int vehicleClass, LocalDate date, int[] secondsOfDay, int[] stations,
+                                         int from, int to);
+
+  /**
+   * Calculates the total toll in öre for passes of the same day given as seconds of day in a primitive array.
+   *
+   * @param vehicle      the vehicle for which to calculate the toll
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   */
+  default long calculateTollInOreForPassesOfSameDay(Vehicle vehicle, LocalDate date, int[] secondsOfDay,
+                                                    int from, int to) {
+    return Money.toOre(calculateTollForPassesOfSameDay(vehicle, date, secondsOfDay, from, to));
+  }
+
+  /**
+   * Calculates the total toll in öre for passes of the same day by a vehicle of the given class.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  default long calculateTollInOreForPassesOfSameDay(int vehicleClass, LocalDate date, int[] secondsOfDay,
+                                                    int from, int to) {
+    return Money.toOre(calculateTollForPassesOfSameDay(vehicleClass, date, secondsOfDay, from, to));
+  }
+
+  /**
+   * Calculates the total toll in öre for passes of the same day at toll stations.
+   *
+   * @param vehicle      the vehicle for which to calculate the toll
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   */
+  default long calculateTollInOreForPassesOfSameDay(Vehicle vehicle, LocalDate date, int[] secondsOfDay,
+                                                    int[] stations, int from, int to) {
+    return Money.toOre(calculateTollForPassesOfSameDay(vehicle, date, secondsOfDay, stations, from, to));
+  }
+
+  /**
+   * Calculates the total toll in öre for passes of the same day at toll stations by a vehicle of the given
+   * class.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  default long calculateTollInOreForPassesOfSameDay(int vehicleClass, LocalDate date, int[] secondsOfDay,
+                                                    int[] stations, int from, int to) {
+    return Money.toOre(calculateTollForPassesOfSameDay(vehicleClass, date, secondsOfDay, stations, from, to));
+  }
+
+  /**
+   * Calculates the total toll in öre for passes of the same day given as nanoseconds of day, for callers whose
+   * passes have sub-second times. The passes are billed exactly as by the list based variant: the hourly windows
+   * are measured in whole minutes between the exact times and every pass is charged the rate of its exact time.
+   *
+   * @param vehicle    the vehicle for which to calculate the toll
+   * @param date       the day of the passes
+   * @param nanosOfDay the passes as nanoseconds of day, sorted in ascending order
+   * @param stations   the codes of the toll stations of the passes, at the same indices as their times, or null if
+   *                   the stations of the passes are unknown
+   * @param from       the index of the first pass, inclusive
+   * @param to         the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   */
+  long calculateTollInOreForPassesOfSameDay(Vehicle vehicle, LocalDate date, long[] nanosOfDay, int[] stations,
+                                            int from, int to);
+
+  /**
+   * Calculates the total toll in öre for passes of the same day given as nanoseconds of day by a vehicle of the
+   * given class.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param nanosOfDay   the passes as nanoseconds of day, sorted in ascending order
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times, or null
+   *                     if the stations of the passes are unknown
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @return the total toll in öre for passes of the same day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  long calculateTollInOreForPassesOfSameDay(int vehicleClass, LocalDate date, long[] nanosOfDay, int[] stations,
+                                            int from, int to);
+
+  /**
+   * Calculates the total toll in öre of many vehicle-days of one vehicle class on one day, e.g. all private cars
+   * of a day in a bulk run. The passes of all vehicle-days are packed into one array: the passes of vehicle-day
+   * {@code d} are at the indices from {@code dayStarts[d]} inclusive to {@code dayStarts[d + 1]} exclusive.
+   * Implementations may evaluate several vehicle-days at once.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured
+   *                     {@link com.example.tollcalculator.domain.VehicleClassRegistry}
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes of all vehicle-days as seconds of day, every vehicle-day sorted in ascending order
+   * @param dayStarts    the index of the first pass of every vehicle-day, followed by the end of the last one
+   * @param dayCount     the number of vehicle-days
+   * @param feesInOre    receives the total toll in öre of every vehicle-day, at the index of the vehicle-day
+   * @throws IllegalArgumentException if no vehicle class has the given code
+   */
+  default void calculateTollsInOreForVehicleDays(int vehicleClass, LocalDate date, int[] secondsOfDay,
+                                                 int[] dayStarts, int dayCount, long[] feesInOre) {
+    for (int day = 0; day < dayCount; day++) {
+      feesInOre[day] = calculateTollInOreForPassesOfSameDay(vehicleClass, date, secondsOfDay, dayStarts[day],
+          dayStarts[day + 1]);
+    }
+  }
+
+  /**
+   * Calculates the total toll for passes of the same day given as seconds of day in a primitive array.
+   *
+   * @param vehicle      the vehicle for which to calculate the toll
+   * @param date         the day of the passes
+   * @param secondsOfDay the passes as seconds of day, sorted in ascending order
+   * @return the total toll for passes of the same day
+   */
+  default double calculateTollForPassesOfSameDay(Vehicle vehicle, LocalDate date, int[] secondsOfDay) {
+    return calculateTollForPassesOfSameDay(vehicle, date, secondsOfDay, 0, secondsOfDay.length);
+  }
+
+  /**
+   * Opens a running toll calculation for the given vehicle and day that is fed one pass at a time.
+   * Passes may arrive up to the given delay after a later pass and are still billed in order.
+   *
+   * @param vehicle         the vehicle for which to calculate the toll
+   * @param date            the day to bill
+   * @param maxDelaySeconds the number of seconds a pass may arrive out of order
+   * @return a new accumulator for the vehicle and day
+   */
+  DailyTollAccumulator openDay(Vehicle vehicle, LocalDate date, int maxDelaySeconds);
+
+  /**
+   * Opens a running toll calculation for the given vehicle and day that is fed passes in order.
+   *
+   * @param vehicle the vehicle for which to calculate the toll
+   * @param date    the day to bill
+   * @return a new accumulator for the vehicle and day
+   */
+  default DailyTollAccumulator openDay(Vehicle vehicle, LocalDate date) {
+    return openDay(vehicle, date, 0);
+  }
+
+  /**
+   * Returns the vehicle classes of the current configuration, whose codes the class-code overloads take. Callers
+   * billing many days of the same vehicle resolve its code once with {@link VehicleClassRegistry#codeOf(Vehicle)}
+   * and use the class-code overloads, falling back to the vehicle overloads for a vehicle of no registered class.
+   *
+   * @return the vehicle class registry of the current configuration
+   */
+  VehicleClassRegistry getVehicleClasses();
 }
@@ -0,0 +1,91 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.RateTable;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Calculates the daily fees of many vehicle-days that share one rate table, i.e. one vehicle class on one day.
+ * The passes of all vehicle-days are packed into one array of seconds of day: the passes of vehicle-day
+ * {@code d} are at the indices from {@code dayStarts[d]} inclusive to {@code dayStarts[d + 1]} exclusive, each
+ * day sorted in ascending order. Every vehicle-day is billed with the same hourly window and daily cap as
+ * {@link TollServiceImpl#calculateTollOfDayInOre}; whether the class or day is toll-free is decided by the caller.
+ * <p>
+ * {@link #scalar()} evaluates one vehicle-day after the other. {@link #vectorized()} evaluates as many
+ * vehicle-days at once as the SIMD registers of the hardware hold, using the incubating {@code
+ * jdk.incubator.vector} module. That module is optional: the vectorized kernel is loaded reflectively and
+ * {@link #best()} falls back to the scalar one when the JVM was not started with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+interface BatchFeeKernel {
+  /**
+   * The system property that disables the vectorized kernel when set to {@code false}.
+   */
+  String VECTOR_PROPERTY = "tollcalculator.vector";
+  /**
+   * The name of the module of the Vector API.
+   */
+  String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /**
+   * Calculates the fee of every vehicle-day.
+   *
+   * @param rateTable    the rate table of the vehicle class on the day of the passes
+   * @param secondsOfDay the passes of all vehicle-days as seconds of day, every day sorted in ascending order
+   * @param dayStarts    the index of the first pass of every vehicle-day, followed by the end of the last day
+   * @param dayCount     the number of vehicle-days
+   * @param feesInOre    receives the fee of every vehicle-day in öre, at the index of the day
+   * @throws IllegalArgumentException if the passes of a day are not sorted
+   */
+  void calculateTollsInOre(RateTable rateTable, int[] secondsOfDay, int[] dayStarts, int dayCount,
+                           long[] feesInOre);
+
+  /**
+   * Returns the kernel evaluating one vehicle-day after the other.
+   *
+   * @return the scalar kernel
+   */
+  static BatchFeeKernel scalar() {
+    return ScalarBatchFeeKernel.INSTANCE;
+  }
+
+  /**
+   * Loads the kernel evaluating several vehicle-days at once with the Vector API.
+   *
+   * @return a new vectorized kernel
+   * @throws IllegalStateException if the Vector API is not available in this JVM or the hardware has no
+   *                               suitable SIMD registers
+   */
+  static BatchFeeKernel vectorized() {
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      throw new IllegalStateException("Module " + VECTOR_MODULE + " is not available, start the JVM with "
+          + "--add-modules " + VECTOR_MODULE);
+    }
+    try {
+      return (BatchFeeKernel) Class.forName(BatchFeeKernel.class.getPackageName() + ".VectorBatchFeeKernel")
+          .getDeclaredConstructor()
+          .newInstance();
+    } catch (final InvocationTargetException e) {
+      throw new IllegalStateException("Cannot use the vectorized kernel: " + e.getCause().getMessage(),
+          e.getCause());
+    } catch (final ReflectiveOperationException | LinkageError e) {
+      throw new IllegalStateException("Cannot load the vectorized kernel", e);
+    }
+  }
+
+  /**
+   * Returns the vectorized kernel if it can be used in this JVM and is not disabled by the system property
+   * {@value #VECTOR_PROPERTY}, the scalar kernel otherwise.
+   *
+   * @return the fastest available kernel
+   */
+  static BatchFeeKernel best() {
+    if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+      return scalar();
+    }
+    try {
+      return vectorized();
+    } catch (final IllegalStateException e) {
+      return scalar();
+    }
+  }
+}
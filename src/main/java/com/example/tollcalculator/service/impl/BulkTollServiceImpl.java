@@ -0,0 +1,400 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.service.BulkTollService;
+import com.example.tollcalculator.service.TollService;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class implements the {@link BulkTollService} interface with an external merge sort, so that the memory
+ * used does not depend on the size of the input. Passes are buffered up to a configurable limit; a full buffer
+ * is sorted by vehicle and time and spilled to a temporary file. The sorted runs are then merged, at most
+ * a configurable number of them at a time, so that the number of open files is bounded, and every group of passes of the same vehicle on the same day is handed to a {@link TollService}, which charges every
+ * pass by the rates of its toll station and applies the hourly window and the daily cap across the stations.
+ */
+public class BulkTollServiceImpl implements BulkTollService {
+  /**
+   * The default number of passes held in memory before they are spilled to disk.
+   */
+  public static final int DEFAULT_MAX_PASSES_IN_MEMORY = 1_000_000;
+  /**
+   * The default number of sorted runs read at once while merging.
+   */
+  public static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+  /**
+   * The initial number of passes of one vehicle and day the billing arrays hold.
+   */
+  private static final int INITIAL_DAY_CAPACITY = 16;
+  /**
+   * The {@link TollService} used to calculate the fee of each vehicle and day.
+   */
+  private final TollService tollService;
+  /**
+   * The number of passes held in memory before they are spilled to disk.
+   */
+  private final int maxPassesInMemory;
+  /**
+   * The number of sorted runs read at once while merging.
+   */
+  private final int maxMergeFanIn;
+  /**
+   * The directory the sorted runs are spilled to.
+   */
+  private final Path spillDirectory;
+
+  /**
+   * Creates a bulk toll service with the default memory limit that spills to the system temporary directory.
+   */
+  public BulkTollServiceImpl() {
+    this(TollServiceImpl.getDefault());
+  }
+
+  /**
+   * Creates a bulk toll service on top of the given toll service, with the default memory limit that spills
+   * to the system temporary directory.
+   *
+   * @param tollService the toll service used to calculate the fee of each vehicle and day
+   */
+  public BulkTollServiceImpl(final TollService tollService) {
+    this(tollService, DEFAULT_MAX_PASSES_IN_MEMORY,
+        Path.of(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * Creates a bulk toll service that merges at most {@link #DEFAULT_MAX_MERGE_FAN_IN} runs at a time.
+   *
+   * @param tollService       the toll service used to calculate the fee of each vehicle and day
+   * @param maxPassesInMemory the number of passes held in memory before they are spilled to disk
+   * @param spillDirectory    the directory the sorted runs are spilled to
+   * @throws IllegalArgumentException if the memory limit is not positive
+   */
+  public BulkTollServiceImpl(final TollService tollService, final int maxPassesInMemory,
+                             final Path spillDirectory) {
+    this(tollService, maxPassesInMemory, DEFAULT_MAX_MERGE_FAN_IN, spillDirectory);
+  }
+
+  /**
+   * Creates a bulk toll service.
+   *
+   * @param tollService       the toll service used to calculate the fee of each vehicle and day
+   * @param maxPassesInMemory the number of passes held in memory before they are spilled to disk
+   * @param maxMergeFanIn     the number of sorted runs read at once while merging
+   * @param spillDirectory    the directory the sorted runs are spilled to
+   * @throws IllegalArgumentException if the memory limit is not positive or the fan-in is less than two
+   */
+  public BulkTollServiceImpl(final TollService tollService, final int maxPassesInMemory,
+                             final int maxMergeFanIn, final Path spillDirectory) {
+    if (maxPassesInMemory <= 0) {
+      throw new IllegalArgumentException("Maximum passes in memory must be positive");
+    }
+    if (maxMergeFanIn < 2) {
+      throw new IllegalArgumentException("Maximum merge fan-in must be at least 2");
+    }
+    this.tollService = tollService;
+    this.maxPassesInMemory = maxPassesInMemory;
+    this.maxMergeFanIn = maxMergeFanIn;
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Groups the given passes by vehicle and day and calculates the toll fee of every group.
+   *
+   * @param passes   the passes of all vehicles, in any order
+   * @param consumer receives the total toll of every vehicle and day, ordered by vehicle id and date
+   */
+  @Override
+  public void calculateDailyTolls(final Iterator<VehiclePass> passes,
+                                  final Consumer<DailyToll> consumer) {
+    final List<VehiclePass> buffer = new ArrayList<>();
+    final List<Path> runs = new ArrayList<>();
+    final Map<String, Vehicle> vehicleTypes = new HashMap<>();
+    try {
+      while (passes.hasNext()) {
+        buffer.add(passes.next());
+        if (buffer.size() >= maxPassesInMemory) {
+          runs.add(spill(buffer, vehicleTypes));
+          buffer.clear();
+        }
+      }
+      if (runs.isEmpty()) {
+        buffer.sort(VehiclePass.BY_VEHICLE_AND_TIMESTAMP);
+        billSortedPasses(buffer.iterator(), consumer);
+        return;
+      }
+      if (!buffer.isEmpty()) {
+        runs.add(spill(buffer, vehicleTypes));
+        buffer.clear();
+      }
+      // merge the oldest runs into a new one until the rest can be read at once
+      while (runs.size() > maxMergeFanIn) {
+        final List<Path> group = runs.subList(0, maxMergeFanIn);
+        final Path merged;
+        try (MergingIterator groupPasses = new MergingIterator(group, vehicleTypes)) {
+          merged = writeRun(groupPasses, vehicleTypes);
+        }
+        group.forEach(BulkTollServiceImpl::deleteQuietly);
+        group.clear();
+        runs.add(merged);
+      }
+      try (MergingIterator merged = new MergingIterator(runs, vehicleTypes)) {
+        billSortedPasses(merged, consumer);
+      }
+    } finally {
+      runs.forEach(BulkTollServiceImpl::deleteQuietly);
+    }
+  }
+
+  /**
+   * Walks over passes sorted by vehicle and time and calculates the toll of every vehicle and day.
+   *
+   * @param sortedPasses the passes sorted by vehicle id and time
+   * @param consumer     receives the total toll of every vehicle and day
+   */
+  private void billSortedPasses(final Iterator<VehiclePass> sortedPasses,
+                                final Consumer<DailyToll> consumer) {
+    long[] nanosOfDay = new long[INITIAL_DAY_CAPACITY];
+    int[] stations = new int[INITIAL_DAY_CAPACITY];
+    int count = 0;
+    VehiclePass first = null;
+    // the class code is resolved once for every run of passes of the same vehicle type
+    Class<?> vehicleType = null;
+    int vehicleClass = -1;
+    while (sortedPasses.hasNext()) {
+      final VehiclePass pass = sortedPasses.next();
+      if (first != null && !isSameVehicleAndDay(first, pass)) {
+        consumer.accept(billDay(first, vehicleClass, nanosOfDay, stations, count));
+        count = 0;
+        first = null;
+      }
+      if (first == null) {
+        first = pass;
+        if (first.getVehicle().getClass() != vehicleType) {
+          vehicleType = first.getVehicle().getClass();
+          vehicleClass = tollService.getVehicleClasses().codeOf(first.getVehicle());
+        }
+      }
+      if (count == nanosOfDay.length) {
+        nanosOfDay = Arrays.copyOf(nanosOfDay, count * 2);
+        stations = Arrays.copyOf(stations, count * 2);
+      }
+      nanosOfDay[count] = pass.getTimestamp().toLocalTime().toNanoOfDay();
+      stations[count] = pass.getStation();
+      count++;
+    }
+    if (first != null) {
+      consumer.accept(billDay(first, vehicleClass, nanosOfDay, stations, count));
+    }
+  }
+
+  /**
+   * Calculates the toll of one vehicle for one day. Every pass is charged by the rates of its toll station,
+   * while the hourly windows and the daily cap span all stations.
+   *
+   * @param first        the first pass of the day
+   * @param vehicleClass the code of the vehicle class of the first pass, or -1 if its class is not registered
+   * @param nanosOfDay   the times of all passes of the vehicle on that day as sorted nanoseconds of day
+   * @param stations     the codes of the toll stations of the passes
+   * @param count        the number of passes of the day
+   * @return the daily toll
+   */
+  private DailyToll billDay(final VehiclePass first, final int vehicleClass, final long[] nanosOfDay,
+                            final int[] stations, final int count) {
+    final LocalDate date = first.getTimestamp().toLocalDate();
+    final long fee = vehicleClass < 0
+        ? tollService.calculateTollInOreForPassesOfSameDay(first.getVehicle(), date, nanosOfDay, stations, 0, count)
+        : tollService.calculateTollInOreForPassesOfSameDay(vehicleClass, date, nanosOfDay, stations, 0, count);
+    return DailyToll.ofOre(first.getVehicleId(), date, fee);
+  }
+
+  /**
+   * Checks if two passes were made by the same vehicle on the same day.
+   *
+   * @param a the first pass
+   * @param b the second pass
+   * @return true if both passes belong to the same vehicle and day, false otherwise
+   */
+  private static boolean isSameVehicleAndDay(final VehiclePass a, final VehiclePass b) {
+    return a.getVehicleId().equals(b.getVehicleId()) &&
+        a.getTimestamp().toLocalDate().equals(b.getTimestamp().toLocalDate());
+  }
+
+  /**
+   * Sorts the buffered passes and writes them to a temporary file.
+   * Vehicles are written by their class name and the first instance seen of every class is remembered,
+   * so that the passes can be read back without keeping a vehicle object per pass. Read back passes therefore
+   * share that instance, see {@link BulkTollService#calculateDailyTolls}.
+   *
+   * @param buffer       the buffered passes
+   * @param vehicleTypes the first vehicle instance seen of every vehicle class, keyed by class name
+   * @return the path of the sorted run
+   */
+  private Path spill(final List<VehiclePass> buffer, final Map<String, Vehicle> vehicleTypes) {
+    buffer.sort(VehiclePass.BY_VEHICLE_AND_TIMESTAMP);
+    return writeRun(buffer.iterator(), vehicleTypes);
+  }
+
+  /**
+   * Writes sorted passes to a temporary file, which is deleted again if writing fails.
+   *
+   * @param sortedPasses the passes sorted by vehicle id and time
+   * @param vehicleTypes the first vehicle instance seen of every vehicle class, keyed by class name
+   * @return the path of the sorted run
+   */
+  private Path writeRun(final Iterator<VehiclePass> sortedPasses, final Map<String, Vehicle> vehicleTypes) {
+    Path run = null;
+    boolean written = false;
+    try {
+      run = Files.createTempFile(spillDirectory, "toll-passes-", ".run");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(run)))) {
+        while (sortedPasses.hasNext()) {
+          final VehiclePass pass = sortedPasses.next();
+          final String vehicleType = pass.getVehicle().getClass().getName();
+          vehicleTypes.putIfAbsent(vehicleType, pass.getVehicle());
+          out.writeUTF(pass.getVehicleId());
+          out.writeUTF(vehicleType);
+          out.writeLong(pass.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+          out.writeInt(pass.getTimestamp().getNano());
+          out.writeInt(pass.getStation());
+        }
+      }
+      written = true;
+      return run;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to spill passes to " + spillDirectory, e);
+    } finally {
+      if (!written && run != null) {
+        deleteQuietly(run);
+      }
+    }
+  }
+
+  /**
+   * Deletes a file, ignoring any failure.
+   *
+   * @param path the file to delete
+   */
+  private static void deleteQuietly(final Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {
+      // the file lives in a temporary directory
+    }
+  }
+
+  /**
+   * Reads one sorted run back from disk.
+   */
+  private static final class RunReader implements Closeable {
+    private final DataInputStream in;
+    private final Map<String, Vehicle> vehicleTypes;
+    private VehiclePass current;
+
+    RunReader(final Path run, final Map<String, Vehicle> vehicleTypes) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+      this.vehicleTypes = vehicleTypes;
+      advance();
+    }
+
+    /**
+     * Reads the next pass of the run, or sets the current pass to null at the end of the run.
+     */
+    void advance() throws IOException {
+      try {
+        final String vehicleId = in.readUTF();
+        final Vehicle vehicle = vehicleTypes.get(in.readUTF());
+        final LocalDateTime timestamp =
+            LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        current = new VehiclePass(vehicleId, vehicle, timestamp, in.readInt());
+      } catch (EOFException e) {
+        current = null;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * Merges sorted runs into a single sorted iterator.
+   */
+  private static final class MergingIterator implements Iterator<VehiclePass>, Closeable {
+    private final List<RunReader> readers = new ArrayList<>();
+    private final PriorityQueue<RunReader> queue = new PriorityQueue<>(
+        Comparator.comparing((RunReader r) -> r.current, VehiclePass.BY_VEHICLE_AND_TIMESTAMP));
+
+    MergingIterator(final List<Path> runs, final Map<String, Vehicle> vehicleTypes) {
+      try {
+        for (final Path run : runs) {
+          final RunReader reader = new RunReader(run, vehicleTypes);
+          readers.add(reader);
+          if (reader.current != null) {
+            queue.add(reader);
+          }
+        }
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException("Failed to read spilled passes", e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public VehiclePass next() {
+      final RunReader reader = queue.poll();
+      if (reader == null) {
+        throw new NoSuchElementException();
+      }
+      final VehiclePass pass = reader.current;
+      try {
+        reader.advance();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to read spilled passes", e);
+      }
+      if (reader.current != null) {
+        queue.add(reader);
+      }
+      return pass;
+    }
+
+    @Override
+    public void close() {
+      for (final RunReader reader : readers) {
+        try {
+          reader.close();
+        } catch (IOException ignored) {
+          // nothing more can be done with a temporary run
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,486 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.service.DailyTollAccumulator;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TollService} that remembers the fees of the daily pass patterns it has seen, in front of another
+ * toll service. Many commuters pass the same gantries at the same times every working day, and the fee of such a
+ * day only depends on the tariff of the day and the times of the passes, so it is calculated once.
+ * <p>
+ * The cache is keyed by the rate table the passes are charged by, which the tariffs resolve from the vehicle
+ * class, the {@link com.example.tollcalculator.domain.DayType} and the validity period of the day, and the
+ * passes as nanoseconds of day; passes are not rounded to minutes or seconds, as the hourly window is exact to the
+ * nanosecond. Passes of a toll-free vehicle or on a toll-free day are not cached, as their fee is zero without
+ * any lookup. The cache holds a bounded number of patterns, split over independently locked stripes chosen by the
+ * hash of the pattern, so concurrent lookups of different patterns rarely contend; every stripe evicts its least
+ * recently used pattern first. A stripe is emptied as soon as it sees that a new {@link TollConfiguration} has
+ * been published, so changed rate or holiday tables are never answered from the cache.
+ */
+public class CachingTollService implements TollService {
+  /**
+   * The default maximum number of cached pass patterns.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+  /**
+   * The maximum number of stripes, a power of two.
+   */
+  private static final int MAXIMUM_STRIPES = 16;
+  /**
+   * The minimum number of patterns per stripe, so that small caches keep an exact least recently used order.
+   */
+  private static final int MINIMUM_STRIPE_SIZE = 16;
+  /**
+   * The number of nanoseconds in one second.
+   */
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /**
+   * The toll service the fees are calculated by.
+   */
+  private final TollService delegate;
+  /**
+   * The manager of the configuration the cached fees were calculated with.
+   */
+  private final ConfigurationManager configuration;
+  /**
+   * The stripes of the cache, a power of two of them.
+   */
+  private final Stripe[] stripes;
+  /**
+   * The number of fees answered from the cache.
+   */
+  private final LongAdder hits = new LongAdder();
+  /**
+   * The number of fees that had to be calculated.
+   */
+  private final LongAdder misses = new LongAdder();
+  /**
+   * The number of patterns evicted to keep the cache within its maximum size.
+   */
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates a cache of the default size in front of a toll service on the default configuration.
+   */
+  public CachingTollService() {
+    this(TollServiceImpl.getDefault(), ConfigurationManager.getDefault(), DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates a cache in front of a toll service.
+   *
+   * @param delegate      the toll service the fees are calculated by
+   * @param configuration the manager of the configuration the delegate calculates with
+   * @param maximumSize   the maximum number of cached pass patterns
+   * @throws IllegalArgumentException if the maximum size is not positive
+   */
+  public CachingTollService(final TollService delegate, final ConfigurationManager configuration,
+                            final int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive");
+    }
+    this.delegate = delegate;
+    this.configuration = configuration;
+    final int stripeCount = Integer.highestOneBit(
+        Math.max(1, Math.min(MAXIMUM_STRIPES, maximumSize / MINIMUM_STRIPE_SIZE)));
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maximumSize / stripeCount + (i < maximumSize % stripeCount ? 1 : 0), evictions);
+    }
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final Vehicle vehicle,
+                                                final List<LocalDateTime> passTimestamps) {
+    if (passTimestamps.isEmpty()) {
+      return delegate.calculateTollForPassesOfSameDay(vehicle, passTimestamps);
+    }
+    final LocalDate date = passTimestamps.get(0).toLocalDate();
+    final long[] nanosOfDay = new long[passTimestamps.size()];
+    for (int i = 0; i < nanosOfDay.length; i++) {
+      final LocalDateTime passTimestamp = passTimestamps.get(i);
+      if (!passTimestamp.toLocalDate().equals(date)) {
+        return delegate.calculateTollForPassesOfSameDay(vehicle, passTimestamps);
+      }
+      nanosOfDay[i] = passTimestamp.toLocalTime().toNanoOfDay();
+    }
+    Arrays.sort(nanosOfDay);
+    return Money.toKronor(calculateTollInOreForPassesOfSameDay(vehicle, date, nanosOfDay, null, 0,
+        nanosOfDay.length));
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                final int[] secondsOfDay, final int from, final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    if (vehicleClasses.isTollFree(vehicle) || config.isTollFreeDay(date) || from == to) {
+      return 0.0;
+    }
+    final PatternKey key = PatternKey.ofSeconds(config.rateTableFor(vehicleClasses.codeOf(vehicle), date),
+        secondsOfDay, from, to);
+    final Long cached = lookup(config, key);
+    if (cached != null) {
+      return Money.toKronor(cached);
+    }
+    return Money.toKronor(store(config, key, Money.toOre(
+        delegate.calculateTollForPassesOfSameDay(vehicle, date, secondsOfDay, from, to))));
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int from, final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    final TollConfiguration config = configuration.current();
+    if (config.getVehicleClasses().isTollFree(vehicleClass) || config.isTollFreeDay(date) || from == to) {
+      return 0.0;
+    }
+    final PatternKey key = PatternKey.ofSeconds(config.rateTableFor(vehicleClass, date), secondsOfDay, from, to);
+    final Long cached = lookup(config, key);
+    if (cached != null) {
+      return Money.toKronor(cached);
+    }
+    return Money.toKronor(store(config, key, Money.toOre(
+        delegate.calculateTollForPassesOfSameDay(vehicleClass, date, secondsOfDay, from, to))));
+  }
+
+  /**
+   * Calculates the total toll for passes at toll stations by the delegate. Passes at stations are not cached, as
+   * their fee also depends on the station of every pass.
+   */
+  @Override
+  public double calculateTollForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] stations,
+                                                final int from, final int to) {
+    return delegate.calculateTollForPassesOfSameDay(vehicle, date, secondsOfDay, stations, from, to);
+  }
+
+  /**
+   * Calculates the total toll for passes at toll stations by the delegate, without caching.
+   */
+  @Override
+  public double calculateTollForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] stations,
+                                                final int from, final int to) {
+    return delegate.calculateTollForPassesOfSameDay(vehicleClass, date, secondsOfDay, stations, from, to);
+  }
+
+  /**
+   * Calculates the total toll for passes given as nanoseconds of day. Passes at toll stations are calculated by
+   * the delegate without caching.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                    final long[] nanosOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, nanosOfDay.length);
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    if (stations != null || vehicleClasses.isTollFree(vehicle) || config.isTollFreeDay(date) || from == to) {
+      return delegate.calculateTollInOreForPassesOfSameDay(vehicle, date, nanosOfDay, stations, from, to);
+    }
+    final PatternKey key = new PatternKey(config.rateTableFor(vehicleClasses.codeOf(vehicle), date), nanosOfDay,
+        from, to);
+    final Long cached = lookup(config, key);
+    if (cached != null) {
+      return cached;
+    }
+    return store(config, key,
+        delegate.calculateTollInOreForPassesOfSameDay(vehicle, date, nanosOfDay, null, from, to));
+  }
+
+  /**
+   * Calculates the total toll for passes given as nanoseconds of day. Passes at toll stations are calculated by
+   * the delegate without caching.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                    final long[] nanosOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, nanosOfDay.length);
+    final TollConfiguration config = configuration.current();
+    if (stations != null || config.getVehicleClasses().isTollFree(vehicleClass) || config.isTollFreeDay(date)
+        || from == to) {
+      return delegate.calculateTollInOreForPassesOfSameDay(vehicleClass, date, nanosOfDay, stations, from, to);
+    }
+    final PatternKey key = new PatternKey(config.rateTableFor(vehicleClass, date), nanosOfDay, from, to);
+    final Long cached = lookup(config, key);
+    if (cached != null) {
+      return cached;
+    }
+    return store(config, key,
+        delegate.calculateTollInOreForPassesOfSameDay(vehicleClass, date, nanosOfDay, null, from, to));
+  }
+
+  /**
+   * Calculates the totals of many vehicle-days by the delegate, without caching, so its batch kernel is used.
+   */
+  @Override
+  public void calculateTollsInOreForVehicleDays(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] dayStarts, final int dayCount,
+                                                final long[] feesInOre) {
+    delegate.calculateTollsInOreForVehicleDays(vehicleClass, date, secondsOfDay, dayStarts, dayCount, feesInOre);
+  }
+
+  @Override
+  public DailyTollAccumulator openDay(final Vehicle vehicle, final LocalDate date, final int maxDelaySeconds) {
+    return delegate.openDay(vehicle, date, maxDelaySeconds);
+  }
+
+  @Override
+  public VehicleClassRegistry getVehicleClasses() {
+    return delegate.getVehicleClasses();
+  }
+
+  /**
+   * Returns the number of fees answered from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of fees that had to be calculated.
+   *
+   * @return the number of cache misses
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of pass patterns evicted to keep the cache within its maximum size.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Returns the share of fees answered from the cache.
+   *
+   * @return the hit rate between 0 and 1, or 0 if nothing was looked up yet
+   */
+  public double getHitRate() {
+    final long hitCount = hits.sum();
+    final long total = hitCount + misses.sum();
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  /**
+   * Returns the number of cached pass patterns.
+   *
+   * @return the size of the cache
+   */
+  public int size() {
+    int size = 0;
+    for (final Stripe stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /**
+   * Empties the cache. The statistics are kept.
+   */
+  public void invalidateAll() {
+    for (final Stripe stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  /**
+   * Looks a pass pattern up in its stripe.
+   *
+   * @param config the current configuration snapshot
+   * @param key    the pass pattern
+   * @return the cached fee in öre, or null if the pattern is not cached
+   */
+  private Long lookup(final TollConfiguration config, final PatternKey key) {
+    final Long cached = stripeOf(key).get(config, key);
+    (cached != null ? hits : misses).increment();
+    return cached;
+  }
+
+  /**
+   * Caches the fee of a pass pattern, unless the configuration changed while the fee was calculated, in which
+   * case the delegate may have calculated it with either snapshot.
+   *
+   * @param config the configuration snapshot the pattern was looked up with
+   * @param key    the pass pattern
+   * @param fee    the fee of the pattern in öre
+   * @return the fee in öre
+   */
+  private long store(final TollConfiguration config, final PatternKey key, final long fee) {
+    stripeOf(key).put(config, configuration, key, fee);
+    return fee;
+  }
+
+  /**
+   * Returns the stripe a pass pattern is cached in.
+   *
+   * @param key the pass pattern
+   * @return the stripe of the pattern
+   */
+  private Stripe stripeOf(final PatternKey key) {
+    final int hash = key.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  /**
+   * One independently locked part of the cache: the fees of its patterns in access order, and the configuration
+   * snapshot they were calculated with.
+   */
+  private static final class Stripe {
+    /**
+     * The cached fees in öre in access order, guarded by the stripe.
+     */
+    private final Map<PatternKey, Long> fees;
+    /**
+     * The configuration snapshot the cached fees were calculated with, guarded by the stripe.
+     */
+    private TollConfiguration cachedConfig;
+
+    Stripe(final int maximumSize, final LongAdder evictions) {
+      this.fees = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<PatternKey, Long> eldest) {
+          if (size() <= maximumSize) {
+            return false;
+          }
+          evictions.increment();
+          return true;
+        }
+      };
+    }
+
+    /**
+     * Looks a pass pattern up, emptying the stripe first if it was filled with another configuration snapshot.
+     *
+     * @param config the current configuration snapshot
+     * @param key    the pass pattern
+     * @return the cached fee in öre, or null if the pattern is not cached
+     */
+    synchronized Long get(final TollConfiguration config, final PatternKey key) {
+      if (config != cachedConfig) {
+        fees.clear();
+        cachedConfig = config;
+      }
+      return fees.get(key);
+    }
+
+    /**
+     * Caches the fee of a pass pattern if it was calculated with the configuration snapshot of the stripe and
+     * that snapshot is still current.
+     *
+     * @param config        the configuration snapshot the pattern was looked up with
+     * @param configuration the manager of the current configuration
+     * @param key           the pass pattern
+     * @param fee           the fee of the pattern in öre
+     */
+    synchronized void put(final TollConfiguration config, final ConfigurationManager configuration,
+                          final PatternKey key, final long fee) {
+      if (config == cachedConfig && config == configuration.current()) {
+        fees.put(key, fee);
+      }
+    }
+
+    /**
+     * Returns the number of cached pass patterns.
+     *
+     * @return the size of the stripe
+     */
+    synchronized int size() {
+      return fees.size();
+    }
+
+    /**
+     * Empties the stripe.
+     */
+    synchronized void clear() {
+      fees.clear();
+    }
+  }
+
+  /**
+   * The key of a cached fee: the rate table the passes are charged by and a copy of the passes as nanoseconds of
+   * day.
+   */
+  private static final class PatternKey {
+    /**
+     * The rate table the passes are charged by, compared by identity.
+     */
+    private final RateTable rateTable;
+    /**
+     * The passes as nanoseconds of day.
+     */
+    private final long[] nanosOfDay;
+    /**
+     * The hash of the rate table and the passes, computed once.
+     */
+    private final int hash;
+
+    PatternKey(final RateTable rateTable, final long[] nanosOfDay, final int from, final int to) {
+      this(rateTable, Arrays.copyOfRange(nanosOfDay, from, to));
+    }
+
+    private PatternKey(final RateTable rateTable, final long[] nanosOfDay) {
+      this.rateTable = rateTable;
+      this.nanosOfDay = nanosOfDay;
+      this.hash = 31 * System.identityHashCode(rateTable) + Arrays.hashCode(nanosOfDay);
+    }
+
+    /**
+     * Creates the key of passes given as seconds of day, equal to the key of the same passes given as
+     * nanoseconds of day.
+     *
+     * @param rateTable    the rate table the passes are charged by
+     * @param secondsOfDay the passes as seconds of day
+     * @param from         the index of the first pass, inclusive
+     * @param to           the index of the last pass, exclusive
+     * @return the key of the passes
+     */
+    static PatternKey ofSeconds(final RateTable rateTable, final int[] secondsOfDay, final int from, final int to) {
+      final long[] nanosOfDay = new long[to - from];
+      for (int i = 0; i < nanosOfDay.length; i++) {
+        nanosOfDay[i] = secondsOfDay[from + i] * NANOS_PER_SECOND;
+      }
+      return new PatternKey(rateTable, nanosOfDay);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PatternKey)) {
+        return false;
+      }
+      final PatternKey that = (PatternKey) o;
+      return hash == that.hash && rateTable == that.rateTable && Arrays.equals(nanosOfDay, that.nanosOfDay);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.service.DailyTollAccumulator;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * This class implements the {@link DailyTollAccumulator} interface by keeping only the state the hourly window
+ * algorithm needs: the total of the closed windows, the start and maximum fee of the current window and the
+ * last billed pass. Passes are kept as nanoseconds of day, so passes given as {@link LocalDateTime}s are billed
+ * with their sub-second precision, exactly as by {@link TollServiceImpl#calculateTollForPassesOfSameDay}.
+ * <p>
+ * Passes may arrive slightly out of order. A pass is held back in a small sorted buffer until a pass more than
+ * the allowed delay later has been seen, and is billed from there in order. A pass that is older than the last
+ * billed pass is still billed exactly as long as it falls into the current window, because it cannot move any
+ * window boundary; only a pass older than the start of the current window is rejected.
+ */
+class DailyTollAccumulatorImpl implements DailyTollAccumulator {
+  /**
+   * Marks that no window has been opened yet.
+   */
+  private static final long NO_WINDOW = -1L;
+  /**
+   * The number of nanoseconds in one second.
+   */
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /**
+   * The fee service used to look up the toll rate of each pass.
+   */
+  private final FeeServiceImpl feeService;
+  /**
+   * The rate table of the vehicle class on the day, from the configuration snapshot the whole day is billed
+   * with.
+   */
+  private final RateTable rateTable;
+  /**
+   * The day the accumulator bills.
+   */
+  private final LocalDate date;
+  /**
+   * Whether the vehicle or the day is toll-free, in which case no pass is ever billed.
+   */
+  private final boolean tollFree;
+  /**
+   * The number of nanoseconds a pass may arrive after a later pass and still be billed in order.
+   */
+  private final long maxDelayNanos;
+  /**
+   * The sum of the maximum fees of all closed windows in öre.
+   */
+  private long closedWindowsTotal;
+  /**
+   * The nanosecond of day the current window starts at.
+   */
+  private long windowStart = NO_WINDOW;
+  /**
+   * The maximum fee within the current window in öre.
+   */
+  private long windowMaximum;
+  /**
+   * The last pass that was billed.
+   */
+  private long lastBilledPass = NO_WINDOW;
+  /**
+   * The latest pass seen so far, billed or not.
+   */
+  private long latestPass = NO_WINDOW;
+  /**
+   * The passes held back for reordering, sorted in ascending order.
+   */
+  private long[] pending = new long[8];
+  /**
+   * The number of passes held back.
+   */
+  private int pendingCount;
+  /**
+   * Whether the daily cap has been reached.
+   */
+  private boolean capped;
+  /**
+   * Whether the day has been closed.
+   */
+  private boolean closed;
+
+  DailyTollAccumulatorImpl(final FeeServiceImpl feeService, final RateTable rateTable,
+                           final LocalDate date, final boolean tollFree, final int maxDelaySeconds) {
+    if (maxDelaySeconds < 0) {
+      throw new IllegalArgumentException("Maximum delay must not be negative");
+    }
+    this.feeService = feeService;
+    this.rateTable = rateTable;
+    this.date = date;
+    this.tollFree = tollFree;
+    this.maxDelayNanos = maxDelaySeconds * NANOS_PER_SECOND;
+  }
+
+  @Override
+  public double addPass(final int secondOfDay) {
+    if (secondOfDay < 0 || secondOfDay >= RateTable.SECONDS_PER_DAY) {
+      throw new IllegalArgumentException("Second of day out of range: " + secondOfDay);
+    }
+    return addPassAtNanoOfDay(secondOfDay * NANOS_PER_SECOND);
+  }
+
+  @Override
+  public double addPass(final LocalDateTime pass) {
+    if (!pass.toLocalDate().equals(date)) {
+      throw new IllegalArgumentException("Pass " + pass + " is not on " + date);
+    }
+    return addPassAtNanoOfDay(pass.toLocalTime().toNanoOfDay());
+  }
+
+  /**
+   * Adds a pass to the running calculation.
+   *
+   * @param nanoOfDay the time of the pass as nanosecond of day
+   * @return the fee so far, including the new pass
+   * @throws IllegalArgumentException if the pass arrives too late to be billed correctly
+   * @throws IllegalStateException    if the day has already been closed
+   */
+  private double addPassAtNanoOfDay(final long nanoOfDay) {
+    if (closed) {
+      throw new IllegalStateException("The day " + date + " has already been closed");
+    }
+    if (tollFree || capped) {
+      return getFeeSoFar();
+    }
+    if (windowStart != NO_WINDOW && nanoOfDay < windowStart) {
+      throw new IllegalArgumentException("Pass at " + LocalTime.ofNanoOfDay(nanoOfDay) +
+          " arrived after the hourly window starting at " + LocalTime.ofNanoOfDay(windowStart) + " was opened");
+    }
+    if (maxDelayNanos == 0 || nanoOfDay <= lastBilledPass) {
+      bill(nanoOfDay);
+    } else {
+      hold(nanoOfDay);
+      latestPass = Math.max(latestPass, nanoOfDay);
+      releaseUpTo(latestPass - maxDelayNanos);
+    }
+    return getFeeSoFar();
+  }
+
+  @Override
+  public double getFeeSoFar() {
+    return Money.toKronor(getFeeSoFarInOre());
+  }
+
+  @Override
+  public long getFeeSoFarInOre() {
+    if (tollFree) {
+      return 0L;
+    }
+    long total = closedWindowsTotal;
+    long maximum = windowMaximum;
+    long start = windowStart;
+    for (int i = 0; i < pendingCount && total < TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE; i++) {
+      final long pass = pending[i];
+      if (start != NO_WINDOW && TollServiceImpl.isWithinHourlyWindow(start, pass)) {
+        maximum = Math.max(maximum, feeService.getTollRateInOreAtNanoOfDay(rateTable, pass));
+      } else {
+        total += maximum;
+        start = pass;
+        maximum = feeService.getTollRateInOreAtNanoOfDay(rateTable, pass);
+      }
+    }
+    return Math.min(total + maximum, TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE);
+  }
+
+  @Override
+  public boolean isCapped() {
+    return capped;
+  }
+
+  @Override
+  public double closeDay() {
+    if (!closed) {
+      releaseUpTo(Long.MAX_VALUE);
+      closed = true;
+    }
+    return getFeeSoFar();
+  }
+
+  @Override
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Bills a pass that is not older than the start of the current window.
+   *
+   * @param pass the pass as nanosecond of day
+   */
+  private void bill(final long pass) {
+    if (capped) {
+      return;
+    }
+    if (windowStart != NO_WINDOW && TollServiceImpl.isWithinHourlyWindow(windowStart, pass)) {
+      windowMaximum = Math.max(windowMaximum, feeService.getTollRateInOreAtNanoOfDay(rateTable, pass));
+    } else {
+      closedWindowsTotal += windowMaximum;
+      windowStart = pass;
+      windowMaximum = feeService.getTollRateInOreAtNanoOfDay(rateTable, pass);
+    }
+    lastBilledPass = Math.max(lastBilledPass, pass);
+    capped = closedWindowsTotal + windowMaximum >= TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE;
+    if (capped) {
+      pendingCount = 0;
+    }
+  }
+
+  /**
+   * Holds a pass back in the sorted reorder buffer.
+   *
+   * @param pass the pass as nanosecond of day
+   */
+  private void hold(final long pass) {
+    if (pendingCount == pending.length) {
+      pending = Arrays.copyOf(pending, pending.length * 2);
+    }
+    int i = pendingCount++;
+    while (i > 0 && pending[i - 1] > pass) {
+      pending[i] = pending[i - 1];
+      i--;
+    }
+    pending[i] = pass;
+  }
+
+  /**
+   * Bills the held back passes up to and including the given nanosecond of day, in order.
+   *
+   * @param watermark the latest nanosecond of day that can no longer be preceded by a late pass
+   */
+  private void releaseUpTo(final long watermark) {
+    int released = 0;
+    while (released < pendingCount && pending[released] <= watermark) {
+      bill(pending[released++]);
+    }
+    if (released > 0 && pendingCount > 0) {
+      System.arraycopy(pending, released, pending, 0, pendingCount - released);
+      pendingCount -= released;
+    }
+  }
+}
@@ -1,51 +1,59 @@
 package com.example.tollcalculator.service.impl;
 
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.RateTable;
 import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.metrics.TollMetrics;
 import com.example.tollcalculator.service.FeeService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.io.IOException;
-import java.io.InputStream;
+import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
 
 /**
  * Implementation of the {@link FeeService} interface that calculates toll fees based on a set of
  * toll rates defined for each hour of the day.
  * The toll rates are defined as a list of {@link TollRate} objects,
- * each containing an hourly rate for a specific time period.
+ * each containing an hourly rate for a specific time period, and are compiled into a {@link RateTable}
+ * when the configuration is loaded by a {@link ConfigurationManager}. Rates are looked up in öre; the double
+ * based methods convert the result to kronor.
+ * Instances hold no mutable state and are safe to share between threads.
  */
 public class FeeServiceImpl implements FeeService {
   /**
-   * A list of toll rates, where each toll rate is defined for a specific time period.
+   * The manager of the configuration holding the compiled toll rates.
    */
-  private static final List<TollRate> tollRates;
+  private final ConfigurationManager configuration;
   /**
-   * The fare rate config file in source/main/resources folder
+   * The metrics every rate lookup is reported to.
    */
-  private static final String CONFIG_FILE_NAME = "rates.yml";
+  private final TollMetrics metrics;
 
   /**
-   * The jackson object for yaml mapping.
+   * Creates a fee service on the default configuration, which is loaded on first use.
    */
-  private static final ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory())
-      .registerModule(new JavaTimeModule());
+  public FeeServiceImpl() {
+    this(ConfigurationManager.getDefault());
+  }
 
   /**
-   Static initialization block that initializes the tollRates list with a set of default toll rates.
+   * Creates a fee service on the given configuration.
+   *
+   * @param configuration the manager of the configuration holding the toll rates
    */
-  static {
-    try (InputStream inputStream = FeeServiceImpl.class.getResourceAsStream(
-        "/" + CONFIG_FILE_NAME)) {
-      if (inputStream == null) {
-        throw new RuntimeException(CONFIG_FILE_NAME + " file not found in the resources directory");
-      }
-      tollRates = objectMapper.readValue(inputStream,
-          objectMapper.getTypeFactory().constructCollectionType(List.class, TollRate.class));
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to read " + CONFIG_FILE_NAME + " file", e);
-    }
+  public FeeServiceImpl(final ConfigurationManager configuration) {
+    this(configuration, TollMetrics.noop());
+  }
+
+  /**
+   * Creates a fee service on the given configuration that reports its rate lookups.
+   *
+   * @param configuration the manager of the configuration holding the toll rates
+   * @param metrics       the metrics every rate lookup is reported to
+   */
+  public FeeServiceImpl(final ConfigurationManager configuration, final TollMetrics metrics) {
+    this.configuration = configuration;
+    this.metrics = metrics;
   }
 
   /**
@@ -56,13 +64,153 @@ public class FeeServiceImpl implements FeeService {
    */
   @Override
   public double getTollRate(final LocalTime pass) {
-    return tollRates
-        .stream()
-        .filter(r -> r.contains(pass))
-        .map(TollRate::getRate)
-        .max(Double::compare)
-        .orElse(0.0);
+    return getTollRate(configuration.current(), pass);
+  }
+
+  /**
+   * Calculates the toll rate for a given second of day without allocating.
+   *
+   * @param secondOfDay the second of day for which to calculate the toll rate
+   * @return the toll rate for the specified second of day
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  @Override
+  public double getTollRate(final int secondOfDay) {
+    return getTollRate(configuration.current(), secondOfDay);
+  }
+
+  /**
+   * Calculates the toll rate of a vehicle class on a day from the tariffs of the configuration.
+   *
+   * @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class
+   * @param date         the day of the pass
+   * @param secondOfDay  the second of day for which to calculate the toll rate
+   * @return the toll rate of the vehicle class at the specified second of day
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  @Override
+  public double getTollRate(final int vehicleClass, final LocalDate date, final int secondOfDay) {
+    return getTollRate(configuration.current().rateTableFor(vehicleClass, date), secondOfDay);
+  }
+
+  /**
+   * Calculates the toll rate of a vehicle class at a toll station on a day from the tariffs of the configuration.
+   *
+   * @param station      the code of the toll station, or a negative code for a pass of no registered station
+   * @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class
+   * @param date         the day of the pass
+   * @param secondOfDay  the second of day for which to calculate the toll rate
+   * @return the toll rate of the vehicle class at the toll station at the specified second of day
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  @Override
+  public double getTollRate(final int station, final int vehicleClass, final LocalDate date,
+                            final int secondOfDay) {
+    return Money.toKronor(getTollRateInOre(station, vehicleClass, date, secondOfDay));
+  }
+
+  /**
+   * Calculates the toll rate in öre of a vehicle class at a toll station on a day from the tariffs of the
+   * configuration.
+   *
+   * @param station      the code of the toll station, or a negative code for a pass of no registered station
+   * @param vehicleClass the code of the vehicle class, or a negative code for a vehicle of no registered class
+   * @param date         the day of the pass
+   * @param secondOfDay  the second of day for which to calculate the toll rate
+   * @return the toll rate in öre of the vehicle class at the toll station at the specified second of day
+   * @throws IllegalArgumentException if the second of day is out of range
+   */
+  @Override
+  public long getTollRateInOre(final int station, final int vehicleClass, final LocalDate date,
+                               final int secondOfDay) {
+    return getTollRateInOre(configuration.current().stationRatesFor(vehicleClass, date).forStation(station),
+        secondOfDay);
+  }
+
+  /**
+   * Calculates the toll rate for a given time of day in the given configuration snapshot.
+   *
+   * @param config the configuration snapshot to look the rate up in
+   * @param pass   the time of day for which to calculate the toll rate
+   * @return the toll rate for the specified time of day
+   */
+  double getTollRate(final TollConfiguration config, final LocalTime pass) {
+    if (pass == null) {
+      throw new IllegalArgumentException("Null value is not allowed");
+    }
+    metrics.recordRateLookup();
+    return config.getRateTable().rateAt(pass);
+  }
+
+  /**
+   * Calculates the toll rate for a given second of day in the given configuration snapshot.
+   *
+   * @param config      the configuration snapshot to look the rate up in
+   * @param secondOfDay the second of day for which to calculate the toll rate
+   * @return the toll rate for the specified second of day
+   */
+  double getTollRate(final TollConfiguration config, final int secondOfDay) {
+    metrics.recordRateLookup();
+    return config.getRateTable().rateAtSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Calculates the toll rate for a given time of day in a rate table resolved for a vehicle class and day.
+   *
+   * @param rateTable the rate table to look the rate up in
+   * @param pass      the time of day for which to calculate the toll rate
+   * @return the toll rate for the specified time of day
+   */
+  double getTollRate(final RateTable rateTable, final LocalTime pass) {
+    return Money.toKronor(getTollRateInOre(rateTable, pass));
+  }
+
+  /**
+   * Calculates the toll rate for a given second of day in a rate table resolved for a vehicle class and day.
+   *
+   * @param rateTable   the rate table to look the rate up in
+   * @param secondOfDay the second of day for which to calculate the toll rate
+   * @return the toll rate for the specified second of day
+   */
+  double getTollRate(final RateTable rateTable, final int secondOfDay) {
+    return Money.toKronor(getTollRateInOre(rateTable, secondOfDay));
   }
 
+  /**
+   * Calculates the toll rate in öre for a given time of day in a rate table resolved for a vehicle class and day.
+   *
+   * @param rateTable the rate table to look the rate up in
+   * @param pass      the time of day for which to calculate the toll rate
+   * @return the toll rate in öre for the specified time of day
+   */
+  long getTollRateInOre(final RateTable rateTable, final LocalTime pass) {
+    metrics.recordRateLookup();
+    return rateTable.rateInOreAt(pass);
+  }
 
-}
\ No newline at end of file
+  /**
+   * Calculates the toll rate in öre for a given second of day in a rate table resolved for a vehicle class and
+   * day.
+   *
+   * @param rateTable   the rate table to look the rate up in
+   * @param secondOfDay the second of day for which to calculate the toll rate
+   * @return the toll rate in öre for the specified second of day
+   */
+  long getTollRateInOre(final RateTable rateTable, final int secondOfDay) {
+    metrics.recordRateLookup();
+    return rateTable.rateInOreAtSecondOfDay(secondOfDay);
+  }
+
+  /**
+   * Calculates the toll rate in öre for a given nanosecond of day in a rate table resolved for a vehicle class
+   * and day.
+   *
+   * @param rateTable the rate table to look the rate up in
+   * @param nanoOfDay the nanosecond of day for which to calculate the toll rate
+   * @return the toll rate in öre for the specified nanosecond of day
+   */
+  long getTollRateInOreAtNanoOfDay(final RateTable rateTable, final long nanoOfDay) {
+    metrics.recordRateLookup();
+    return rateTable.rateInOreAtNanoOfDay(nanoOfDay);
+  }
+}
@@ -1,53 +1,54 @@
 package com.example.tollcalculator.service.impl;
 
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.DayType;
+import com.example.tollcalculator.metrics.TollMetrics;
 import com.example.tollcalculator.service.HolidayService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.io.IOException;
-import java.io.InputStream;
 import java.time.LocalDate;
-import java.util.Map;
 
 /**
  * This class provides a holiday service that checks if a given date is a holiday.
+ * The holidays are read from the configuration of a {@link ConfigurationManager}, whose holiday calendar
+ * generates the holidays of the years the configured holidays do not cover.
+ * Instances hold no mutable state and are safe to share between threads.
  */
 public class HolidayServiceImpl implements HolidayService {
   /**
-   * A map that contains the holidays as key-value pairs, where the key is the date and the value is the name of the holiday.
+   * The manager of the configuration holding the holidays.
    */
-  private static Map<LocalDate, String> holidays;
+  private final ConfigurationManager configuration;
   /**
-   * The holiday config file in source/main/resources folder
+   * The metrics every holiday lookup is reported to.
    */
-  private static final String HOLIDAYS_FILE_NAME = "holidays.yml";
+  private final TollMetrics metrics;
+
   /**
-   * The jackson object for yaml mapping.
+   * Constructs a new {@code HolidayServiceImpl} object on the default configuration,
+   * which is loaded on first use.
    */
-  private static final ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory())
-      .registerModule(new JavaTimeModule());
-
-  static {
-    try (InputStream inputStream = HolidayServiceImpl.class.getResourceAsStream(
-        "/" + HOLIDAYS_FILE_NAME)) {
-      if (inputStream == null) {
-        throw new RuntimeException(
-            HOLIDAYS_FILE_NAME + " file not found in the resources directory");
-      }
-      holidays = objectMapper.readValue(inputStream, new TypeReference<>() {
-      });
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to read " + HOLIDAYS_FILE_NAME + " file", e);
-    }
+  public HolidayServiceImpl() {
+    this(ConfigurationManager.getDefault());
   }
 
   /**
-   * Constructs a new {@code HolidayServiceImpl} object and initializes the {@code holidays}
-   * map with a set of predefined holidays.
+   * Constructs a new {@code HolidayServiceImpl} object on the given configuration.
+   *
+   * @param configuration the manager of the configuration holding the holidays
    */
-  public HolidayServiceImpl() {
+  public HolidayServiceImpl(final ConfigurationManager configuration) {
+    this(configuration, TollMetrics.noop());
+  }
 
+  /**
+   * Constructs a new {@code HolidayServiceImpl} object on the given configuration that reports its lookups.
+   *
+   * @param configuration the manager of the configuration holding the holidays
+   * @param metrics       the metrics every holiday lookup is reported to
+   */
+  public HolidayServiceImpl(final ConfigurationManager configuration, final TollMetrics metrics) {
+    this.configuration = configuration;
+    this.metrics = metrics;
   }
 
   /**
@@ -57,6 +58,52 @@ public class HolidayServiceImpl implements HolidayService {
    * @return true if the given date is a holiday, false otherwise
    */
   public boolean isHoliday(final LocalDate date) {
-    return holidays.containsKey(date);
+    return isHoliday(configuration.current(), date);
+  }
+
+  /**
+   * Checks if a given date is a holiday in the given configuration snapshot.
+   *
+   * @param config the configuration snapshot to look the date up in
+   * @param date   the date to check
+   * @return true if the given date is a holiday, false otherwise
+   */
+  boolean isHoliday(final TollConfiguration config, final LocalDate date) {
+    metrics.recordHolidayLookup();
+    return config.isHoliday(date);
+  }
+
+  @Override
+  public boolean isTollFreeDay(final LocalDate date) {
+    return isTollFreeDay(configuration.current(), date);
+  }
+
+  /**
+   * Checks if a given date is toll-free in the given configuration snapshot.
+   *
+   * @param config the configuration snapshot to look the date up in
+   * @param date   the date to check
+   * @return true if the given date is a holiday, a Saturday or a Sunday, false otherwise
+   */
+  boolean isTollFreeDay(final TollConfiguration config, final LocalDate date) {
+    metrics.recordHolidayLookup();
+    return config.isTollFreeDay(date);
+  }
+
+  @Override
+  public DayType getDayType(final LocalDate date) {
+    return getDayType(configuration.current(), date);
+  }
+
+  /**
+   * Returns the type of a given date in the given configuration snapshot.
+   *
+   * @param config the configuration snapshot to look the date up in
+   * @param date   the date to check
+   * @return the type of the date
+   */
+  DayType getDayType(final TollConfiguration config, final LocalDate date) {
+    metrics.recordHolidayLookup();
+    return config.getCalendar().dayTypeOf(date);
   }
-}
\ No newline at end of file
+}
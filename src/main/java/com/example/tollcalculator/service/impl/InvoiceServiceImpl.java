@@ -0,0 +1,148 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Invoice;
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.MonthlyToll;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.InvoiceService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class implements the {@link InvoiceService} interface in one pass over the sorted passes of the period.
+ * The passes are sorted once; every day is then billed by the primitive day kernel of {@link TollServiceImpl}
+ * from a reused array of seconds of day, and toll-free days are recognized from the holiday calendar before any
+ * of their passes is looked at.
+ * <p>
+ * The whole invoice is billed with the configuration snapshot that was current when it was started, so a
+ * reload during billing cannot mix tariffs within one invoice. An optional monthly cap limits the fee of every
+ * calendar month; the daily fees in the breakdown are never lowered by it. Fees are summed and capped in öre, so
+ * invoice totals are exact. Instances are thread-safe.
+ */
+public class InvoiceServiceImpl implements InvoiceService {
+  /**
+   * The monthly cap that never lowers a fee.
+   */
+  public static final double NO_MONTHLY_CAP = Double.POSITIVE_INFINITY;
+  /**
+   * The manager of the configuration the invoices are billed with.
+   */
+  private final ConfigurationManager configuration;
+  /**
+   * The toll service whose day rules bill every day.
+   */
+  private final TollServiceImpl tollService;
+  /**
+   * The maximum fee charged for one calendar month.
+   */
+  private final double monthlyCap;
+  /**
+   * The maximum fee charged for one calendar month in öre, {@link Long#MAX_VALUE} for no cap.
+   */
+  private final long monthlyCapInOre;
+
+  /**
+   * Creates an invoice service on the default configuration without a monthly cap.
+   */
+  public InvoiceServiceImpl() {
+    this(ConfigurationManager.getDefault(), TollMetrics.noop(), NO_MONTHLY_CAP);
+  }
+
+  /**
+   * Creates an invoice service.
+   *
+   * @param configuration the manager of the configuration the invoices are billed with
+   * @param metrics       the metrics every day calculation and lookup is reported to
+   * @param monthlyCap    the maximum fee charged for one calendar month, or {@link #NO_MONTHLY_CAP}
+   * @throws IllegalArgumentException if the monthly cap is negative or not a number
+   */
+  public InvoiceServiceImpl(final ConfigurationManager configuration, final TollMetrics metrics,
+                            final double monthlyCap) {
+    if (!(monthlyCap >= 0)) {
+      throw new IllegalArgumentException("Monthly cap must not be negative: " + monthlyCap);
+    }
+    this.configuration = configuration;
+    this.tollService = new TollServiceImpl(configuration, metrics);
+    this.monthlyCap = monthlyCap;
+    this.monthlyCapInOre = monthlyCap == NO_MONTHLY_CAP ? Long.MAX_VALUE : Money.toOre(monthlyCap);
+  }
+
+  @Override
+  public Invoice createInvoice(final String vehicleId, final Vehicle vehicle, final LocalDate from,
+                               final LocalDate to, final Collection<LocalDateTime> passes) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("Billing period ends before it starts: " + from + " - " + to);
+    }
+    final LocalDateTime[] sortedPasses = passes.toArray(new LocalDateTime[0]);
+    Arrays.sort(sortedPasses);
+    if (sortedPasses.length > 0 && (sortedPasses[0].toLocalDate().isBefore(from) ||
+        sortedPasses[sortedPasses.length - 1].toLocalDate().isAfter(to))) {
+      throw new IllegalArgumentException("Passes fall outside of the billing period " + from + " - " + to);
+    }
+    final TollConfiguration config = configuration.current();
+    final int vehicleClass = config.getVehicleClasses().codeOf(vehicle);
+    final boolean tollFreeVehicle = config.getVehicleClasses().isTollFree(vehicle);
+    final List<DailyToll> dailyTolls = new ArrayList<>();
+    final long[] monthlyFees = new long[monthsBetween(from, to) + 1];
+    final YearMonth firstMonth = YearMonth.from(from);
+    long[] nanosOfDay = new long[16];
+    int dayStart = 0;
+    while (dayStart < sortedPasses.length) {
+      final LocalDate date = sortedPasses[dayStart].toLocalDate();
+      int dayEnd = dayStart + 1;
+      while (dayEnd < sortedPasses.length && sortedPasses[dayEnd].toLocalDate().equals(date)) {
+        dayEnd++;
+      }
+      long fee = 0L;
+      if (!tollService.isTollFree(config, tollFreeVehicle, date)) {
+        final int passCount = dayEnd - dayStart;
+        if (nanosOfDay.length < passCount) {
+          nanosOfDay = new long[Math.max(passCount, nanosOfDay.length * 2)];
+        }
+        for (int i = 0; i < passCount; i++) {
+          nanosOfDay[i] = sortedPasses[dayStart + i].toLocalTime().toNanoOfDay();
+        }
+        fee = tollService.calculateTollOfDayInOre(config, vehicleClass, false, date, nanosOfDay, null, 0,
+            passCount);
+      }
+      dailyTolls.add(DailyToll.ofOre(vehicleId, date, fee));
+      monthlyFees[monthsBetween(from, date)] += fee;
+      dayStart = dayEnd;
+    }
+    final List<MonthlyToll> monthlyTolls = new ArrayList<>(monthlyFees.length);
+    for (int i = 0; i < monthlyFees.length; i++) {
+      monthlyTolls.add(MonthlyToll.ofOre(firstMonth.plusMonths(i), monthlyFees[i],
+          Math.min(monthlyFees[i], monthlyCapInOre)));
+    }
+    return new Invoice(vehicleId, from, to, dailyTolls, monthlyTolls);
+  }
+
+  /**
+   * Returns the maximum fee charged for one calendar month.
+   *
+   * @return the monthly cap, or {@link #NO_MONTHLY_CAP} if the fees of a month are not capped
+   */
+  public double getMonthlyCap() {
+    return monthlyCap;
+  }
+
+  /**
+   * Returns the number of calendar months from the month of one day to the month of another.
+   *
+   * @param from the earlier day
+   * @param to   the later day
+   * @return the number of months between the months of the days
+   */
+  private static int monthsBetween(final LocalDate from, final LocalDate to) {
+    return (to.getYear() - from.getYear()) * 12 + to.getMonthValue() - from.getMonthValue();
+  }
+}
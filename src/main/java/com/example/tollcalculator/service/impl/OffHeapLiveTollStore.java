@@ -0,0 +1,400 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.LiveTollStore;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+
+/**
+ * This class implements the {@link LiveTollStore} interface with an open addressing hash table in a direct
+ * {@link ByteBuffer}, so the states of millions of vehicles live outside the heap and cost the garbage collector
+ * nothing. Every vehicle takes one fixed-width slot of {@value #SLOT_BYTES} bytes:
+ * <pre>
+ * offset  0  long   vehicle id
+ * offset  8  int    epoch day of the state, {@link Integer#MIN_VALUE} for an empty slot
+ * offset 12  int    start of the current hourly window as second of day
+ * offset 16  long   highest rate of the current hourly window in öre
+ * offset 24  long   total of the closed hourly windows of the day in öre
+ * </pre>
+ * Slots are found by linear probing from a Fibonacci hash of the vehicle id. The table holds a power of two
+ * number of slots and is at most three quarters full, so its size is predictable: a store sized for
+ * {@code n} vehicles takes {@code 32 * 2^ceil(log2(4n / 3))} bytes, e.g. 64 MiB for one million and 256 MiB
+ * for five million vehicles; see {@link #footprintBytes(int)}. A store that grows beyond its expected size
+ * doubles its table once it is three quarters full.
+ * <p>
+ * A vehicle's state starts over on its first pass of a later day. {@link #rollOver(LocalDate)} removes the
+ * states of vehicles not seen since an earlier day by backward shift deletion, so no tombstones slow down
+ * later lookups. Instances are not thread-safe.
+ */
+public class OffHeapLiveTollStore implements LiveTollStore {
+  /**
+   * The number of bytes of one vehicle state.
+   */
+  public static final int SLOT_BYTES = 32;
+  /**
+   * The largest number of slots, limited by the int index of a {@link ByteBuffer}.
+   */
+  public static final int MAXIMUM_CAPACITY = 1 << 25;
+  /**
+   * The smallest number of slots.
+   */
+  private static final int MINIMUM_CAPACITY = 16;
+  /**
+   * The offset of the vehicle id in a slot.
+   */
+  private static final int ID = 0;
+  /**
+   * The offset of the epoch day in a slot.
+   */
+  private static final int DAY = 8;
+  /**
+   * The offset of the start of the current hourly window in a slot.
+   */
+  private static final int WINDOW_START = 12;
+  /**
+   * The offset of the highest rate of the current hourly window in a slot.
+   */
+  private static final int WINDOW_MAX = 16;
+  /**
+   * The offset of the total of the closed hourly windows in a slot.
+   */
+  private static final int CLOSED_TOTAL = 24;
+  /**
+   * The epoch day marking an empty slot.
+   */
+  private static final int EMPTY = Integer.MIN_VALUE;
+  /**
+   * The multiplier of the Fibonacci hash, 2^64 divided by the golden ratio.
+   */
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  /**
+   * The manager of the configuration the passes are billed with.
+   */
+  private final ConfigurationManager configuration;
+  /**
+   * The toll service whose day rules decide which vehicles and days are toll-free.
+   */
+  private final TollServiceImpl tollService;
+  /**
+   * The fee service the rate of every pass is looked up by.
+   */
+  private final FeeServiceImpl feeService;
+  /**
+   * The slots of the hash table.
+   */
+  private ByteBuffer slots;
+  /**
+   * The number of slots minus one.
+   */
+  private int mask;
+  /**
+   * The number of bits of a slot index.
+   */
+  private int indexBits;
+  /**
+   * The number of vehicle states.
+   */
+  private int size;
+
+  /**
+   * Creates a store on the default configuration.
+   *
+   * @param expectedVehicles the number of vehicles the store is sized for
+   * @throws IllegalArgumentException if the expected number of vehicles is negative or too large
+   */
+  public OffHeapLiveTollStore(final int expectedVehicles) {
+    this(ConfigurationManager.getDefault(), TollMetrics.noop(), expectedVehicles);
+  }
+
+  /**
+   * Creates a store.
+   *
+   * @param configuration    the manager of the configuration the passes are billed with
+   * @param metrics          the metrics the toll-free outcomes and rate lookups are reported to
+   * @param expectedVehicles the number of vehicles the store is sized for
+   * @throws IllegalArgumentException if the expected number of vehicles is negative or too large
+   */
+  public OffHeapLiveTollStore(final ConfigurationManager configuration, final TollMetrics metrics,
+                              final int expectedVehicles) {
+    this.configuration = configuration;
+    this.tollService = new TollServiceImpl(configuration, metrics);
+    this.feeService = new FeeServiceImpl(configuration, metrics);
+    allocate(capacityFor(expectedVehicles));
+  }
+
+  /**
+   * Returns the number of off-heap bytes a store sized for a number of vehicles takes.
+   *
+   * @param expectedVehicles the number of vehicles
+   * @return the size of the table in bytes
+   * @throws IllegalArgumentException if the number of vehicles is negative or too large
+   */
+  public static long footprintBytes(final int expectedVehicles) {
+    return (long) capacityFor(expectedVehicles) * SLOT_BYTES;
+  }
+
+  @Override
+  public double recordPass(final long vehicleId, final int vehicleClass, final int station, final LocalDate date,
+                           final int secondOfDay) {
+    if (secondOfDay < 0 || secondOfDay >= RateTable.SECONDS_PER_DAY) {
+      throw new IllegalArgumentException("Second of day out of range: " + secondOfDay);
+    }
+    final TollConfiguration config = configuration.current();
+    if (tollService.isTollFree(config, config.getVehicleClasses().isTollFree(vehicleClass), date)) {
+      return 0.0;
+    }
+    final long rate = feeService.getTollRateInOre(
+        config.stationRatesFor(vehicleClass, date).forStation(station), secondOfDay);
+    final int epochDay = Math.toIntExact(date.toEpochDay());
+    int slot = find(vehicleId);
+    if (slot < 0) {
+      if (size + 1 > mask - (mask >> 2)) {
+        grow();
+      }
+      slot = insertionSlot(vehicleId);
+      slots.putLong(slot + ID, vehicleId);
+      size++;
+    } else {
+      final int day = slots.getInt(slot + DAY);
+      if (day > epochDay) {
+        throw new IllegalArgumentException("Pass of vehicle " + vehicleId + " on " + date + " is older than its "
+            + LocalDate.ofEpochDay(day) + " state");
+      }
+      if (day == epochDay) {
+        return Money.toKronor(addToDay(vehicleId, slot, secondOfDay, rate));
+      }
+    }
+    slots.putInt(slot + DAY, epochDay);
+    slots.putInt(slot + WINDOW_START, secondOfDay);
+    slots.putLong(slot + WINDOW_MAX, rate);
+    slots.putLong(slot + CLOSED_TOTAL, 0L);
+    return Money.toKronor(cap(rate));
+  }
+
+  @Override
+  public long getDayTotalInOre(final long vehicleId, final LocalDate date) {
+    final int slot = find(vehicleId);
+    if (slot < 0 || slots.getInt(slot + DAY) != date.toEpochDay()) {
+      return 0L;
+    }
+    return cap(slots.getLong(slot + CLOSED_TOTAL) + slots.getLong(slot + WINDOW_MAX));
+  }
+
+  @Override
+  public int rollOver(final LocalDate today) {
+    final long epochDay = today.toEpochDay();
+    int start = 0;
+    while (slots.getInt(start * SLOT_BYTES + DAY) != EMPTY) {
+      start++;
+    }
+    int removed = 0;
+    int index = (start + 1) & mask;
+    while (index != start) {
+      final int day = slots.getInt(index * SLOT_BYTES + DAY);
+      if (day != EMPTY && day < epochDay) {
+        delete(index);
+        removed++;
+        continue;
+      }
+      index = (index + 1) & mask;
+    }
+    size -= removed;
+    return removed;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of slots of the hash table.
+   *
+   * @return the number of slots
+   */
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Returns the number of off-heap bytes the hash table takes.
+   *
+   * @return the size of the table in bytes
+   */
+  public long getFootprintBytes() {
+    return (long) getCapacity() * SLOT_BYTES;
+  }
+
+  /**
+   * Adds a pass to the day of a vehicle, opening a new hourly window if the pass is outside the current one.
+   *
+   * @param vehicleId   the id of the vehicle
+   * @param slot        the byte offset of the state of the vehicle
+   * @param secondOfDay the time of the pass as second of day
+   * @param rate        the toll rate of the pass in öre
+   * @return the total of the vehicle on that day so far in öre
+   * @throws IllegalArgumentException if the pass is older than the current hourly window
+   */
+  private long addToDay(final long vehicleId, final int slot, final int secondOfDay, final long rate) {
+    final int windowStart = slots.getInt(slot + WINDOW_START);
+    if (secondOfDay < windowStart) {
+      throw new IllegalArgumentException("Pass of vehicle " + vehicleId + " at second " + secondOfDay
+          + " is older than its hourly window starting at second " + windowStart);
+    }
+    final long windowMax = slots.getLong(slot + WINDOW_MAX);
+    if (TollServiceImpl.isWithinHourlyWindow(windowStart, secondOfDay)) {
+      final long max = Math.max(windowMax, rate);
+      slots.putLong(slot + WINDOW_MAX, max);
+      return cap(slots.getLong(slot + CLOSED_TOTAL) + max);
+    }
+    final long closedTotal = slots.getLong(slot + CLOSED_TOTAL) + windowMax;
+    slots.putLong(slot + CLOSED_TOTAL, closedTotal);
+    slots.putInt(slot + WINDOW_START, secondOfDay);
+    slots.putLong(slot + WINDOW_MAX, rate);
+    return cap(closedTotal + rate);
+  }
+
+  /**
+   * Limits a total to the maximum fee per day.
+   *
+   * @param total the uncapped total in öre
+   * @return the capped total in öre
+   */
+  private static long cap(final long total) {
+    return Math.min(total, TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE);
+  }
+
+  /**
+   * Finds the state of a vehicle.
+   *
+   * @param vehicleId the id of the vehicle
+   * @return the byte offset of the state, or -1 if the vehicle has no state
+   */
+  private int find(final long vehicleId) {
+    for (int index = home(vehicleId); ; index = (index + 1) & mask) {
+      final int slot = index * SLOT_BYTES;
+      if (slots.getInt(slot + DAY) == EMPTY) {
+        return -1;
+      }
+      if (slots.getLong(slot + ID) == vehicleId) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Finds the empty slot a vehicle without state is inserted at.
+   *
+   * @param vehicleId the id of the vehicle
+   * @return the byte offset of the empty slot
+   */
+  private int insertionSlot(final long vehicleId) {
+    int index = home(vehicleId);
+    while (slots.getInt(index * SLOT_BYTES + DAY) != EMPTY) {
+      index = (index + 1) & mask;
+    }
+    return index * SLOT_BYTES;
+  }
+
+  /**
+   * Returns the slot index linear probing for a vehicle starts at.
+   *
+   * @param vehicleId the id of the vehicle
+   * @return the home slot index
+   */
+  private int home(final long vehicleId) {
+    return (int) ((vehicleId * GOLDEN_RATIO) >>> (Long.SIZE - indexBits));
+  }
+
+  /**
+   * Empties a slot and moves the following states of its probe sequence back, so that every state stays
+   * reachable from its home slot without tombstones.
+   *
+   * @param index the index of the slot to empty
+   */
+  private void delete(final int index) {
+    int hole = index;
+    int next = index;
+    while (true) {
+      next = (next + 1) & mask;
+      if (slots.getInt(next * SLOT_BYTES + DAY) == EMPTY) {
+        break;
+      }
+      final int home = home(slots.getLong(next * SLOT_BYTES + ID));
+      final boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+      if (!reachable) {
+        copySlot(slots, next * SLOT_BYTES, slots, hole * SLOT_BYTES);
+        hole = next;
+      }
+    }
+    slots.putInt(hole * SLOT_BYTES + DAY, EMPTY);
+  }
+
+  /**
+   * Doubles the hash table and inserts every state again.
+   *
+   * @throws IllegalStateException if the table cannot grow any further
+   */
+  private void grow() {
+    if (mask + 1 >= MAXIMUM_CAPACITY) {
+      throw new IllegalStateException("Live toll store is full with " + size + " vehicles");
+    }
+    final ByteBuffer old = slots;
+    final int oldCapacity = mask + 1;
+    allocate(oldCapacity * 2);
+    for (int index = 0; index < oldCapacity; index++) {
+      final int slot = index * SLOT_BYTES;
+      if (old.getInt(slot + DAY) != EMPTY) {
+        copySlot(old, slot, slots, insertionSlot(old.getLong(slot + ID)));
+      }
+    }
+  }
+
+  /**
+   * Allocates an empty hash table.
+   *
+   * @param capacity the number of slots, a power of two
+   */
+  private void allocate(final int capacity) {
+    slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    for (int index = 0; index < capacity; index++) {
+      slots.putInt(index * SLOT_BYTES + DAY, EMPTY);
+    }
+    mask = capacity - 1;
+    indexBits = Integer.numberOfTrailingZeros(capacity);
+  }
+
+  /**
+   * Copies a slot, within a hash table or into a new one.
+   *
+   * @param source the hash table to copy from
+   * @param from   the byte offset of the slot to copy
+   * @param target the hash table to copy to
+   * @param to     the byte offset of the slot to overwrite
+   */
+  private static void copySlot(final ByteBuffer source, final int from, final ByteBuffer target, final int to) {
+    for (int offset = 0; offset < SLOT_BYTES; offset += Long.BYTES) {
+      target.putLong(to + offset, source.getLong(from + offset));
+    }
+  }
+
+  /**
+   * Returns the number of slots of a table sized for a number of vehicles.
+   *
+   * @param expectedVehicles the number of vehicles
+   * @return the smallest power of two number of slots that is at most three quarters full
+   * @throws IllegalArgumentException if the number of vehicles is negative or too large
+   */
+  private static int capacityFor(final int expectedVehicles) {
+    if (expectedVehicles < 0 || expectedVehicles > MAXIMUM_CAPACITY / 4 * 3) {
+      throw new IllegalArgumentException("Expected vehicles out of range: " + expectedVehicles);
+    }
+    final long minimum = Math.max(MINIMUM_CAPACITY, ((long) expectedVehicles * 4 + 2) / 3);
+    return (int) Math.min(MAXIMUM_CAPACITY, Long.highestOneBit(minimum - 1) << 1);
+  }
+}
@@ -0,0 +1,220 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.service.ParallelTollService;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class implements the {@link ParallelTollService} interface on a {@link ForkJoinPool}.
+ * The passes are sorted by vehicle and time with a parallel sort, the boundaries of every vehicle and day are
+ * located in one sequential scan and the vehicle-days are then billed by fork-join tasks that split the range of
+ * vehicle-days in halves. Every result is written to the slot of its vehicle-day, so the output order is the
+ * sort order no matter how the work was scheduled.
+ */
+public class ParallelTollServiceImpl implements ParallelTollService {
+  /**
+   * The number of vehicle-days below which a task bills its range sequentially instead of splitting it.
+   */
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+  /**
+   * The {@link TollService} used to calculate the fee of each vehicle and day.
+   */
+  private final TollService tollService;
+  /**
+   * The pool the work is fanned out on.
+   */
+  private final ForkJoinPool pool;
+  /**
+   * Whether the pool was created by this service and has to be shut down when it is closed.
+   */
+  private final boolean ownsPool;
+
+  /**
+   * Creates a parallel toll service that uses one thread per available processor.
+   */
+  public ParallelTollServiceImpl() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a parallel toll service with its own pool of the given parallelism.
+   *
+   * @param parallelism the number of worker threads
+   * @throws IllegalArgumentException if the parallelism is not positive
+   */
+  public ParallelTollServiceImpl(final int parallelism) {
+    this(TollServiceImpl.getDefault(), new ForkJoinPool(parallelism), true);
+  }
+
+  /**
+   * Creates a parallel toll service that runs on the given pool. The pool is not shut down when the service
+   * is closed.
+   *
+   * @param tollService the toll service used to calculate the fee of each vehicle and day
+   * @param pool        the pool the work is fanned out on
+   */
+  public ParallelTollServiceImpl(final TollService tollService, final ForkJoinPool pool) {
+    this(tollService, pool, false);
+  }
+
+  private ParallelTollServiceImpl(final TollService tollService, final ForkJoinPool pool,
+                                  final boolean ownsPool) {
+    this.tollService = tollService;
+    this.pool = pool;
+    this.ownsPool = ownsPool;
+  }
+
+  /**
+   * Partitions the given passes by vehicle and day and calculates the toll fee of every partition in parallel.
+   *
+   * @param passes the passes of all vehicles, in any order
+   * @return the total toll of every vehicle and day, ordered by vehicle id and date
+   */
+  @Override
+  public List<DailyToll> calculateDailyTolls(final Collection<VehiclePass> passes) {
+    final VehiclePass[] sortedPasses = passes.toArray(new VehiclePass[0]);
+    return pool.invoke(new PartitioningTask(sortedPasses));
+  }
+
+  /**
+   * Returns the number of worker threads of the pool.
+   *
+   * @return the parallelism of the pool
+   */
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  @Override
+  public void close() {
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Locates the first pass of every vehicle and day in passes sorted by vehicle and time.
+   *
+   * @param sortedPasses the passes sorted by vehicle id and time
+   * @return the index of the first pass of every vehicle-day, followed by the number of passes
+   */
+  private static int[] findVehicleDays(final VehiclePass[] sortedPasses) {
+    final int[] starts = new int[sortedPasses.length + 1];
+    int count = 0;
+    for (int i = 0; i < sortedPasses.length; i++) {
+      if (i == 0 || !isSameVehicleAndDay(sortedPasses[i - 1], sortedPasses[i])) {
+        starts[count++] = i;
+      }
+    }
+    starts[count] = sortedPasses.length;
+    return Arrays.copyOf(starts, count + 1);
+  }
+
+  /**
+   * Checks if two passes were made by the same vehicle on the same day.
+   *
+   * @param a the first pass
+   * @param b the second pass
+   * @return true if both passes belong to the same vehicle and day, false otherwise
+   */
+  private static boolean isSameVehicleAndDay(final VehiclePass a, final VehiclePass b) {
+    return a.getVehicleId().equals(b.getVehicleId()) &&
+        a.getTimestamp().toLocalDate().equals(b.getTimestamp().toLocalDate());
+  }
+
+  /**
+   * The root task: sorts the passes inside the pool, partitions them and bills the partitions.
+   */
+  private final class PartitioningTask extends RecursiveTask<List<DailyToll>> {
+    /**
+     * The serialization version of the task, which is never serialized but inherits {@link java.io.Serializable}
+     * from {@link java.util.concurrent.ForkJoinTask}.
+     */
+    private static final long serialVersionUID = 1L;
+    private final VehiclePass[] sortedPasses;
+
+    PartitioningTask(final VehiclePass[] passes) {
+      this.sortedPasses = passes;
+    }
+
+    @Override
+    protected List<DailyToll> compute() {
+      Arrays.parallelSort(sortedPasses, VehiclePass.BY_VEHICLE_AND_TIMESTAMP);
+      final int[] vehicleDayStarts = findVehicleDays(sortedPasses);
+      final DailyToll[] dailyTolls = new DailyToll[vehicleDayStarts.length - 1];
+      new BillingTask(sortedPasses, vehicleDayStarts, dailyTolls, 0, dailyTolls.length).invoke();
+      return Arrays.asList(dailyTolls);
+    }
+  }
+
+  /**
+   * Bills a range of vehicle-days, splitting the range while it is larger than the sequential threshold.
+   */
+  private final class BillingTask extends RecursiveAction {
+    /**
+     * The serialization version of the task, which is never serialized.
+     */
+    private static final long serialVersionUID = 1L;
+    private final VehiclePass[] sortedPasses;
+    private final int[] vehicleDayStarts;
+    private final DailyToll[] dailyTolls;
+    private final int from;
+    private final int to;
+
+    BillingTask(final VehiclePass[] sortedPasses, final int[] vehicleDayStarts,
+                final DailyToll[] dailyTolls, final int from, final int to) {
+      this.sortedPasses = sortedPasses;
+      this.vehicleDayStarts = vehicleDayStarts;
+      this.dailyTolls = dailyTolls;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        // the class code is resolved once for every run of vehicle-days of the same vehicle type
+        Class<?> vehicleType = null;
+        int vehicleClass = -1;
+        for (int vehicleDay = from; vehicleDay < to; vehicleDay++) {
+          final Vehicle vehicle = sortedPasses[vehicleDayStarts[vehicleDay]].getVehicle();
+          if (vehicle.getClass() != vehicleType) {
+            vehicleType = vehicle.getClass();
+            vehicleClass = tollService.getVehicleClasses().codeOf(vehicle);
+          }
+          dailyTolls[vehicleDay] = billVehicleDay(vehicleDay, vehicleClass);
+        }
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      invokeAll(new BillingTask(sortedPasses, vehicleDayStarts, dailyTolls, from, middle),
+          new BillingTask(sortedPasses, vehicleDayStarts, dailyTolls, middle, to));
+    }
+
+    private DailyToll billVehicleDay(final int vehicleDay, final int vehicleClass) {
+      final int start = vehicleDayStarts[vehicleDay];
+      final int end = vehicleDayStarts[vehicleDay + 1];
+      final long[] nanosOfDay = new long[end - start];
+      for (int i = start; i < end; i++) {
+        nanosOfDay[i - start] = sortedPasses[i].getTimestamp().toLocalTime().toNanoOfDay();
+      }
+      final VehiclePass first = sortedPasses[start];
+      final LocalDate date = first.getTimestamp().toLocalDate();
+      final long fee = vehicleClass < 0
+          ? tollService.calculateTollInOreForPassesOfSameDay(first.getVehicle(), date, nanosOfDay, null, 0,
+              nanosOfDay.length)
+          : tollService.calculateTollInOreForPassesOfSameDay(vehicleClass, date, nanosOfDay, null, 0,
+              nanosOfDay.length);
+      return DailyToll.ofOre(first.getVehicleId(), date, fee);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.RateTable;
+
+/**
+ * The {@link BatchFeeKernel} that bills one vehicle-day after the other with a binary search per pass, the
+ * fallback when the Vector API is not available.
+ */
+final class ScalarBatchFeeKernel implements BatchFeeKernel {
+  /**
+   * The shared instance; the kernel has no state.
+   */
+  static final ScalarBatchFeeKernel INSTANCE = new ScalarBatchFeeKernel();
+
+  private ScalarBatchFeeKernel() {
+  }
+
+  @Override
+  public void calculateTollsInOre(final RateTable rateTable, final int[] secondsOfDay, final int[] dayStarts,
+                                  final int dayCount, final long[] feesInOre) {
+    for (int day = 0; day < dayCount; day++) {
+      feesInOre[day] = calculateTollOfDayInOre(rateTable, secondsOfDay, dayStarts[day], dayStarts[day + 1]);
+    }
+  }
+
+  /**
+   * Tracks the hourly windows and their maximum rates of one vehicle-day.
+   *
+   * @param rateTable    the rate table of the day
+   * @param secondsOfDay the passes as seconds of day
+   * @param from         the index of the first pass of the day, inclusive
+   * @param to           the index of the last pass of the day, exclusive
+   * @return the fee of the day in öre
+   * @throws IllegalArgumentException if the passes are not sorted
+   */
+  private static long calculateTollOfDayInOre(final RateTable rateTable, final int[] secondsOfDay, final int from,
+                                              final int to) {
+    long total = 0L;
+    long windowMaximum = 0L;
+    int windowStart = -TollServiceImpl.HOURLY_WINDOW_SECONDS;
+    int previousPass = 0;
+    for (int i = from; i < to && total < TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE; i++) {
+      final int pass = secondsOfDay[i];
+      if (pass < previousPass) {
+        throw new IllegalArgumentException("Passes must be sorted in ascending order");
+      }
+      previousPass = pass;
+      final long rate = rateTable.rateInOreAtSecondOfDay(pass);
+      if (TollServiceImpl.isWithinHourlyWindow(windowStart, pass)) {
+        windowMaximum = Math.max(windowMaximum, rate);
+      } else {
+        total += windowMaximum;
+        windowStart = pass;
+        windowMaximum = rate;
+      }
+    }
+    return Math.min(total + windowMaximum, TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE);
+  }
+}
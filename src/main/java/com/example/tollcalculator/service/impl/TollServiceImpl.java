@@ -1,39 +1,128 @@
 package com.example.tollcalculator.service.impl;
 
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.Money;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.domain.StationRates;
+import com.example.tollcalculator.domain.StationRegistry;
 import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.metrics.TollFreeReason;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.DailyTollAccumulator;
 import com.example.tollcalculator.service.FeeService;
 import com.example.tollcalculator.service.HolidayService;
 import com.example.tollcalculator.service.TollService;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This class implements the {@link TollService} interface and provides methods for calculating toll fees
  * for passes of the same day by a {@link Vehicle} at certain times. It utilizes a {@link FeeService} to calculate
  * the toll rates for each pass and a {@link HolidayService} to check whether a pass occurred on a toll-free day.
+ * Every calculation reads the {@link TollConfiguration} once and looks up all rates and holidays in that snapshot,
+ * so a configuration reloaded while the calculation runs cannot mix old and new tables. The rate table of the
+ * vehicle class and day is resolved from the tariffs once per day, so every pass costs one binary search. Fees
+ * are summed and capped in öre with integer arithmetic; the methods returning kronor convert the result once.
+ * <p>
+ * Instances are immutable after construction and thread-safe: all state of a calculation lives on the stack of
+ * the calling thread, the tables are read from published immutable snapshots and the passes given by the caller
+ * are never modified. One instance, e.g. {@link #getDefault()}, can be shared by any number of request threads
+ * without locking.
  */
 public class TollServiceImpl implements TollService {
   /**
    * The minimum number of minutes between two consecutive toll charges.
    */
   private static final int MINIMUM_MINUTE_BETWEEN_CHARGES = 60;
+  /**
+   * The number of seconds in one minute.
+   */
+  private static final int SECONDS_PER_MINUTE = 60;
   /**
    * The maximum fee per day that can be charged for tolls.
    */
   public static final int MAXIMUM_FEE_PER_DAY = 60;
+  /**
+   * The maximum fee per day in öre.
+   */
+  public static final long MAXIMUM_FEE_PER_DAY_IN_ORE = MAXIMUM_FEE_PER_DAY * Money.ORE_PER_KRONA;
+  /**
+   * The number of seconds after the start of an hourly window at which a pass opens a new window, the
+   * branch-free form of {@link #isWithinHourlyWindow(int, int)} used by the batch kernels.
+   */
+  static final int HOURLY_WINDOW_SECONDS = (MINIMUM_MINUTE_BETWEEN_CHARGES + 1) * SECONDS_PER_MINUTE;
+  /**
+   * The number of nanoseconds in one minute.
+   */
+  private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+  /**
+   * The manager of the toll rate and holiday configuration.
+   */
+  private final ConfigurationManager configuration;
   /**
    * A {@link FeeService} used to calculate toll rates for each pass.
    */
-  private final FeeService feeService = new FeeServiceImpl();
+  private final FeeServiceImpl feeService;
   /**
    * A {@link HolidayService} used to check whether a pass occurred on a toll-free day.
    */
-  private final HolidayService holidayService = new HolidayServiceImpl();
+  private final HolidayServiceImpl holidayService;
+  /**
+   * The metrics every calculation is reported to.
+   */
+  private final TollMetrics metrics;
+  /**
+   * The kernel billing many vehicle-days at once.
+   */
+  private final BatchFeeKernel batchKernel = BatchFeeKernel.best();
+
+  /**
+   * Creates a toll service on the default configuration, which is loaded on first use.
+   * Prefer the shared {@link #getDefault()} instance.
+   */
+  public TollServiceImpl() {
+    this(ConfigurationManager.getDefault());
+  }
+
+  /**
+   * Creates a toll service whose fee and holiday services read the given configuration.
+   *
+   * @param configuration the manager of the toll rate and holiday configuration
+   */
+  public TollServiceImpl(final ConfigurationManager configuration) {
+    this(configuration, TollMetrics.noop());
+  }
+
+  /**
+   * Creates a toll service whose fee and holiday services read the given configuration, and that reports
+   * every calculation and lookup to the given metrics.
+   *
+   * @param configuration the manager of the toll rate and holiday configuration
+   * @param metrics       the metrics every calculation and lookup is reported to
+   */
+  public TollServiceImpl(final ConfigurationManager configuration, final TollMetrics metrics) {
+    this.configuration = configuration;
+    this.feeService = new FeeServiceImpl(configuration, metrics);
+    this.holidayService = new HolidayServiceImpl(configuration, metrics);
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the toll service on the default configuration without metrics, shared by all callers.
+   *
+   * @return the shared default toll service
+   */
+  public static TollServiceImpl getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
 
   /**
    * Calculates the total toll fee for passes of the same day by a {@link Vehicle} at certain times.
@@ -45,34 +134,391 @@ public class TollServiceImpl implements TollService {
   @Override
   public double calculateTollForPassesOfSameDay(final Vehicle vehicle,
                                                 final List<LocalDateTime> passTimestamps) {
-    if (isTollFree(vehicle, passTimestamps)) {
-      return 0.0;
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final long fee = calculateTollOfDayInOre(configuration.current(), vehicle, passTimestamps);
+    recordCalculation(start, passTimestamps.size(), fee);
+    return Money.toKronor(fee);
+  }
+
+  /**
+   * Calculates the total toll fee for passes of the same day by grouping the passes into hourly windows.
+   *
+   * @param config         the configuration snapshot of the calculation.
+   * @param vehicle        the {@link Vehicle} making the passes.
+   * @param passTimestamps the times of the passes.
+   * @return the total toll fee for the passes in öre.
+   */
+  private long calculateTollOfDayInOre(final TollConfiguration config, final Vehicle vehicle,
+                                       final List<LocalDateTime> passTimestamps) {
+    if (passTimestamps.isEmpty()) {
+      return 0L;
+    }
+    final LocalDate date = passTimestamps.get(0).toLocalDate();
+    if (isTollFree(config, config.getVehicleClasses().isTollFree(vehicle), date)) {
+      return 0L;
     }
+    final RateTable rateTable = config.rateTableFor(config.getVehicleClasses().codeOf(vehicle), date);
     final List<List<LocalDateTime>> hourlyWindows = getHourlyWindows(passTimestamps);
-    double totalToll = 0;
+    long totalToll = 0;
     for (final List<LocalDateTime> hourlyWindow : hourlyWindows) {
-      final double maximumHourlyFee = getMaxHourlyFee(hourlyWindow);
+      final long maximumHourlyFee = getMaxHourlyFee(rateTable, hourlyWindow);
       totalToll += maximumHourlyFee;
-      if (totalToll >= MAXIMUM_FEE_PER_DAY) {
-        return MAXIMUM_FEE_PER_DAY;
+      if (totalToll >= MAXIMUM_FEE_PER_DAY_IN_ORE) {
+        return MAXIMUM_FEE_PER_DAY_IN_ORE;
       }
     }
     return totalToll;
   }
 
   /**
-   * Divides a list of pass times into lists of times that fall within the same hour.
+   * Calculates the total toll fee for passes of the same day given as sorted seconds of day.
+   * The hourly windows and their maximum fees are tracked in a single pass over the array,
+   * so the calculation does not allocate and does not modify the array.
+   *
+   * @param vehicle      the {@link Vehicle} making the passes.
+   * @param date         the day of the passes.
+   * @param secondsOfDay the times of the passes as seconds of day, sorted in ascending order.
+   * @param from         the index of the first pass, inclusive.
+   * @param to           the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   * @throws IllegalArgumentException if an out of order pass is found before the daily cap is reached.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                    final int[] secondsOfDay, final int from,
+                                                    final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    final long fee = calculateTollOfDayInOre(config, vehicleClasses.codeOf(vehicle), vehicleClasses.isTollFree(vehicle),
+        date, secondsOfDay, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  /**
+   * Calculates the total toll fee for passes of the same day by a vehicle of a registered vehicle class,
+   * given as sorted seconds of day.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured registry.
+   * @param date         the day of the passes.
+   * @param secondsOfDay the times of the passes as seconds of day, sorted in ascending order.
+   * @param from         the index of the first pass, inclusive.
+   * @param to           the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   * @throws IllegalArgumentException if the vehicle class is unknown, or an out of order pass is found before
+   *                                  the daily cap is reached.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                    final int[] secondsOfDay, final int from,
+                                                    final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final long fee = calculateTollOfDayInOre(config, vehicleClass, config.getVehicleClasses().isTollFree(vehicleClass),
+        date, secondsOfDay, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  /**
+   * Calculates the total toll fee for passes of the same day at toll stations, given as sorted seconds of day
+   * and the codes of their stations. Every pass is charged by the rates of its station, while the hourly windows
+   * and the daily cap span all stations.
+   *
+   * @param vehicle      the {@link Vehicle} making the passes.
+   * @param date         the day of the passes.
+   * @param secondsOfDay the times of the passes as seconds of day, sorted in ascending order.
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times.
+   * @param from         the index of the first pass, inclusive.
+   * @param to           the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   * @throws IllegalArgumentException if an out of order pass is found before the daily cap is reached.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                    final int[] secondsOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    Objects.checkFromToIndex(from, to, stations.length);
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    final long fee = calculateTollOfDayInOre(config, vehicleClasses.codeOf(vehicle), vehicleClasses.isTollFree(vehicle),
+        date, secondsOfDay, stations, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  /**
+   * Calculates the total toll fee for passes of the same day at toll stations by a vehicle of a registered
+   * vehicle class, given as sorted seconds of day and the codes of their stations.
+   *
+   * @param vehicleClass the code of the vehicle class in the configured registry.
+   * @param date         the day of the passes.
+   * @param secondsOfDay the times of the passes as seconds of day, sorted in ascending order.
+   * @param stations     the codes of the toll stations of the passes, at the same indices as their times.
+   * @param from         the index of the first pass, inclusive.
+   * @param to           the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   * @throws IllegalArgumentException if the vehicle class is unknown, or an out of order pass is found before
+   *                                  the daily cap is reached.
+   */
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                    final int[] secondsOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, secondsOfDay.length);
+    Objects.checkFromToIndex(from, to, stations.length);
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final long fee = calculateTollOfDayInOre(config, vehicleClass, config.getVehicleClasses().isTollFree(vehicleClass),
+        date, secondsOfDay, stations, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                    final long[] nanosOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, nanosOfDay.length);
+    if (stations != null) {
+      Objects.checkFromToIndex(from, to, stations.length);
+    }
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    final long fee = calculateTollOfDayInOre(config, vehicleClasses.codeOf(vehicle), vehicleClasses.isTollFree(vehicle),
+        date, nanosOfDay, stations, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  @Override
+  public long calculateTollInOreForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                    final long[] nanosOfDay, final int[] stations,
+                                                    final int from, final int to) {
+    Objects.checkFromToIndex(from, to, nanosOfDay.length);
+    if (stations != null) {
+      Objects.checkFromToIndex(from, to, stations.length);
+    }
+    final long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+    final TollConfiguration config = configuration.current();
+    final long fee = calculateTollOfDayInOre(config, vehicleClass, config.getVehicleClasses().isTollFree(vehicleClass),
+        date, nanosOfDay, stations, from, to);
+    recordCalculation(start, to - from, fee);
+    return fee;
+  }
+
+  /**
+   * Tracks the hourly windows and their maximum fees in a single pass over the sorted seconds of day.
+   *
+   * @param config          the configuration snapshot of the calculation.
+   * @param vehicleClass    the code of the vehicle class, negative for a vehicle of no registered class.
+   * @param tollFreeVehicle whether the vehicle passes toll-free.
+   * @param date            the day of the passes.
+   * @param secondsOfDay    the times of the passes as seconds of day, sorted in ascending order.
+   * @param from            the index of the first pass, inclusive.
+   * @param to              the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   */
+  long calculateTollOfDayInOre(final TollConfiguration config, final int vehicleClass,
+                               final boolean tollFreeVehicle, final LocalDate date, final int[] secondsOfDay,
+                               final int from, final int to) {
+    return calculateTollOfDayInOre(config, vehicleClass, tollFreeVehicle, date, secondsOfDay, null, from, to);
+  }
+
+  /**
+   * Tracks the hourly windows and their maximum fees in a single pass over the sorted seconds of day, charging
+   * every pass by the rates of its toll station. The rate tables of the stations are resolved once per day and
+   * indexed by the dense station code, so the cost of a pass does not depend on the number of stations.
+   *
+   * @param config          the configuration snapshot of the calculation.
+   * @param vehicleClass    the code of the vehicle class, negative for a vehicle of no registered class.
+   * @param tollFreeVehicle whether the vehicle passes toll-free.
+   * @param date            the day of the passes.
+   * @param secondsOfDay    the times of the passes as seconds of day, sorted in ascending order.
+   * @param stations        the codes of the toll stations of the passes, at the same indices as their times, or
+   *                        null if the stations of the passes are unknown.
+   * @param from            the index of the first pass, inclusive.
+   * @param to              the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   */
+  long calculateTollOfDayInOre(final TollConfiguration config, final int vehicleClass,
+                               final boolean tollFreeVehicle, final LocalDate date, final int[] secondsOfDay,
+                               final int[] stations, final int from, final int to) {
+    if (from == to || isTollFree(config, tollFreeVehicle, date)) {
+      return 0L;
+    }
+    final StationRates stationRates = config.stationRatesFor(vehicleClass, date);
+    final RateTable rateTable = stationRates.forStation(StationRegistry.NO_STATION);
+    long totalToll = 0;
+    int windowStart = secondsOfDay[from];
+    long maximumHourlyFee = feeService.getTollRateInOre(
+        stations == null ? rateTable : stationRates.forStation(stations[from]), windowStart);
+    int previousPass = windowStart;
+    for (int i = from + 1; i < to; i++) {
+      final int pass = secondsOfDay[i];
+      if (pass < previousPass) {
+        throw new IllegalArgumentException("Passes must be sorted in ascending order");
+      }
+      previousPass = pass;
+      if (isWithinHourlyWindow(windowStart, pass)) {
+        maximumHourlyFee = Math.max(maximumHourlyFee,
+            feeService.getTollRateInOre(stations == null ? rateTable : stationRates.forStation(stations[i]), pass));
+        continue;
+      }
+      totalToll += maximumHourlyFee;
+      if (totalToll >= MAXIMUM_FEE_PER_DAY_IN_ORE) {
+        return MAXIMUM_FEE_PER_DAY_IN_ORE;
+      }
+      windowStart = pass;
+      maximumHourlyFee =
+          feeService.getTollRateInOre(stations == null ? rateTable : stationRates.forStation(stations[i]), pass);
+    }
+    totalToll += maximumHourlyFee;
+    return Math.min(totalToll, MAXIMUM_FEE_PER_DAY_IN_ORE);
+  }
+
+  /**
+   * Tracks the hourly windows and their maximum fees in a single pass over the sorted nanoseconds of day, the
+   * same as for seconds of day but with the hourly windows measured between the exact times of the passes, as
+   * the list based calculation measures them.
+   *
+   * @param config          the configuration snapshot of the calculation.
+   * @param vehicleClass    the code of the vehicle class, negative for a vehicle of no registered class.
+   * @param tollFreeVehicle whether the vehicle passes toll-free.
+   * @param date            the day of the passes.
+   * @param nanosOfDay      the times of the passes as nanoseconds of day, sorted in ascending order.
+   * @param stations        the codes of the toll stations of the passes, at the same indices as their times, or
+   *                        null if the stations of the passes are unknown.
+   * @param from            the index of the first pass, inclusive.
+   * @param to              the index of the last pass, exclusive.
+   * @return the total toll fee for the passes in öre.
+   * @throws IllegalArgumentException if an out of order pass is found before the daily cap is reached.
+   */
+  long calculateTollOfDayInOre(final TollConfiguration config, final int vehicleClass,
+                               final boolean tollFreeVehicle, final LocalDate date, final long[] nanosOfDay,
+                               final int[] stations, final int from, final int to) {
+    if (from == to || isTollFree(config, tollFreeVehicle, date)) {
+      return 0L;
+    }
+    final StationRates stationRates = config.stationRatesFor(vehicleClass, date);
+    final RateTable rateTable = stationRates.forStation(StationRegistry.NO_STATION);
+    long totalToll = 0;
+    long windowStart = nanosOfDay[from];
+    long maximumHourlyFee = feeService.getTollRateInOreAtNanoOfDay(
+        stations == null ? rateTable : stationRates.forStation(stations[from]), windowStart);
+    long previousPass = windowStart;
+    for (int i = from + 1; i < to; i++) {
+      final long pass = nanosOfDay[i];
+      if (pass < previousPass) {
+        throw new IllegalArgumentException("Passes must be sorted in ascending order");
+      }
+      previousPass = pass;
+      final long rate = feeService.getTollRateInOreAtNanoOfDay(
+          stations == null ? rateTable : stationRates.forStation(stations[i]), pass);
+      if (isWithinHourlyWindow(windowStart, pass)) {
+        maximumHourlyFee = Math.max(maximumHourlyFee, rate);
+        continue;
+      }
+      totalToll += maximumHourlyFee;
+      if (totalToll >= MAXIMUM_FEE_PER_DAY_IN_ORE) {
+        return MAXIMUM_FEE_PER_DAY_IN_ORE;
+      }
+      windowStart = pass;
+      maximumHourlyFee = rate;
+    }
+    totalToll += maximumHourlyFee;
+    return Math.min(totalToll, MAXIMUM_FEE_PER_DAY_IN_ORE);
+  }
+
+  /**
+   * Bills the vehicle-days with the fastest {@link BatchFeeKernel} of this JVM, one per lane of a SIMD register
+   * when the Vector API is available. The rate table is resolved once for all vehicle-days.
+   */
+  @Override
+  public void calculateTollsInOreForVehicleDays(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] dayStarts, final int dayCount,
+                                                final long[] feesInOre) {
+    final TollConfiguration config = configuration.current();
+    if (isTollFree(config, config.getVehicleClasses().isTollFree(vehicleClass), date)) {
+      Arrays.fill(feesInOre, 0, dayCount, 0L);
+      return;
+    }
+    batchKernel.calculateTollsInOre(config.rateTableFor(vehicleClass, date), secondsOfDay, dayStarts, dayCount,
+        feesInOre);
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                final int[] secondsOfDay, final int from, final int to) {
+    return Money.toKronor(calculateTollInOreForPassesOfSameDay(vehicle, date, secondsOfDay, from, to));
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int from, final int to) {
+    return Money.toKronor(calculateTollInOreForPassesOfSameDay(vehicleClass, date, secondsOfDay, from, to));
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final Vehicle vehicle, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] stations,
+                                                final int from, final int to) {
+    return Money.toKronor(calculateTollInOreForPassesOfSameDay(vehicle, date, secondsOfDay, stations, from, to));
+  }
+
+  @Override
+  public double calculateTollForPassesOfSameDay(final int vehicleClass, final LocalDate date,
+                                                final int[] secondsOfDay, final int[] stations,
+                                                final int from, final int to) {
+    return Money.toKronor(
+        calculateTollInOreForPassesOfSameDay(vehicleClass, date, secondsOfDay, stations, from, to));
+  }
+
+  /**
+   * Opens a running toll calculation for the given vehicle and day. Whether the vehicle or the day is
+   * toll-free is decided once, when the day is opened, and the whole day is billed with the configuration
+   * that was current at that time.
+   *
+   * @param vehicle         the {@link Vehicle} making the passes.
+   * @param date            the day to bill.
+   * @param maxDelaySeconds the number of seconds a pass may arrive out of order.
+   * @return a new accumulator for the vehicle and day.
+   */
+  @Override
+  public DailyTollAccumulator openDay(final Vehicle vehicle, final LocalDate date,
+                                      final int maxDelaySeconds) {
+    final TollConfiguration config = configuration.current();
+    final VehicleClassRegistry vehicleClasses = config.getVehicleClasses();
+    return new DailyTollAccumulatorImpl(feeService, config.rateTableFor(vehicleClasses.codeOf(vehicle), date),
+        date, vehicleClasses.isTollFree(vehicle) || isTollFreeDay(config, date), maxDelaySeconds);
+  }
+
+  @Override
+  public VehicleClassRegistry getVehicleClasses() {
+    return configuration.current().getVehicleClasses();
+  }
+
+  /**
+   * Divides a list of pass times into lists of times that fall within the same hour. The passes are sorted in
+   * a copy, so the caller's list is left as it is and may be immutable or shared with other threads.
    *
    * @param passTimestamps the times of the passes.
    * @return a list of hourly windows, each containing pass times that fall within the same hour.
    */
 
   private List<List<LocalDateTime>> getHourlyWindows(final List<LocalDateTime> passTimestamps) {
-    Collections.sort(passTimestamps);
+    final List<LocalDateTime> sortedPasses = new ArrayList<>(passTimestamps);
+    Collections.sort(sortedPasses);
     final List<List<LocalDateTime>> hourlyWindows = new ArrayList<>();
     List<LocalDateTime> currentHourlyWindow = new ArrayList<>();
 
-    for (final LocalDateTime passTimestamp : passTimestamps) {
+    for (final LocalDateTime passTimestamp : sortedPasses) {
       if (currentHourlyWindow.isEmpty() ||
           isWithinHourlyWindow(currentHourlyWindow.get(0), passTimestamp)) {
         currentHourlyWindow.add(passTimestamp);
@@ -93,28 +539,59 @@ public class TollServiceImpl implements TollService {
   /**
    * Calculates the maximum toll rate for a list of pass times.
    *
+   * @param rateTable    the rate table of the vehicle class on the day of the passes.
    * @param hourlyWindow the times of the passes in a particular hourly window.
-   * @return the maximum toll rate for the hourly window.
+   * @return the maximum toll rate for the hourly window in öre.
    */
-  private double getMaxHourlyFee(final List<LocalDateTime> hourlyWindow) {
+  private long getMaxHourlyFee(final RateTable rateTable,
+                               final List<LocalDateTime> hourlyWindow) {
     return hourlyWindow.stream()
         .map(LocalDateTime::toLocalTime)
-        .mapToDouble(feeService::getTollRate)
+        .mapToLong(pass -> feeService.getTollRateInOre(rateTable, pass))
         .max()
-        .orElse(0.0);
+        .orElse(0L);
   }
 
   /**
-   * Checks if vehicle should pay toll at all depending on the type of vehicle and the day of pass.
+   * Checks if vehicle should pay toll at all depending on the type of vehicle and the day of pass, and reports
+   * the reason if it should not.
    *
-   * @param vehicle        the vehicle to check
-   * @param passTimestamps the list of pass timestamps for the vehicle
-   * @return true if the vehicle is toll-free or there are no passes for the vehicle or the first pass was on a toll-free day,
-   * false otherwise
+   * @param config          the configuration snapshot of the calculation
+   * @param tollFreeVehicle whether the vehicle passes toll-free
+   * @param date            the day of the passes
+   * @return true if the vehicle is toll-free or the day is a toll-free day, false otherwise
    */
-  private boolean isTollFree(final Vehicle vehicle, final List<LocalDateTime> passTimestamps) {
-    return vehicle.isTollFree() || passTimestamps.isEmpty() ||
-        isTollFreeDay(passTimestamps.get(0).toLocalDate());
+  boolean isTollFree(final TollConfiguration config, final boolean tollFreeVehicle,
+                             final LocalDate date) {
+    if (tollFreeVehicle) {
+      metrics.recordTollFree(TollFreeReason.VEHICLE);
+      return true;
+    }
+    if (!isTollFreeDay(config, date)) {
+      return false;
+    }
+    if (metrics.isEnabled()) {
+      metrics.recordTollFree(holidayService.isHoliday(config, date)
+          ? TollFreeReason.HOLIDAY : TollFreeReason.WEEKEND);
+    }
+    return true;
+  }
+
+  /**
+   * Reports a finished calculation to the metrics.
+   *
+   * @param start     the value of {@link System#nanoTime()} when the calculation started, 0 if metrics are disabled
+   * @param passCount the number of passes of the calculation
+   * @param fee       the total toll fee of the calculation in öre
+   */
+  private void recordCalculation(final long start, final int passCount, final long fee) {
+    if (!metrics.isEnabled()) {
+      return;
+    }
+    if (fee >= MAXIMUM_FEE_PER_DAY_IN_ORE) {
+      metrics.recordDailyCapReached();
+    }
+    metrics.recordTollCalculation(passCount, System.nanoTime() - start);
   }
 
   /**
@@ -129,24 +606,44 @@ public class TollServiceImpl implements TollService {
   }
 
   /**
-   * Checks if the given date is a toll-free day.
+   * Checks if the given end second of day is within the minimum number of minutes between toll charges from
+   * the given start second of day, counting whole minutes the same way as {@link ChronoUnit#MINUTES}.
    *
-   * @param date the date to check
-   * @return true if the date is a toll-free day (weekend or holiday), false otherwise
+   * @param start the start second of day
+   * @param end   the end second of day, not before the start
+   * @return true if the end is within the minimum number of minutes between toll charges from the start, false otherwise
+   */
+  static boolean isWithinHourlyWindow(final int start, final int end) {
+    return (end - start) / SECONDS_PER_MINUTE <= MINIMUM_MINUTE_BETWEEN_CHARGES;
+  }
+
+  /**
+   * Checks if the given end nanosecond of day is within the minimum number of minutes between toll charges from
+   * the given start nanosecond of day, counting whole minutes the same way as {@link ChronoUnit#MINUTES}.
+   *
+   * @param start the start nanosecond of day
+   * @param end   the end nanosecond of day, not before the start
+   * @return true if the end is within the minimum number of minutes between toll charges from the start
    */
-  private boolean isTollFreeDay(final LocalDate date) {
-    return isWeekend(date) || holidayService.isHoliday(date);
+  static boolean isWithinHourlyWindow(final long start, final long end) {
+    return (end - start) / NANOS_PER_MINUTE <= MINIMUM_MINUTE_BETWEEN_CHARGES;
   }
 
   /**
-   * Checks if the given date is a weekend day (Saturday or Sunday).
+   * Checks if the given date is a toll-free day.
    *
-   * @param date the date to check
-   * @return true if the date is a weekend day (Saturday or Sunday), false otherwise
+   * @param config the configuration snapshot of the calculation
+   * @param date   the date to check
+   * @return true if the date is a toll-free day (weekend or holiday), false otherwise
    */
-  private boolean isWeekend(final LocalDate date) {
-    return date.getDayOfWeek() == DayOfWeek.SATURDAY ||
-        date.getDayOfWeek() == DayOfWeek.SUNDAY;
+  private boolean isTollFreeDay(final TollConfiguration config, final LocalDate date) {
+    return holidayService.isTollFreeDay(config, date);
   }
 
-}
\ No newline at end of file
+  /**
+   * Holds the shared default toll service, created on first use.
+   */
+  private static final class DefaultHolder {
+    private static final TollServiceImpl INSTANCE = new TollServiceImpl();
+  }
+}
@@ -0,0 +1,187 @@
+package com.example.tollcalculator.time;
+
+import com.example.tollcalculator.domain.RateTable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Resolves pass instants, given as epoch milliseconds or {@link Instant}s, to the local day and second or
+ * nanosecond of day in an explicit time zone, so that billing does not depend on the default time zone of the host. Offsets are
+ * taken from a shared {@link ZoneOffsetCache}, so a resolution does not allocate apart from the returned day.
+ * <p>
+ * Passes are billed by local wall-clock time, as the toll rates are: on the day daylight saving time ends the
+ * hour before the change occurs twice, and its passes map to the same seconds of day. Instances are immutable
+ * and thread-safe.
+ */
+public final class PassTimeResolver {
+  /**
+   * The time zone of the Swedish congestion tax.
+   */
+  public static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+  /**
+   * The number of milliseconds in one second.
+   */
+  private static final int MILLIS_PER_SECOND = 1000;
+  /**
+   * The number of nanoseconds in one millisecond.
+   */
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+  /**
+   * The number of nanoseconds in one second.
+   */
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  /**
+   * The time zone the passes are resolved in.
+   */
+  private final ZoneId zone;
+  /**
+   * The offsets of the time zone.
+   */
+  private final ZoneOffsetCache offsets;
+
+  /**
+   * Creates a resolver for a time zone.
+   *
+   * @param zone the time zone the passes are resolved in
+   */
+  public PassTimeResolver(final ZoneId zone) {
+    this.zone = Objects.requireNonNull(zone, "zone");
+    this.offsets = new ZoneOffsetCache(zone);
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Returns the local day of an instant.
+   *
+   * @param epochMilli the instant as epoch millisecond
+   * @return the local day as epoch day
+   */
+  public long epochDayOf(final long epochMilli) {
+    return Math.floorDiv(localEpochSecondOf(epochMilli), RateTable.SECONDS_PER_DAY);
+  }
+
+  /**
+   * Returns the local time of day of an instant.
+   *
+   * @param epochMilli the instant as epoch millisecond
+   * @return the local time as second of day
+   */
+  public int secondOfDayOf(final long epochMilli) {
+    return Math.floorMod(localEpochSecondOf(epochMilli), RateTable.SECONDS_PER_DAY);
+  }
+
+  /**
+   * Resolves passes that must all fall on the same local day to seconds of day, in one pass over the input.
+   *
+   * @param epochMillis  the passes as epoch milliseconds
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @param secondsOfDay receives the local second of day of the pass at index {@code from + i} at index i
+   * @return the local day of the passes, or null if there are none
+   * @throws IllegalArgumentException if the passes fall on different local days
+   */
+  public LocalDate resolveSameDay(final long[] epochMillis, final int from, final int to,
+                                  final int[] secondsOfDay) {
+    Objects.checkFromToIndex(from, to, epochMillis.length);
+    Objects.checkFromIndexSize(0, to - from, secondsOfDay.length);
+    if (from == to) {
+      return null;
+    }
+    long epochDay = 0;
+    for (int i = from; i < to; i++) {
+      epochDay = resolve(localEpochSecondOf(epochMillis[i]), epochDay, i == from, secondsOfDay, i - from);
+    }
+    return LocalDate.ofEpochDay(epochDay);
+  }
+
+  /**
+   * Resolves passes that must all fall on the same local day to nanoseconds of day, in one pass over the input.
+   * Unlike seconds of day, these keep the milliseconds of the passes, so the passes bill exactly as the same
+   * instants given as {@link java.time.LocalDateTime}s.
+   *
+   * @param epochMillis the passes as epoch milliseconds
+   * @param from        the index of the first pass, inclusive
+   * @param to          the index of the last pass, exclusive
+   * @param nanosOfDay  receives the local nanosecond of day of the pass at index {@code from + i} at index i
+   * @return the local day of the passes, or null if there are none
+   * @throws IllegalArgumentException if the passes fall on different local days
+   */
+  public LocalDate resolveSameDay(final long[] epochMillis, final int from, final int to,
+                                  final long[] nanosOfDay) {
+    Objects.checkFromToIndex(from, to, epochMillis.length);
+    Objects.checkFromIndexSize(0, to - from, nanosOfDay.length);
+    if (from == to) {
+      return null;
+    }
+    final int[] secondOfDay = new int[1];
+    long epochDay = 0;
+    for (int i = from; i < to; i++) {
+      epochDay = resolve(localEpochSecondOf(epochMillis[i]), epochDay, i == from, secondOfDay, 0);
+      nanosOfDay[i - from] = secondOfDay[0] * NANOS_PER_SECOND
+          + Math.floorMod(epochMillis[i], MILLIS_PER_SECOND) * NANOS_PER_MILLI;
+    }
+    return LocalDate.ofEpochDay(epochDay);
+  }
+
+  /**
+   * Resolves passes that must all fall on the same local day to seconds of day, in one pass over the input.
+   *
+   * @param instants     the passes
+   * @param from         the index of the first pass, inclusive
+   * @param to           the index of the last pass, exclusive
+   * @param secondsOfDay receives the local second of day of the pass at index {@code from + i} at index i
+   * @return the local day of the passes, or null if there are none
+   * @throws IllegalArgumentException if the passes fall on different local days
+   */
+  public LocalDate resolveSameDay(final Instant[] instants, final int from, final int to,
+                                  final int[] secondsOfDay) {
+    Objects.checkFromToIndex(from, to, instants.length);
+    Objects.checkFromIndexSize(0, to - from, secondsOfDay.length);
+    if (from == to) {
+      return null;
+    }
+    long epochDay = 0;
+    for (int i = from; i < to; i++) {
+      final long epochSecond = instants[i].getEpochSecond();
+      epochDay = resolve(offsets.toLocalEpochSecond(epochSecond), epochDay, i == from, secondsOfDay, i - from);
+    }
+    return LocalDate.ofEpochDay(epochDay);
+  }
+
+  /**
+   * Stores the second of day of one pass and checks that it falls on the day of the previous passes.
+   *
+   * @param localEpochSecond the pass as local epoch second
+   * @param epochDay         the day of the previous passes
+   * @param first            whether the pass is the first one
+   * @param secondsOfDay     receives the second of day of the pass
+   * @param index            the index the second of day is stored at
+   * @return the day of the pass
+   * @throws IllegalArgumentException if the pass does not fall on the day of the previous passes
+   */
+  private static long resolve(final long localEpochSecond, final long epochDay, final boolean first,
+                              final int[] secondsOfDay, final int index) {
+    final long passEpochDay = Math.floorDiv(localEpochSecond, RateTable.SECONDS_PER_DAY);
+    if (!first && passEpochDay != epochDay) {
+      throw new IllegalArgumentException("Input dates does not represent the same day pass: " +
+          LocalDate.ofEpochDay(epochDay) + " and " + LocalDate.ofEpochDay(passEpochDay));
+    }
+    secondsOfDay[index] = Math.floorMod(localEpochSecond, RateTable.SECONDS_PER_DAY);
+    return passEpochDay;
+  }
+
+  /**
+   * Converts an instant to the number of seconds from the local epoch.
+   *
+   * @param epochMilli the instant as epoch millisecond
+   * @return the local epoch second
+   */
+  private long localEpochSecondOf(final long epochMilli) {
+    return offsets.toLocalEpochSecond(Math.floorDiv(epochMilli, MILLIS_PER_SECOND));
+  }
+}
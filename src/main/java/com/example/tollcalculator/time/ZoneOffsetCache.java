@@ -0,0 +1,99 @@
+package com.example.tollcalculator.time;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Converts epoch seconds to local time in a time zone, caching the offset together with the range of instants
+ * it is valid for. Between two offset transitions, e.g. daylight saving changes, a lookup is two comparisons
+ * and does not allocate.
+ * <p>
+ * The cached offset and its range are replaced together as one immutable object, so a cache can be shared by
+ * any number of threads without locking; threads that look up instants in different ranges at once merely
+ * replace each other's entry.
+ */
+public final class ZoneOffsetCache {
+  /**
+   * The rules of the time zone.
+   */
+  private final ZoneRules rules;
+  /**
+   * The offset most recently looked up and the range it is valid for.
+   */
+  private volatile OffsetRange cached = new OffsetRange(0, Long.MAX_VALUE, Long.MIN_VALUE);
+
+  /**
+   * Creates a cache for a time zone.
+   *
+   * @param zone the time zone
+   */
+  public ZoneOffsetCache(final ZoneId zone) {
+    this.rules = zone.getRules();
+  }
+
+  /**
+   * Returns the offset from UTC at the given instant.
+   *
+   * @param epochSecond the instant as epoch second
+   * @return the offset in seconds
+   */
+  public int offsetAt(final long epochSecond) {
+    OffsetRange range = cached;
+    if (epochSecond < range.validFrom || epochSecond >= range.validUntil) {
+      range = lookup(epochSecond);
+      cached = range;
+    }
+    return range.offsetSeconds;
+  }
+
+  /**
+   * Converts an instant to the number of seconds from the local epoch, 1970-01-01T00:00 local time.
+   *
+   * @param epochSecond the instant as epoch second
+   * @return the local epoch second
+   */
+  public long toLocalEpochSecond(final long epochSecond) {
+    return epochSecond + offsetAt(epochSecond);
+  }
+
+  /**
+   * Looks up the offset at the given instant and the range between the transitions around it.
+   *
+   * @param epochSecond the instant as epoch second
+   * @return the offset and its range
+   */
+  private OffsetRange lookup(final long epochSecond) {
+    final Instant instant = Instant.ofEpochSecond(epochSecond);
+    final ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+    final ZoneOffsetTransition next = rules.nextTransition(instant);
+    return new OffsetRange(rules.getOffset(instant).getTotalSeconds(),
+        previous == null ? Long.MIN_VALUE : previous.toEpochSecond(),
+        next == null ? Long.MAX_VALUE : next.toEpochSecond());
+  }
+
+  /**
+   * An offset and the range of instants it is valid for.
+   */
+  private static final class OffsetRange {
+    /**
+     * The offset in seconds.
+     */
+    private final int offsetSeconds;
+    /**
+     * The first epoch second the offset is valid for, inclusive.
+     */
+    private final long validFrom;
+    /**
+     * The last epoch second the offset is valid for, exclusive.
+     */
+    private final long validUntil;
+
+    OffsetRange(final int offsetSeconds, final long validFrom, final long validUntil) {
+      this.offsetSeconds = offsetSeconds;
+      this.validFrom = validFrom;
+      this.validUntil = validUntil;
+    }
+  }
+}
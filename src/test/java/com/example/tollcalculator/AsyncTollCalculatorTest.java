@@ -0,0 +1,188 @@
+package com.example.tollcalculator;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AsyncTollCalculatorTest {
+  private static final double EPS = 1E-4;
+
+  private final Vehicle privateCar = new PrivateCar();
+
+  @Test
+  void manyConcurrentRequestsComplete() {
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator()) {
+      List<CompletableFuture<Double>> fees = new ArrayList<>();
+      for (int i = 0; i < 1_000; i++) {
+        fees.add(calculator.calculateToll(privateCar, () -> List.of(
+            LocalDateTime.of(2023, 5, 10, 6, 15), LocalDateTime.of(2023, 5, 10, 7, 45))));
+      }
+      for (CompletableFuture<Double> fee : fees) {
+        Assertions.assertEquals(26.0, fee.join(), EPS);
+      }
+    }
+  }
+
+  @Test
+  void dateRequestFailsInsteadOfThrowing() throws Exception {
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator()) {
+      Date monday = new GregorianCalendar(2023, 4, 8, 7, 0, 0).getTime();
+      Date tuesday = new GregorianCalendar(2023, 4, 9, 7, 0, 0).getTime();
+      Assertions.assertEquals(18, calculator.getTollFee(privateCar, monday).get(5, TimeUnit.SECONDS));
+      ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+          () -> calculator.getTollFee(privateCar, monday, tuesday).get(5, TimeUnit.SECONDS));
+      Assertions.assertTrue(failure.getCause() instanceof RuntimeException);
+    }
+  }
+
+  @Test
+  void requestsBeyondTheLimitAreRejected() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch release = new CountDownLatch(1);
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator(new TollCalculator(), new TollServiceImpl(),
+        executor, 2, Duration.ofSeconds(30))) {
+      List<CompletableFuture<Double>> blocked = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        blocked.add(calculator.calculateToll(privateCar, () -> {
+          awaitQuietly(release);
+          return List.of(LocalDateTime.of(2023, 5, 10, 6, 15));
+        }));
+      }
+      Assertions.assertEquals(2, calculator.getInFlightCount());
+      CompletableFuture<Double> rejected = calculator.calculateToll(privateCar, List.of());
+      ExecutionException failure = Assertions.assertThrows(ExecutionException.class, rejected::get);
+      Assertions.assertTrue(failure.getCause() instanceof RejectedExecutionException);
+
+      release.countDown();
+      for (CompletableFuture<Double> fee : blocked) {
+        Assertions.assertEquals(8.0, fee.get(5, TimeUnit.SECONDS), EPS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void slowRequestTimesOutAndIsInterrupted() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch interrupted = new CountDownLatch(1);
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator(new TollCalculator(), new TollServiceImpl(),
+        executor, 10, Duration.ofMillis(50))) {
+      CompletableFuture<Double> fee = calculator.calculateToll(privateCar, () -> {
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return List.of();
+      });
+      ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+          () -> fee.get(5, TimeUnit.SECONDS));
+      Assertions.assertTrue(failure.getCause() instanceof TimeoutException);
+      Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void requestsTimingOutInTheQueueGiveBackTheirPermits() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator(new TollCalculator(), new TollServiceImpl(),
+        executor, 2, Duration.ofMillis(100))) {
+      // the only thread is busy beyond the timeout, so the next requests time out before they start
+      executor.submit(() -> awaitQuietly(release));
+      for (int i = 0; i < 5; i++) {
+        CompletableFuture<Double> fee = calculator.calculateToll(privateCar, List.of());
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+            () -> fee.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(failure.getCause() instanceof TimeoutException);
+        awaitNoneInFlight(calculator);
+      }
+      release.countDown();
+      Assertions.assertEquals(8.0, calculator.calculateToll(privateCar,
+          List.of(LocalDateTime.of(2023, 5, 10, 6, 15))).get(5, TimeUnit.SECONDS), EPS);
+      awaitNoneInFlight(calculator);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void timedOutRequestIgnoringTheInterruptKeepsItsPermitUntilItEnds() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (AsyncTollCalculator calculator = new AsyncTollCalculator(new TollCalculator(), new TollServiceImpl(),
+        executor, 1, Duration.ofMillis(200))) {
+      CompletableFuture<Double> fee = calculator.calculateToll(privateCar, () -> {
+        started.countDown();
+        awaitUninterruptibly(release);
+        return List.of();
+      });
+      Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+      ExecutionException failure = Assertions.assertThrows(ExecutionException.class,
+          () -> fee.get(5, TimeUnit.SECONDS));
+      Assertions.assertTrue(failure.getCause() instanceof TimeoutException);
+      // the loader still runs, so it still counts against the limit
+      Assertions.assertEquals(1, calculator.getInFlightCount());
+      CompletableFuture<Double> rejected = calculator.calculateToll(privateCar, List.of());
+      failure = Assertions.assertThrows(ExecutionException.class, rejected::get);
+      Assertions.assertTrue(failure.getCause() instanceof RejectedExecutionException);
+
+      release.countDown();
+      awaitNoneInFlight(calculator);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // the permit is given back just after the future completes, so the count is polled
+  private static void awaitNoneInFlight(final AsyncTollCalculator calculator) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (calculator.getInFlightCount() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    Assertions.assertEquals(0, calculator.getInFlightCount());
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void awaitUninterruptibly(final CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,10 +2,19 @@ package com.example.tollcalculator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.tollcalculator.domain.DailyToll;
 import com.example.tollcalculator.domain.PrivateCar;
 import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import com.example.tollcalculator.time.PassTimeResolver;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -67,4 +76,36 @@ class TollCalculatorTest {
     Assertions.assertEquals(0, fee);
   }
 
-}
\ No newline at end of file
+  @Test
+  void testTollCalculationKeepsMillisecondsOfThePasses() {
+    final TollCalculator stockholmCalculator =
+        new TollCalculator(TollServiceImpl.getDefault(), TollMetrics.noop(), PassTimeResolver.STOCKHOLM);
+    // 60 minutes and 59.2 seconds apart, so in one hourly window : max(8, 18) = 18
+    final long[] epochMillis = new long[] {
+        LocalDateTime.of(2023, 5, 10, 6, 0, 0, 900_000_000).atZone(PassTimeResolver.STOCKHOLM)
+            .toInstant().toEpochMilli(),
+        LocalDateTime.of(2023, 5, 10, 7, 1, 0, 100_000_000).atZone(PassTimeResolver.STOCKHOLM)
+            .toInstant().toEpochMilli()
+    };
+    Assertions.assertEquals(18, stockholmCalculator.getTollFee(new PrivateCar(), epochMillis));
+    Assertions.assertEquals(18, stockholmCalculator.getTollFee(new PrivateCar(),
+        new Date(epochMillis[0]), new Date(epochMillis[1])));
+  }
+
+  @Test
+  void testDailyTollFeesForManyVehiclesAndDays() {
+    Vehicle privateCar = new PrivateCar();
+    Stream<VehiclePass> passes = Stream.of(
+        new VehiclePass("ABC123", privateCar, LocalDateTime.of(2023, 10, 4, 7, 15, 0)),
+        new VehiclePass("XYZ789", privateCar, LocalDateTime.of(2023, 10, 3, 6, 15, 0)),
+        new VehiclePass("ABC123", privateCar, LocalDateTime.of(2023, 10, 3, 6, 45, 0))
+    );
+    final List<DailyToll> dailyTolls = tollCalculator.getDailyTollFees(passes);
+    Assertions.assertEquals(List.of(
+        new DailyToll("ABC123", LocalDate.of(2023, 10, 3), 13.0),
+        new DailyToll("ABC123", LocalDate.of(2023, 10, 4), 18.0),
+        new DailyToll("XYZ789", LocalDate.of(2023, 10, 3), 8.0)
+    ), dailyTolls);
+  }
+
+}
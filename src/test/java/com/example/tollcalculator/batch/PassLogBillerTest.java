@@ -0,0 +1,130 @@
+package com.example.tollcalculator.batch;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.service.impl.BulkTollServiceImpl;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PassLogBillerTest {
+  private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+  private static final int PRIVATE_CAR = VehicleClassRegistry.defaults().codeOf("PrivateCar");
+  private static final int TRACTOR = VehicleClassRegistry.defaults().codeOf("Tractor");
+  private static final Vehicle[] VEHICLES = vehicles();
+
+  private Path file;
+
+  @BeforeEach
+  void createFile() throws Exception {
+    file = Files.createTempFile("passes", ".log");
+  }
+
+  @AfterEach
+  void deleteFile() throws Exception {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void billMatchesBulkTollServiceAcrossWindows() throws Exception {
+    Random random = new Random(3);
+    List<long[]> records = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      long vehicleId = random.nextInt(200);
+      LocalDateTime timestamp = LocalDateTime.of(2023, 5, 1 + random.nextInt(10),
+          5 + random.nextInt(15), random.nextInt(60), random.nextInt(60));
+      records.add(new long[] {vehicleId, vehicleId % 10 == 0 ? TRACTOR : PRIVATE_CAR,
+          timestamp.atZone(STOCKHOLM).toEpochSecond()});
+    }
+    records.sort(Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> r[2]));
+    write(records);
+
+    List<DailyToll> expected = new ArrayList<>();
+    List<VehiclePass> passes = new ArrayList<>();
+    for (long[] record : records) {
+      passes.add(new VehiclePass(Long.toString(record[0]), VEHICLES[(int) record[1]],
+          LocalDateTime.ofInstant(Instant.ofEpochSecond(record[2]), STOCKHOLM)));
+    }
+    new BulkTollServiceImpl().calculateDailyTolls(passes.iterator(), expected::add);
+    expected.sort(Comparator.comparingLong((DailyToll toll) -> Long.parseLong(toll.getVehicleId()))
+        .thenComparing(DailyToll::getDate));
+
+    List<DailyToll> actual = new ArrayList<>();
+    long billed = new PassLogBiller(new TollServiceImpl(), STOCKHOLM, 100)
+        .bill(file, (vehicleId, epochDay, fee) ->
+            actual.add(new DailyToll(Long.toString(vehicleId), LocalDate.ofEpochDay(epochDay), fee)));
+    Assertions.assertEquals(records.size(), billed);
+    Assertions.assertEquals(expected, actual);
+  }
+
+  @Test
+  void passesAroundEndOfDaylightSavingTimeAreBilledInLocalTime() throws Exception {
+    // 2023-10-30 is a Monday after the change back to standard time on the Sunday
+    long sevenThirtyInSummer = LocalDateTime.of(2023, 10, 27, 7, 30).atZone(STOCKHOLM).toEpochSecond();
+    long sevenThirtyInWinter = LocalDateTime.of(2023, 10, 30, 7, 30).atZone(STOCKHOLM).toEpochSecond();
+    write(List.of(new long[] {1, PRIVATE_CAR, sevenThirtyInSummer},
+        new long[] {1, PRIVATE_CAR, sevenThirtyInWinter}));
+
+    List<Double> fees = new ArrayList<>();
+    List<LocalDate> days = new ArrayList<>();
+    new PassLogBiller(new TollServiceImpl(), STOCKHOLM, 1)
+        .bill(file, (vehicleId, epochDay, fee) -> {
+          days.add(LocalDate.ofEpochDay(epochDay));
+          fees.add(fee);
+        });
+    Assertions.assertEquals(List.of(LocalDate.of(2023, 10, 27), LocalDate.of(2023, 10, 30)), days);
+    Assertions.assertEquals(List.of(18.0, 18.0), fees);
+  }
+
+  @Test
+  void unsortedPassLogIsRejected() throws Exception {
+    write(List.of(new long[] {2, 0, 1_683_700_000L}, new long[] {1, 0, 1_683_700_000L}));
+    PassLogBiller biller = new PassLogBiller();
+    Assertions.assertThrows(IllegalArgumentException.class, () -> biller.bill(file, (v, d, f) -> { }));
+  }
+
+  @Test
+  void unknownVehicleClassIsRejected() throws Exception {
+    write(List.<long[]>of(new long[] {1, 200, 1_683_700_000L}));
+    PassLogBiller biller = new PassLogBiller();
+    Assertions.assertThrows(IllegalArgumentException.class, () -> biller.bill(file, (v, d, f) -> { }));
+  }
+
+  @Test
+  void writerRequiresAnnouncedRecordCount() throws Exception {
+    PassLogWriter writer = new PassLogWriter(file, 2);
+    writer.append(1, 0, 1_683_700_000L);
+    Assertions.assertThrows(IllegalStateException.class, writer::close);
+  }
+
+  private static Vehicle[] vehicles() {
+    Vehicle[] vehicles = new Vehicle[VehicleClassRegistry.defaults().size()];
+    vehicles[PRIVATE_CAR] = new PrivateCar();
+    vehicles[TRACTOR] = new Tractor();
+    return vehicles;
+  }
+
+  private void write(final List<long[]> records) throws Exception {
+    try (PassLogWriter writer = new PassLogWriter(file, records.size())) {
+      for (long[] record : records) {
+        writer.append(record[0], (int) record[1], record[2]);
+      }
+    }
+  }
+}
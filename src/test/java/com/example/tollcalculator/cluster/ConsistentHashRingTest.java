@@ -0,0 +1,63 @@
+package com.example.tollcalculator.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+  private static final int VEHICLES = 100_000;
+
+  private final ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c", "d"), 128);
+
+  @Test
+  void vehiclesAreSpreadEvenly() {
+    Map<String, Integer> counts = new HashMap<>();
+    for (long vehicleId = 0; vehicleId < VEHICLES; vehicleId++) {
+      counts.merge(ring.ownerOf(vehicleId), 1, Integer::sum);
+    }
+    Assertions.assertEquals(4, counts.size());
+    for (int count : counts.values()) {
+      Assertions.assertEquals(VEHICLES / 4.0, count, VEHICLES / 4.0 * 0.2);
+    }
+  }
+
+  @Test
+  void joiningWorkerTakesOnlyItsShare() {
+    ConsistentHashRing grown = ring.withWorker("e");
+    int moved = 0;
+    for (long vehicleId = 0; vehicleId < VEHICLES; vehicleId++) {
+      String before = ring.ownerOf(vehicleId);
+      String after = grown.ownerOf(vehicleId);
+      if (!before.equals(after)) {
+        Assertions.assertEquals("e", after);
+        moved++;
+      }
+    }
+    Assertions.assertEquals(VEHICLES / 5.0, moved, VEHICLES / 5.0 * 0.2);
+    Assertions.assertEquals(ring.getWorkers(), grown.withoutWorker("e").getWorkers());
+    for (long vehicleId = 0; vehicleId < 1_000; vehicleId++) {
+      Assertions.assertEquals(ring.ownerOf(vehicleId), grown.withoutWorker("e").ownerOf(vehicleId));
+    }
+  }
+
+  @Test
+  void replicasAreDistinctWorkersAfterTheOwner() {
+    for (long vehicleId = 0; vehicleId < 1_000; vehicleId++) {
+      List<String> owners = ring.ownersOf(vehicleId, 3);
+      Assertions.assertEquals(3, owners.size());
+      Assertions.assertEquals(ring.ownerOf(vehicleId), owners.get(0));
+      Assertions.assertEquals(3, owners.stream().distinct().count());
+    }
+    Assertions.assertEquals(4, ring.ownersOf(1L, 10).size());
+  }
+
+  @Test
+  void invalidChangesAreRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> ring.withWorker("a"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> ring.withoutWorker("x"));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> ConsistentHashRing.of(List.of("a"), 0));
+    Assertions.assertThrows(IllegalStateException.class, () -> ConsistentHashRing.of(List.of(), 8).ownerOf(1L));
+  }
+}
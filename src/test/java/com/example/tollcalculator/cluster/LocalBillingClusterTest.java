@@ -0,0 +1,110 @@
+package com.example.tollcalculator.cluster;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LocalBillingClusterTest {
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final int VEHICLES = 2_000;
+  private static final int ROUNDS = 8;
+
+  private final ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+  private final TollServiceImpl tollService = new TollServiceImpl(configuration);
+  private final int privateCar = configuration.current().getVehicleClasses().codeOf("PrivateCar");
+  private final int[][] passes = new int[VEHICLES][];
+
+  LocalBillingClusterTest() {
+    Random random = new Random(25);
+    for (int vehicle = 0; vehicle < VEHICLES; vehicle++) {
+      passes[vehicle] = random.ints(ROUNDS, 5 * 3600, 19 * 3600).sorted().toArray();
+    }
+  }
+
+  @Test
+  void totalsSurviveScalingAndFailover() {
+    LocalBillingCluster cluster = new LocalBillingCluster(tollService, 64, 2);
+    cluster.addWorker("worker-1");
+    cluster.addWorker("worker-2");
+    cluster.addWorker("worker-3");
+    for (int round = 0; round < ROUNDS; round++) {
+      switch (round) {
+        case 2:
+          Assertions.assertTrue(cluster.addWorker("worker-4") > 0);
+          break;
+        case 4:
+          cluster.failWorker("worker-2");
+          break;
+        case 6:
+          cluster.removeWorker("worker-1");
+          break;
+        default:
+          break;
+      }
+      for (int vehicle = 0; vehicle < VEHICLES; vehicle++) {
+        cluster.recordPass(vehicle, privateCar, StationRegistry.NO_STATION, WEDNESDAY, passes[vehicle][round]);
+      }
+    }
+
+    Assertions.assertEquals(List.of("worker-3", "worker-4"), cluster.getRing().getWorkers());
+    Assertions.assertEquals(VEHICLES, cluster.size());
+    for (int vehicle = 0; vehicle < VEHICLES; vehicle++) {
+      Assertions.assertEquals(
+          tollService.calculateTollInOreForPassesOfSameDay(privateCar, WEDNESDAY, passes[vehicle], 0, ROUNDS),
+          cluster.getDayTotalInOre(vehicle, WEDNESDAY), "vehicle " + vehicle);
+    }
+  }
+
+  @Test
+  void joiningWorkerTakesOverItsShareOfVehicles() {
+    LocalBillingCluster cluster = new LocalBillingCluster(tollService, 128, 1);
+    for (int worker = 1; worker <= 4; worker++) {
+      cluster.addWorker("worker-" + worker);
+    }
+    for (int vehicle = 0; vehicle < VEHICLES; vehicle++) {
+      cluster.recordPass(vehicle, privateCar, StationRegistry.NO_STATION, WEDNESDAY, passes[vehicle][0]);
+    }
+    int moved = cluster.addWorker("worker-5");
+
+    Map<String, Integer> owned = cluster.getOwnedVehicleCounts();
+    Assertions.assertEquals(moved, (int) owned.get("worker-5"));
+    Assertions.assertEquals(VEHICLES / 5.0, moved, VEHICLES / 5.0 * 0.35);
+    Assertions.assertEquals(VEHICLES, owned.values().stream().mapToInt(Integer::intValue).sum());
+    Assertions.assertEquals(VEHICLES, cluster.size());
+  }
+
+  @Test
+  void failedWorkerWithoutReplicasLosesItsVehicles() {
+    LocalBillingCluster cluster = new LocalBillingCluster(tollService, 64, 1);
+    cluster.addWorker("worker-1");
+    cluster.addWorker("worker-2");
+    for (int vehicle = 0; vehicle < VEHICLES; vehicle++) {
+      cluster.recordPass(vehicle, privateCar, StationRegistry.NO_STATION, WEDNESDAY, passes[vehicle][0]);
+    }
+    int lost = cluster.getOwnedVehicleCounts().get("worker-2");
+    cluster.failWorker("worker-2");
+    Assertions.assertEquals(VEHICLES - lost, cluster.size());
+  }
+
+  @Test
+  void passesOfEarlierDaysAndEmptyClustersAreRejected() {
+    LocalBillingCluster cluster = new LocalBillingCluster(tollService, 16, 2);
+    Assertions.assertThrows(IllegalStateException.class,
+        () -> cluster.recordPass(1L, privateCar, StationRegistry.NO_STATION, WEDNESDAY, 7 * 3600));
+    cluster.addWorker("worker-1");
+    Assertions.assertEquals(18.0, cluster.recordPass(1L, privateCar, StationRegistry.NO_STATION, WEDNESDAY,
+        7 * 3600), 1E-4);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> cluster.recordPass(1L, privateCar,
+        StationRegistry.NO_STATION, WEDNESDAY.minusDays(1), 7 * 3600));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> cluster.addWorker("worker-1"));
+    Assertions.assertEquals(1, cluster.rollOver(WEDNESDAY.plusDays(1)));
+    Assertions.assertEquals(0, cluster.size());
+  }
+}
@@ -0,0 +1,140 @@
+package com.example.tollcalculator.config;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ConfigurationManagerTest {
+  private static final double EPS = 1E-4;
+
+  @Test
+  void initializeLoadsOnceAndReportsLoadTime() {
+    AtomicInteger loads = new AtomicInteger();
+    ConfigurationManager manager = new ConfigurationManager(() -> {
+      loads.incrementAndGet();
+      return TollConfiguration.fromResources();
+    });
+    Assertions.assertFalse(manager.isInitialized());
+    Duration loadTime = manager.initialize();
+    Assertions.assertTrue(manager.isInitialized());
+    Assertions.assertFalse(loadTime.isNegative());
+    Assertions.assertSame(manager.current(), manager.current());
+    manager.initialize();
+    Assertions.assertEquals(1, loads.get());
+    Assertions.assertTrue(manager.current().isHoliday(LocalDate.of(2023, 5, 1)));
+  }
+
+  @Test
+  void initializeAsyncCompletesOnExecutor() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ConfigurationManager manager = new ConfigurationManager(TollConfiguration::fromResources);
+      Duration loadTime = manager.initializeAsync(executor).join();
+      Assertions.assertEquals(manager.getLoadTime(), loadTime);
+      Assertions.assertTrue(manager.isInitialized());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void failedLoadIsReportedAndRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+    ConfigurationManager manager = new ConfigurationManager(() -> {
+      attempts.incrementAndGet();
+      throw new ConfigurationException("rates.yml is broken");
+    });
+    Assertions.assertThrows(ConfigurationException.class, manager::initialize);
+    Assertions.assertThrows(ConfigurationException.class, manager::current);
+    Assertions.assertEquals(2, attempts.get());
+    Assertions.assertFalse(manager.isInitialized());
+  }
+
+  @Test
+  void missingResourceFailsWithConfigurationException() {
+    ConfigurationManager manager = new ConfigurationManager(
+        () -> new TollConfiguration(null, YamlConfigLoader.loadHolidays("missing.yml")));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CompletionException exception = Assertions.assertThrows(CompletionException.class,
+          () -> manager.initializeAsync(executor).join());
+      Assertions.assertTrue(exception.getCause() instanceof ConfigurationException);
+      Assertions.assertTrue(exception.getCause().getMessage().contains("missing.yml"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void reloadSwapsSnapshotAndKeepsOldSnapshotIntact() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Files.writeString(rates, "- startTime: \"06:00:00\"\n  endTime: \"06:59:59\"\n  rate: 8.0\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    try {
+      ConfigurationManager manager = ConfigurationManager.forFiles(rates, holidays);
+      TollConfiguration before = manager.current();
+      Assertions.assertEquals(8.0, before.getRateTable().rateAt(LocalTime.of(6, 30)), EPS);
+
+      Files.writeString(rates, "- startTime: \"06:00:00\"\n  endTime: \"06:59:59\"\n  rate: 9.0\n");
+      TollConfiguration after = manager.reload();
+      Assertions.assertSame(after, manager.current());
+      Assertions.assertEquals(9.0, after.getRateTable().rateAt(LocalTime.of(6, 30)), EPS);
+      Assertions.assertEquals(8.0, before.getRateTable().rateAt(LocalTime.of(6, 30)), EPS);
+
+      Files.writeString(rates, "- startTime: [not a time");
+      Assertions.assertThrows(ConfigurationException.class, manager::reload);
+      Assertions.assertSame(after, manager.current());
+    } finally {
+      Files.delete(rates);
+      Files.delete(holidays);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void watchReloadsOnFileChange() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Files.writeString(rates, "- startTime: \"06:00:00\"\n  endTime: \"06:59:59\"\n  rate: 8.0\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    ConfigurationManager manager = ConfigurationManager.forFiles(rates, holidays);
+    manager.initialize();
+    ConfigurationWatcher watcher = manager.watch(directory, e -> { });
+    try (watcher) {
+      Files.writeString(holidays, "'2023-05-01': May Day\n'2023-06-06': National Day\n");
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (!manager.current().isHoliday(LocalDate.of(2023, 6, 6)) && System.nanoTime() < deadline) {
+        Thread.sleep(50);
+      }
+      Assertions.assertTrue(manager.current().isHoliday(LocalDate.of(2023, 6, 6)));
+    } finally {
+      Files.delete(rates);
+      Files.delete(holidays);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void publishReplacesSnapshot() {
+    ConfigurationManager manager = new ConfigurationManager(TollConfiguration::fromResources);
+    // listing any holiday of 2023 replaces the generated holidays of that year
+    TollConfiguration snapshot = new TollConfiguration(manager.current().getRateTable(),
+        Map.of(LocalDate.of(2023, 1, 1), "New Year's Day"));
+    manager.publish(snapshot);
+    Assertions.assertSame(snapshot, manager.current());
+    Assertions.assertFalse(manager.current().isHoliday(LocalDate.of(2023, 5, 1)));
+  }
+}
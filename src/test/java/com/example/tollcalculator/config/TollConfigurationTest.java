@@ -0,0 +1,188 @@
+package com.example.tollcalculator.config;
+
+import com.example.tollcalculator.domain.Motorbike;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TollConfigurationTest {
+  private static final double EPS = 1E-4;
+
+  @Test
+  void compiledTablesAreOnTheClasspath() {
+    Assertions.assertNotNull(BinaryConfigLoader.loadResource());
+  }
+
+  @Test
+  void compiledTablesMatchYamlFiles() {
+    TollConfiguration compiled = TollConfiguration.fromResources();
+    TollConfiguration yaml = TollConfiguration.fromYamlResources();
+    Assertions.assertEquals(yaml.getHolidays(), compiled.getHolidays());
+    for (int secondOfDay = 0; secondOfDay < RateTable.SECONDS_PER_DAY; secondOfDay++) {
+      Assertions.assertEquals(yaml.getRateTable().rateAtSecondOfDay(secondOfDay),
+          compiled.getRateTable().rateAtSecondOfDay(secondOfDay), EPS);
+    }
+    Assertions.assertEquals(yaml.getVehicleClasses().size(), compiled.getVehicleClasses().size());
+    Assertions.assertEquals(yaml.getVehicleClasses().getTollFreeMask(), compiled.getVehicleClasses().getTollFreeMask());
+    Assertions.assertEquals(yaml.getStations().size(), compiled.getStations().size());
+  }
+
+  @Test
+  void vehicleClassesAndStationsAreCompiledIntoTheTables() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Path vehicleClasses = directory.resolve("vehicle-classes.yml");
+    Path stations = directory.resolve("stations.yml");
+    Path tables = directory.resolve("toll-tables.bin");
+    Files.writeString(rates, "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 18.0\n"
+        + "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 25.0\n"
+        + "  stations: [Skansbron]\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    Files.writeString(vehicleClasses, "- name: PrivateCar\n  tollFree: false\n- name: Tractor\n  tollFree: false\n");
+    Files.writeString(stations, "- Lilla Essingen\n- Skansbron\n");
+    try {
+      BinaryConfigLoader.main(new String[] {rates.toString(), holidays.toString(), vehicleClasses.toString(),
+          stations.toString(), tables.toString()});
+      TollConfiguration configuration = readTables(tables);
+      Assertions.assertEquals(2, configuration.getVehicleClasses().size());
+      Assertions.assertFalse(configuration.getVehicleClasses().isTollFree(new Tractor()));
+      int skansbron = configuration.getStations().codeOf("Skansbron");
+      Assertions.assertEquals(1, skansbron);
+      Assertions.assertEquals(25.0, configuration.stationRatesFor(0, LocalDate.of(2023, 5, 10)).forStation(skansbron)
+          .rateAtSecondOfDay(27000), EPS);
+
+      // without the optional files the default vehicle classes and no stations are compiled
+      Files.delete(vehicleClasses);
+      Files.delete(stations);
+      Files.writeString(rates, "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 18.0\n");
+      BinaryConfigLoader.main(new String[] {rates.toString(), holidays.toString(), vehicleClasses.toString(),
+          stations.toString(), tables.toString()});
+      configuration = readTables(tables);
+      Assertions.assertEquals(VehicleClassRegistry.defaults().size(), configuration.getVehicleClasses().size());
+      Assertions.assertTrue(configuration.getVehicleClasses().isTollFree(new Tractor()));
+      Assertions.assertEquals(0, configuration.getStations().size());
+    } finally {
+      Files.deleteIfExists(rates);
+      Files.deleteIfExists(holidays);
+      Files.deleteIfExists(vehicleClasses);
+      Files.deleteIfExists(stations);
+      Files.deleteIfExists(tables);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void vehicleClassesAreReadFromFile() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Path vehicleClasses = directory.resolve("vehicle-classes.yml");
+    Files.writeString(rates, "- startTime: \"06:00:00\"\n  endTime: \"06:59:59\"\n  rate: 8.0\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    Files.writeString(vehicleClasses,
+        "- name: PrivateCar\n  tollFree: false\n- name: Tractor\n  tollFree: false\n");
+    try {
+      TollConfiguration configuration = TollConfiguration.fromFiles(rates, holidays, vehicleClasses);
+      Assertions.assertEquals(2, configuration.getVehicleClasses().size());
+      Assertions.assertFalse(configuration.getVehicleClasses().isTollFree(new Tractor()));
+
+      Files.writeString(vehicleClasses, "- name: Tractor\n- name: Tractor\n");
+      Assertions.assertThrows(ConfigurationException.class,
+          () -> TollConfiguration.fromFiles(rates, holidays, vehicleClasses));
+    } finally {
+      Files.delete(rates);
+      Files.delete(holidays);
+      Files.delete(vehicleClasses);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void restrictedRatesAreReadFromFile() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Files.writeString(rates, "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 18.0\n"
+        + "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 25.0\n"
+        + "  vehicleClasses: [Motorbike]\n  dayTypes: [WEEKDAY]\n"
+        + "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 30.0\n"
+        + "  vehicleClasses: [PrivateCar]\n  validFrom: \"2024-01-01\"\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    try {
+      ConfigurationManager manager = ConfigurationManager.forFiles(rates, holidays);
+      TollService tollService = new TollServiceImpl(manager);
+      List<LocalDateTime> passes2023 = List.of(LocalDateTime.of(2023, 5, 10, 7, 30));
+      List<LocalDateTime> passes2024 = List.of(LocalDateTime.of(2024, 5, 8, 7, 30));
+
+      Assertions.assertEquals(18.0, manager.current().getRateTable().rateAtSecondOfDay(27000), EPS);
+      Assertions.assertEquals(18.0, tollService.calculateTollForPassesOfSameDay(new PrivateCar(), passes2023), EPS);
+      Assertions.assertEquals(30.0, tollService.calculateTollForPassesOfSameDay(new PrivateCar(), passes2024), EPS);
+      int motorbike = manager.current().getVehicleClasses().codeOf(new Motorbike());
+      Assertions.assertEquals(25.0, manager.current().rateTableFor(motorbike, passes2024.get(0).toLocalDate())
+          .rateAtSecondOfDay(27000), EPS);
+
+      Files.writeString(rates, "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 9.0\n"
+          + "  vehicleClasses: [Hovercraft]\n");
+      Assertions.assertThrows(ConfigurationException.class, () -> TollConfiguration.fromFiles(rates, holidays));
+    } finally {
+      Files.delete(rates);
+      Files.delete(holidays);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  void stationsAreReadFromFile() throws Exception {
+    Path directory = Files.createTempDirectory("toll-config");
+    Path rates = directory.resolve("rates.yml");
+    Path holidays = directory.resolve("holidays.yml");
+    Path vehicleClasses = directory.resolve("vehicle-classes.yml");
+    Path stations = directory.resolve("stations.yml");
+    Files.writeString(rates, "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 18.0\n"
+        + "- startTime: \"07:00:00\"\n  endTime: \"07:59:59\"\n  rate: 25.0\n"
+        + "  stations: [Skansbron]\n");
+    Files.writeString(holidays, "'2023-05-01': May Day\n");
+    Files.writeString(vehicleClasses, "- name: PrivateCar\n  tollFree: false\n");
+    Files.writeString(stations, "- Lilla Essingen\n- Skansbron\n");
+    try {
+      TollConfiguration configuration = TollConfiguration.fromFiles(rates, holidays, vehicleClasses, stations);
+      int skansbron = configuration.getStations().codeOf("Skansbron");
+      LocalDate wednesday = LocalDate.of(2023, 5, 10);
+      Assertions.assertEquals(1, skansbron);
+      Assertions.assertEquals(25.0, configuration.stationRatesFor(0, wednesday).forStation(skansbron)
+          .rateAtSecondOfDay(27000), EPS);
+      Assertions.assertEquals(18.0, configuration.stationRatesFor(0, wednesday).forStation(0)
+          .rateAtSecondOfDay(27000), EPS);
+
+      Files.writeString(stations, "- Lilla Essingen\n");
+      Assertions.assertThrows(ConfigurationException.class,
+          () -> TollConfiguration.fromFiles(rates, holidays, vehicleClasses, stations));
+    } finally {
+      Files.delete(rates);
+      Files.delete(holidays);
+      Files.delete(vehicleClasses);
+      Files.delete(stations);
+      Files.delete(directory);
+    }
+  }
+
+  private static TollConfiguration readTables(final Path tables) throws Exception {
+    try (InputStream in = Files.newInputStream(tables)) {
+      return BinaryConfigLoader.load(new DataInputStream(new BufferedInputStream(in)), null, null);
+    }
+  }
+}
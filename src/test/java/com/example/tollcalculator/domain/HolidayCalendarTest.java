@@ -0,0 +1,54 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HolidayCalendarTest {
+  private final HolidayCalendar calendar = HolidayCalendar.of(Map.of(
+      LocalDate.of(2023, 6, 9), "Midsummer Eve (moved)"));
+
+  @Test
+  void easterSundayFollowsGregorianRule() {
+    Assertions.assertEquals(LocalDate.of(2000, 4, 23), SwedishHolidays.easterSunday(2000));
+    Assertions.assertEquals(LocalDate.of(2024, 3, 31), SwedishHolidays.easterSunday(2024));
+    Assertions.assertEquals(LocalDate.of(2025, 4, 20), SwedishHolidays.easterSunday(2025));
+    Assertions.assertEquals(LocalDate.of(2038, 4, 25), SwedishHolidays.easterSunday(2038));
+  }
+
+  @Test
+  void movableHolidaysAreGenerated() {
+    Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 3, 29))); // Good Friday
+    Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 5, 9))); // Ascension Day
+    Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 6, 21))); // Midsummer Eve
+    Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 11, 2))); // All Saints' Day
+    Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2024, 6, 20)));
+  }
+
+  @Test
+  void listedHolidaysReplaceGeneratedOnesOfTheirYear() {
+    Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2023, 6, 9)));
+    Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2023, 6, 23)));
+    Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2023, 12, 25)));
+  }
+
+  @Test
+  void weekendsAreTollFreeDays() {
+    Assertions.assertTrue(calendar.isTollFreeDay(LocalDate.of(2024, 2, 10))); // Saturday
+    Assertions.assertTrue(calendar.isTollFreeDay(LocalDate.of(2024, 2, 11))); // Sunday
+    Assertions.assertFalse(calendar.isTollFreeDay(LocalDate.of(2024, 2, 12)));
+    Assertions.assertTrue(calendar.isTollFreeDay(LocalDate.of(2024, 12, 31))); // leap day 366
+  }
+
+  @Test
+  void bitsetMatchesRulesOverEveryDayOfTheRange() {
+    HolidayCalendar small = HolidayCalendar.of(2020, 2030, Map.of());
+    for (LocalDate date = LocalDate.of(2019, 1, 1); date.getYear() <= 2031; date = date.plusDays(1)) {
+      boolean holiday = SwedishHolidays.of(date.getYear()).containsKey(date);
+      boolean weekend = date.getDayOfWeek().getValue() >= 6;
+      Assertions.assertEquals(holiday, small.isHoliday(date), date.toString());
+      Assertions.assertEquals(holiday || weekend, small.isTollFreeDay(date), date.toString());
+    }
+  }
+}
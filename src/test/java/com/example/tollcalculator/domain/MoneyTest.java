@@ -0,0 +1,45 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+  @Test
+  void kronorAreRoundedToTheNearestOre() {
+    Assertions.assertEquals(1_300L, Money.toOre(13.0));
+    Assertions.assertEquals(1_850L, Money.toOre(18.5));
+    Assertions.assertEquals(10L, Money.toOre(0.1));
+    Assertions.assertEquals(1L, Money.toOre(0.005));
+    Assertions.assertEquals(0L, Money.toOre(0.004));
+    Assertions.assertEquals(13.0, Money.toKronor(1_300L));
+    Assertions.assertEquals(18L, Money.wholeKronor(1_899L));
+  }
+
+  @Test
+  void invalidAmountsAreRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Money.toOre(Double.NaN));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Money.toOre(Double.POSITIVE_INFINITY));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Money.toOre(1e17));
+  }
+
+  @Test
+  void sumsInOreDoNotDrift() {
+    double kronor = 0.0;
+    long ore = 0L;
+    for (int i = 0; i < 1_000; i++) {
+      kronor += 0.1;
+      ore += Money.toOre(0.1);
+    }
+    Assertions.assertNotEquals(100.0, kronor);
+    Assertions.assertEquals(10_000L, ore);
+    Assertions.assertEquals(100.0, Money.toKronor(ore));
+  }
+
+  @Test
+  void dailyTollsCompareInOre() {
+    LocalDate date = LocalDate.of(2024, 2, 12);
+    Assertions.assertEquals(new DailyToll("ABC123", date, 0.1 + 0.2), DailyToll.ofOre("ABC123", date, 30L));
+    Assertions.assertEquals(30L, new DailyToll("ABC123", date, 0.3).getFeeInOre());
+  }
+}
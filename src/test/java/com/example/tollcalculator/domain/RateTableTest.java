@@ -0,0 +1,70 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RateTableTest {
+  private static final double EPS = 1E-4;
+
+  private final List<TollRate> tollRates = Arrays.asList(
+      new TollRate(LocalTime.of(6, 0, 0), LocalTime.of(6, 29, 59), 8.0),
+      new TollRate(LocalTime.of(6, 30, 0), LocalTime.of(7, 59, 59), 13.0),
+      // overlaps both of the above, the highest rate wins
+      new TollRate(LocalTime.of(6, 15, 0), LocalTime.of(6, 44, 59), 10.0),
+      new TollRate(LocalTime.of(23, 0, 0), LocalTime.of(23, 59, 59), 5.0)
+  );
+
+  @Test
+  void rateTableMatchesOverlapMaxForEverySecondOfTheDay() {
+    RateTable rateTable = RateTable.compile(tollRates);
+    for (int secondOfDay = 0; secondOfDay < RateTable.SECONDS_PER_DAY; secondOfDay++) {
+      LocalTime time = LocalTime.ofSecondOfDay(secondOfDay);
+      double expected = tollRates.stream()
+          .filter(r -> r.contains(time))
+          .mapToDouble(TollRate::getRate)
+          .max()
+          .orElse(0.0);
+      Assertions.assertEquals(expected, rateTable.rateAtSecondOfDay(secondOfDay), EPS);
+      Assertions.assertEquals(expected, rateTable.rateAt(time), EPS);
+    }
+  }
+
+  @Test
+  void rateTableReturnsZeroInGaps() {
+    RateTable rateTable = RateTable.compile(tollRates);
+    Assertions.assertEquals(0, rateTable.rateAt(LocalTime.of(3, 0, 0)), EPS);
+    Assertions.assertEquals(0, rateTable.rateAt(LocalTime.of(8, 0, 0)), EPS);
+    Assertions.assertEquals(0, rateTable.rateAt(LocalTime.of(7, 59, 59, 500_000_000)), EPS);
+  }
+
+  @Test
+  void emptyRateTableIsTollFree() {
+    RateTable rateTable = RateTable.compile(List.of());
+    Assertions.assertEquals(0, rateTable.rateAt(LocalTime.NOON), EPS);
+  }
+
+  @Test
+  void segmentsGiveTheRateOfEverySecondOfTheDay() {
+    RateTable rateTable = RateTable.compile(tollRates);
+    int[] starts = rateTable.getSegmentStartSeconds();
+    long[] rates = rateTable.getSegmentRatesInOre();
+    Assertions.assertEquals(0, starts[0]);
+    for (int secondOfDay = 0; secondOfDay < RateTable.SECONDS_PER_DAY; secondOfDay++) {
+      int segment = 0;
+      while (segment + 1 < starts.length && starts[segment + 1] <= secondOfDay) {
+        segment++;
+      }
+      Assertions.assertEquals(rateTable.rateInOreAtSecondOfDay(secondOfDay), rates[segment]);
+    }
+  }
+
+  @Test
+  void secondOfDayOutOfRangeIsRejected() {
+    RateTable rateTable = RateTable.compile(tollRates);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> rateTable.rateAtSecondOfDay(RateTable.SECONDS_PER_DAY));
+  }
+}
@@ -0,0 +1,131 @@
+package com.example.tollcalculator.domain;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TariffTableTest {
+  private static final double EPS = 1E-4;
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+
+  private final VehicleClassRegistry registry = VehicleClassRegistry.defaults();
+  private final int privateCar = registry.codeOf("PrivateCar");
+  private final int motorbike = registry.codeOf("Motorbike");
+
+  @Test
+  void unrestrictedRatesChargeEveryVehicleOnEveryDay() {
+    TariffTable tariffs = TariffTable.compile(List.of(rate("07:00:00", "07:59:59", 18.0)), registry);
+
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, WEDNESDAY, 7 * 3600), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(-1, DayType.HOLIDAY, LocalDate.of(1990, 1, 1), 7 * 3600), EPS);
+    Assertions.assertSame(tariffs.getDefaultTable(), tariffs.tableFor(motorbike, DayType.WEEKEND, WEDNESDAY));
+  }
+
+  @Test
+  void restrictedRatesApplyOnlyToTheirVehicleClassesAndDayTypes() {
+    TariffTable tariffs = TariffTable.compile(List.of(
+        rate("07:00:00", "07:59:59", 18.0),
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 29, 59), 25.0, List.of("PrivateCar"),
+            List.of(DayType.WEEKDAY), null, null),
+        new TollRate(LocalTime.of(12, 0), LocalTime.of(12, 59, 59), 5.0, null,
+            List.of(DayType.WEEKEND), null, null)), registry);
+
+    Assertions.assertEquals(25.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, WEDNESDAY, 7 * 3600), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, WEDNESDAY, 7 * 3600 + 1800), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(motorbike, DayType.WEEKDAY, WEDNESDAY, 7 * 3600), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(-1, DayType.WEEKDAY, WEDNESDAY, 7 * 3600), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.HOLIDAY, WEDNESDAY, 7 * 3600), EPS);
+    Assertions.assertEquals(5.0, tariffs.rateAt(motorbike, DayType.WEEKEND, WEDNESDAY, 12 * 3600), EPS);
+    Assertions.assertEquals(0.0, tariffs.rateAt(motorbike, DayType.WEEKDAY, WEDNESDAY, 12 * 3600), EPS);
+    Assertions.assertEquals(18.0, tariffs.getDefaultTable().rateAtSecondOfDay(7 * 3600), EPS);
+  }
+
+  @Test
+  void ratesApplyWithinTheirValidityInclusive() {
+    TariffTable tariffs = TariffTable.compile(List.of(
+        rate("07:00:00", "07:59:59", 18.0),
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 22.0, null, null,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30))), registry);
+
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, LocalDate.of(2023, 12, 31), 25200), EPS);
+    Assertions.assertEquals(22.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, LocalDate.of(2024, 1, 1), 25200), EPS);
+    Assertions.assertEquals(22.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, LocalDate.of(2024, 6, 30), 25200), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, LocalDate.of(2024, 7, 1), 25200), EPS);
+  }
+
+  @Test
+  void lookupMatchesAScanOverAllRates() {
+    Random random = new Random(42);
+    List<String> names = List.of("PrivateCar", "Motorbike", "Tractor");
+    List<TollRate> tollRates = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int start = random.nextInt(RateTable.SECONDS_PER_DAY);
+      int end = Math.min(RateTable.SECONDS_PER_DAY - 1, start + random.nextInt(7200));
+      LocalDate validFrom = random.nextBoolean() ? null : WEDNESDAY.plusDays(random.nextInt(400) - 200);
+      tollRates.add(new TollRate(LocalTime.ofSecondOfDay(start), LocalTime.ofSecondOfDay(end),
+          random.nextInt(40), random.nextBoolean() ? null : List.of(names.get(random.nextInt(3))),
+          random.nextBoolean() ? null : List.of(DayType.values()[random.nextInt(3)]),
+          validFrom, validFrom == null ? null : validFrom.plusDays(random.nextInt(100))));
+    }
+    TariffTable tariffs = TariffTable.compile(tollRates, registry);
+
+    for (int i = 0; i < 20_000; i++) {
+      int vehicleClass = random.nextInt(registry.size() + 1) - 1;
+      DayType dayType = DayType.values()[random.nextInt(3)];
+      LocalDate date = WEDNESDAY.plusDays(random.nextInt(600) - 300);
+      int secondOfDay = random.nextInt(RateTable.SECONDS_PER_DAY);
+      String name = vehicleClass < 0 ? null : registry.nameOf(vehicleClass);
+      double expected = 0.0;
+      for (TollRate tollRate : tollRates) {
+        boolean valid = (tollRate.getValidFrom() == null || !date.isBefore(tollRate.getValidFrom())) &&
+            (tollRate.getValidTo() == null || !date.isAfter(tollRate.getValidTo()));
+        if (valid && tollRate.appliesTo(name, dayType) && tollRate.contains(LocalTime.ofSecondOfDay(secondOfDay))) {
+          expected = Math.max(expected, tollRate.getRate());
+        }
+      }
+      Assertions.assertEquals(expected, tariffs.rateAt(vehicleClass, dayType, date, secondOfDay), EPS);
+    }
+  }
+
+  @Test
+  void unknownVehicleClassIsRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> TariffTable.compile(List.of(
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 18.0, List.of("Hovercraft"), null, null, null)),
+        registry));
+  }
+
+  @Test
+  void stationRestrictedRatesApplyOnlyAtTheirStations() {
+    StationRegistry stations = StationRegistry.of(List.of("Lilla Essingen", "Skansbron"));
+    TariffTable tariffs = TariffTable.compile(List.of(
+        rate("07:00:00", "07:59:59", 18.0),
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 25.0, null, null, null, null,
+            List.of("Lilla Essingen"))), registry, stations);
+    int essingen = stations.codeOf("Lilla Essingen");
+    int skansbron = stations.codeOf("Skansbron");
+
+    Assertions.assertEquals(25.0, tariffs.rateAt(essingen, privateCar, DayType.WEEKDAY, WEDNESDAY, 25200), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(skansbron, privateCar, DayType.WEEKDAY, WEDNESDAY, 25200), EPS);
+    Assertions.assertEquals(18.0,
+        tariffs.rateAt(StationRegistry.NO_STATION, privateCar, DayType.WEEKDAY, WEDNESDAY, 25200), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(stations.size(), privateCar, DayType.WEEKDAY, WEDNESDAY, 25200), EPS);
+    Assertions.assertEquals(18.0, tariffs.rateAt(privateCar, DayType.WEEKDAY, WEDNESDAY, 25200), EPS);
+    Assertions.assertSame(tariffs.stationRatesFor(privateCar, DayType.WEEKDAY, WEDNESDAY),
+        tariffs.stationRatesFor(motorbike, DayType.WEEKEND, WEDNESDAY));
+  }
+
+  @Test
+  void unknownStationIsRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> TariffTable.compile(List.of(
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 18.0, null, null, null, null,
+            List.of("Skansbron"))), registry, StationRegistry.empty()));
+  }
+
+  private static TollRate rate(final String start, final String end, final double fee) {
+    return new TollRate(LocalTime.parse(start), LocalTime.parse(end), fee);
+  }
+}
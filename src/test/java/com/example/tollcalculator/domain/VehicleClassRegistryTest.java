@@ -0,0 +1,44 @@
+package com.example.tollcalculator.domain;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class VehicleClassRegistryTest {
+  private final VehicleClassRegistry defaults = VehicleClassRegistry.defaults();
+
+  @Test
+  void defaultsMapEveryVehicleSubclass() {
+    List<Vehicle> vehicles = List.of(new PrivateCar(), new Motorbike(), new Tractor(),
+        new EmergencyServiceVehicle(), new DiplomatServiceVehicle(), new ForeignServiceVehicle(),
+        new MilitaryServiceVehicle());
+    Assertions.assertEquals(vehicles.size(), defaults.size());
+    for (Vehicle vehicle : vehicles) {
+      int code = defaults.codeOf(vehicle);
+      Assertions.assertEquals(vehicle.getClass().getSimpleName(), defaults.nameOf(code));
+      Assertions.assertEquals(vehicle.isTollFree(), defaults.isTollFree(code));
+      Assertions.assertEquals(vehicle.isTollFree(), defaults.isTollFree(vehicle));
+    }
+    Assertions.assertEquals(0b1111110L, defaults.getTollFreeMask());
+  }
+
+  @Test
+  void configuredRegistryOverridesSubclassesAndFallsBackForUnknownOnes() {
+    VehicleClassRegistry registry = VehicleClassRegistry.of(List.of(
+        new VehicleClass("Truck", false),
+        new VehicleClass("Tractor", false)));
+    Assertions.assertEquals(0, registry.codeOf("Truck"));
+    Assertions.assertEquals(-1, registry.codeOf("Bus"));
+    Assertions.assertFalse(registry.isTollFree(new Tractor()));
+    Assertions.assertTrue(registry.isTollFree(new Motorbike()));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> registry.isTollFree(2));
+  }
+
+  @Test
+  void invalidRegistriesAreRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> VehicleClassRegistry.of(List.of(
+        new VehicleClass("Truck", false), new VehicleClass("Truck", true))));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> VehicleClassRegistry.of(List.of(
+        new VehicleClass(null, false))));
+  }
+}
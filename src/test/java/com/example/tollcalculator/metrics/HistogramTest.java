@@ -0,0 +1,41 @@
+package com.example.tollcalculator.metrics;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  @Test
+  void everyValueFallsIntoItsBucket() {
+    Random random = new Random(9);
+    for (int i = 0; i < 100_000; i++) {
+      long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      int bucket = Histogram.bucketOf(value);
+      Assertions.assertTrue(value <= Histogram.highestValueOf(bucket));
+      Assertions.assertTrue(bucket == 0 || value > Histogram.highestValueOf(bucket - 1));
+    }
+    Assertions.assertEquals(Long.MAX_VALUE, Histogram.highestValueOf(Histogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  void percentilesAreWithinBucketPrecision() {
+    Histogram histogram = new Histogram();
+    for (long value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+    Assertions.assertEquals(1000, histogram.getCount());
+    Assertions.assertEquals(1000, histogram.getMax());
+    Assertions.assertEquals(500.5, histogram.getMean(), 1E-9);
+    long median = histogram.getValueAtPercentile(50);
+    Assertions.assertTrue(median >= 500 && median <= 500 * 1.125, Long.toString(median));
+    Assertions.assertEquals(1000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  void emptyHistogramReportsZero() {
+    Histogram histogram = new Histogram();
+    Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+    Assertions.assertEquals(0.0, histogram.getMean());
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.tollcalculator.metrics;
+
+import com.example.tollcalculator.TollCalculator;
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.service.TollService;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class InMemoryTollMetricsTest {
+
+  @Test
+  void tollServiceReportsCalculationsCapAndTollFreeReasons() {
+    InMemoryTollMetrics metrics = new InMemoryTollMetrics();
+    TollService tollService = new TollServiceImpl(ConfigurationManager.getDefault(), metrics);
+    int[] capped = {7 * 3600, 8 * 3600 + 300, 15 * 3600 + 1800, 16 * 3600 + 2700};
+    tollService.calculateTollForPassesOfSameDay(new PrivateCar(), LocalDate.of(2023, 5, 10), capped);
+    tollService.calculateTollForPassesOfSameDay(new Tractor(), LocalDate.of(2023, 5, 10), capped);
+    tollService.calculateTollForPassesOfSameDay(new PrivateCar(), LocalDate.of(2023, 5, 13), capped);
+    tollService.calculateTollForPassesOfSameDay(new PrivateCar(),
+        List.of(LocalDateTime.of(2023, 5, 1, 7, 0)));
+
+    Assertions.assertEquals(4, metrics.getCalculationCount());
+    Assertions.assertEquals(4, metrics.getPassesPerCalculation().getMax());
+    Assertions.assertEquals(1, metrics.getDailyCapCount());
+    Assertions.assertEquals(1, metrics.getTollFreeCount(TollFreeReason.VEHICLE));
+    Assertions.assertEquals(1, metrics.getTollFreeCount(TollFreeReason.WEEKEND));
+    Assertions.assertEquals(1, metrics.getTollFreeCount(TollFreeReason.HOLIDAY));
+    Assertions.assertEquals(4, metrics.getRateLookupCount());
+    Assertions.assertTrue(metrics.getHolidayLookupCount() >= 3);
+  }
+
+  @Test
+  void tollCalculatorReportsRequests() {
+    InMemoryTollMetrics metrics = new InMemoryTollMetrics();
+    TollCalculator calculator = new TollCalculator(metrics);
+    Date pass = Date.from(LocalDateTime.of(2023, 5, 10, 7, 0).atZone(ZoneId.systemDefault()).toInstant());
+    Assertions.assertEquals(18, calculator.getTollFee(new PrivateCar(), pass));
+    Assertions.assertEquals(1, metrics.getTollFeeRequestLatency().getCount());
+    Assertions.assertEquals(1, metrics.getCalculationCount());
+  }
+
+  @Test
+  void noopMetricsAreDisabled() {
+    Assertions.assertFalse(TollMetrics.noop().isEnabled());
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.tollcalculator.pipeline;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.impl.OffHeapLiveTollStore;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import com.example.tollcalculator.time.PassTimeResolver;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PassPipelineTest {
+  private static final double EPS = 1E-4;
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+
+  private final ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+  private final int privateCar = configuration.current().getVehicleClasses().codeOf("PrivateCar");
+  private final PassTimeResolver timeResolver = new PassTimeResolver(PassTimeResolver.STOCKHOLM);
+  // written by the billing thread only and read after close
+  private final Map<Long, Double> totals = new HashMap<>();
+
+  @Test
+  void passesOfManyProducersAreBilledByTheDayKernel() throws InterruptedException {
+    int producers = 4;
+    int vehiclesPerProducer = 250;
+    Random random = new Random(24);
+    int[][] passes = new int[producers * vehiclesPerProducer][];
+    for (int vehicle = 0; vehicle < passes.length; vehicle++) {
+      passes[vehicle] = random.ints(1 + random.nextInt(10), 5 * 3600, 19 * 3600).sorted().toArray();
+    }
+    // a small ring forces the producers to wait for billing
+    PassPipeline pipeline = new PassPipeline(64, timeResolver, newStore(), this::record);
+    pipeline.start();
+    List<Thread> threads = new ArrayList<>();
+    for (int producer = 0; producer < producers; producer++) {
+      int first = producer * vehiclesPerProducer;
+      Thread thread = new Thread(() -> {
+        for (int round = 0; round < 10; round++) {
+          for (int vehicle = first; vehicle < first + vehiclesPerProducer; vehicle++) {
+            if (round < passes[vehicle].length) {
+              pipeline.publish(vehicle, privateCar, epochMilli(passes[vehicle][round]));
+            }
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    pipeline.close();
+
+    TollServiceImpl kernel = new TollServiceImpl(configuration);
+    for (int vehicle = 0; vehicle < passes.length; vehicle++) {
+      Assertions.assertEquals(kernel.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes[vehicle], 0,
+          passes[vehicle].length), totals.get((long) vehicle), EPS);
+    }
+    long passCount = Arrays.stream(passes).mapToLong(p -> p.length).sum();
+    for (PipelineStageStats stats : pipeline.getStageStats()) {
+      Assertions.assertEquals(passCount, stats.getProcessedCount(), stats.getName());
+      Assertions.assertEquals(0L, stats.getQueueDepth(), stats.getName());
+      Assertions.assertEquals(0L, stats.getFailedCount(), stats.getName());
+    }
+    Assertions.assertTrue(pipeline.getStageStats().get(2).getBatchCount() <= passCount);
+  }
+
+  @Test
+  void fullRingRejectsPassesUntilBillingCatchesUp() {
+    PassPipeline pipeline = new PassPipeline(4, timeResolver, newStore(), this::record);
+    for (int i = 0; i < 4; i++) {
+      Assertions.assertTrue(pipeline.tryPublish(i, privateCar, StationRegistry.NO_STATION,
+          epochMilli(7 * 3600)));
+    }
+    Assertions.assertFalse(pipeline.tryPublish(4, privateCar, StationRegistry.NO_STATION, epochMilli(7 * 3600)));
+    Assertions.assertEquals(1L, pipeline.getBackpressureCount());
+    Assertions.assertEquals(4L, pipeline.getStageStats().get(0).getQueueDepth());
+
+    pipeline.start();
+    pipeline.publish(4, privateCar, epochMilli(7 * 3600));
+    pipeline.close();
+    Assertions.assertEquals(5, totals.size());
+    Assertions.assertEquals(18.0, totals.get(4L), EPS);
+    Assertions.assertThrows(IllegalStateException.class, () -> pipeline.publish(5, privateCar, 0L));
+  }
+
+  @Test
+  void rejectedPassesAreCountedAndSkipped() {
+    PassPipeline pipeline = new PassPipeline(16, timeResolver, newStore(), this::record);
+    pipeline.start();
+    pipeline.publish(1, privateCar, epochMilli(8 * 3600));
+    // older than the hourly window of the vehicle
+    pipeline.publish(1, privateCar, epochMilli(6 * 3600));
+    pipeline.publish(1, privateCar, epochMilli(15 * 3600 + 45 * 60));
+    pipeline.close();
+
+    Assertions.assertEquals(13.0 + 18.0, totals.get(1L), EPS);
+    PipelineStageStats billing = pipeline.getStageStats().get(2);
+    Assertions.assertEquals("billing", billing.getName());
+    Assertions.assertEquals(3L, billing.getProcessedCount());
+    Assertions.assertEquals(1L, billing.getFailedCount());
+  }
+
+  @Test
+  void errorsOfTheSinkAreCountedAndDoNotStopBilling() {
+    PassPipeline pipeline = new PassPipeline(16, timeResolver, newStore(), (vehicleId, epochDay, fee) -> {
+      if (vehicleId == 2L) {
+        throw new NoClassDefFoundError("com/example/Ledger");
+      }
+      record(vehicleId, epochDay, fee);
+    });
+    pipeline.start();
+    for (long vehicle = 1; vehicle <= 3; vehicle++) {
+      pipeline.publish(vehicle, privateCar, epochMilli(7 * 3600));
+    }
+    pipeline.close();
+
+    Assertions.assertEquals(Map.of(1L, 18.0, 3L, 18.0), totals);
+    Assertions.assertEquals(1L, pipeline.getStageStats().get(2).getFailedCount());
+  }
+
+  @Test
+  void virtualMachineErrorOfTheSinkStopsBillingAndCloseReturns() {
+    PassPipeline pipeline = new PassPipeline(16, timeResolver, newStore(), (vehicleId, epochDay, fee) -> {
+      if (vehicleId == 2L) {
+        throw new StackOverflowError();
+      }
+      record(vehicleId, epochDay, fee);
+    });
+    pipeline.start();
+    for (long vehicle = 1; vehicle <= 3; vehicle++) {
+      pipeline.publish(vehicle, privateCar, epochMilli(7 * 3600));
+    }
+    Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::close);
+
+    Assertions.assertEquals(Map.of(1L, 18.0), totals);
+    Assertions.assertEquals(0L, pipeline.getStageStats().get(2).getFailedCount());
+  }
+
+  @Test
+  void capacityMustBeAPowerOfTwo() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new PassPipeline(100, timeResolver, newStore(), this::record));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new PassPipeline(0, timeResolver, newStore(), this::record));
+  }
+
+  private OffHeapLiveTollStore newStore() {
+    return new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 1_000);
+  }
+
+  private void record(final long vehicleId, final long epochDay, final double fee) {
+    if (epochDay == WEDNESDAY.toEpochDay()) {
+      totals.put(vehicleId, fee);
+    }
+  }
+
+  private long epochMilli(final int secondOfDay) {
+    return WEDNESDAY.atStartOfDay(PassTimeResolver.STOCKHOLM).plusSeconds(secondOfDay).toInstant().toEpochMilli();
+  }
+}
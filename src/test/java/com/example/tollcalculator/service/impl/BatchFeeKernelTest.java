@@ -0,0 +1,112 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.RateTable;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchFeeKernelTest {
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final LocalDate SATURDAY = LocalDate.of(2023, 5, 13);
+
+  private final ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+  private final TollServiceImpl tollService = new TollServiceImpl(configuration);
+  private final int privateCar = configuration.current().getVehicleClasses().codeOf("PrivateCar");
+  private final RateTable rateTable = configuration.current().rateTableFor(privateCar, WEDNESDAY);
+
+  // 1001 vehicle-days, so the last group of lanes is partly empty, with empty, single-pass and capped days and
+  // an empty last day, which starts at the end of the passes
+  private final int dayCount = 1_001;
+  private final int[] dayStarts = new int[dayCount + 1];
+  private final int[] secondsOfDay;
+
+  BatchFeeKernelTest() {
+    Random random = new Random(23);
+    int[][] days = new int[dayCount][];
+    for (int day = 0; day < dayCount; day++) {
+      int passes = day == dayCount - 1 ? 0 : random.nextInt(day % 10 == 0 ? 40 : 8);
+      days[day] = random.ints(passes, 0, RateTable.SECONDS_PER_DAY).sorted().toArray();
+      dayStarts[day + 1] = dayStarts[day] + days[day].length;
+    }
+    secondsOfDay = new int[dayStarts[dayCount]];
+    for (int day = 0; day < dayCount; day++) {
+      System.arraycopy(days[day], 0, secondsOfDay, dayStarts[day], days[day].length);
+    }
+  }
+
+  @Test
+  void scalarKernelMatchesTheDayKernel() {
+    assertMatchesTheDayKernel(BatchFeeKernel.scalar());
+  }
+
+  @Test
+  void vectorizedKernelMatchesTheDayKernel() {
+    // the build starts the tests with --add-modules jdk.incubator.vector
+    if (ModuleLayer.boot().findModule(BatchFeeKernel.VECTOR_MODULE).isPresent()) {
+      assertMatchesTheDayKernel(BatchFeeKernel.vectorized());
+    } else {
+      Assertions.assertThrows(IllegalStateException.class, BatchFeeKernel::vectorized);
+      Assertions.assertSame(BatchFeeKernel.scalar(), BatchFeeKernel.best());
+    }
+  }
+
+  @Test
+  void bestKernelMatchesTheDayKernel() {
+    assertMatchesTheDayKernel(BatchFeeKernel.best());
+  }
+
+  @Test
+  void emptyLastVehicleDayCostsNothing() {
+    int[] passes = {7 * 3600, 8 * 3600};
+    int[] starts = {0, 2, 2};
+    for (BatchFeeKernel kernel : List.of(BatchFeeKernel.scalar(), BatchFeeKernel.best())) {
+      long[] fees = new long[2];
+      kernel.calculateTollsInOre(rateTable, passes, starts, 2, fees);
+      Assertions.assertEquals(0L, fees[1]);
+      Assertions.assertTrue(fees[0] > 0L);
+    }
+    long[] fees = new long[2];
+    tollService.calculateTollsInOreForVehicleDays(privateCar, WEDNESDAY, passes, starts, 2, fees);
+    Assertions.assertEquals(0L, fees[1]);
+  }
+
+  @Test
+  void unsortedPassesAreRejected() {
+    int[] passes = {7 * 3600, 6 * 3600};
+    int[] starts = {0, 2};
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> BatchFeeKernel.best().calculateTollsInOre(rateTable, passes, starts, 1, new long[1]));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> BatchFeeKernel.scalar().calculateTollsInOre(rateTable, passes, starts, 1, new long[1]));
+  }
+
+  @Test
+  void vehicleDaysOnTollFreeDaysCostNothing() {
+    long[] fees = new long[dayCount];
+    Arrays.fill(fees, -1L);
+    tollService.calculateTollsInOreForVehicleDays(privateCar, SATURDAY, secondsOfDay, dayStarts, dayCount, fees);
+    Assertions.assertTrue(Arrays.stream(fees).allMatch(fee -> fee == 0L));
+  }
+
+  private void assertMatchesTheDayKernel(final BatchFeeKernel kernel) {
+    long[] fees = new long[dayCount];
+    kernel.calculateTollsInOre(rateTable, secondsOfDay, dayStarts, dayCount, fees);
+    long[] serviceFees = new long[dayCount];
+    tollService.calculateTollsInOreForVehicleDays(privateCar, WEDNESDAY, secondsOfDay, dayStarts, dayCount,
+        serviceFees);
+    boolean capped = false;
+    for (int day = 0; day < dayCount; day++) {
+      long expected = tollService.calculateTollInOreForPassesOfSameDay(privateCar, WEDNESDAY, secondsOfDay,
+          dayStarts[day], dayStarts[day + 1]);
+      Assertions.assertEquals(expected, fees[day], "vehicle-day " + day);
+      Assertions.assertEquals(expected, serviceFees[day], "vehicle-day " + day);
+      capped |= expected == TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE;
+    }
+    Assertions.assertTrue(capped);
+  }
+}
@@ -0,0 +1,170 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Motorbike;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.service.BulkTollService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BulkTollServiceImplTest {
+  private static final double EPS = 1E-4;
+
+  private final Vehicle privateCar = new PrivateCar();
+  private final Vehicle motorbike = new Motorbike();
+
+  private final List<VehiclePass> passes = Arrays.asList(
+      new VehiclePass("CAR-2", privateCar, LocalDateTime.of(2023, 5, 11, 7, 15, 0)), // 18
+      new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 6, 45, 0)), // 13
+      new VehiclePass("BIKE-1", motorbike, LocalDateTime.of(2023, 5, 10, 7, 15, 0)), // toll-free
+      new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 11, 15, 45, 0)), // 18
+      new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 6, 15, 0)), // 8
+      new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 15, 15, 0)), // 13
+      new VehiclePass("CAR-2", privateCar, LocalDateTime.of(2023, 5, 11, 6, 20, 0)), // 8
+      new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 13, 15, 15, 0)) // Saturday
+  );
+
+  private final List<DailyToll> expected = Arrays.asList(
+      new DailyToll("BIKE-1", LocalDate.of(2023, 5, 10), 0.0),
+      new DailyToll("CAR-1", LocalDate.of(2023, 5, 10), 13.0 + 13.0),
+      new DailyToll("CAR-1", LocalDate.of(2023, 5, 11), 18.0),
+      new DailyToll("CAR-1", LocalDate.of(2023, 5, 13), 0.0),
+      new DailyToll("CAR-2", LocalDate.of(2023, 5, 11), 18.0)
+  );
+
+  @Test
+  void calculateDailyTollsInMemory() {
+    BulkTollService bulkTollService = new BulkTollServiceImpl();
+    List<DailyToll> dailyTolls = new ArrayList<>();
+    bulkTollService.calculateDailyTolls(passes.iterator(), dailyTolls::add);
+    assertDailyTolls(dailyTolls);
+  }
+
+  @Test
+  void calculateDailyTollsSpillingToDisk() throws Exception {
+    Path spillDirectory = Files.createTempDirectory("bulk-toll-test");
+    BulkTollService bulkTollService =
+        new BulkTollServiceImpl(new TollServiceImpl(), 3, spillDirectory);
+    List<DailyToll> dailyTolls = new ArrayList<>();
+    bulkTollService.calculateDailyTolls(passes.iterator(), dailyTolls::add);
+    assertDailyTolls(dailyTolls);
+    try (var leftovers = Files.list(spillDirectory)) {
+      Assertions.assertEquals(0, leftovers.count());
+    }
+    Files.delete(spillDirectory);
+  }
+
+  @Test
+  void calculateDailyTollsMergingFewRunsAtATime() throws Exception {
+    Path spillDirectory = Files.createTempDirectory("bulk-toll-test");
+    // one run per pass, merged two at a time
+    BulkTollService bulkTollService =
+        new BulkTollServiceImpl(new TollServiceImpl(), 1, 2, spillDirectory);
+    List<DailyToll> dailyTolls = new ArrayList<>();
+    List<Long> openRuns = new ArrayList<>();
+    bulkTollService.calculateDailyTolls(passes.iterator(), dailyToll -> {
+      dailyTolls.add(dailyToll);
+      try (var runs = Files.list(spillDirectory)) {
+        openRuns.add(runs.count());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    assertDailyTolls(dailyTolls);
+    Assertions.assertTrue(openRuns.stream().allMatch(count -> count <= 2), openRuns::toString);
+    try (var leftovers = Files.list(spillDirectory)) {
+      Assertions.assertEquals(0, leftovers.count());
+    }
+    Files.delete(spillDirectory);
+  }
+
+  @Test
+  void mergeFanInMustBeAtLeastTwo() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new BulkTollServiceImpl(new TollServiceImpl(), 1, 1, Path.of(".")));
+  }
+
+  @Test
+  void calculateDailyTollsWithoutPasses() {
+    BulkTollService bulkTollService = new BulkTollServiceImpl();
+    List<DailyToll> dailyTolls = new ArrayList<>();
+    bulkTollService.calculateDailyTolls(List.<VehiclePass>of().iterator(), dailyTolls::add);
+    Assertions.assertTrue(dailyTolls.isEmpty());
+  }
+
+  @Test
+  void calculateDailyTollsByTheRatesOfEveryStation() throws Exception {
+    StationRegistry stations = StationRegistry.of(List.of("Lilla Essingen", "Skansbron"));
+    TollConfiguration config = new TollConfiguration(List.of(
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 18.0),
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 25.0, null, null, null, null,
+            List.of("Lilla Essingen"))), Map.of(), VehicleClassRegistry.defaults(), stations);
+    TollServiceImpl tollService = new TollServiceImpl(new ConfigurationManager(() -> config));
+    List<VehiclePass> stationPasses = List.of(
+        new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 7, 0, 0), stations.codeOf("Skansbron")),
+        new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 7, 30, 0),
+            stations.codeOf("Lilla Essingen")),
+        new VehiclePass("CAR-2", privateCar, LocalDateTime.of(2023, 5, 10, 7, 15, 0), stations.codeOf("Skansbron")));
+    Path spillDirectory = Files.createTempDirectory("bulk-toll-test");
+    try {
+      for (BulkTollService bulkTollService : List.of(new BulkTollServiceImpl(tollService),
+          new BulkTollServiceImpl(tollService, 2, spillDirectory))) {
+        List<DailyToll> dailyTolls = new ArrayList<>();
+        bulkTollService.calculateDailyTolls(stationPasses.iterator(), dailyTolls::add);
+        Assertions.assertEquals(2, dailyTolls.size());
+        Assertions.assertEquals(25.0, dailyTolls.get(0).getFee(), EPS);
+        Assertions.assertEquals(18.0, dailyTolls.get(1).getFee(), EPS);
+      }
+    } finally {
+      Files.delete(spillDirectory);
+    }
+  }
+
+  @Test
+  void calculateDailyTollsWithSubSecondPasses() throws Exception {
+    // 60 minutes and 59.2 seconds apart, so in one hourly window : max(8, 18) = 18
+    List<VehiclePass> subSecondPasses = List.of(
+        new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 7, 1, 0, 100_000_000)),
+        new VehiclePass("CAR-1", privateCar, LocalDateTime.of(2023, 5, 10, 6, 0, 0, 900_000_000)));
+    Assertions.assertEquals(18.0, new TollServiceImpl().calculateTollForPassesOfSameDay(privateCar,
+        List.of(subSecondPasses.get(1).getTimestamp(), subSecondPasses.get(0).getTimestamp())), EPS);
+    Path spillDirectory = Files.createTempDirectory("bulk-toll-test");
+    try {
+      for (BulkTollService bulkTollService : List.of(new BulkTollServiceImpl(),
+          new BulkTollServiceImpl(new TollServiceImpl(), 1, spillDirectory))) {
+        List<DailyToll> dailyTolls = new ArrayList<>();
+        bulkTollService.calculateDailyTolls(subSecondPasses.iterator(), dailyTolls::add);
+        Assertions.assertEquals(List.of(new DailyToll("CAR-1", LocalDate.of(2023, 5, 10), 18.0)), dailyTolls);
+      }
+    } finally {
+      Files.delete(spillDirectory);
+    }
+  }
+
+  private void assertDailyTolls(final List<DailyToll> dailyTolls) {
+    Assertions.assertEquals(expected.size(), dailyTolls.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assertions.assertEquals(expected.get(i).getVehicleId(), dailyTolls.get(i).getVehicleId());
+      Assertions.assertEquals(expected.get(i).getDate(), dailyTolls.get(i).getDate());
+      Assertions.assertEquals(expected.get(i).getFee(), dailyTolls.get(i).getFee(), EPS);
+    }
+  }
+}
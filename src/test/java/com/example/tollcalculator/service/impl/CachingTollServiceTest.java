@@ -0,0 +1,121 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.RateTable;
+import com.example.tollcalculator.domain.TollRate;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CachingTollServiceTest {
+  private static final double EPS = 1E-4;
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final LocalDate THURSDAY = LocalDate.of(2023, 5, 11);
+
+  private final Vehicle privateCar = new PrivateCar();
+  private final ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+
+  @Test
+  void repeatedPatternOnAnotherWeekdayIsAHit() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 100);
+    int[] passes = {secondOfDay(7, 15, 0), secondOfDay(16, 30, 0)};
+    Assertions.assertEquals(36.0, cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes), EPS);
+    Assertions.assertEquals(36.0, cache.calculateTollForPassesOfSameDay(privateCar, THURSDAY, passes), EPS);
+    Assertions.assertEquals(36.0, cache.calculateTollForPassesOfSameDay(privateCar,
+        List.of(THURSDAY.atTime(16, 30), THURSDAY.atTime(7, 15))), EPS);
+    Assertions.assertEquals(1, cache.getMissCount());
+    Assertions.assertEquals(2, cache.getHitCount());
+    Assertions.assertEquals(1, cache.size());
+  }
+
+  @Test
+  void tollFreeDaysAreNotCached() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 100);
+    int[] passes = {secondOfDay(7, 15, 0)};
+    Assertions.assertEquals(0.0, cache.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 1), passes), EPS);
+    Assertions.assertEquals(0, cache.getMissCount() + cache.getHitCount());
+  }
+
+  @Test
+  void leastRecentlyUsedPatternIsEvicted() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 2);
+    int[] first = {secondOfDay(6, 15, 0)};
+    int[] second = {secondOfDay(6, 45, 0)};
+    int[] third = {secondOfDay(7, 15, 0)};
+    cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, first);
+    cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, second);
+    cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, first);
+    cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, third);
+    Assertions.assertEquals(1, cache.getEvictionCount());
+    // first was used more recently than second and is still cached
+    cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, first);
+    Assertions.assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  void publishedConfigurationInvalidatesCache() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 100);
+    int[] passes = {secondOfDay(7, 15, 0)};
+    Assertions.assertEquals(18.0, cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes), EPS);
+    configuration.publish(new TollConfiguration(
+        RateTable.compile(List.of(new TollRate(LocalTime.of(6, 0), LocalTime.of(18, 0), 25.0))),
+        configuration.current().getHolidays()));
+    Assertions.assertEquals(25.0, cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes), EPS);
+    Assertions.assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  void cachedFeesMatchUncachedFees() {
+    TollService uncached = new TollServiceImpl(configuration);
+    CachingTollService cache = new CachingTollService(uncached, configuration, 50);
+    Random random = new Random(5);
+    for (int run = 0; run < 2_000; run++) {
+      // few distinct patterns so that most of them repeat
+      Random pattern = new Random(random.nextInt(80));
+      int[] passes = pattern.ints(1 + pattern.nextInt(6), 5 * 3600, 20 * 3600).sorted().toArray();
+      LocalDate date = WEDNESDAY.plusDays(random.nextInt(30));
+      Assertions.assertEquals(uncached.calculateTollForPassesOfSameDay(privateCar, date, passes),
+          cache.calculateTollForPassesOfSameDay(privateCar, date, passes), EPS);
+    }
+    Assertions.assertTrue(cache.getHitCount() > 0);
+  }
+
+  @Test
+  void subSecondPassesAreNotAnsweredByTheWholeSecondPattern() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 100);
+    // 61 minutes apart, two hourly windows : 8 + 18
+    Assertions.assertEquals(26.0, cache.calculateTollForPassesOfSameDay(privateCar,
+        List.of(WEDNESDAY.atTime(6, 0, 0), WEDNESDAY.atTime(7, 1, 0))), EPS);
+    // 60 minutes and 59.2 seconds apart, one hourly window : max(8, 18)
+    Assertions.assertEquals(18.0, cache.calculateTollForPassesOfSameDay(privateCar,
+        List.of(WEDNESDAY.atTime(6, 0, 0, 900_000_000), WEDNESDAY.atTime(7, 1, 0, 100_000_000))), EPS);
+    Assertions.assertEquals(18.0, cache.calculateTollForPassesOfSameDay(privateCar,
+        List.of(THURSDAY.atTime(7, 1, 0, 100_000_000), THURSDAY.atTime(6, 0, 0, 900_000_000))), EPS);
+    Assertions.assertEquals(2, cache.getMissCount());
+    Assertions.assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  void stripedCacheKeepsItsMaximumSize() {
+    CachingTollService cache = new CachingTollService(new TollServiceImpl(configuration), configuration, 100);
+    for (int minute = 0; minute < 300; minute++) {
+      cache.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, new int[] {secondOfDay(6, 0, 0) + minute * 60});
+    }
+    Assertions.assertTrue(cache.size() <= 100);
+    Assertions.assertEquals(300 - cache.size(), cache.getEvictionCount());
+    cache.invalidateAll();
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  private static int secondOfDay(final int hour, final int minute, final int second) {
+    return hour * 3600 + minute * 60 + second;
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.DailyTollAccumulator;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DailyTollAccumulatorImplTest {
+  private static final double EPS = 1E-4;
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+
+  private final TollService tollService = new TollServiceImpl();
+  private final Vehicle privateCar = new PrivateCar();
+
+  @Test
+  void feeSoFarFollowsInOrderPasses() {
+    DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY);
+    Assertions.assertEquals(8.0, accumulator.addPass(secondOfDay(6, 15, 0)), EPS);
+    Assertions.assertEquals(13.0, accumulator.addPass(secondOfDay(6, 45, 0)), EPS);
+    Assertions.assertEquals(18.0, accumulator.addPass(secondOfDay(7, 15, 0)), EPS);
+    // new hourly window
+    Assertions.assertEquals(36.0, accumulator.addPass(secondOfDay(7, 45, 0)), EPS);
+    Assertions.assertEquals(36.0, accumulator.closeDay(), EPS);
+  }
+
+  @Test
+  void feeSoFarStopsAtDailyCap() {
+    DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY);
+    accumulator.addPass(secondOfDay(7, 0, 0)); // 18
+    accumulator.addPass(secondOfDay(8, 5, 0)); // 13
+    accumulator.addPass(secondOfDay(15, 30, 0)); // 18
+    Assertions.assertFalse(accumulator.isCapped());
+    Assertions.assertEquals(60.0, accumulator.addPass(secondOfDay(16, 45, 0)), EPS); // 18
+    Assertions.assertTrue(accumulator.isCapped());
+    Assertions.assertEquals(60.0, accumulator.addPass(secondOfDay(17, 50, 0)), EPS);
+    Assertions.assertEquals(60.0, accumulator.closeDay(), EPS);
+  }
+
+  @Test
+  void tollFreeVehicleAndDayAreNeverBilled() {
+    DailyTollAccumulator tractor = tollService.openDay(new Tractor(), WEDNESDAY);
+    Assertions.assertEquals(0.0, tractor.addPass(secondOfDay(7, 15, 0)), EPS);
+    DailyTollAccumulator mayDay = tollService.openDay(privateCar, LocalDate.of(2023, 5, 1));
+    Assertions.assertEquals(0.0, mayDay.addPass(LocalDateTime.of(2023, 5, 1, 7, 15, 0)), EPS);
+  }
+
+  @Test
+  void lateArrivalWithinDelayIsBilledInOrder() {
+    DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY, 600);
+    accumulator.addPass(secondOfDay(7, 20, 0));
+    // arrives late but opens the hourly window at 06:25, max(8,18) = 18
+    accumulator.addPass(secondOfDay(6, 25, 0));
+    // 07:30 is more than an hour after 06:25 , new window
+    accumulator.addPass(secondOfDay(7, 30, 0));
+    Assertions.assertEquals(36.0, accumulator.closeDay(), EPS);
+  }
+
+  @Test
+  void passOlderThanCurrentWindowIsRejected() {
+    DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY);
+    accumulator.addPass(secondOfDay(7, 20, 0));
+    accumulator.addPass(secondOfDay(7, 25, 0));
+    // within the current window, billed exactly
+    Assertions.assertEquals(18.0, accumulator.addPass(secondOfDay(7, 22, 0)), EPS);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> accumulator.addPass(secondOfDay(6, 25, 0)));
+  }
+
+  @Test
+  void closedDayRejectsPasses() {
+    DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY);
+    accumulator.closeDay();
+    Assertions.assertThrows(IllegalStateException.class,
+        () -> accumulator.addPass(secondOfDay(7, 20, 0)));
+  }
+
+  @Test
+  void shuffledPassesWithinDelayMatchBatchCalculation() {
+    Random random = new Random(11);
+    for (int run = 0; run < 500; run++) {
+      int[] passes = random.ints(1 + random.nextInt(15), 5 * 3600, 20 * 3600).sorted().toArray();
+      int[] arrivals = passes.clone();
+      // swap neighbours that are less than five minutes apart
+      for (int i = 1; i < arrivals.length; i++) {
+        if (arrivals[i] - arrivals[i - 1] < 300 && random.nextBoolean()) {
+          int swap = arrivals[i];
+          arrivals[i] = arrivals[i - 1];
+          arrivals[i - 1] = swap;
+        }
+      }
+      DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY, 300);
+      Arrays.stream(arrivals).forEach(accumulator::addPass);
+      Assertions.assertEquals(tollService.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes),
+          accumulator.closeDay(), EPS);
+    }
+  }
+
+  @Test
+  void subSecondPassesAreBilledLikeTheListCalculation() {
+    // 60 minutes and 59.2 seconds apart, so in one hourly window : max(8, 18) = 18
+    LocalDateTime first = LocalDateTime.of(2023, 5, 10, 6, 0, 0, 900_000_000);
+    LocalDateTime second = LocalDateTime.of(2023, 5, 10, 7, 1, 0, 100_000_000);
+    Assertions.assertEquals(18.0, tollService.calculateTollForPassesOfSameDay(privateCar, List.of(first, second)),
+        EPS);
+    for (int maxDelaySeconds : new int[] {0, 300}) {
+      DailyTollAccumulator accumulator = tollService.openDay(privateCar, WEDNESDAY, maxDelaySeconds);
+      accumulator.addPass(first);
+      accumulator.addPass(second);
+      Assertions.assertEquals(18.0, accumulator.closeDay(), EPS);
+    }
+  }
+
+  private static int secondOfDay(final int hour, final int minute, final int second) {
+    return hour * 3600 + minute * 60 + second;
+  }
+}
@@ -18,4 +18,17 @@ class HolidayServiceImplTest {
     boolean isHoliday = holidayService.isHoliday(LocalDate.of(2023, 5, 2));
     Assertions.assertFalse(isHoliday);
   }
-}
\ No newline at end of file
+
+  @Test
+  void isChristmasDayOfAnUnlistedYearAHoliday() {
+    boolean isHoliday = holidayService.isHoliday(LocalDate.of(2024, 12, 25));
+    Assertions.assertTrue(isHoliday);
+  }
+
+  @Test
+  void isSaturdayATollFreeDay() {
+    Assertions.assertTrue(holidayService.isTollFreeDay(LocalDate.of(2023, 5, 6)));
+    Assertions.assertFalse(holidayService.isHoliday(LocalDate.of(2023, 5, 6)));
+    Assertions.assertFalse(holidayService.isTollFreeDay(LocalDate.of(2023, 5, 2)));
+  }
+}
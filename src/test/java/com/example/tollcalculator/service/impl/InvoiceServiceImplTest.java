@@ -0,0 +1,132 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.Invoice;
+import com.example.tollcalculator.domain.MonthlyToll;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.InvoiceService;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class InvoiceServiceImplTest {
+  private static final double EPS = 1E-4;
+
+  private final InvoiceService invoiceService = new InvoiceServiceImpl();
+  private final TollService tollService = new TollServiceImpl();
+  private final Vehicle privateCar = new PrivateCar();
+
+  @Test
+  void dailyBreakdownMatchesTheDailyCalculation() {
+    List<LocalDateTime> passes = randomPasses(YearMonth.of(2023, 5), 300, 42);
+    List<LocalDateTime> shuffled = new ArrayList<>(passes);
+    Collections.shuffle(shuffled, new Random(1));
+
+    Invoice invoice = invoiceService.createInvoice("ABC123", privateCar, YearMonth.of(2023, 5), shuffled);
+
+    double total = 0;
+    for (DailyToll dailyToll : invoice.getDailyTolls()) {
+      List<LocalDateTime> passesOfDay = passes.stream()
+          .filter(pass -> pass.toLocalDate().equals(dailyToll.getDate()))
+          .collect(Collectors.toList());
+      Assertions.assertEquals(tollService.calculateTollForPassesOfSameDay(privateCar, passesOfDay),
+          dailyToll.getFee(), EPS);
+      total += dailyToll.getFee();
+    }
+    Assertions.assertEquals(passes.stream().map(LocalDateTime::toLocalDate).distinct().count(),
+        invoice.getDailyTolls().size());
+    Assertions.assertEquals(1, invoice.getMonthlyTolls().size());
+    Assertions.assertEquals(total, invoice.getTotal(), EPS);
+  }
+
+  @Test
+  void tollFreeDaysAndVehiclesAreListedWithoutFee() {
+    List<LocalDateTime> passes = List.of(
+        LocalDateTime.of(2023, 5, 13, 7, 0),
+        LocalDateTime.of(2023, 5, 15, 7, 0));
+
+    Invoice invoice = invoiceService.createInvoice("ABC123", privateCar, YearMonth.of(2023, 5), passes);
+    Invoice tractorInvoice = invoiceService.createInvoice("T1", new Tractor(), YearMonth.of(2023, 5), passes);
+
+    Assertions.assertEquals(List.of(
+        new DailyToll("ABC123", LocalDate.of(2023, 5, 13), 0.0),
+        new DailyToll("ABC123", LocalDate.of(2023, 5, 15), 18.0)), invoice.getDailyTolls());
+    Assertions.assertEquals(0.0, tractorInvoice.getTotal(), EPS);
+  }
+
+  @Test
+  void annualInvoiceHasEveryMonth() {
+    List<LocalDateTime> passes = List.of(
+        LocalDateTime.of(2023, 2, 15, 7, 0),
+        LocalDateTime.of(2023, 11, 15, 7, 0));
+
+    Invoice invoice = invoiceService.createInvoice("ABC123", privateCar, Year.of(2023), passes);
+
+    Assertions.assertEquals(12, invoice.getMonthlyTolls().size());
+    Assertions.assertEquals(new MonthlyToll(YearMonth.of(2023, 2), 18.0, 18.0), invoice.getMonthlyTolls().get(1));
+    Assertions.assertEquals(new MonthlyToll(YearMonth.of(2023, 3), 0.0, 0.0), invoice.getMonthlyTolls().get(2));
+    Assertions.assertEquals(36.0, invoice.getTotal(), EPS);
+  }
+
+  @Test
+  void monthlyCapLimitsEveryMonthButNotTheDays() {
+    InvoiceService capped = new InvoiceServiceImpl(ConfigurationManager.getDefault(), TollMetrics.noop(), 100.0);
+    List<LocalDateTime> passes = new ArrayList<>();
+    for (int day = 1; day <= 5; day++) {
+      passes.add(LocalDateTime.of(2023, 5, day, 6, 0));
+      passes.add(LocalDateTime.of(2023, 5, day, 8, 0));
+      passes.add(LocalDateTime.of(2023, 5, day, 16, 0));
+      passes.add(LocalDateTime.of(2023, 5, day, 17, 30));
+    }
+    passes.add(LocalDateTime.of(2023, 6, 1, 7, 0));
+
+    Invoice invoice = capped.createInvoice("ABC123", privateCar, LocalDate.of(2023, 5, 1),
+        LocalDate.of(2023, 6, 30), passes);
+
+    MonthlyToll may = invoice.getMonthlyTolls().get(0);
+    Assertions.assertTrue(may.isCapped());
+    Assertions.assertEquals(100.0, may.getFee(), EPS);
+    Assertions.assertFalse(invoice.getMonthlyTolls().get(1).isCapped());
+    Assertions.assertEquals(may.getUncappedFee(),
+        invoice.getDailyTolls().stream().limit(5).mapToDouble(DailyToll::getFee).sum(), EPS);
+    Assertions.assertEquals(118.0, invoice.getTotal(), EPS);
+    Assertions.assertEquals(11_800L, invoice.getTotalInOre());
+  }
+
+  @Test
+  void passesOutsideOfThePeriodAreRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> invoiceService.createInvoice("ABC123",
+        privateCar, YearMonth.of(2023, 5), List.of(LocalDateTime.of(2023, 6, 1, 7, 0))));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> invoiceService.createInvoice("ABC123",
+        privateCar, LocalDate.of(2023, 5, 2), LocalDate.of(2023, 5, 1), List.of()));
+  }
+
+  private static List<LocalDateTime> randomPasses(final YearMonth month, final int count, final long seed) {
+    Random random = new Random(seed);
+    List<LocalDateTime> passes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDateTime pass = month.atDay(1 + random.nextInt(month.lengthOfMonth()))
+          .atTime(5 + random.nextInt(14), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000_000));
+      passes.add(pass);
+      if (random.nextInt(4) == 0) {
+        // a second pass within a second of the end of the hourly window, which is only billed right with sub-second
+        // precision
+        passes.add(pass.plusMinutes(61).minusNanos(random.nextInt(2_000_000_000)));
+      }
+    }
+    return passes;
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.LiveTollStore;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class OffHeapLiveTollStoreTest {
+  private static final double EPS = 1E-4;
+  private static final LocalDate WEDNESDAY = LocalDate.of(2023, 5, 10);
+  private static final LocalDate THURSDAY = LocalDate.of(2023, 5, 11);
+
+  private final ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+  private final VehicleClassRegistry vehicleClasses = configuration.current().getVehicleClasses();
+  private final int privateCar = vehicleClasses.codeOf("PrivateCar");
+
+  @Test
+  void runningTotalsMatchTheDayKernel() {
+    Random random = new Random(7);
+    int vehicles = 2_000;
+    int[][] passes = new int[vehicles][];
+    for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+      passes[vehicle] = random.ints(1 + random.nextInt(12), 5 * 3600, 19 * 3600).sorted().toArray();
+    }
+    // a store sized too small must grow on the way
+    LiveTollStore store = new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 100);
+    for (int round = 0; round < 12; round++) {
+      for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+        if (round < passes[vehicle].length) {
+          store.recordPass(vehicleId(vehicle), privateCar, WEDNESDAY, passes[vehicle][round]);
+        }
+      }
+    }
+
+    TollServiceImpl kernel = new TollServiceImpl(configuration);
+    Assertions.assertEquals(vehicles, store.size());
+    for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+      Assertions.assertEquals(kernel.calculateTollForPassesOfSameDay(privateCar, WEDNESDAY, passes[vehicle], 0,
+          passes[vehicle].length), store.getDayTotal(vehicleId(vehicle), WEDNESDAY), EPS);
+    }
+  }
+
+  @Test
+  void hourlyWindowAndDailyCapApply() {
+    LiveTollStore store = new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 16);
+    Assertions.assertEquals(8.0, store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(6, 15)), EPS);
+    Assertions.assertEquals(13.0, store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(6, 45)), EPS);
+    Assertions.assertEquals(13.0 + 18.0, store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(7, 50)), EPS);
+    Assertions.assertEquals(13.0 + 18.0 + 18.0, store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(15, 45)),
+        EPS);
+    Assertions.assertEquals(60.0, store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(16, 50)), EPS);
+    Assertions.assertEquals(60.0, store.getDayTotal(1L, WEDNESDAY), EPS);
+    Assertions.assertEquals(0.0, store.getDayTotal(2L, WEDNESDAY), EPS);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> store.recordPass(1L, privateCar, WEDNESDAY, secondOfDay(15, 0)));
+  }
+
+  @Test
+  void tollFreeVehiclesAndDaysKeepNoState() {
+    LiveTollStore store = new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 16);
+    Assertions.assertEquals(0.0, store.recordPass(1L, vehicleClasses.codeOf("Motorbike"), WEDNESDAY, 27000), EPS);
+    Assertions.assertEquals(0.0, store.recordPass(2L, privateCar, LocalDate.of(2023, 5, 13), 27000), EPS);
+    Assertions.assertEquals(0, store.size());
+  }
+
+  @Test
+  void laterDayStartsOverAndRollOverRemovesStaleStates() {
+    OffHeapLiveTollStore store = new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 1_000);
+    for (long vehicle = 0; vehicle < 1_000; vehicle++) {
+      store.recordPass(vehicleId((int) vehicle), privateCar, WEDNESDAY, secondOfDay(7, 15));
+    }
+    for (long vehicle = 0; vehicle < 1_000; vehicle += 3) {
+      Assertions.assertEquals(8.0,
+          store.recordPass(vehicleId((int) vehicle), privateCar, THURSDAY, secondOfDay(6, 15)), EPS);
+    }
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> store.recordPass(vehicleId(0), privateCar, WEDNESDAY, secondOfDay(8, 0)));
+
+    Assertions.assertEquals(666, store.rollOver(THURSDAY));
+    Assertions.assertEquals(334, store.size());
+    for (int vehicle = 0; vehicle < 1_000; vehicle++) {
+      Assertions.assertEquals(vehicle % 3 == 0 ? 8.0 : 0.0, store.getDayTotal(vehicleId(vehicle), THURSDAY), EPS);
+      Assertions.assertEquals(0.0, store.getDayTotal(vehicleId(vehicle), WEDNESDAY), EPS);
+    }
+    Assertions.assertEquals(0, store.rollOver(THURSDAY));
+    Assertions.assertEquals(334, store.rollOver(THURSDAY.plusDays(1)));
+    Assertions.assertEquals(0, store.size());
+  }
+
+  @Test
+  void footprintIsPredictable() {
+    Assertions.assertEquals(64L << 20, OffHeapLiveTollStore.footprintBytes(1_000_000));
+    Assertions.assertEquals(256L << 20, OffHeapLiveTollStore.footprintBytes(5_000_000));
+    Assertions.assertEquals(16L * OffHeapLiveTollStore.SLOT_BYTES, OffHeapLiveTollStore.footprintBytes(0));
+    OffHeapLiveTollStore store = new OffHeapLiveTollStore(configuration, TollMetrics.noop(), 12);
+    Assertions.assertEquals(16, store.getCapacity());
+    for (int vehicle = 0; vehicle < 12; vehicle++) {
+      store.recordPass(vehicle, privateCar, WEDNESDAY, 27000);
+    }
+    Assertions.assertEquals(16, store.getCapacity());
+    store.recordPass(12, privateCar, WEDNESDAY, 27000);
+    Assertions.assertEquals(32, store.getCapacity());
+    Assertions.assertEquals(32L * OffHeapLiveTollStore.SLOT_BYTES, store.getFootprintBytes());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> OffHeapLiveTollStore.footprintBytes(-1));
+  }
+
+  private static long vehicleId(final int vehicle) {
+    // registration numbers packed into longs are clustered, which the hash must spread
+    return 0x4142_4300_0000L + vehicle * 1024L;
+  }
+
+  private static int secondOfDay(final int hour, final int minute) {
+    return hour * 3600 + minute * 60;
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.DailyToll;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehiclePass;
+import com.example.tollcalculator.service.ParallelTollService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ParallelTollServiceImplTest {
+
+  @Test
+  void parallelResultMatchesSequentialBulkResult() {
+    List<VehiclePass> passes = randomPasses(20_000, 42);
+    List<DailyToll> expected = new ArrayList<>();
+    new BulkTollServiceImpl().calculateDailyTolls(passes.iterator(), expected::add);
+
+    try (ParallelTollService parallelTollService = new ParallelTollServiceImpl(4)) {
+      Assertions.assertEquals(expected, parallelTollService.calculateDailyTolls(passes));
+    }
+  }
+
+  @Test
+  void resultOrderDoesNotDependOnInputOrderOrParallelism() {
+    List<VehiclePass> passes = randomPasses(5_000, 7);
+    List<VehiclePass> shuffled = new ArrayList<>(passes);
+    Collections.shuffle(shuffled, new Random(1));
+
+    try (ParallelTollService single = new ParallelTollServiceImpl(1);
+         ParallelTollService many = new ParallelTollServiceImpl(8)) {
+      Assertions.assertEquals(single.calculateDailyTolls(passes), many.calculateDailyTolls(shuffled));
+    }
+  }
+
+  @Test
+  void noPassesGiveNoDailyTolls() {
+    try (ParallelTollService parallelTollService = new ParallelTollServiceImpl(2)) {
+      Assertions.assertTrue(parallelTollService.calculateDailyTolls(List.of()).isEmpty());
+    }
+  }
+
+  private static List<VehiclePass> randomPasses(final int count, final long seed) {
+    Random random = new Random(seed);
+    Vehicle privateCar = new PrivateCar();
+    Vehicle tractor = new Tractor();
+    List<VehiclePass> passes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int vehicle = random.nextInt(500);
+      LocalDateTime timestamp = LocalDateTime.of(2023, 5, 1 + random.nextInt(14),
+          5 + random.nextInt(15), random.nextInt(60), random.nextInt(60));
+      passes.add(new VehiclePass("V" + vehicle, vehicle % 10 == 0 ? tractor : privateCar, timestamp));
+    }
+    return passes;
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.Tractor;
+import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.service.TollService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TollServiceConcurrencyTest {
+  private static final int THREADS = 16;
+  private static final int DAYS = 2_000;
+  private static final int ROUNDS = 20;
+  private static final double EPS = 1E-4;
+
+  @Test
+  void sharedServiceAnswersConcurrentRequestsLikeASingleThread() throws Exception {
+    assertConsistentUnderLoad(TollServiceImpl.getDefault());
+  }
+
+  @Test
+  void sharedCachingServiceAnswersConcurrentRequestsLikeASingleThread() throws Exception {
+    assertConsistentUnderLoad(new CachingTollService(new TollServiceImpl(), ConfigurationManager.getDefault(), 64));
+  }
+
+  @Test
+  void passesOfTheCallerAreNotModified() {
+    List<LocalDateTime> passes = new ArrayList<>(List.of(
+        LocalDateTime.of(2023, 5, 10, 15, 30), LocalDateTime.of(2023, 5, 10, 6, 15)));
+    List<LocalDateTime> copy = new ArrayList<>(passes);
+
+    double fee = TollServiceImpl.getDefault().calculateTollForPassesOfSameDay(new PrivateCar(), passes);
+
+    Assertions.assertEquals(26.0, fee, EPS);
+    Assertions.assertEquals(copy, passes);
+  }
+
+  private static void assertConsistentUnderLoad(final TollService tollService) throws Exception {
+    List<Vehicle> vehicles = new ArrayList<>();
+    List<List<LocalDateTime>> days = randomDays(DAYS, 42, vehicles);
+    double[] expected = new double[DAYS];
+    for (int i = 0; i < DAYS; i++) {
+      expected[i] = new TollServiceImpl().calculateTollForPassesOfSameDay(vehicles.get(i), days.get(i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> workers = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        final int offset = t;
+        workers.add(executor.submit(() -> {
+          start.await();
+          int mismatches = 0;
+          for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < DAYS; i++) {
+              int day = (i + offset * 97) % DAYS;
+              double fee = tollService.calculateTollForPassesOfSameDay(vehicles.get(day), days.get(day));
+              if (Math.abs(fee - expected[day]) > EPS) {
+                mismatches++;
+              }
+            }
+          }
+          return mismatches;
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> worker : workers) {
+        Assertions.assertEquals(0, worker.get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<List<LocalDateTime>> randomDays(final int count, final long seed,
+                                                      final List<Vehicle> vehicles) {
+    Random random = new Random(seed);
+    Vehicle privateCar = new PrivateCar();
+    Vehicle tractor = new Tractor();
+    List<List<LocalDateTime>> days = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int dayOfMonth = 1 + random.nextInt(28);
+      List<LocalDateTime> passes = new ArrayList<>();
+      int passCount = 1 + random.nextInt(12);
+      for (int p = 0; p < passCount; p++) {
+        passes.add(LocalDateTime.of(2023, 5, dayOfMonth, 5 + random.nextInt(15), random.nextInt(60),
+            random.nextInt(60)));
+      }
+      // unsorted and unmodifiable, so a service that sorts in place fails
+      days.add(Collections.unmodifiableList(passes));
+      vehicles.add(i % 10 == 0 ? tractor : privateCar);
+    }
+    return days;
+  }
+}
@@ -1,12 +1,22 @@
 package com.example.tollcalculator.service.impl;
 
+import com.example.tollcalculator.config.ConfigurationManager;
+import com.example.tollcalculator.config.TollConfiguration;
 import com.example.tollcalculator.domain.ForeignServiceVehicle;
 import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.domain.StationRegistry;
+import com.example.tollcalculator.domain.TollRate;
 import com.example.tollcalculator.domain.Vehicle;
+import com.example.tollcalculator.domain.VehicleClassRegistry;
 import com.example.tollcalculator.service.TollService;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -179,5 +189,141 @@ class TollServiceTest {
     Assertions.assertEquals(60.0, fee, EPS);
   }
 
+  @Test
+  void testCalculateTollForSecondsOfDayOnTollableVehicleAndVerifyDailyPriceCap() {
+    Vehicle privateCar = new PrivateCar();
+    int[] passes = {
+        secondOfDay(6, 15, 0), secondOfDay(6, 45, 0), secondOfDay(7, 15, 0), // 18
+        secondOfDay(7, 45, 0), secondOfDay(8, 15, 0), secondOfDay(8, 45, 0), // 18
+        secondOfDay(9, 15, 0), secondOfDay(9, 45, 0), secondOfDay(10, 15, 0), // 8
+        secondOfDay(15, 15, 0), secondOfDay(15, 45, 0), secondOfDay(16, 15, 0) // 18 , maxed out!
+    };
+    final double fee = tollService.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 10), passes);
+    Assertions.assertEquals(60.0, fee, EPS);
+  }
+
+  @Test
+  void testCalculateTollForSecondsOfDayRangeDoesNotModifyInput() {
+    Vehicle privateCar = new PrivateCar();
+    int[] passes = {secondOfDay(3, 0, 0), secondOfDay(6, 15, 0), secondOfDay(6, 45, 0), secondOfDay(8, 0, 0)};
+    int[] copy = passes.clone();
+    // only the passes at 06:15 and 06:45 , max(8,13) = 13
+    final double fee = tollService.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 10), passes, 1, 3);
+    Assertions.assertEquals(13.0, fee, EPS);
+    Assertions.assertArrayEquals(copy, passes);
+  }
+
+  @Test
+  void testCalculateTollForSecondsOfDayOnHoliday() {
+    Vehicle privateCar = new PrivateCar();
+    int[] passes = {secondOfDay(7, 18, 45)};
+    final double fee = tollService.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 1), passes);
+    Assertions.assertEquals(0.0, fee, EPS);
+  }
+
+  @Test
+  void testCalculateTollForVehicleClassCode() {
+    int[] passes = {secondOfDay(6, 15, 0), secondOfDay(7, 45, 0)};
+    LocalDate wednesday = LocalDate.of(2023, 5, 10);
+    int privateCar = VehicleClassRegistry.defaults().codeOf("PrivateCar");
+    int tractor = VehicleClassRegistry.defaults().codeOf("Tractor");
+    Assertions.assertEquals(26.0, tollService.calculateTollForPassesOfSameDay(privateCar, wednesday, passes, 0, 2), EPS);
+    Assertions.assertEquals(0.0, tollService.calculateTollForPassesOfSameDay(tractor, wednesday, passes, 0, 2), EPS);
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> tollService.calculateTollForPassesOfSameDay(99, wednesday, passes, 0, 2));
+  }
+
+  @Test
+  void testCalculateTollForSecondsOfDayRejectsUnsortedPasses() {
+    Vehicle privateCar = new PrivateCar();
+    int[] passes = {secondOfDay(7, 18, 45), secondOfDay(6, 18, 45)};
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> tollService.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 10), passes));
+  }
+
+  @Test
+  void testCalculateTollForSecondsOfDayMatchesListVariant() {
+    Vehicle privateCar = new PrivateCar();
+    Random random = new Random(42);
+    LocalDate date = LocalDate.of(2023, 5, 10);
+    for (int run = 0; run < 1_000; run++) {
+      int[] passes = random.ints(1 + random.nextInt(12), 5 * 3600, 20 * 3600).sorted().toArray();
+      List<LocalDateTime> timestamps = new ArrayList<>();
+      for (int pass : passes) {
+        timestamps.add(date.atStartOfDay().plusSeconds(pass));
+      }
+      Assertions.assertEquals(tollService.calculateTollForPassesOfSameDay(privateCar, timestamps),
+          tollService.calculateTollForPassesOfSameDay(privateCar, date, passes), EPS);
+    }
+  }
+
+  @Test
+  void testCalculateTollForNanosOfDayMatchesListVariant() {
+    Vehicle privateCar = new PrivateCar();
+    Random random = new Random(42);
+    LocalDate date = LocalDate.of(2023, 5, 10);
+    for (int run = 0; run < 1_000; run++) {
+      long[] passes = random.longs(1 + random.nextInt(12), 5 * 3600 * 1_000_000_000L, 20 * 3600 * 1_000_000_000L)
+          .sorted().toArray();
+      List<LocalDateTime> timestamps = new ArrayList<>();
+      for (long pass : passes) {
+        timestamps.add(date.atStartOfDay().plusNanos(pass));
+      }
+      Assertions.assertEquals(Math.round(tollService.calculateTollForPassesOfSameDay(privateCar, timestamps) * 100),
+          tollService.calculateTollInOreForPassesOfSameDay(privateCar, date, passes, null, 0, passes.length));
+    }
+    // 60 minutes and 59.2 seconds apart, so in one hourly window
+    long[] passes = {secondOfDay(6, 0, 0) * 1_000_000_000L + 900_000_000L,
+        secondOfDay(7, 1, 0) * 1_000_000_000L + 100_000_000L};
+    Assertions.assertEquals(1_800L, tollService.calculateTollInOreForPassesOfSameDay(privateCar, date, passes, null,
+        0, passes.length));
+  }
+
+  @Test
+  void testCalculateTollAfterPublishingNewConfiguration() {
+    Vehicle privateCar = new PrivateCar();
+    ConfigurationManager configuration = new ConfigurationManager(TollConfiguration::fromResources);
+    TollService service = new TollServiceImpl(configuration);
+    int[] passes = {secondOfDay(7, 18, 45)};
+    // May Day 2023 is a holiday in the configuration on the classpath
+    Assertions.assertEquals(0.0, service.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 1), passes), EPS);
+    configuration.publish(new TollConfiguration(configuration.current().getRateTable(),
+        Map.of(LocalDate.of(2023, 1, 1), "New Year's Day")));
+    Assertions.assertEquals(18.0, service.calculateTollForPassesOfSameDay(privateCar, LocalDate.of(2023, 5, 1), passes), EPS);
+  }
+
+  @Test
+  void testCalculateTollForPassesAtStations() {
+    StationRegistry stations = StationRegistry.of(List.of("Lilla Essingen", "Skansbron"));
+    TollConfiguration config = new TollConfiguration(List.of(
+        new TollRate(LocalTime.of(7, 0), LocalTime.of(7, 59, 59), 18.0),
+        new TollRate(LocalTime.of(6, 0), LocalTime.of(17, 59, 59), 25.0, null, null, null, null,
+            List.of("Lilla Essingen"))), Map.of(), VehicleClassRegistry.defaults(), stations);
+    TollService service = new TollServiceImpl(new ConfigurationManager(() -> config));
+    Vehicle privateCar = new PrivateCar();
+    LocalDate wednesday = LocalDate.of(2023, 5, 10);
+    int essingen = stations.codeOf("Lilla Essingen");
+    int skansbron = stations.codeOf("Skansbron");
+
+    // one hourly window spans both stations and is charged the highest rate of its passes
+    int[] window = {secondOfDay(7, 0, 0), secondOfDay(7, 30, 0)};
+    Assertions.assertEquals(25.0, service.calculateTollForPassesOfSameDay(privateCar, wednesday, window,
+        new int[] {skansbron, essingen}, 0, 2), EPS);
+    Assertions.assertEquals(18.0, service.calculateTollForPassesOfSameDay(privateCar, wednesday, window,
+        new int[] {skansbron, StationRegistry.NO_STATION}, 0, 2), EPS);
+    Assertions.assertEquals(18.0, service.calculateTollForPassesOfSameDay(privateCar, wednesday, window), EPS);
+
+    // the daily cap applies to the passes of all stations together
+    int[] day = {secondOfDay(6, 0, 0), secondOfDay(7, 30, 0), secondOfDay(9, 0, 0), secondOfDay(11, 0, 0)};
+    int[] dayStations = {essingen, skansbron, essingen, skansbron};
+    Assertions.assertEquals(TollServiceImpl.MAXIMUM_FEE_PER_DAY,
+        service.calculateTollForPassesOfSameDay(privateCar, wednesday, day, dayStations, 0, day.length), EPS);
+    Assertions.assertEquals(18.0 + 25.0, service.calculateTollForPassesOfSameDay(
+        VehicleClassRegistry.defaults().codeOf(privateCar), wednesday, day, dayStations, 1, 3), EPS);
+  }
+
+  private static int secondOfDay(final int hour, final int minute, final int second) {
+    return hour * 3600 + minute * 60 + second;
+  }
 
-}
\ No newline at end of file
+}
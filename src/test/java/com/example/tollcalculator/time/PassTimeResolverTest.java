@@ -0,0 +1,74 @@
+package com.example.tollcalculator.time;
+
+import com.example.tollcalculator.TollCalculator;
+import com.example.tollcalculator.domain.PrivateCar;
+import com.example.tollcalculator.metrics.TollMetrics;
+import com.example.tollcalculator.service.impl.TollServiceImpl;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PassTimeResolverTest {
+  private final PassTimeResolver resolver = new PassTimeResolver(PassTimeResolver.STOCKHOLM);
+
+  @Test
+  void resolvesLikeZonedDateTimeAcrossManyTransitions() {
+    Random random = new Random(42);
+    long first = LocalDate.of(2000, 1, 1).atStartOfDay(ZoneId.of("UTC")).toInstant().toEpochMilli();
+    long last = LocalDate.of(2040, 1, 1).atStartOfDay(ZoneId.of("UTC")).toInstant().toEpochMilli();
+    for (int i = 0; i < 100_000; i++) {
+      long epochMilli = first + (long) (random.nextDouble() * (last - first));
+      LocalDateTime expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), PassTimeResolver.STOCKHOLM);
+      Assertions.assertEquals(expected.toLocalDate().toEpochDay(), resolver.epochDayOf(epochMilli));
+      Assertions.assertEquals(expected.toLocalTime().toSecondOfDay(), resolver.secondOfDayOf(epochMilli));
+    }
+  }
+
+  @Test
+  void daylightSavingDaysResolveToLocalWallClock() {
+    Instant beforeSpringForward = ZonedDateTime.of(2023, 3, 26, 1, 59, 0, 0, PassTimeResolver.STOCKHOLM)
+        .toInstant();
+    Instant afterFallBack = ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, PassTimeResolver.STOCKHOLM)
+        .withLaterOffsetAtOverlap().toInstant();
+    int[] secondsOfDay = new int[2];
+
+    LocalDate springDay = resolver.resolveSameDay(new Instant[] {beforeSpringForward,
+        beforeSpringForward.plusSeconds(120)}, 0, 2, secondsOfDay);
+    Assertions.assertEquals(LocalDate.of(2023, 3, 26), springDay);
+    Assertions.assertArrayEquals(new int[] {7140, 3 * 3600 + 60}, secondsOfDay);
+
+    LocalDate fallDay = resolver.resolveSameDay(new long[] {afterFallBack.minusSeconds(3600).toEpochMilli(),
+        afterFallBack.toEpochMilli()}, 0, 2, secondsOfDay);
+    Assertions.assertEquals(LocalDate.of(2023, 10, 29), fallDay);
+    Assertions.assertArrayEquals(new int[] {9000, 9000}, secondsOfDay);
+  }
+
+  @Test
+  void passesOfDifferentDaysAreRejected() {
+    long evening = ZonedDateTime.of(2023, 5, 10, 23, 59, 0, 0, PassTimeResolver.STOCKHOLM)
+        .toInstant().toEpochMilli();
+    long[] passes = {evening, evening + 120_000};
+
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> resolver.resolveSameDay(passes, 0, 2, new int[2]));
+    Assertions.assertNull(resolver.resolveSameDay(passes, 1, 1, new int[0]));
+    Assertions.assertNotNull(new PassTimeResolver(ZoneId.of("UTC")).resolveSameDay(passes, 0, 2, new int[2]));
+  }
+
+  @Test
+  void calculatorBillsInItsOwnZoneIndependentOfTheHost() {
+    TollCalculator stockholm = new TollCalculator(TollServiceImpl.getDefault(), TollMetrics.noop(),
+        PassTimeResolver.STOCKHOLM);
+    long morning = ZonedDateTime.of(2023, 5, 10, 7, 0, 0, 0, PassTimeResolver.STOCKHOLM)
+        .toInstant().toEpochMilli();
+    long afternoon = ZonedDateTime.of(2023, 5, 10, 15, 30, 0, 0, PassTimeResolver.STOCKHOLM)
+        .toInstant().toEpochMilli();
+
+    Assertions.assertEquals(36, stockholm.getTollFee(new PrivateCar(), new long[] {afternoon, morning}));
+  }
+}
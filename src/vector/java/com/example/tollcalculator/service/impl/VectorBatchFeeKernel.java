@@ -0,0 +1,120 @@
+package com.example.tollcalculator.service.impl;
+
+import com.example.tollcalculator.domain.RateTable;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link BatchFeeKernel} that bills one vehicle-day per lane of a SIMD register with the Vector API, e.g.
+ * eight vehicle-days at once with AVX2. The lanes step through the passes of their days together: pass
+ * {@code j} of every day is gathered into one vector, its rate is found by comparing it against every segment
+ * start of the rate table instead of a binary search, and the hourly windows are tracked with masked blends, so
+ * no lane branches. Lanes whose day has fewer passes are masked off; the loop runs as long as the longest day
+ * of the group. Rates and totals fit in int lanes because every rate above the daily cap is clamped to the cap,
+ * which does not change any capped total.
+ * <p>
+ * This class is only loaded reflectively by {@link BatchFeeKernel#vectorized()}, so the rest of the service
+ * runs without the {@code jdk.incubator.vector} module.
+ */
+final class VectorBatchFeeKernel implements BatchFeeKernel {
+  /**
+   * The fewest lanes worth vectorizing for; narrower hardware uses the scalar kernel.
+   */
+  private static final int MINIMUM_LANES = 4;
+  /**
+   * The widest integer vector the hardware supports.
+   */
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+  /**
+   * The daily cap in öre as an int lane value.
+   */
+  private static final int CAP = (int) TollServiceImpl.MAXIMUM_FEE_PER_DAY_IN_ORE;
+
+  /**
+   * Creates the kernel.
+   *
+   * @throws UnsupportedOperationException if the hardware has fewer than {@value #MINIMUM_LANES} int lanes
+   */
+  VectorBatchFeeKernel() {
+    if (SPECIES.length() < MINIMUM_LANES) {
+      throw new UnsupportedOperationException("Only " + SPECIES.length() + " int lanes available");
+    }
+  }
+
+  @Override
+  public void calculateTollsInOre(final RateTable rateTable, final int[] secondsOfDay, final int[] dayStarts,
+                                  final int dayCount, final long[] feesInOre) {
+    final int[] segmentStarts = rateTable.getSegmentStartSeconds();
+    final long[] segmentRates = rateTable.getSegmentRatesInOre();
+    final int[] rates = new int[segmentRates.length];
+    for (int i = 0; i < rates.length; i++) {
+      rates[i] = (int) Math.min(segmentRates[i], CAP);
+    }
+    final int[] fees = new int[SPECIES.length()];
+    final int[] passIndices = new int[SPECIES.length()];
+    for (int first = 0; first < dayCount; first += SPECIES.length()) {
+      final VectorMask<Integer> days = SPECIES.indexInRange(first, dayCount);
+      calculateLanes(segmentStarts, rates, secondsOfDay, dayStarts, first, days, passIndices).intoArray(fees, 0);
+      for (int lane = 0; lane < days.trueCount(); lane++) {
+        feesInOre[first + lane] = fees[lane];
+      }
+    }
+  }
+
+  /**
+   * Bills one group of vehicle-days, one per lane.
+   *
+   * @param segmentStarts the first second of every segment of the rate table
+   * @param rates         the rate of every segment in öre, clamped to the daily cap
+   * @param secondsOfDay  the passes of all vehicle-days
+   * @param dayStarts     the index of the first pass of every vehicle-day, followed by the end of the last day
+   * @param first         the index of the vehicle-day of the first lane
+   * @param days          the lanes holding a vehicle-day
+   * @param passIndices   scratch space for the index of the current pass of every lane
+   * @return the fee of every lane in öre
+   * @throws IllegalArgumentException if the passes of a day are not sorted or a second of day is out of range
+   */
+  private static IntVector calculateLanes(final int[] segmentStarts, final int[] rates, final int[] secondsOfDay,
+                                          final int[] dayStarts, final int first,
+                                          final VectorMask<Integer> days, final int[] passIndices) {
+    final IntVector starts = IntVector.fromArray(SPECIES, dayStarts, first, days);
+    final IntVector counts = IntVector.fromArray(SPECIES, dayStarts, first + 1, days).sub(starts);
+    final IntVector lastPasses = counts.sub(1).max(0);
+    final int longestDay = counts.reduceLanes(VectorOperators.MAX, days);
+    final int lastPass = secondsOfDay.length - 1;
+    IntVector total = IntVector.zero(SPECIES);
+    IntVector windowMaximum = IntVector.zero(SPECIES);
+    IntVector windowStart = IntVector.broadcast(SPECIES, -TollServiceImpl.HOURLY_WINDOW_SECONDS);
+    IntVector previousPass = IntVector.zero(SPECIES);
+    for (int j = 0; j < longestDay; j++) {
+      final VectorMask<Integer> active = counts.compare(VectorOperators.GT, j).and(days);
+      // an unmasked gather is an intrinsic; finished and empty lanes read a valid pass and ignore it. An empty
+      // day at the end starts at the length of the passes, so the index is clamped to the last pass.
+      starts.add(lastPasses.min(j)).min(lastPass).intoArray(passIndices, 0);
+      final IntVector pass = IntVector.fromArray(SPECIES, secondsOfDay, 0, passIndices, 0);
+      if (pass.compare(VectorOperators.LT, 0).or(pass.compare(VectorOperators.GE, RateTable.SECONDS_PER_DAY))
+          .and(active).anyTrue()) {
+        throw new IllegalArgumentException("Second of day out of range");
+      }
+      if (previousPass.compare(VectorOperators.GT, pass).and(active).anyTrue()) {
+        throw new IllegalArgumentException("Passes must be sorted in ascending order");
+      }
+      previousPass = pass;
+
+      IntVector rate = IntVector.broadcast(SPECIES, rates[0]);
+      for (int segment = 1; segment < segmentStarts.length; segment++) {
+        rate = rate.blend(rates[segment], pass.compare(VectorOperators.GE, segmentStarts[segment]));
+      }
+
+      final VectorMask<Integer> opensWindow = pass.sub(windowStart)
+          .compare(VectorOperators.GE, TollServiceImpl.HOURLY_WINDOW_SECONDS)
+          .and(active);
+      total = total.add(windowMaximum, opensWindow).min(CAP);
+      windowStart = windowStart.blend(pass, opensWindow);
+      windowMaximum = windowMaximum.blend(0, opensWindow).lanewise(VectorOperators.MAX, rate, active);
+    }
+    return total.add(windowMaximum).min(CAP);
+  }
+}